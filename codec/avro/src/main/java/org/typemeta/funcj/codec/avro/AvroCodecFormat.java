@@ -2,12 +2,15 @@
 
 import org.apache.avro.Schema;
 import org.apache.avro.generic.GenericData;
+import org.typemeta.funcj.codec.*;
 import org.typemeta.funcj.codec.avro.AvroTypes.*;
 import org.typemeta.funcj.codec.impl.CollectionCodec;
 import org.typemeta.funcj.codec.utils.CodecException;
 import org.typemeta.funcj.functions.Functions;
 
+import java.lang.reflect.*;
 import java.nio.ByteBuffer;
+import java.util.*;
 
 import static org.typemeta.funcj.codec.utils.StreamUtils.toLinkedHashMap;
 
@@ -781,7 +784,7 @@ public T decode(CodecCoreEx<WithSchema, Object, Config> core, WithSchema in) {
 
             final Set<String> expNames = fields.keySet();
             final Set<String> actNames = new HashSet<>();
-            final RA ra = objMeta.startDecode();
+            final RA ra = objMeta.createBuilder();
 
             schema.getFields().forEach(field -> {
                 final String name = field.name();
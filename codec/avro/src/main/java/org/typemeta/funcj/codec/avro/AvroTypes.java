@@ -25,6 +25,7 @@ public WithSchema(Object value, Schema schema) {
             this.schema = schema;
         }
 
+        @SuppressWarnings("unchecked")
         public <T> T value() {
             return (T)value;
         }
@@ -1,6 +1,7 @@
 package org.typemeta.funcj.codec.avro;
 
 import org.typemeta.funcj.codec.CodecConfig;
+import org.typemeta.funcj.codec.avro.binary.AvroBinaryCodec;
 import org.typemeta.funcj.codec.avro.schema.*;
 
 /**
@@ -27,4 +28,17 @@ public static AvroCodecCore avroCodec() {
     public static AvroCodecCore avroCodec(CodecConfig.Builder<?, AvroTypes.Config> cfgBldr) {
         return registerAll(cfgBldr, AvroCodecCore::new);
     }
+
+    /**
+     * Construct and return a new instance of a {@link AvroBinaryCodec},
+     * which encodes directly to and from the Avro binary encoding.
+     * @return      the Avro binary codec
+     */
+    public static AvroBinaryCodec avroBinaryCodec() {
+        return new AvroBinaryCodec();
+    }
+
+    public static AvroBinaryCodec avroBinaryCodec(CodecConfig.Builder<?, AvroTypes.Config> cfgBldr) {
+        return new AvroBinaryCodec(cfgBldr.build());
+    }
 }
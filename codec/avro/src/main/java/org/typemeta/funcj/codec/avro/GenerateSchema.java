@@ -1,9 +1,12 @@
 package org.typemeta.funcj.codec.avro;
 
 import org.apache.avro.Schema;
+import org.typemeta.funcj.codec.algebra.*;
 import org.typemeta.funcj.codec.utils.CodecException;
 import org.typemeta.funcj.data.IList;
 
+import java.util.*;
+
 import static java.util.stream.Collectors.toList;
 
 public abstract class GenerateSchema {
@@ -84,7 +87,7 @@ public Schema charP(IList<String> path, String name) {
         @Override
         public Schema charArr(IList<String> path, String name) {
             return Schema.createUnion(
-                    Schema.createArray(Schema.create(Schema.Type.BOOLEAN)),
+                    Schema.create(Schema.Type.STRING),
                     Schema.create(Schema.Type.NULL)
             );
         }
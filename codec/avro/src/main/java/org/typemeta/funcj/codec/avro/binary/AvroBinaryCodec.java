@@ -0,0 +1,194 @@
+package org.typemeta.funcj.codec.avro.binary;
+
+import org.apache.avro.Schema;
+import org.typemeta.funcj.codec.avro.*;
+import org.typemeta.funcj.codec.avro.AvroTypes.Config;
+import org.typemeta.funcj.codec.avro.binary.AvroBinaryTypes.*;
+
+import java.io.*;
+import java.nio.ByteBuffer;
+import java.util.concurrent.*;
+
+/**
+ * Encodes Java values directly into the Avro binary encoding, and decodes them back,
+ * without constructing intermediate {@code GenericData} records.
+ * <p>
+ * The schema for a class defaults to the one produced by {@link GenerateSchema}.
+ * Encoding plans are compiled once per (schema, class) pair,
+ * and decoding plans once per (writer schema, reader schema, class) triple,
+ * and are cached for the lifetime of the codec.
+ * Compiled plans are immutable and may be used concurrently.
+ * <p>
+ * The encoded data is a single Avro datum, without the Avro object container file header.
+ */
+public class AvroBinaryCodec {
+
+    protected final Config config;
+
+    private final ConcurrentMap<Class<?>, Schema> schemas = new ConcurrentHashMap<>();
+
+    private final ConcurrentMap<Class<?>, ConcurrentMap<Schema, Encoder>> encoders =
+            new ConcurrentHashMap<>();
+
+    private final ConcurrentMap<Class<?>, ConcurrentMap<Schema, ConcurrentMap<Schema, Decoder>>> decoders =
+            new ConcurrentHashMap<>();
+
+    public AvroBinaryCodec(Config config) {
+        this.config = config;
+    }
+
+    public AvroBinaryCodec() {
+        this(new AvroConfig());
+    }
+
+    public Config config() {
+        return config;
+    }
+
+    /**
+     * Return the schema for a class, as generated by {@link GenerateSchema}.
+     * @param clazz     the class
+     * @return          the schema
+     */
+    public Schema schemaOf(Class<?> clazz) {
+        final Schema schema = schemas.get(clazz);
+        if (schema != null) {
+            return schema;
+        } else {
+            final Schema newSchema = GenerateSchema.apply(clazz);
+            final Schema prev = schemas.putIfAbsent(clazz, newSchema);
+            return prev != null ? prev : newSchema;
+        }
+    }
+
+    /**
+     * Return the encoding plan for values of the class written with the schema,
+     * compiling it if necessary.
+     * @param clazz     the class
+     * @param schema    the schema
+     * @return          the encoding plan
+     */
+    public Encoder encoder(Class<?> clazz, Schema schema) {
+        final ConcurrentMap<Schema, Encoder> bySchema =
+                encoders.computeIfAbsent(clazz, c -> new ConcurrentHashMap<>());
+        final Encoder enc = bySchema.get(schema);
+        if (enc != null) {
+            return enc;
+        } else {
+            final Encoder newEnc = new EncodePlanCompiler(config).compile(schema, clazz, null);
+            final Encoder prev = bySchema.putIfAbsent(schema, newEnc);
+            return prev != null ? prev : newEnc;
+        }
+    }
+
+    /**
+     * Return the decoding plan for data written with the writer schema,
+     * resolved against the reader schema, into values of the class,
+     * compiling it if necessary.
+     * @param clazz     the class
+     * @param writer    the schema the data was written with
+     * @param reader    the schema the data is to be read as
+     * @return          the decoding plan
+     */
+    public Decoder decoder(Class<?> clazz, Schema writer, Schema reader) {
+        final ConcurrentMap<Schema, Decoder> byReader =
+                decoders.computeIfAbsent(clazz, c -> new ConcurrentHashMap<>())
+                        .computeIfAbsent(writer, s -> new ConcurrentHashMap<>());
+        final Decoder dec = byReader.get(reader);
+        if (dec != null) {
+            return dec;
+        } else {
+            final Decoder newDec = new DecodePlanCompiler(config).compile(writer, reader, clazz, null);
+            final Decoder prev = byReader.putIfAbsent(reader, newDec);
+            return prev != null ? prev : newDec;
+        }
+    }
+
+    public <T> AvroBinaryOutput encode(Class<? super T> clazz, Schema schema, T value, AvroBinaryOutput out) {
+        encoder(clazz, schema).encode(value, out);
+        return out;
+    }
+
+    public <T> OutputStream encode(Class<? super T> clazz, Schema schema, T value, OutputStream os) {
+        final AvroBinaryOutput out = new AvroBinaryOutput(os);
+        encode(clazz, schema, value, out);
+        out.flush();
+        return os;
+    }
+
+    public <T> OutputStream encode(Class<? super T> clazz, T value, OutputStream os) {
+        return encode(clazz, schemaOf(clazz), value, os);
+    }
+
+    /**
+     * Encode a value into a {@code ByteBuffer}, starting at its current position.
+     * A {@link java.nio.BufferOverflowException} is thrown if the buffer has insufficient space.
+     * @param clazz     the static type of the value
+     * @param value     the value
+     * @param bb        the buffer
+     * @param <T>       the static type of the value
+     * @return          the buffer, positioned just after the encoded value
+     */
+    public <T> ByteBuffer encode(Class<? super T> clazz, T value, ByteBuffer bb) {
+        final AvroBinaryOutput out = new AvroBinaryOutput(bb);
+        encode(clazz, schemaOf(clazz), value, out);
+        out.flush();
+        return bb;
+    }
+
+    public <T> byte[] encodeToBytes(Class<? super T> clazz, Schema schema, T value) {
+        return encode(clazz, schema, value, new AvroBinaryOutput()).toByteArray();
+    }
+
+    public <T> byte[] encodeToBytes(Class<? super T> clazz, T value) {
+        return encodeToBytes(clazz, schemaOf(clazz), value);
+    }
+
+    @SuppressWarnings("unchecked")
+    public <T> T decode(Class<? super T> clazz, Schema writer, Schema reader, AvroBinaryInput in) {
+        return (T)decoder(clazz, writer, reader).decode(in);
+    }
+
+    /**
+     * Decode a value from an {@code InputStream}.
+     * As the stream is read in blocks, bytes beyond the end of the encoded value may be consumed.
+     * @param clazz     the static type of the value
+     * @param writer    the schema the data was written with
+     * @param is        the input stream
+     * @param <T>       the static type of the value
+     * @return          the decoded value
+     */
+    public <T> T decode(Class<? super T> clazz, Schema writer, InputStream is) {
+        return decode(clazz, writer, schemaOf(clazz), new AvroBinaryInput(is));
+    }
+
+    public <T> T decode(Class<? super T> clazz, InputStream is) {
+        return decode(clazz, schemaOf(clazz), is);
+    }
+
+    /**
+     * Decode a value from a {@code ByteBuffer}, starting at its current position.
+     * @param clazz     the static type of the value
+     * @param writer    the schema the data was written with
+     * @param bb        the buffer
+     * @param <T>       the static type of the value
+     * @return          the decoded value
+     */
+    public <T> T decode(Class<? super T> clazz, Schema writer, ByteBuffer bb) {
+        try (AvroBinaryInput in = AvroBinaryInput.of(bb)) {
+            return decode(clazz, writer, schemaOf(clazz), in);
+        }
+    }
+
+    public <T> T decode(Class<? super T> clazz, ByteBuffer bb) {
+        return decode(clazz, schemaOf(clazz), bb);
+    }
+
+    public <T> T decode(Class<? super T> clazz, Schema writer, byte[] bytes) {
+        return decode(clazz, writer, schemaOf(clazz), new AvroBinaryInput(bytes));
+    }
+
+    public <T> T decode(Class<? super T> clazz, byte[] bytes) {
+        return decode(clazz, schemaOf(clazz), bytes);
+    }
+}
@@ -0,0 +1,347 @@
+package org.typemeta.funcj.codec.avro.binary;
+
+import org.typemeta.funcj.codec.utils.CodecException;
+
+import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Reads values in the Avro binary encoding from a {@code byte} array,
+ * a {@link ByteBuffer} or an {@link InputStream}.
+ * <p>
+ * Heap buffers and byte arrays are read in place.
+ * Direct buffers and streams are read via an internal window which is refilled as required.
+ * Once decoding is complete, {@link #close()} leaves the position of a source {@code ByteBuffer}
+ * just after the last byte consumed.
+ */
+public final class AvroBinaryInput implements AutoCloseable {
+
+    private static final int DEFAULT_BUFFER_SIZE = 8192;
+
+    private final InputStream is;
+    private final ByteBuffer source;
+    private final int arrayOffset;
+    private byte[] buf;
+    private int pos;
+    private int end;
+
+    private AvroBinaryInput(InputStream is, ByteBuffer source, byte[] buf, int pos, int end) {
+        this.is = is;
+        this.source = source;
+        this.arrayOffset = source != null && source.hasArray() ? source.arrayOffset() : 0;
+        this.buf = buf;
+        this.pos = pos;
+        this.end = end;
+    }
+
+    public AvroBinaryInput(byte[] bytes, int off, int len) {
+        this(null, null, bytes, off, off + len);
+    }
+
+    public AvroBinaryInput(byte[] bytes) {
+        this(bytes, 0, bytes.length);
+    }
+
+    public AvroBinaryInput(InputStream is, int bufferSize) {
+        this(is, null, new byte[bufferSize], 0, 0);
+    }
+
+    public AvroBinaryInput(InputStream is) {
+        this(is, DEFAULT_BUFFER_SIZE);
+    }
+
+    /**
+     * Construct an {@code AvroBinaryInput} which reads the remaining bytes of the given buffer.
+     * @param source    the buffer to read from
+     */
+    public static AvroBinaryInput of(ByteBuffer source) {
+        if (source.hasArray()) {
+            final int off = source.arrayOffset();
+            return new AvroBinaryInput(
+                    null,
+                    source,
+                    source.array(),
+                    off + source.position(),
+                    off + source.limit()
+            );
+        } else {
+            return new AvroBinaryInput(
+                    null,
+                    source,
+                    new byte[Math.min(DEFAULT_BUFFER_SIZE, Math.max(16, source.remaining()))],
+                    0,
+                    0
+            );
+        }
+    }
+
+    private boolean refillable() {
+        return is != null || (source != null && !source.hasArray());
+    }
+
+    /**
+     * Ensure at least {@code required} bytes are available in the window,
+     * where {@code required} is no larger than the window size.
+     */
+    private void require(int required) {
+        if (end - pos >= required) {
+            return;
+        }
+
+        if (refillable()) {
+            final int rem = end - pos;
+            if (buf.length < required) {
+                final byte[] newBuf = new byte[Math.max(buf.length * 2, required)];
+                System.arraycopy(buf, pos, newBuf, 0, rem);
+                buf = newBuf;
+            } else {
+                System.arraycopy(buf, pos, buf, 0, rem);
+            }
+            pos = 0;
+            end = rem;
+
+            while (end < required) {
+                final int n = fill(end, buf.length - end);
+                if (n < 0) {
+                    break;
+                }
+                end += n;
+            }
+        }
+
+        if (end - pos < required) {
+            throw new CodecException("Unexpected end of input");
+        }
+    }
+
+    private int fill(int off, int len) {
+        if (is != null) {
+            try {
+                return is.read(buf, off, len);
+            } catch (IOException ex) {
+                throw new CodecException(ex);
+            }
+        } else {
+            final int n = Math.min(len, source.remaining());
+            if (n == 0) {
+                return -1;
+            }
+            source.get(buf, off, n);
+            return n;
+        }
+    }
+
+    public boolean readBoolean() {
+        require(1);
+        return buf[pos++] != 0;
+    }
+
+    public int readInt() {
+        int n;
+        if (end - pos >= 5) {
+            // Fast path - the whole varint is in the window.
+            int b = buf[pos++];
+            n = b & 0x7F;
+            if (b < 0) {
+                b = buf[pos++];
+                n |= (b & 0x7F) << 7;
+                if (b < 0) {
+                    b = buf[pos++];
+                    n |= (b & 0x7F) << 14;
+                    if (b < 0) {
+                        b = buf[pos++];
+                        n |= (b & 0x7F) << 21;
+                        if (b < 0) {
+                            b = buf[pos++];
+                            n |= (b & 0x7F) << 28;
+                            if (b < 0) {
+                                throw new CodecException("Malformed variable-length int");
+                            }
+                        }
+                    }
+                }
+            }
+        } else {
+            n = 0;
+            for (int shift = 0; ; shift += 7) {
+                if (shift >= 35) {
+                    throw new CodecException("Malformed variable-length int");
+                }
+                require(1);
+                final byte b = buf[pos++];
+                n |= (b & 0x7F) << shift;
+                if (b >= 0) {
+                    break;
+                }
+            }
+        }
+        return (n >>> 1) ^ -(n & 1);
+    }
+
+    public long readLong() {
+        long n = 0;
+        for (int shift = 0; ; shift += 7) {
+            if (shift >= 70) {
+                throw new CodecException("Malformed variable-length long");
+            }
+            if (pos == end) {
+                require(1);
+            }
+            final byte b = buf[pos++];
+            n |= (long)(b & 0x7F) << shift;
+            if (b >= 0) {
+                break;
+            }
+        }
+        return (n >>> 1) ^ -(n & 1);
+    }
+
+    public float readFloat() {
+        require(Float.BYTES);
+        final int bits = (buf[pos] & 0xFF) |
+                (buf[pos + 1] & 0xFF) << 8 |
+                (buf[pos + 2] & 0xFF) << 16 |
+                (buf[pos + 3] & 0xFF) << 24;
+        pos += Float.BYTES;
+        return Float.intBitsToFloat(bits);
+    }
+
+    public double readDouble() {
+        require(Double.BYTES);
+        final long bits = (buf[pos] & 0xFFL) |
+                (buf[pos + 1] & 0xFFL) << 8 |
+                (buf[pos + 2] & 0xFFL) << 16 |
+                (buf[pos + 3] & 0xFFL) << 24 |
+                (buf[pos + 4] & 0xFFL) << 32 |
+                (buf[pos + 5] & 0xFFL) << 40 |
+                (buf[pos + 6] & 0xFFL) << 48 |
+                (buf[pos + 7] & 0xFFL) << 56;
+        pos += Double.BYTES;
+        return Double.longBitsToDouble(bits);
+    }
+
+    /**
+     * Read a union branch index or an enum symbol index.
+     * @return          the index
+     */
+    public int readIndex() {
+        return readInt();
+    }
+
+    /**
+     * Read the item count which starts a block of array items or map entries.
+     * A count of zero indicates the end of the array or map.
+     * The byte size which accompanies a negative count is discarded.
+     * @return          the number of items in the block
+     */
+    public int readBlockCount() {
+        long count = readLong();
+        if (count < 0) {
+            readLong();
+            count = -count;
+        }
+        if (count > Integer.MAX_VALUE) {
+            throw new CodecException("Invalid block count " + count);
+        }
+        return (int)count;
+    }
+
+    private int readLength() {
+        final long len = readLong();
+        if (len < 0 || len > Integer.MAX_VALUE) {
+            throw new CodecException("Invalid length " + len);
+        }
+        return (int)len;
+    }
+
+    public byte readFixed() {
+        require(1);
+        return buf[pos++];
+    }
+
+    public byte[] readFixed(int size) {
+        final byte[] bytes = new byte[size];
+        readRaw(bytes, size);
+        return bytes;
+    }
+
+    public byte[] readBytes() {
+        return readFixed(readLength());
+    }
+
+    public String readString() {
+        final int len = readLength();
+        if (len <= buf.length || !refillable()) {
+            require(len);
+            final String s = new String(buf, pos, len, StandardCharsets.UTF_8);
+            pos += len;
+            return s;
+        } else {
+            final byte[] bytes = new byte[len];
+            readRaw(bytes, len);
+            return new String(bytes, StandardCharsets.UTF_8);
+        }
+    }
+
+    private void readRaw(byte[] dst, int len) {
+        int off = 0;
+        while (off < len) {
+            if (pos == end) {
+                require(1);
+            }
+            final int n = Math.min(len - off, end - pos);
+            System.arraycopy(buf, pos, dst, off, n);
+            pos += n;
+            off += n;
+        }
+    }
+
+    /**
+     * Skip over {@code len} bytes.
+     * @param len       the number of bytes to skip
+     */
+    public void skip(long len) {
+        while (len > 0) {
+            if (pos == end) {
+                require(1);
+            }
+            final int n = (int)Math.min(len, end - pos);
+            pos += n;
+            len -= n;
+        }
+    }
+
+    public void skipBytes() {
+        skip(readLength());
+    }
+
+    /**
+     * Read the item count for a block of array items or map entries which is to be skipped.
+     * A negative result indicates that the block has already been skipped, using its byte size.
+     * @return          the number of items in the block, or -1
+     */
+    public long skipBlock() {
+        final long count = readLong();
+        if (count < 0) {
+            skip(readLong());
+            return -1;
+        } else {
+            return count;
+        }
+    }
+
+    /**
+     * Leave the position of a source {@code ByteBuffer} just after the last byte consumed.
+     */
+    @Override
+    public void close() {
+        if (source != null) {
+            if (source.hasArray()) {
+                source.position(pos - arrayOffset);
+            } else {
+                source.position(source.position() - (end - pos));
+            }
+        }
+    }
+}
@@ -0,0 +1,294 @@
+package org.typemeta.funcj.codec.avro.binary;
+
+import org.typemeta.funcj.codec.utils.CodecException;
+
+import java.io.*;
+import java.nio.*;
+import java.util.Arrays;
+
+/**
+ * Writes values in the Avro binary encoding into an internal {@code byte} array.
+ * The bytes are either retained, and retrieved via {@link #toByteArray()},
+ * or are flushed to an {@link OutputStream} or a heap or direct {@link ByteBuffer}.
+ * <p>
+ * {@code int} and {@code long} values are written as zig-zag variable-length integers,
+ * {@code float} and {@code double} values as little-endian IEEE 754,
+ * and strings and bytes as a length followed by the (UTF-8) bytes,
+ * as per the Avro specification.
+ * Strings are encoded directly into the buffer, without an intermediate {@code byte} array.
+ */
+public final class AvroBinaryOutput {
+
+    private static final int DEFAULT_BUFFER_SIZE = 8192;
+
+    // The maximum number of bytes in a variable-length long.
+    private static final int MAX_VARLONG_SIZE = 10;
+
+    private final OutputStream os;
+    private final ByteBuffer target;
+    private byte[] buf;
+    private int pos = 0;
+
+    private AvroBinaryOutput(OutputStream os, ByteBuffer target, int bufferSize) {
+        this.os = os;
+        this.target = target;
+        this.buf = new byte[bufferSize];
+    }
+
+    /**
+     * Construct an {@code AvroBinaryOutput} which retains the encoded bytes,
+     * growing its buffer as required.
+     */
+    public AvroBinaryOutput() {
+        this(null, null, DEFAULT_BUFFER_SIZE);
+    }
+
+    public AvroBinaryOutput(OutputStream os, int bufferSize) {
+        this(os, null, bufferSize);
+    }
+
+    public AvroBinaryOutput(OutputStream os) {
+        this(os, DEFAULT_BUFFER_SIZE);
+    }
+
+    /**
+     * Construct an {@code AvroBinaryOutput} which writes to the given {@code ByteBuffer},
+     * advancing its position.
+     * A {@link BufferOverflowException} is thrown if the buffer has insufficient space.
+     * @param target    the buffer to write to
+     */
+    public AvroBinaryOutput(ByteBuffer target) {
+        this(null, target, DEFAULT_BUFFER_SIZE);
+    }
+
+    /**
+     * Return a copy of the encoded bytes.
+     * Only applicable to an {@code AvroBinaryOutput} which retains its bytes.
+     * @return          a copy of the encoded bytes
+     */
+    public byte[] toByteArray() {
+        return Arrays.copyOf(buf, pos);
+    }
+
+    private void drain() {
+        if (os != null) {
+            try {
+                os.write(buf, 0, pos);
+            } catch (IOException ex) {
+                throw new CodecException(ex);
+            }
+            pos = 0;
+        } else if (target != null) {
+            target.put(buf, 0, pos);
+            pos = 0;
+        }
+    }
+
+    /**
+     * Ensure there is room in the buffer for at least {@code required} bytes,
+     * either by draining the buffer or, if there is no sink, by growing it.
+     */
+    private void ensureSpace(int required) {
+        if (buf.length - pos < required) {
+            drain();
+            if (buf.length - pos < required) {
+                buf = Arrays.copyOf(buf, Math.max(buf.length * 2, pos + required));
+            }
+        }
+    }
+
+    public void writeBoolean(boolean v) {
+        ensureSpace(1);
+        buf[pos++] = v ? (byte)1 : (byte)0;
+    }
+
+    public void writeInt(int v) {
+        ensureSpace(MAX_VARLONG_SIZE);
+        int n = (v << 1) ^ (v >> 31);
+        while ((n & ~0x7F) != 0) {
+            buf[pos++] = (byte)((n & 0x7F) | 0x80);
+            n >>>= 7;
+        }
+        buf[pos++] = (byte)n;
+    }
+
+    public void writeLong(long v) {
+        ensureSpace(MAX_VARLONG_SIZE);
+        long n = (v << 1) ^ (v >> 63);
+        while ((n & ~0x7FL) != 0) {
+            buf[pos++] = (byte)((n & 0x7F) | 0x80);
+            n >>>= 7;
+        }
+        buf[pos++] = (byte)n;
+    }
+
+    public void writeFloat(float v) {
+        ensureSpace(Float.BYTES);
+        final int bits = Float.floatToRawIntBits(v);
+        buf[pos++] = (byte)bits;
+        buf[pos++] = (byte)(bits >>> 8);
+        buf[pos++] = (byte)(bits >>> 16);
+        buf[pos++] = (byte)(bits >>> 24);
+    }
+
+    public void writeDouble(double v) {
+        ensureSpace(Double.BYTES);
+        final long bits = Double.doubleToRawLongBits(v);
+        buf[pos++] = (byte)bits;
+        buf[pos++] = (byte)(bits >>> 8);
+        buf[pos++] = (byte)(bits >>> 16);
+        buf[pos++] = (byte)(bits >>> 24);
+        buf[pos++] = (byte)(bits >>> 32);
+        buf[pos++] = (byte)(bits >>> 40);
+        buf[pos++] = (byte)(bits >>> 48);
+        buf[pos++] = (byte)(bits >>> 56);
+    }
+
+    /**
+     * Write a union branch index or an enum symbol index.
+     * @param index     the index
+     */
+    public void writeIndex(int index) {
+        writeInt(index);
+    }
+
+    /**
+     * Write the item count which starts a non-empty block of array items or map entries.
+     * The final block must be followed by {@link #writeBlockEnd()}.
+     * @param count     the number of items in the block
+     */
+    public void writeBlockCount(int count) {
+        if (count > 0) {
+            writeLong(count);
+        }
+    }
+
+    public void writeBlockEnd() {
+        writeLong(0);
+    }
+
+    /**
+     * Write an Avro {@code fixed} value, which has no length prefix.
+     * @param v         the bytes
+     */
+    public void writeFixed(byte[] v) {
+        writeRaw(v, 0, v.length);
+    }
+
+    public void writeFixed(byte v) {
+        ensureSpace(1);
+        buf[pos++] = v;
+    }
+
+    public void writeBytes(byte[] v) {
+        writeLong(v.length);
+        writeRaw(v, 0, v.length);
+    }
+
+    private void writeRaw(byte[] v, int off, int len) {
+        if (len <= buf.length - pos) {
+            System.arraycopy(v, off, buf, pos, len);
+            pos += len;
+        } else if (os != null) {
+            drain();
+            try {
+                os.write(v, off, len);
+            } catch (IOException ex) {
+                throw new CodecException(ex);
+            }
+        } else if (target != null) {
+            drain();
+            target.put(v, off, len);
+        } else {
+            ensureSpace(len);
+            System.arraycopy(v, off, buf, pos, len);
+            pos += len;
+        }
+    }
+
+    /**
+     * Write a string as its UTF-8 byte length followed by the UTF-8 bytes.
+     * Unpaired surrogates are replaced with {@code '?'},
+     * consistent with {@link String#getBytes(java.nio.charset.Charset)}.
+     * @param s         the string
+     */
+    public void writeString(String s) {
+        final int len = s.length();
+        final int utf8Len = utf8Length(s, len);
+        writeLong(utf8Len);
+
+        if (utf8Len == len) {
+            ensureSpace(len);
+            for (int i = 0; i < len; ++i) {
+                buf[pos++] = (byte)s.charAt(i);
+            }
+        } else {
+            ensureSpace(utf8Len);
+            encodeUtf8(s, len);
+        }
+    }
+
+    private static int utf8Length(String s, int len) {
+        int n = len;
+        for (int i = 0; i < len; ++i) {
+            final char c = s.charAt(i);
+            if (c >= 0x80) {
+                if (c < 0x800) {
+                    n += 1;
+                } else if (Character.isHighSurrogate(c) &&
+                        i + 1 < len &&
+                        Character.isLowSurrogate(s.charAt(i + 1))) {
+                    // Two chars become four bytes.
+                    n += 2;
+                    ++i;
+                } else if (!Character.isSurrogate(c)) {
+                    n += 2;
+                }
+            }
+        }
+        return n;
+    }
+
+    private void encodeUtf8(String s, int len) {
+        for (int i = 0; i < len; ++i) {
+            final char c = s.charAt(i);
+            if (c < 0x80) {
+                buf[pos++] = (byte)c;
+            } else if (c < 0x800) {
+                buf[pos++] = (byte)(0xC0 | (c >> 6));
+                buf[pos++] = (byte)(0x80 | (c & 0x3F));
+            } else if (Character.isSurrogate(c)) {
+                if (Character.isHighSurrogate(c) &&
+                        i + 1 < len &&
+                        Character.isLowSurrogate(s.charAt(i + 1))) {
+                    final int cp = Character.toCodePoint(c, s.charAt(++i));
+                    buf[pos++] = (byte)(0xF0 | (cp >> 18));
+                    buf[pos++] = (byte)(0x80 | ((cp >> 12) & 0x3F));
+                    buf[pos++] = (byte)(0x80 | ((cp >> 6) & 0x3F));
+                    buf[pos++] = (byte)(0x80 | (cp & 0x3F));
+                } else {
+                    buf[pos++] = '?';
+                }
+            } else {
+                buf[pos++] = (byte)(0xE0 | (c >> 12));
+                buf[pos++] = (byte)(0x80 | ((c >> 6) & 0x3F));
+                buf[pos++] = (byte)(0x80 | (c & 0x3F));
+            }
+        }
+    }
+
+    /**
+     * Write any buffered bytes to the underlying {@code OutputStream} or {@code ByteBuffer}.
+     * Has no effect for an {@code AvroBinaryOutput} which retains its bytes.
+     */
+    public void flush() {
+        drain();
+        if (os != null) {
+            try {
+                os.flush();
+            } catch (IOException ex) {
+                throw new CodecException(ex);
+            }
+        }
+    }
+}
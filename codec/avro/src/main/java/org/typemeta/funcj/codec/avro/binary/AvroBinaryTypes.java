@@ -0,0 +1,142 @@
+package org.typemeta.funcj.codec.avro.binary;
+
+import org.apache.avro.Schema;
+import org.typemeta.funcj.codec.utils.*;
+
+import java.lang.reflect.*;
+import java.util.*;
+
+public abstract class AvroBinaryTypes {
+
+    /**
+     * A compiled plan for writing values of a Java type in the Avro binary encoding
+     * of a given schema.
+     */
+    @FunctionalInterface
+    public interface Encoder {
+        void encode(Object val, AvroBinaryOutput out);
+    }
+
+    /**
+     * A compiled plan for reading values of a Java type from data written with a writer schema,
+     * resolved against a reader schema.
+     */
+    @FunctionalInterface
+    public interface Decoder {
+        Object decode(AvroBinaryInput in);
+    }
+
+    static boolean isNullable(Schema schema) {
+        switch (schema.getType()) {
+            case NULL:
+                return true;
+            case UNION:
+                for (Schema branch : schema.getTypes()) {
+                    if (branch.getType() == Schema.Type.NULL) {
+                        return true;
+                    }
+                }
+                return false;
+            default:
+                return false;
+        }
+    }
+
+    private static boolean isPlainObject(Class<?> type) {
+        return !type.isPrimitive() &&
+                !type.isArray() &&
+                !type.isEnum() &&
+                !type.isInterface() &&
+                !Modifier.isAbstract(type.getModifiers()) &&
+                !type.equals(Object.class) &&
+                !type.equals(String.class) &&
+                !type.equals(Boolean.class) &&
+                !type.equals(Character.class) &&
+                !Number.class.isAssignableFrom(type) &&
+                !Collection.class.isAssignableFrom(type) &&
+                !Map.class.isAssignableFrom(type);
+    }
+
+    /**
+     * Determine whether values of the Java type can be represented by a (non-union) Avro schema type.
+     * The check is shallow - element, value and field types are not considered.
+     */
+    static boolean accepts(Schema.Type schemaType, Class<?> type) {
+        switch (schemaType) {
+            case NULL:
+                return !type.isPrimitive();
+            case BOOLEAN:
+                return type == boolean.class || type == Boolean.class;
+            case INT:
+                return type == int.class || type == Integer.class ||
+                        type == short.class || type == Short.class ||
+                        type == byte.class || type == Byte.class;
+            case LONG:
+                return type == long.class || type == Long.class || accepts(Schema.Type.INT, type);
+            case FLOAT:
+                return type == float.class || type == Float.class;
+            case DOUBLE:
+                return type == double.class || type == Double.class || accepts(Schema.Type.FLOAT, type);
+            case STRING:
+                return type == String.class ||
+                        type == char.class || type == Character.class ||
+                        type == char[].class ||
+                        type.isEnum();
+            case BYTES:
+                return type == byte[].class;
+            case FIXED:
+                return type == byte.class || type == Byte.class || type == byte[].class;
+            case ENUM:
+                return type.isEnum();
+            case ARRAY:
+                return type.isArray() || Collection.class.isAssignableFrom(type);
+            case MAP:
+                return Map.class.isAssignableFrom(type);
+            case RECORD:
+                return isPlainObject(type);
+            default:
+                return false;
+        }
+    }
+
+    static CodecException mismatch(Schema schema, Class<?> type) {
+        return new CodecException(
+                "Can't map type " + type.getName() + " to a schema of type " + schema.getType() +
+                        ", from schema '" + schema.getFullName() + "'"
+        );
+    }
+
+    /**
+     * Return the serialisable fields of a class, keyed by name.
+     * Where a superclass field has the same name as a subclass field, the subclass field takes precedence.
+     */
+    static Map<String, Field> javaFields(Class<?> clazz) {
+        final Map<String, Field> fields = new LinkedHashMap<>();
+        for (Class<?> clazz2 = clazz; !clazz2.equals(Object.class); clazz2 = clazz2.getSuperclass()) {
+            for (Field field : clazz2.getDeclaredFields()) {
+                final int fm = field.getModifiers();
+                if (!Modifier.isStatic(fm) && !Modifier.isTransient(fm)) {
+                    fields.putIfAbsent(field.getName(), field);
+                }
+            }
+        }
+        return fields;
+    }
+
+    /**
+     * Return the element type of a collection field, or the value type of a map field,
+     * if it can be determined, otherwise null.
+     */
+    static Class<?> typeArgOf(Field field) {
+        final Class<?> type = field.getType();
+        if (Collection.class.isAssignableFrom(type)) {
+            final ReflectionUtils.TypeArgs typeArgs = ReflectionUtils.getTypeArgs(field, Collection.class);
+            return typeArgs.size() == 1 ? typeArgs.get(0) : null;
+        } else if (Map.class.isAssignableFrom(type)) {
+            final ReflectionUtils.TypeArgs typeArgs = ReflectionUtils.getTypeArgs(field, Map.class);
+            return typeArgs.size() == 2 ? typeArgs.get(1) : null;
+        } else {
+            return null;
+        }
+    }
+}
@@ -0,0 +1,760 @@
+package org.typemeta.funcj.codec.avro.binary;
+
+import org.apache.avro.*;
+import org.typemeta.funcj.codec.*;
+import org.typemeta.funcj.codec.avro.AvroTypes.Config;
+import org.typemeta.funcj.codec.avro.binary.AvroBinaryTypes.Decoder;
+import org.typemeta.funcj.codec.utils.CodecException;
+
+import java.lang.reflect.*;
+import java.util.*;
+import java.util.function.Supplier;
+
+import static org.typemeta.funcj.codec.avro.binary.AvroBinaryTypes.*;
+
+/**
+ * Compiles a {@link Decoder} for a Java type,
+ * which reads data written with a writer schema, resolved against a reader schema.
+ * <p>
+ * Schema resolution follows the Avro rules:
+ * writer fields are matched to reader fields by name or alias,
+ * writer fields which have no reader field are skipped,
+ * reader fields which have no writer field are set to their default value,
+ * union branches are matched by type,
+ * and {@code int} to {@code long}/{@code float}/{@code double}, {@code long} to {@code float}/{@code double},
+ * {@code float} to {@code double}, and {@code string} to/from {@code bytes} promotions are applied.
+ * All of this happens during compilation, so that the resulting plan reads the writer's data
+ * in a single pass directly into the Java object.
+ * <p>
+ * A compiler instance is used for a single compilation,
+ * during which it tracks the record decoders being built, to support recursive schemas.
+ */
+final class DecodePlanCompiler {
+
+    private final Config config;
+
+    private final Map<Schema, Map<Schema, Map<Class<?>, RecordDecoder>>> records = new IdentityHashMap<>();
+
+    private final Map<Schema, RecordSkipper> skippers = new IdentityHashMap<>();
+
+    DecodePlanCompiler(Config config) {
+        this.config = config;
+    }
+
+    /**
+     * A single step in decoding a record, which reads a field value into the record object,
+     * or skips over a value.
+     */
+    private interface FieldStep {
+        void apply(Object obj, AvroBinaryInput in);
+    }
+
+    private static final class RecordDecoder implements Decoder {
+        NoArgsTypeCtor<?> ctor;
+
+        // Assigns default values for reader fields which aren't present in the writer schema.
+        FieldStep[] defaults;
+
+        // One step per writer field, in writer schema order.
+        FieldStep[] steps;
+
+        @Override
+        public Object decode(AvroBinaryInput in) {
+            final Object obj = ctor.construct();
+            for (FieldStep step : defaults) {
+                step.apply(obj, in);
+            }
+            for (FieldStep step : steps) {
+                step.apply(obj, in);
+            }
+            return obj;
+        }
+    }
+
+    private static final class RecordSkipper implements Decoder {
+        Decoder[] fields;
+
+        @Override
+        public Object decode(AvroBinaryInput in) {
+            for (Decoder field : fields) {
+                field.decode(in);
+            }
+            return null;
+        }
+    }
+
+    Decoder compile(Schema writer, Schema reader, Class<?> type, Class<?> typeArg) {
+        if (writer.getType() == Schema.Type.UNION) {
+            final List<Schema> branches = writer.getTypes();
+            final Decoder[] branchDecs = new Decoder[branches.size()];
+            for (int i = 0; i < branchDecs.length; ++i) {
+                branchDecs[i] = unionBranch(i, branches.get(i), reader, type, typeArg);
+            }
+
+            return in -> {
+                final int index = in.readIndex();
+                if (index < 0 || index >= branchDecs.length) {
+                    throw new CodecException("Invalid union branch index " + index + " for schema " + writer);
+                }
+                return branchDecs[index].decode(in);
+            };
+        } else if (writer.getType() == Schema.Type.NULL) {
+            return in -> null;
+        } else {
+            final Schema readerMatch = matchReader(writer, reader);
+            if (readerMatch == null) {
+                throw new CodecException(
+                        "Writer schema of type " + writer.getType() + " can't be resolved against reader schema " +
+                                reader
+                );
+            }
+            return resolve(writer, readerMatch, type, typeArg);
+        }
+    }
+
+    private Decoder unionBranch(int index, Schema branch, Schema reader, Class<?> type, Class<?> typeArg) {
+        if (branch.getType() == Schema.Type.NULL) {
+            return in -> null;
+        } else if (matchReader(branch, reader) == null) {
+            // Only fail if the branch actually occurs in the data.
+            return in -> {
+                throw new CodecException(
+                        "Writer union branch " + index + " of type " + branch.getType() +
+                                " can't be resolved against reader schema " + reader
+                );
+            };
+        } else {
+            return compile(branch, reader, type, typeArg);
+        }
+    }
+
+    private static boolean isPromotable(Schema.Type writer, Schema.Type reader) {
+        switch (writer) {
+            case INT:
+                return reader == Schema.Type.LONG || reader == Schema.Type.FLOAT || reader == Schema.Type.DOUBLE;
+            case LONG:
+                return reader == Schema.Type.FLOAT || reader == Schema.Type.DOUBLE;
+            case FLOAT:
+                return reader == Schema.Type.DOUBLE;
+            case STRING:
+                return reader == Schema.Type.BYTES;
+            case BYTES:
+                return reader == Schema.Type.STRING;
+            default:
+                return false;
+        }
+    }
+
+    private static boolean namesMatch(Schema writer, Schema reader) {
+        return writer.getFullName().equals(reader.getFullName()) ||
+                writer.getName().equals(reader.getName()) ||
+                reader.getAliases().contains(writer.getFullName());
+    }
+
+    /**
+     * Find the reader schema (or reader union branch) which the non-union writer schema resolves against,
+     * preferring an exact match over a same-typed match, and a same-typed match over a promotion.
+     */
+    private static Schema matchReader(Schema writer, Schema reader) {
+        final List<Schema> candidates =
+                reader.getType() == Schema.Type.UNION ?
+                        reader.getTypes() :
+                        Collections.singletonList(reader);
+        final Schema.Type writerType = writer.getType();
+
+        for (Schema cand : candidates) {
+            if (cand.getType() == writerType) {
+                switch (writerType) {
+                    case RECORD:
+                    case ENUM:
+                        if (namesMatch(writer, cand)) {
+                            return cand;
+                        }
+                        break;
+                    case FIXED:
+                        if (namesMatch(writer, cand) && writer.getFixedSize() == cand.getFixedSize()) {
+                            return cand;
+                        }
+                        break;
+                    default:
+                        return cand;
+                }
+            }
+        }
+
+        // Named types are also matched by type alone, as generated schema names derive from field paths.
+        for (Schema cand : candidates) {
+            if (cand.getType() == writerType &&
+                    (writerType != Schema.Type.FIXED || writer.getFixedSize() == cand.getFixedSize())) {
+                return cand;
+            }
+        }
+
+        for (Schema cand : candidates) {
+            if (isPromotable(writerType, cand.getType())) {
+                return cand;
+            }
+        }
+
+        return null;
+    }
+
+    private Decoder resolve(Schema writer, Schema reader, Class<?> type, Class<?> typeArg) {
+        if (!accepts(reader.getType(), type)) {
+            throw mismatch(reader, type);
+        }
+
+        switch (reader.getType()) {
+            case RECORD:
+                return record(writer, reader, type);
+            case ENUM:
+                return enumDecoder(writer, reader, type);
+            case ARRAY:
+                if (type.isArray()) {
+                    return array(writer.getElementType(), reader.getElementType(), type.getComponentType());
+                } else if (typeArg != null) {
+                    return collection(writer.getElementType(), reader.getElementType(), type, typeArg);
+                }
+                break;
+            case MAP:
+                if (typeArg != null) {
+                    return map(writer.getValueType(), reader.getValueType(), type, typeArg);
+                }
+                break;
+            case FIXED:
+                if (type == byte[].class) {
+                    final int size = writer.getFixedSize();
+                    return in -> in.readFixed(size);
+                } else if (writer.getFixedSize() == 1) {
+                    return in -> in.readFixed();
+                }
+                break;
+            case STRING:
+                // Strings and bytes have the same binary encoding, so the writer type doesn't matter here.
+                if (type == String.class) {
+                    return AvroBinaryInput::readString;
+                } else if (type == char[].class) {
+                    return in -> in.readString().toCharArray();
+                } else if (type.isEnum()) {
+                    final Map<String, Object> consts = enumConstants(type);
+                    return in -> {
+                        final String name = in.readString();
+                        final Object cnst = consts.get(name);
+                        if (cnst == null) {
+                            throw new CodecException("No constant '" + name + "' in enum " + type);
+                        }
+                        return cnst;
+                    };
+                } else {
+                    return in -> toChar(in.readString());
+                }
+            case BYTES:
+                return AvroBinaryInput::readBytes;
+            case BOOLEAN:
+                return AvroBinaryInput::readBoolean;
+            case INT:
+            case LONG:
+            case FLOAT:
+            case DOUBLE:
+                return numeric(writer.getType(), type);
+        }
+
+        throw mismatch(reader, type);
+    }
+
+    private static char toChar(String s) {
+        if (s.length() != 1) {
+            throw new CodecException("Expecting a single-char string but got '" + s + "'");
+        }
+        return s.charAt(0);
+    }
+
+    private static long checkRange(long val, long min, long max) {
+        if (val < min || val > max) {
+            throw new CodecException("Value " + val + " is out of range for the field type");
+        }
+        return val;
+    }
+
+    /**
+     * Compile a decoder which reads a number of the writer type and converts it to the Java type,
+     * which has already been checked against the reader schema type.
+     */
+    private static Decoder numeric(Schema.Type writerType, Class<?> type) {
+        final boolean integral = writerType == Schema.Type.INT || writerType == Schema.Type.LONG;
+        if (type == int.class || type == Integer.class) {
+            return writerType == Schema.Type.INT ?
+                    AvroBinaryInput::readInt :
+                    in -> (int)checkRange(in.readLong(), Integer.MIN_VALUE, Integer.MAX_VALUE);
+        } else if (type == long.class || type == Long.class) {
+            return AvroBinaryInput::readLong;
+        } else if (type == short.class || type == Short.class) {
+            return in -> (short)checkRange(in.readLong(), Short.MIN_VALUE, Short.MAX_VALUE);
+        } else if (type == byte.class || type == Byte.class) {
+            return in -> (byte)checkRange(in.readLong(), Byte.MIN_VALUE, Byte.MAX_VALUE);
+        } else if (type == float.class || type == Float.class) {
+            switch (writerType) {
+                case FLOAT:
+                    return AvroBinaryInput::readFloat;
+                case DOUBLE:
+                    return in -> (float)in.readDouble();
+                default:
+                    return in -> (float)in.readLong();
+            }
+        } else {
+            if (integral) {
+                return in -> (double)in.readLong();
+            } else if (writerType == Schema.Type.FLOAT) {
+                return in -> (double)in.readFloat();
+            } else {
+                return AvroBinaryInput::readDouble;
+            }
+        }
+    }
+
+    private static Map<String, Object> enumConstants(Class<?> type) {
+        final Map<String, Object> consts = new HashMap<>();
+        for (Object cnst : type.getEnumConstants()) {
+            consts.put(((Enum<?>)cnst).name(), cnst);
+        }
+        return consts;
+    }
+
+    private Decoder enumDecoder(Schema writer, Schema reader, Class<?> type) {
+        final Map<String, Object> consts = enumConstants(type);
+        final String defaultSymbol = reader.getEnumDefault();
+        final List<String> writerSymbols = writer.getEnumSymbols();
+
+        // Map each writer symbol index directly to the Java enum constant.
+        final Object[] table = new Object[writerSymbols.size()];
+        for (int i = 0; i < table.length; ++i) {
+            String symbol = writerSymbols.get(i);
+            if (!reader.hasEnumSymbol(symbol)) {
+                symbol = defaultSymbol;
+            }
+            table[i] = symbol == null ? null : consts.get(symbol);
+        }
+
+        return in -> {
+            final int index = in.readIndex();
+            final Object cnst = index >= 0 && index < table.length ? table[index] : null;
+            if (cnst == null) {
+                throw new CodecException(
+                        "Enum symbol index " + index + " of schema '" + writer.getFullName() +
+                                "' can't be resolved against " + type
+                );
+            }
+            return cnst;
+        };
+    }
+
+    private Decoder array(Schema writerElem, Schema readerElem, Class<?> elemType) {
+        final Schema.Type writerElemType = writerElem.getType();
+        if (elemType == boolean.class && writerElemType == Schema.Type.BOOLEAN) {
+            return in -> {
+                boolean[] arr = new boolean[0];
+                int n = 0;
+                for (int count = in.readBlockCount(); count != 0; count = in.readBlockCount()) {
+                    arr = Arrays.copyOf(arr, n + count);
+                    for (int i = 0; i < count; ++i) {
+                        arr[n++] = in.readBoolean();
+                    }
+                }
+                return arr;
+            };
+        } else if (elemType == int.class && writerElemType == Schema.Type.INT) {
+            return in -> {
+                int[] arr = new int[0];
+                int n = 0;
+                for (int count = in.readBlockCount(); count != 0; count = in.readBlockCount()) {
+                    arr = Arrays.copyOf(arr, n + count);
+                    for (int i = 0; i < count; ++i) {
+                        arr[n++] = in.readInt();
+                    }
+                }
+                return arr;
+            };
+        } else if (elemType == long.class && writerElemType == Schema.Type.LONG) {
+            return in -> {
+                long[] arr = new long[0];
+                int n = 0;
+                for (int count = in.readBlockCount(); count != 0; count = in.readBlockCount()) {
+                    arr = Arrays.copyOf(arr, n + count);
+                    for (int i = 0; i < count; ++i) {
+                        arr[n++] = in.readLong();
+                    }
+                }
+                return arr;
+            };
+        } else if (elemType == float.class && writerElemType == Schema.Type.FLOAT) {
+            return in -> {
+                float[] arr = new float[0];
+                int n = 0;
+                for (int count = in.readBlockCount(); count != 0; count = in.readBlockCount()) {
+                    arr = Arrays.copyOf(arr, n + count);
+                    for (int i = 0; i < count; ++i) {
+                        arr[n++] = in.readFloat();
+                    }
+                }
+                return arr;
+            };
+        } else if (elemType == double.class && writerElemType == Schema.Type.DOUBLE) {
+            return in -> {
+                double[] arr = new double[0];
+                int n = 0;
+                for (int count = in.readBlockCount(); count != 0; count = in.readBlockCount()) {
+                    arr = Arrays.copyOf(arr, n + count);
+                    for (int i = 0; i < count; ++i) {
+                        arr[n++] = in.readDouble();
+                    }
+                }
+                return arr;
+            };
+        } else {
+            // Other arrays, including primitive arrays which require promotion, go via a list.
+            final Decoder elemDec = compile(writerElem, readerElem, elemType, null);
+            return in -> {
+                final List<Object> list = new ArrayList<>();
+                for (int count = in.readBlockCount(); count != 0; count = in.readBlockCount()) {
+                    for (int i = 0; i < count; ++i) {
+                        list.add(elemDec.decode(in));
+                    }
+                }
+
+                final Object arr = Array.newInstance(elemType, list.size());
+                for (int i = 0; i < list.size(); ++i) {
+                    Array.set(arr, i, list.get(i));
+                }
+                return arr;
+            };
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <T> Supplier<T> containerCtor(Class<?> type, Class<?> defaultType) {
+        if (type.isInterface() || Modifier.isAbstract(type.getModifiers())) {
+            if (!type.isAssignableFrom(defaultType)) {
+                throw new CodecException("Can't construct a value of abstract type " + type);
+            }
+            type = defaultType;
+        }
+
+        final NoArgsTypeCtor<?> ctor = NoArgsTypeCtor.create(type);
+        if (ctor == null) {
+            throw new CodecException("No no-args constructor for " + type);
+        }
+        return () -> (T)ctor.construct();
+    }
+
+    private Decoder collection(Schema writerElem, Schema readerElem, Class<?> type, Class<?> elemType) {
+        final Supplier<Collection<Object>> ctor =
+                containerCtor(type, Set.class.isAssignableFrom(type) ? LinkedHashSet.class : ArrayList.class);
+        final Decoder elemDec = compile(writerElem, readerElem, elemType, null);
+        return in -> {
+            final Collection<Object> coll = ctor.get();
+            for (int count = in.readBlockCount(); count != 0; count = in.readBlockCount()) {
+                for (int i = 0; i < count; ++i) {
+                    coll.add(elemDec.decode(in));
+                }
+            }
+            return coll;
+        };
+    }
+
+    private Decoder map(Schema writerValue, Schema readerValue, Class<?> type, Class<?> valueType) {
+        final Supplier<Map<String, Object>> ctor = containerCtor(type, LinkedHashMap.class);
+        final Decoder valueDec = compile(writerValue, readerValue, valueType, null);
+        return in -> {
+            final Map<String, Object> map = ctor.get();
+            for (int count = in.readBlockCount(); count != 0; count = in.readBlockCount()) {
+                for (int i = 0; i < count; ++i) {
+                    final String key = in.readString();
+                    map.put(key, valueDec.decode(in));
+                }
+            }
+            return map;
+        };
+    }
+
+    private static Schema.Field readerField(Schema reader, Schema.Field writerField) {
+        final Schema.Field field = reader.getField(writerField.name());
+        if (field != null) {
+            return field;
+        }
+
+        for (Schema.Field cand : reader.getFields()) {
+            if (cand.aliases().contains(writerField.name())) {
+                return cand;
+            }
+        }
+
+        return null;
+    }
+
+    private Decoder record(Schema writer, Schema reader, Class<?> type) {
+        final Map<Class<?>, RecordDecoder> byType =
+                records.computeIfAbsent(writer, s -> new IdentityHashMap<>())
+                        .computeIfAbsent(reader, s -> new HashMap<>());
+        final RecordDecoder existing = byType.get(type);
+        if (existing != null) {
+            return existing;
+        }
+
+        final RecordDecoder recDec = new RecordDecoder();
+        byType.put(type, recDec);
+
+        recDec.ctor = NoArgsTypeCtor.create(type);
+        if (recDec.ctor == null) {
+            throw new CodecException("No no-args constructor for " + type);
+        }
+
+        final Map<String, Field> javaFields = javaFields(type);
+        final Set<String> resolved = new HashSet<>();
+
+        final List<Schema.Field> writerFields = writer.getFields();
+        final FieldStep[] steps = new FieldStep[writerFields.size()];
+        for (int i = 0; i < steps.length; ++i) {
+            final Schema.Field writerField = writerFields.get(i);
+            final Schema.Field readerField = readerField(reader, writerField);
+            final Field field = readerField == null ? null : javaFields.get(readerField.name());
+            if (field != null) {
+                steps[i] = field(field, writerField.schema(), readerField.schema());
+                resolved.add(readerField.name());
+            } else {
+                final Decoder skip = skipper(writerField.schema());
+                steps[i] = (obj, in) -> skip.decode(in);
+            }
+        }
+
+        final List<FieldStep> defaults = new ArrayList<>();
+        for (Schema.Field readerField : reader.getFields()) {
+            final Field field = javaFields.get(readerField.name());
+            if (field != null && !resolved.contains(readerField.name()) && readerField.hasDefaultValue()) {
+                final FieldStep step = defaultStep(field, readerField.defaultVal());
+                if (step != null) {
+                    defaults.add(step);
+                }
+            }
+        }
+
+        recDec.defaults = defaults.toArray(new FieldStep[0]);
+        recDec.steps = steps;
+        return recDec;
+    }
+
+    /**
+     * Create a step which assigns a schema default value to a field,
+     * or return null if the default value can't be represented by the field type,
+     * in which case the field retains the value assigned by the constructor.
+     */
+    private FieldStep defaultStep(Field field, Object defaultVal) {
+        final Class<?> type = field.getType();
+        final Object value;
+        if (defaultVal == JsonProperties.NULL_VALUE) {
+            if (type.isPrimitive()) {
+                return null;
+            }
+            value = null;
+        } else if (defaultVal instanceof Number) {
+            final Number num = (Number)defaultVal;
+            if (type == int.class || type == Integer.class) {
+                value = num.intValue();
+            } else if (type == long.class || type == Long.class) {
+                value = num.longValue();
+            } else if (type == short.class || type == Short.class) {
+                value = num.shortValue();
+            } else if (type == byte.class || type == Byte.class) {
+                value = num.byteValue();
+            } else if (type == float.class || type == Float.class) {
+                value = num.floatValue();
+            } else if (type == double.class || type == Double.class) {
+                value = num.doubleValue();
+            } else {
+                return null;
+            }
+        } else if (defaultVal instanceof Boolean && accepts(Schema.Type.BOOLEAN, type)) {
+            value = defaultVal;
+        } else if (defaultVal instanceof String) {
+            final String s = (String)defaultVal;
+            if (type == String.class) {
+                value = s;
+            } else if (type.isEnum()) {
+                value = enumConstants(type).get(s);
+                if (value == null) {
+                    return null;
+                }
+            } else if ((type == char.class || type == Character.class) && s.length() == 1) {
+                value = s.charAt(0);
+            } else {
+                return null;
+            }
+        } else {
+            return null;
+        }
+
+        final FieldAccessor acc = config.fieldAccessorFactory().create(field);
+        return (obj, in) -> acc.set(obj, value);
+    }
+
+    private FieldStep field(Field field, Schema writer, Schema reader) {
+        final FieldAccessor acc = config.fieldAccessorFactory().create(field);
+        final Class<?> type = field.getType();
+
+        // Primitive fields with a directly corresponding writer schema type are read without boxing.
+        final Schema readerMatch = writer.getType() == Schema.Type.UNION ? null : matchReader(writer, reader);
+        if (readerMatch != null && accepts(readerMatch.getType(), type)) {
+            switch (writer.getType()) {
+                case BOOLEAN:
+                    if (type == boolean.class) {
+                        return (obj, in) -> acc.setBoolean(obj, in.readBoolean());
+                    }
+                    break;
+                case INT:
+                    if (type == int.class) {
+                        return (obj, in) -> acc.setInt(obj, in.readInt());
+                    } else if (type == long.class) {
+                        return (obj, in) -> acc.setLong(obj, in.readInt());
+                    } else if (type == double.class) {
+                        return (obj, in) -> acc.setDouble(obj, in.readInt());
+                    }
+                    break;
+                case LONG:
+                    if (type == long.class) {
+                        return (obj, in) -> acc.setLong(obj, in.readLong());
+                    }
+                    break;
+                case FLOAT:
+                    if (type == float.class) {
+                        return (obj, in) -> acc.setFloat(obj, in.readFloat());
+                    } else if (type == double.class) {
+                        return (obj, in) -> acc.setDouble(obj, in.readFloat());
+                    }
+                    break;
+                case DOUBLE:
+                    if (type == double.class) {
+                        return (obj, in) -> acc.setDouble(obj, in.readDouble());
+                    }
+                    break;
+                case FIXED:
+                    if (type == byte.class && writer.getFixedSize() == 1) {
+                        return (obj, in) -> acc.setByte(obj, in.readFixed());
+                    }
+                    break;
+            }
+        }
+
+        final Decoder dec = compile(writer, reader, type, typeArgOf(field));
+        if (type.isPrimitive()) {
+            // A null can't be assigned to a primitive field, which retains the value assigned by the constructor.
+            return (obj, in) -> {
+                final Object val = dec.decode(in);
+                if (val != null) {
+                    acc.set(obj, val);
+                }
+            };
+        } else {
+            return (obj, in) -> acc.set(obj, dec.decode(in));
+        }
+    }
+
+    /**
+     * Compile a decoder which skips over a value written with the given schema.
+     */
+    private Decoder skipper(Schema writer) {
+        switch (writer.getType()) {
+            case NULL:
+                return in -> null;
+            case BOOLEAN:
+                return in -> {
+                    in.skip(1);
+                    return null;
+                };
+            case INT:
+            case LONG:
+            case ENUM:
+                return in -> {
+                    in.readLong();
+                    return null;
+                };
+            case FLOAT:
+                return in -> {
+                    in.skip(Float.BYTES);
+                    return null;
+                };
+            case DOUBLE:
+                return in -> {
+                    in.skip(Double.BYTES);
+                    return null;
+                };
+            case STRING:
+            case BYTES:
+                return in -> {
+                    in.skipBytes();
+                    return null;
+                };
+            case FIXED: {
+                final int size = writer.getFixedSize();
+                return in -> {
+                    in.skip(size);
+                    return null;
+                };
+            }
+            case ARRAY: {
+                final Decoder elemSkip = skipper(writer.getElementType());
+                return in -> {
+                    for (long count = in.skipBlock(); count != 0; count = in.skipBlock()) {
+                        for (long i = 0; i < count; ++i) {
+                            elemSkip.decode(in);
+                        }
+                    }
+                    return null;
+                };
+            }
+            case MAP: {
+                final Decoder valueSkip = skipper(writer.getValueType());
+                return in -> {
+                    for (long count = in.skipBlock(); count != 0; count = in.skipBlock()) {
+                        for (long i = 0; i < count; ++i) {
+                            in.skipBytes();
+                            valueSkip.decode(in);
+                        }
+                    }
+                    return null;
+                };
+            }
+            case UNION: {
+                final List<Schema> branches = writer.getTypes();
+                final Decoder[] branchSkips = new Decoder[branches.size()];
+                for (int i = 0; i < branchSkips.length; ++i) {
+                    branchSkips[i] = skipper(branches.get(i));
+                }
+                return in -> {
+                    final int index = in.readIndex();
+                    if (index < 0 || index >= branchSkips.length) {
+                        throw new CodecException("Invalid union branch index " + index + " for schema " + writer);
+                    }
+                    return branchSkips[index].decode(in);
+                };
+            }
+            case RECORD: {
+                final RecordSkipper existing = skippers.get(writer);
+                if (existing != null) {
+                    return existing;
+                }
+
+                final RecordSkipper recSkip = new RecordSkipper();
+                skippers.put(writer, recSkip);
+
+                final List<Schema.Field> fields = writer.getFields();
+                final Decoder[] fieldSkips = new Decoder[fields.size()];
+                for (int i = 0; i < fieldSkips.length; ++i) {
+                    fieldSkips[i] = skipper(fields.get(i).schema());
+                }
+                recSkip.fields = fieldSkips;
+                return recSkip;
+            }
+            default:
+                throw new CodecException("Unsupported schema type " + writer.getType());
+        }
+    }
+}
@@ -0,0 +1,423 @@
+package org.typemeta.funcj.codec.avro.binary;
+
+import org.apache.avro.Schema;
+import org.typemeta.funcj.codec.FieldAccessor;
+import org.typemeta.funcj.codec.avro.AvroTypes.Config;
+import org.typemeta.funcj.codec.avro.binary.AvroBinaryTypes.Encoder;
+import org.typemeta.funcj.codec.utils.CodecException;
+
+import java.lang.reflect.Field;
+import java.util.*;
+
+import static org.typemeta.funcj.codec.avro.binary.AvroBinaryTypes.*;
+
+/**
+ * Compiles an {@link Encoder} for a Java type and a schema.
+ * <p>
+ * All schema lookups, union branch selection and field matching happen during compilation,
+ * so that the resulting plan only performs field reads and primitive writes.
+ * A compiler instance is used for a single compilation,
+ * during which it tracks the record encoders being built, to support recursive schemas.
+ */
+final class EncodePlanCompiler {
+
+    private final Config config;
+
+    private final Map<Schema, Map<Class<?>, RecordEncoder>> records = new IdentityHashMap<>();
+
+    EncodePlanCompiler(Config config) {
+        this.config = config;
+    }
+
+    private static final class RecordEncoder implements Encoder {
+        // Each field encoder is passed the record object, and writes one field value.
+        Encoder[] fields;
+
+        @Override
+        public void encode(Object val, AvroBinaryOutput out) {
+            for (Encoder field : fields) {
+                field.encode(val, out);
+            }
+        }
+    }
+
+    Encoder compile(Schema schema, Class<?> type, Class<?> typeArg) {
+        switch (schema.getType()) {
+            case UNION:
+                return union(schema, type, typeArg);
+            case RECORD:
+                if (accepts(Schema.Type.RECORD, type)) {
+                    return record(schema, type);
+                }
+                break;
+            case ENUM:
+                if (type.isEnum()) {
+                    return enumEncoder(schema, type);
+                }
+                break;
+            case ARRAY:
+                if (type.isArray()) {
+                    return array(schema.getElementType(), type.getComponentType());
+                } else if (Collection.class.isAssignableFrom(type) && typeArg != null) {
+                    return collection(schema.getElementType(), typeArg);
+                }
+                break;
+            case MAP:
+                if (Map.class.isAssignableFrom(type) && typeArg != null) {
+                    return map(schema.getValueType(), typeArg);
+                }
+                break;
+            case FIXED:
+                if (type == byte.class || type == Byte.class) {
+                    if (schema.getFixedSize() == 1) {
+                        return (val, out) -> out.writeFixed((Byte)val);
+                    }
+                } else if (type == byte[].class) {
+                    final int size = schema.getFixedSize();
+                    return (val, out) -> {
+                        final byte[] bytes = (byte[])val;
+                        if (bytes.length != size) {
+                            throw new CodecException(
+                                    "Expecting " + size + " bytes for FIXED schema '" +
+                                            schema.getFullName() + "' but got " + bytes.length
+                            );
+                        }
+                        out.writeFixed(bytes);
+                    };
+                }
+                break;
+            case STRING:
+                if (type == String.class) {
+                    return (val, out) -> out.writeString((String)val);
+                } else if (type == char.class || type == Character.class) {
+                    return (val, out) -> out.writeString(String.valueOf((char)(Character)val));
+                } else if (type == char[].class) {
+                    return (val, out) -> out.writeString(new String((char[])val));
+                } else if (type.isEnum()) {
+                    return (val, out) -> out.writeString(((Enum<?>)val).name());
+                }
+                break;
+            case BYTES:
+                if (type == byte[].class) {
+                    return (val, out) -> out.writeBytes((byte[])val);
+                }
+                break;
+            case BOOLEAN:
+                if (accepts(Schema.Type.BOOLEAN, type)) {
+                    return (val, out) -> out.writeBoolean((Boolean)val);
+                }
+                break;
+            case INT:
+                if (accepts(Schema.Type.INT, type)) {
+                    return (val, out) -> out.writeInt(((Number)val).intValue());
+                }
+                break;
+            case LONG:
+                if (accepts(Schema.Type.LONG, type)) {
+                    return (val, out) -> out.writeLong(((Number)val).longValue());
+                }
+                break;
+            case FLOAT:
+                if (accepts(Schema.Type.FLOAT, type)) {
+                    return (val, out) -> out.writeFloat(((Number)val).floatValue());
+                }
+                break;
+            case DOUBLE:
+                if (accepts(Schema.Type.DOUBLE, type)) {
+                    return (val, out) -> out.writeDouble(((Number)val).doubleValue());
+                }
+                break;
+            case NULL:
+                if (!type.isPrimitive()) {
+                    return (val, out) -> {};
+                }
+                break;
+        }
+
+        throw mismatch(schema, type);
+    }
+
+    /**
+     * Wrap an encoder with a null check, if the schema doesn't allow nulls.
+     */
+    private static Encoder nullChecked(Encoder enc, Schema schema, String what) {
+        if (isNullable(schema)) {
+            return enc;
+        } else {
+            return (val, out) -> {
+                if (val == null) {
+                    throw new CodecException(
+                            "Can't encode null " + what + " as schema doesn't allow NULL - " + schema
+                    );
+                }
+                enc.encode(val, out);
+            };
+        }
+    }
+
+    private Encoder union(Schema schema, Class<?> type, Class<?> typeArg) {
+        final List<Schema> branches = schema.getTypes();
+
+        int nullIndex = -1;
+        int valueIndex = -1;
+        for (int i = 0; i < branches.size(); ++i) {
+            final Schema.Type branchType = branches.get(i).getType();
+            if (branchType == Schema.Type.NULL) {
+                if (nullIndex == -1) {
+                    nullIndex = i;
+                }
+            } else if (valueIndex == -1 && accepts(branchType, type)) {
+                valueIndex = i;
+            }
+        }
+
+        if (valueIndex == -1) {
+            throw mismatch(schema, type);
+        }
+
+        final int nullIdx = nullIndex;
+        final int valueIdx = valueIndex;
+        final Encoder enc = compile(branches.get(valueIndex), type, typeArg);
+
+        return (val, out) -> {
+            if (val != null) {
+                out.writeIndex(valueIdx);
+                enc.encode(val, out);
+            } else if (nullIdx != -1) {
+                out.writeIndex(nullIdx);
+            } else {
+                throw new CodecException("Can't encode null value as schema doesn't allow NULL - " + schema);
+            }
+        };
+    }
+
+    private Encoder enumEncoder(Schema schema, Class<?> type) {
+        final Object[] consts = type.getEnumConstants();
+        final int[] symbolIndices = new int[consts.length];
+        for (Object cnst : consts) {
+            final Enum<?> en = (Enum<?>)cnst;
+            if (!schema.hasEnumSymbol(en.name())) {
+                throw new CodecException(
+                        "Enum constant " + en.name() + " is not a symbol of schema '" + schema.getFullName() + "'"
+                );
+            }
+            symbolIndices[en.ordinal()] = schema.getEnumOrdinal(en.name());
+        }
+
+        return (val, out) -> out.writeIndex(symbolIndices[((Enum<?>)val).ordinal()]);
+    }
+
+    private Encoder array(Schema elemSchema, Class<?> elemType) {
+        final Schema.Type elemSchemaType = elemSchema.getType();
+        if (elemType == boolean.class && elemSchemaType == Schema.Type.BOOLEAN) {
+            return (val, out) -> {
+                final boolean[] arr = (boolean[])val;
+                out.writeBlockCount(arr.length);
+                for (boolean v : arr) {
+                    out.writeBoolean(v);
+                }
+                out.writeBlockEnd();
+            };
+        } else if (elemType == short.class && elemSchemaType == Schema.Type.INT) {
+            return (val, out) -> {
+                final short[] arr = (short[])val;
+                out.writeBlockCount(arr.length);
+                for (short v : arr) {
+                    out.writeInt(v);
+                }
+                out.writeBlockEnd();
+            };
+        } else if (elemType == int.class && elemSchemaType == Schema.Type.INT) {
+            return (val, out) -> {
+                final int[] arr = (int[])val;
+                out.writeBlockCount(arr.length);
+                for (int v : arr) {
+                    out.writeInt(v);
+                }
+                out.writeBlockEnd();
+            };
+        } else if (elemType == long.class && elemSchemaType == Schema.Type.LONG) {
+            return (val, out) -> {
+                final long[] arr = (long[])val;
+                out.writeBlockCount(arr.length);
+                for (long v : arr) {
+                    out.writeLong(v);
+                }
+                out.writeBlockEnd();
+            };
+        } else if (elemType == float.class && elemSchemaType == Schema.Type.FLOAT) {
+            return (val, out) -> {
+                final float[] arr = (float[])val;
+                out.writeBlockCount(arr.length);
+                for (float v : arr) {
+                    out.writeFloat(v);
+                }
+                out.writeBlockEnd();
+            };
+        } else if (elemType == double.class && elemSchemaType == Schema.Type.DOUBLE) {
+            return (val, out) -> {
+                final double[] arr = (double[])val;
+                out.writeBlockCount(arr.length);
+                for (double v : arr) {
+                    out.writeDouble(v);
+                }
+                out.writeBlockEnd();
+            };
+        } else if (elemType.isPrimitive()) {
+            final Encoder elemEnc = compile(elemSchema, elemType, null);
+            return (val, out) -> {
+                final int len = java.lang.reflect.Array.getLength(val);
+                out.writeBlockCount(len);
+                for (int i = 0; i < len; ++i) {
+                    elemEnc.encode(java.lang.reflect.Array.get(val, i), out);
+                }
+                out.writeBlockEnd();
+            };
+        } else {
+            final Encoder elemEnc = nullChecked(compile(elemSchema, elemType, null), elemSchema, "array element");
+            return (val, out) -> {
+                final Object[] arr = (Object[])val;
+                out.writeBlockCount(arr.length);
+                for (Object v : arr) {
+                    elemEnc.encode(v, out);
+                }
+                out.writeBlockEnd();
+            };
+        }
+    }
+
+    private Encoder collection(Schema elemSchema, Class<?> elemType) {
+        final Encoder elemEnc = nullChecked(compile(elemSchema, elemType, null), elemSchema, "collection element");
+        return (val, out) -> {
+            final Collection<?> coll = (Collection<?>)val;
+            out.writeBlockCount(coll.size());
+            for (Object v : coll) {
+                elemEnc.encode(v, out);
+            }
+            out.writeBlockEnd();
+        };
+    }
+
+    private Encoder map(Schema valueSchema, Class<?> valueType) {
+        final Encoder valueEnc = nullChecked(compile(valueSchema, valueType, null), valueSchema, "map value");
+        return (val, out) -> {
+            final Map<?, ?> map = (Map<?, ?>)val;
+            out.writeBlockCount(map.size());
+            for (Map.Entry<?, ?> en : map.entrySet()) {
+                out.writeString((String)en.getKey());
+                valueEnc.encode(en.getValue(), out);
+            }
+            out.writeBlockEnd();
+        };
+    }
+
+    private Encoder record(Schema schema, Class<?> type) {
+        final Map<Class<?>, RecordEncoder> byType = records.computeIfAbsent(schema, s -> new HashMap<>());
+        final RecordEncoder existing = byType.get(type);
+        if (existing != null) {
+            return existing;
+        }
+
+        final RecordEncoder recEnc = new RecordEncoder();
+        byType.put(type, recEnc);
+
+        final Map<String, Field> javaFields = javaFields(type);
+        final List<Schema.Field> schemaFields = schema.getFields();
+        final Encoder[] fieldEncs = new Encoder[schemaFields.size()];
+        for (int i = 0; i < fieldEncs.length; ++i) {
+            final Schema.Field schemaField = schemaFields.get(i);
+            Field field = javaFields.get(schemaField.name());
+            if (field == null) {
+                for (String alias : schemaField.aliases()) {
+                    field = javaFields.get(alias);
+                    if (field != null) {
+                        break;
+                    }
+                }
+            }
+
+            if (field != null) {
+                fieldEncs[i] = field(field, schemaField.schema());
+            } else if (isNullable(schemaField.schema())) {
+                // Write a null for schema fields which have no corresponding Java field.
+                fieldEncs[i] = nullEncoder(schemaField.schema());
+            } else {
+                throw new CodecException(
+                        "No field '" + schemaField.name() + "' in " + type +
+                                " for schema '" + schema.getFullName() + "'"
+                );
+            }
+        }
+
+        recEnc.fields = fieldEncs;
+        return recEnc;
+    }
+
+    private static Encoder nullEncoder(Schema schema) {
+        if (schema.getType() == Schema.Type.NULL) {
+            return (val, out) -> {};
+        }
+
+        final List<Schema> branches = schema.getTypes();
+        int nullIndex = 0;
+        while (branches.get(nullIndex).getType() != Schema.Type.NULL) {
+            ++nullIndex;
+        }
+
+        final int nullIdx = nullIndex;
+        return (val, out) -> out.writeIndex(nullIdx);
+    }
+
+    private Encoder field(Field field, Schema schema) {
+        final FieldAccessor acc = config.fieldAccessorFactory().create(field);
+        final Class<?> type = field.getType();
+
+        // Primitive fields with a directly corresponding schema type are written without boxing.
+        switch (schema.getType()) {
+            case BOOLEAN:
+                if (type == boolean.class) {
+                    return (obj, out) -> out.writeBoolean(acc.getBoolean(obj));
+                }
+                break;
+            case INT:
+                if (type == int.class) {
+                    return (obj, out) -> out.writeInt(acc.getInt(obj));
+                } else if (type == short.class) {
+                    return (obj, out) -> out.writeInt(acc.getShort(obj));
+                }
+                break;
+            case LONG:
+                if (type == long.class) {
+                    return (obj, out) -> out.writeLong(acc.getLong(obj));
+                }
+                break;
+            case FLOAT:
+                if (type == float.class) {
+                    return (obj, out) -> out.writeFloat(acc.getFloat(obj));
+                }
+                break;
+            case DOUBLE:
+                if (type == double.class) {
+                    return (obj, out) -> out.writeDouble(acc.getDouble(obj));
+                }
+                break;
+            case FIXED:
+                if (type == byte.class && schema.getFixedSize() == 1) {
+                    return (obj, out) -> out.writeFixed(acc.getByte(obj));
+                }
+                break;
+            case STRING:
+                if (type == char.class) {
+                    return (obj, out) -> out.writeString(String.valueOf(acc.getChar(obj)));
+                }
+                break;
+        }
+
+        final Encoder enc = nullChecked(
+                compile(schema, type, typeArgOf(field)),
+                schema,
+                "field '" + field.getName() + "'"
+        );
+        return (obj, out) -> enc.encode(acc.get(obj), out);
+    }
+}
@@ -0,0 +1,4 @@
+/**
+ * This package contains classes which encode values directly to and from the Avro binary encoding.
+ */
+package org.typemeta.funcj.codec.avro.binary;
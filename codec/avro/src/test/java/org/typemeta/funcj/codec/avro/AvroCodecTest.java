@@ -1,11 +1,14 @@
 package org.typemeta.funcj.codec.avro;
 
 import org.apache.avro.Schema;
-import org.typemeta.funcj.codec.TestBase;
+import org.junit.*;
+import org.typemeta.funcj.codec.*;
 import org.typemeta.funcj.codec.avro.schema.AvroSchemaCodecCore;
 
+import java.io.*;
 import java.lang.reflect.Field;
 import java.time.LocalDate;
+import java.util.*;
 
 public class AvroCodecTest {
 
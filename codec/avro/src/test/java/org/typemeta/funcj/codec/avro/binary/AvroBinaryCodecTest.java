@@ -0,0 +1,218 @@
+package org.typemeta.funcj.codec.avro.binary;
+
+import org.apache.avro.Schema;
+import org.apache.avro.generic.*;
+import org.apache.avro.io.*;
+import org.junit.*;
+
+import java.io.*;
+import java.nio.ByteBuffer;
+import java.util.*;
+
+public class AvroBinaryCodecTest {
+
+    enum Colour {RED, GREEN, BLUE}
+
+    static class Inner {
+        String s;
+        Integer bi;
+
+        Inner() {
+        }
+
+        Inner(String s, Integer bi) {
+            this.s = s;
+            this.bi = bi;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (o == null || getClass() != o.getClass()) {
+                return false;
+            }
+            final Inner inner = (Inner) o;
+            return Objects.equals(s, inner.s) && Objects.equals(bi, inner.bi);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(s, bi);
+        }
+    }
+
+    static class TestType {
+        boolean bo;
+        byte by;
+        char ch;
+        short sh;
+        int in;
+        long lo;
+        float fl;
+        double du;
+
+        int[] ia;
+        double[] da;
+        char[] ca;
+        byte[] ba;
+
+        String st;
+        Colour en;
+        Colour[] ens;
+        List<String> ls;
+        Set<Integer> si;
+        Map<String, Inner> m;
+        Inner inner;
+        Double bd;
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (o == null || getClass() != o.getClass()) {
+                return false;
+            }
+            final TestType that = (TestType) o;
+            return bo == that.bo &&
+                    by == that.by &&
+                    ch == that.ch &&
+                    sh == that.sh &&
+                    in == that.in &&
+                    lo == that.lo &&
+                    Float.compare(that.fl, fl) == 0 &&
+                    Double.compare(that.du, du) == 0 &&
+                    Arrays.equals(ia, that.ia) &&
+                    Arrays.equals(da, that.da) &&
+                    Arrays.equals(ca, that.ca) &&
+                    Arrays.equals(ba, that.ba) &&
+                    Objects.equals(st, that.st) &&
+                    en == that.en &&
+                    Arrays.equals(ens, that.ens) &&
+                    Objects.equals(ls, that.ls) &&
+                    Objects.equals(si, that.si) &&
+                    Objects.equals(m, that.m) &&
+                    Objects.equals(inner, that.inner) &&
+                    Objects.equals(bd, that.bd);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(bo, by, ch, sh, in, lo, fl, du, st, en, ls, si, m, inner, bd);
+        }
+    }
+
+    static class OldVersion {
+        int a;
+        String removed;
+        int b;
+    }
+
+    static class NewVersion {
+        long a;
+        int b;
+        String added = "ctor";
+    }
+
+    private static TestType testValue() {
+        final TestType val = new TestType();
+        val.bo = true;
+        val.by = -3;
+        val.ch = 'é';
+        val.sh = -300;
+        val.in = Integer.MIN_VALUE;
+        val.lo = Long.MAX_VALUE;
+        val.fl = 1.5f;
+        val.du = -2.25;
+        val.ia = new int[]{1, -2, 300000};
+        val.da = new double[]{1.0, Double.NaN};
+        val.ca = "h😀i".toCharArray();
+        val.ba = new byte[]{1, 2, 3};
+        val.st = "héllo 😀";
+        val.en = Colour.BLUE;
+        val.ens = new Colour[]{Colour.RED, null};
+        val.ls = Arrays.asList("a", null, "c");
+        val.si = new HashSet<>(Arrays.asList(1, 2));
+        val.m = new HashMap<>();
+        val.m.put("k", new Inner("v", 7));
+        val.m.put("n", null);
+        val.inner = new Inner(null, null);
+        val.bd = null;
+        return val;
+    }
+
+    private final AvroBinaryCodec codec = new AvroBinaryCodec();
+
+    @Test
+    public void testRoundTripBytes() {
+        final TestType val = testValue();
+        final byte[] bytes = codec.encodeToBytes(TestType.class, val);
+        Assert.assertEquals(val, codec.decode(TestType.class, bytes));
+    }
+
+    @Test
+    public void testRoundTripNull() {
+        final byte[] bytes = codec.encodeToBytes(TestType.class, null);
+        Assert.assertNull(codec.decode(TestType.class, bytes));
+    }
+
+    @Test
+    public void testRoundTripStream() {
+        final TestType val = testValue();
+        final ByteArrayOutputStream baos = new ByteArrayOutputStream();
+        codec.encode(TestType.class, val, baos);
+
+        final Schema schema = codec.schemaOf(TestType.class);
+        final AvroBinaryInput in = new AvroBinaryInput(new ByteArrayInputStream(baos.toByteArray()), 3);
+        Assert.assertEquals(val, codec.decode(TestType.class, schema, schema, in));
+    }
+
+    @Test
+    public void testRoundTripDirectBuffer() {
+        final TestType val = testValue();
+        final ByteBuffer bb = ByteBuffer.allocateDirect(4096);
+        codec.encode(TestType.class, val, bb);
+        bb.flip();
+
+        Assert.assertEquals(val, codec.decode(TestType.class, bb));
+        Assert.assertEquals(0, bb.remaining());
+    }
+
+    @Test
+    public void testSchemaResolution() {
+        final OldVersion old = new OldVersion();
+        old.a = 5;
+        old.removed = "removed";
+        old.b = 9;
+        final byte[] bytes = codec.encodeToBytes(OldVersion.class, old);
+
+        final NewVersion nv = codec.decode(NewVersion.class, codec.schemaOf(OldVersion.class), bytes);
+        Assert.assertEquals(5L, nv.a);
+        Assert.assertEquals(9, nv.b);
+        Assert.assertEquals("ctor", nv.added);
+    }
+
+    @Test
+    public void testPlansAreCached() {
+        final Schema schema = codec.schemaOf(TestType.class);
+        Assert.assertSame(codec.encoder(TestType.class, schema), codec.encoder(TestType.class, schema));
+        Assert.assertSame(
+                codec.decoder(TestType.class, schema, schema),
+                codec.decoder(TestType.class, schema, schema)
+        );
+    }
+
+    @Test
+    public void testReadableByAvro() throws IOException {
+        final Inner val = new Inner("abc", 42);
+        final Schema schema = codec.schemaOf(Inner.class);
+        final byte[] bytes = codec.encodeToBytes(Inner.class, val);
+
+        final BinaryDecoder decoder = DecoderFactory.get().binaryDecoder(bytes, null);
+        final GenericRecord rec = (GenericRecord) new GenericDatumReader<Object>(schema).read(null, decoder);
+        Assert.assertEquals("abc", rec.get("s").toString());
+        Assert.assertEquals(42, rec.get("bi"));
+    }
+}
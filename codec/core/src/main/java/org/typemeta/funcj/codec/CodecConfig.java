@@ -108,6 +108,12 @@ public interface CodecConfig {
      */
     boolean failOnUnrecognisedFields();
 
+    /**
+     * Return the factory used to create the {@link FieldAccessor}s for object fields.
+     * @return          the field accessor factory
+     */
+    FieldAccessor.Factory fieldAccessorFactory();
+
     /**
      * Interface for classes which build {@link CodecConfig} implementations.
      * @param <B>       the builder implementation type
@@ -181,5 +187,12 @@ public interface CodecConfig {
          * @param enable    specify whether an unrecognised field should give rise to an error.
          */
         B failOnUnrecognisedFields(boolean enable);
+
+        /**
+         * Specify the factory used to create the {@link FieldAccessor}s for object fields.
+         * By default this is {@link FieldAccessor.Factory#METHOD_HANDLE}.
+         * @param factory   the field accessor factory
+         */
+        B fieldAccessorFactory(FieldAccessor.Factory factory);
     }
 }
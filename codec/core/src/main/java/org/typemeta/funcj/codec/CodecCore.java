@@ -1,5 +1,6 @@
 package org.typemeta.funcj.codec;
 
+import org.typemeta.funcj.codec.utils.RegistryStats;
 import org.typemeta.funcj.functions.Functions;
 
 import java.util.*;
@@ -128,4 +129,10 @@ <K, V> Codec<Map<K, V>, IN, OUT, CFG> getMapCodec(
             Class<Map<K, V>> mapType,
             Class<K> keyType,
             Class<V> valType);
+
+    /**
+     * Return a snapshot of the state of the codec registry.
+     * @return          the codec registry statistics
+     */
+    RegistryStats registryStats();
 }
@@ -1,6 +1,5 @@
 package org.typemeta.funcj.codec;
 
-import org.typemeta.funcj.codec.utils.CodecException;
 import org.typemeta.funcj.functions.Functions;
 
 import java.util.*;
@@ -111,19 +110,4 @@ <T> Codec<T[], IN, OUT, CFG> createObjectArrayCodec(
     <T, RA extends ObjectMeta.Builder<T>> Codec<T, IN, OUT, CFG> createObjectCodec(
             Class<T> clazz,
             ObjectMeta<T, IN, OUT, RA> objMeta);
-
-    default void checkFields(Class<?> clazz, Set<String> expNames, Set<String> actNames) {
-        if (!expNames.equals(actNames)) {
-            if (!expNames.containsAll(actNames)) {
-                if (config().failOnUnrecognisedFields()) {
-                    actNames.removeAll(expNames);
-                    throw new CodecException("Unrecognised fields for type " + clazz + " : " + actNames);
-                }
-            } else if (!actNames.containsAll(expNames)) {
-                final Set<String> keys = new TreeSet<>(expNames);
-                keys.removeAll(actNames);
-                throw new CodecException("Missing fields for type " + clazz + " : " + keys);
-            }
-        }
-    }
 }
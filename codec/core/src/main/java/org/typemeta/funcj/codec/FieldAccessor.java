@@ -0,0 +1,449 @@
+package org.typemeta.funcj.codec;
+
+import org.typemeta.funcj.codec.utils.CodecException;
+
+import java.lang.invoke.*;
+import java.lang.reflect.Field;
+
+/**
+ * A {@code FieldAccessor} encapsulates reading and writing the value of a single field.
+ * <p>
+ * Accessors are created once per field, when the object codec is constructed,
+ * by the {@link Factory} selected via {@link CodecConfig#fieldAccessorFactory()}.
+ * Each accessor supports the primitive-specialised get/set method pair
+ * corresponding to its field type, plus the generic {@link #get(Object)}
+ * and {@link #set(Object, Object)} methods, which box primitive values.
+ */
+public interface FieldAccessor {
+
+    /**
+     * Strategy interface for creating {@code FieldAccessor}s.
+     */
+    interface Factory {
+        /**
+         * Factory for accessors which use {@link Field} reflection.
+         */
+        Factory REFLECTION = ReflectionAccessor::new;
+
+        /**
+         * Factory for accessors which use {@link MethodHandle}s.
+         * Falls back to reflection if the method handles cannot be created.
+         */
+        Factory METHOD_HANDLE = field -> {
+            try {
+                return new MethodHandleAccessor(field);
+            } catch (IllegalAccessException | RuntimeException ex) {
+                return new ReflectionAccessor(field);
+            }
+        };
+
+        /**
+         * Create a {@code FieldAccessor} for the given field.
+         * @param field     the field
+         * @return          the new {@code FieldAccessor}
+         */
+        FieldAccessor create(Field field);
+    }
+
+    /**
+     * A {@code FieldAccessor} implementation which uses {@link Field} reflection.
+     * The field is made accessible once, on construction.
+     */
+    class ReflectionAccessor implements FieldAccessor {
+
+        protected final Field field;
+
+        public ReflectionAccessor(Field field) {
+            this.field = field;
+            field.setAccessible(true);
+        }
+
+        @Override
+        public boolean getBoolean(Object obj) {
+            try {
+                return field.getBoolean(obj);
+            } catch (IllegalAccessException ex) {
+                throw new CodecException(ex);
+            }
+        }
+
+        @Override
+        public void setBoolean(Object obj, boolean val) {
+            try {
+                field.setBoolean(obj, val);
+            } catch (IllegalAccessException ex) {
+                throw new CodecException(ex);
+            }
+        }
+
+        @Override
+        public byte getByte(Object obj) {
+            try {
+                return field.getByte(obj);
+            } catch (IllegalAccessException ex) {
+                throw new CodecException(ex);
+            }
+        }
+
+        @Override
+        public void setByte(Object obj, byte val) {
+            try {
+                field.setByte(obj, val);
+            } catch (IllegalAccessException ex) {
+                throw new CodecException(ex);
+            }
+        }
+
+        @Override
+        public char getChar(Object obj) {
+            try {
+                return field.getChar(obj);
+            } catch (IllegalAccessException ex) {
+                throw new CodecException(ex);
+            }
+        }
+
+        @Override
+        public void setChar(Object obj, char val) {
+            try {
+                field.setChar(obj, val);
+            } catch (IllegalAccessException ex) {
+                throw new CodecException(ex);
+            }
+        }
+
+        @Override
+        public short getShort(Object obj) {
+            try {
+                return field.getShort(obj);
+            } catch (IllegalAccessException ex) {
+                throw new CodecException(ex);
+            }
+        }
+
+        @Override
+        public void setShort(Object obj, short val) {
+            try {
+                field.setShort(obj, val);
+            } catch (IllegalAccessException ex) {
+                throw new CodecException(ex);
+            }
+        }
+
+        @Override
+        public int getInt(Object obj) {
+            try {
+                return field.getInt(obj);
+            } catch (IllegalAccessException ex) {
+                throw new CodecException(ex);
+            }
+        }
+
+        @Override
+        public void setInt(Object obj, int val) {
+            try {
+                field.setInt(obj, val);
+            } catch (IllegalAccessException ex) {
+                throw new CodecException(ex);
+            }
+        }
+
+        @Override
+        public long getLong(Object obj) {
+            try {
+                return field.getLong(obj);
+            } catch (IllegalAccessException ex) {
+                throw new CodecException(ex);
+            }
+        }
+
+        @Override
+        public void setLong(Object obj, long val) {
+            try {
+                field.setLong(obj, val);
+            } catch (IllegalAccessException ex) {
+                throw new CodecException(ex);
+            }
+        }
+
+        @Override
+        public float getFloat(Object obj) {
+            try {
+                return field.getFloat(obj);
+            } catch (IllegalAccessException ex) {
+                throw new CodecException(ex);
+            }
+        }
+
+        @Override
+        public void setFloat(Object obj, float val) {
+            try {
+                field.setFloat(obj, val);
+            } catch (IllegalAccessException ex) {
+                throw new CodecException(ex);
+            }
+        }
+
+        @Override
+        public double getDouble(Object obj) {
+            try {
+                return field.getDouble(obj);
+            } catch (IllegalAccessException ex) {
+                throw new CodecException(ex);
+            }
+        }
+
+        @Override
+        public void setDouble(Object obj, double val) {
+            try {
+                field.setDouble(obj, val);
+            } catch (IllegalAccessException ex) {
+                throw new CodecException(ex);
+            }
+        }
+
+        @Override
+        public Object get(Object obj) {
+            try {
+                return field.get(obj);
+            } catch (IllegalAccessException ex) {
+                throw new CodecException(ex);
+            }
+        }
+
+        @Override
+        public void set(Object obj, Object val) {
+            try {
+                field.set(obj, val);
+            } catch (IllegalAccessException ex) {
+                throw new CodecException(ex);
+            }
+        }
+    }
+
+    /**
+     * A {@code FieldAccessor} implementation which uses {@link MethodHandle}s.
+     * <p>
+     * The getter and setter handles are adapted to an erased receiver type
+     * of {@code Object} so that they can be invoked with {@code invokeExact}.
+     */
+    class MethodHandleAccessor implements FieldAccessor {
+
+        protected final MethodHandle getter;
+        protected final MethodHandle setter;
+        protected final MethodHandle boxedGetter;
+        protected final MethodHandle boxedSetter;
+
+        public MethodHandleAccessor(Field field) throws IllegalAccessException {
+            final Class<?> type = field.getType().isPrimitive() ? field.getType() : Object.class;
+            final MethodHandles.Lookup lookup = MethodHandles.lookup();
+            field.setAccessible(true);
+            this.getter = lookup.unreflectGetter(field)
+                    .asType(MethodType.methodType(type, Object.class));
+            this.setter = lookup.unreflectSetter(field)
+                    .asType(MethodType.methodType(void.class, Object.class, type));
+            this.boxedGetter = getter.asType(MethodType.methodType(Object.class, Object.class));
+            this.boxedSetter = setter.asType(MethodType.methodType(void.class, Object.class, Object.class));
+        }
+
+        @Override
+        public boolean getBoolean(Object obj) {
+            try {
+                return (boolean)getter.invokeExact(obj);
+            } catch (Throwable ex) {
+                throw new CodecException(ex);
+            }
+        }
+
+        @Override
+        public void setBoolean(Object obj, boolean val) {
+            try {
+                setter.invokeExact(obj, val);
+            } catch (Throwable ex) {
+                throw new CodecException(ex);
+            }
+        }
+
+        @Override
+        public byte getByte(Object obj) {
+            try {
+                return (byte)getter.invokeExact(obj);
+            } catch (Throwable ex) {
+                throw new CodecException(ex);
+            }
+        }
+
+        @Override
+        public void setByte(Object obj, byte val) {
+            try {
+                setter.invokeExact(obj, val);
+            } catch (Throwable ex) {
+                throw new CodecException(ex);
+            }
+        }
+
+        @Override
+        public char getChar(Object obj) {
+            try {
+                return (char)getter.invokeExact(obj);
+            } catch (Throwable ex) {
+                throw new CodecException(ex);
+            }
+        }
+
+        @Override
+        public void setChar(Object obj, char val) {
+            try {
+                setter.invokeExact(obj, val);
+            } catch (Throwable ex) {
+                throw new CodecException(ex);
+            }
+        }
+
+        @Override
+        public short getShort(Object obj) {
+            try {
+                return (short)getter.invokeExact(obj);
+            } catch (Throwable ex) {
+                throw new CodecException(ex);
+            }
+        }
+
+        @Override
+        public void setShort(Object obj, short val) {
+            try {
+                setter.invokeExact(obj, val);
+            } catch (Throwable ex) {
+                throw new CodecException(ex);
+            }
+        }
+
+        @Override
+        public int getInt(Object obj) {
+            try {
+                return (int)getter.invokeExact(obj);
+            } catch (Throwable ex) {
+                throw new CodecException(ex);
+            }
+        }
+
+        @Override
+        public void setInt(Object obj, int val) {
+            try {
+                setter.invokeExact(obj, val);
+            } catch (Throwable ex) {
+                throw new CodecException(ex);
+            }
+        }
+
+        @Override
+        public long getLong(Object obj) {
+            try {
+                return (long)getter.invokeExact(obj);
+            } catch (Throwable ex) {
+                throw new CodecException(ex);
+            }
+        }
+
+        @Override
+        public void setLong(Object obj, long val) {
+            try {
+                setter.invokeExact(obj, val);
+            } catch (Throwable ex) {
+                throw new CodecException(ex);
+            }
+        }
+
+        @Override
+        public float getFloat(Object obj) {
+            try {
+                return (float)getter.invokeExact(obj);
+            } catch (Throwable ex) {
+                throw new CodecException(ex);
+            }
+        }
+
+        @Override
+        public void setFloat(Object obj, float val) {
+            try {
+                setter.invokeExact(obj, val);
+            } catch (Throwable ex) {
+                throw new CodecException(ex);
+            }
+        }
+
+        @Override
+        public double getDouble(Object obj) {
+            try {
+                return (double)getter.invokeExact(obj);
+            } catch (Throwable ex) {
+                throw new CodecException(ex);
+            }
+        }
+
+        @Override
+        public void setDouble(Object obj, double val) {
+            try {
+                setter.invokeExact(obj, val);
+            } catch (Throwable ex) {
+                throw new CodecException(ex);
+            }
+        }
+
+        @Override
+        public Object get(Object obj) {
+            try {
+                return (Object)boxedGetter.invokeExact(obj);
+            } catch (Throwable ex) {
+                throw new CodecException(ex);
+            }
+        }
+
+        @Override
+        public void set(Object obj, Object val) {
+            try {
+                boxedSetter.invokeExact(obj, val);
+            } catch (Throwable ex) {
+                throw new CodecException(ex);
+            }
+        }
+    }
+
+    boolean getBoolean(Object obj);
+    void setBoolean(Object obj, boolean val);
+
+    byte getByte(Object obj);
+    void setByte(Object obj, byte val);
+
+    char getChar(Object obj);
+    void setChar(Object obj, char val);
+
+    short getShort(Object obj);
+    void setShort(Object obj, short val);
+
+    int getInt(Object obj);
+    void setInt(Object obj, int val);
+
+    long getLong(Object obj);
+    void setLong(Object obj, long val);
+
+    float getFloat(Object obj);
+    void setFloat(Object obj, float val);
+
+    double getDouble(Object obj);
+    void setDouble(Object obj, double val);
+
+    /**
+     * Get the value of a field, boxing it if it is a primitive.
+     * @param obj       the object to which the field belongs
+     * @return          the field value
+     */
+    Object get(Object obj);
+
+    /**
+     * Set the value of a field, unboxing it if it is a primitive.
+     * @param obj       the object to which the field belongs
+     * @param val       the new field value
+     */
+    void set(Object obj, Object val);
+}
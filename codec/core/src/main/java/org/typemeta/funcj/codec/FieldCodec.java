@@ -1,8 +1,6 @@
 package org.typemeta.funcj.codec;
 
-import org.typemeta.funcj.codec.utils.CodecException;
-
-import java.lang.reflect.*;
+import java.lang.reflect.Field;
 import java.util.Objects;
 
 /**
@@ -27,18 +25,15 @@
 
         protected final Field field;
 
-        protected final boolean isAccessible;
+        protected final FieldAccessor accessor;
 
-        protected Impl(Field field) {
+        protected Impl(Field field, FieldAccessor accessor) {
             this.field = field;
-            this.isAccessible = Modifier.isFinal(field.getModifiers()) ||
-                    !Modifier.isPublic(field.getModifiers());
+            this.accessor = Objects.requireNonNull(accessor);
         }
 
-        protected void setAccessible(boolean flag) {
-            if (isAccessible) {
-                field.setAccessible(flag);
-            }
+        protected Impl(Field field) {
+            this(field, FieldAccessor.Factory.REFLECTION.create(field));
         }
     }
 
@@ -50,6 +45,11 @@ protected void setAccessible(boolean flag) {
 
         protected final Codec.BooleanCodec<IN, OUT, CFG> codec;
 
+        public BooleanFieldCodec(Field field, FieldAccessor accessor, Codec.BooleanCodec<IN, OUT, CFG> codec) {
+            super(field, accessor);
+            this.codec = Objects.requireNonNull(codec);
+        }
+
         public BooleanFieldCodec(Field field, Codec.BooleanCodec<IN, OUT, CFG> codec) {
             super(field);
             this.codec = Objects.requireNonNull(codec);
@@ -57,18 +57,14 @@ public BooleanFieldCodec(Field field, Codec.BooleanCodec<IN, OUT, CFG> codec) {
 
         @Override
         public OUT encodeField(CodecCoreEx<IN, OUT, CFG> core, Object obj, OUT out) {
-            setAccessible(true);
-            final boolean fieldVal = CodecException.wrap(() -> field.getBoolean(obj));
-            setAccessible(false);
+            final boolean fieldVal = accessor.getBoolean(obj);
             return codec.encodePrim(fieldVal, out);
         }
 
         @Override
         public void decodeField(CodecCoreEx<IN, OUT, CFG> core, Object obj, IN in) {
             final boolean fieldVal = codec.decodePrim(in);
-            setAccessible(true);
-            CodecException.wrap(() -> field.setBoolean(obj, fieldVal));
-            setAccessible(false);
+            accessor.setBoolean(obj, fieldVal);
         }
     }
 
@@ -80,6 +76,11 @@ public void decodeField(CodecCoreEx<IN, OUT, CFG> core, Object obj, IN in) {
 
         protected final Codec<boolean[], IN, OUT, CFG> codec;
 
+        public BooleanArrayFieldCodec(Field field, FieldAccessor accessor, Codec<boolean[], IN, OUT, CFG> codec) {
+            super(field, accessor);
+            this.codec = Objects.requireNonNull(codec);
+        }
+
         public BooleanArrayFieldCodec(Field field, Codec<boolean[], IN, OUT, CFG> codec) {
             super(field);
             this.codec = Objects.requireNonNull(codec);
@@ -87,18 +88,14 @@ public BooleanArrayFieldCodec(Field field, Codec<boolean[], IN, OUT, CFG> codec)
 
         @Override
         public OUT encodeField(CodecCoreEx<IN, OUT, CFG> core, Object obj, OUT out) {
-            setAccessible(true);
-            final boolean[] fieldVal = CodecException.wrap(() -> (boolean[]) field.get(obj));
-            setAccessible(false);
+            final boolean[] fieldVal = (boolean[]) accessor.get(obj);
             return codec.encodeWithCheck(core, fieldVal, out);
         }
 
         @Override
         public void decodeField(CodecCoreEx<IN, OUT, CFG> core, Object obj, IN in) {
             final boolean[] fieldVal = codec.decodeWithCheck(core, in);
-            setAccessible(true);
-            CodecException.wrap(() -> field.set(obj, fieldVal));
-            setAccessible(false);
+            accessor.set(obj, fieldVal);
         }
     }
 
@@ -110,6 +107,11 @@ public void decodeField(CodecCoreEx<IN, OUT, CFG> core, Object obj, IN in) {
 
         protected final Codec.ByteCodec<IN, OUT, CFG> codec;
 
+        public ByteFieldCodec(Field field, FieldAccessor accessor, Codec.ByteCodec<IN, OUT, CFG> codec) {
+            super(field, accessor);
+            this.codec = Objects.requireNonNull(codec);
+        }
+
         public ByteFieldCodec(Field field, Codec.ByteCodec<IN, OUT, CFG> codec) {
             super(field);
             this.codec = Objects.requireNonNull(codec);
@@ -117,18 +119,14 @@ public ByteFieldCodec(Field field, Codec.ByteCodec<IN, OUT, CFG> codec) {
 
         @Override
         public OUT encodeField(CodecCoreEx<IN, OUT, CFG> core, Object obj, OUT out) {
-            setAccessible(true);
-            final byte fieldVal = CodecException.wrap(() -> field.getByte(obj));
-            setAccessible(false);
+            final byte fieldVal = accessor.getByte(obj);
             return codec.encodePrim(fieldVal, out);
         }
 
         @Override
         public void decodeField(CodecCoreEx<IN, OUT, CFG> core, Object obj, IN in) {
             final byte fieldVal = codec.decodePrim(in);
-            setAccessible(true);
-            CodecException.wrap(() -> field.setByte(obj, fieldVal));
-            setAccessible(false);
+            accessor.setByte(obj, fieldVal);
         }
     }
 
@@ -140,6 +138,11 @@ public void decodeField(CodecCoreEx<IN, OUT, CFG> core, Object obj, IN in) {
 
         protected final Codec<byte[], IN, OUT, CFG> codec;
 
+        public ByteArrayFieldCodec(Field field, FieldAccessor accessor, Codec<byte[], IN, OUT, CFG> codec) {
+            super(field, accessor);
+            this.codec = Objects.requireNonNull(codec);
+        }
+
         public ByteArrayFieldCodec(Field field, Codec<byte[], IN, OUT, CFG> codec) {
             super(field);
             this.codec = Objects.requireNonNull(codec);
@@ -147,18 +150,14 @@ public ByteArrayFieldCodec(Field field, Codec<byte[], IN, OUT, CFG> codec) {
 
         @Override
         public OUT encodeField(CodecCoreEx<IN, OUT, CFG> core, Object obj, OUT out) {
-            setAccessible(true);
-            final byte[] fieldVal = CodecException.wrap(() -> (byte[]) field.get(obj));
-            setAccessible(false);
+            final byte[] fieldVal = (byte[]) accessor.get(obj);
             return codec.encodeWithCheck(core, fieldVal, out);
         }
 
         @Override
         public void decodeField(CodecCoreEx<IN, OUT, CFG> core, Object obj, IN in) {
             final byte[] fieldVal = codec.decodeWithCheck(core, in);
-            setAccessible(true);
-            CodecException.wrap(() -> field.set(obj, fieldVal));
-            setAccessible(false);
+            accessor.set(obj, fieldVal);
         }
     }
 
@@ -170,6 +169,11 @@ public void decodeField(CodecCoreEx<IN, OUT, CFG> core, Object obj, IN in) {
 
         protected final Codec.CharCodec<IN, OUT, CFG> codec;
 
+        public CharFieldCodec(Field field, FieldAccessor accessor, Codec.CharCodec<IN, OUT, CFG> codec) {
+            super(field, accessor);
+            this.codec = Objects.requireNonNull(codec);
+        }
+
         public CharFieldCodec(Field field, Codec.CharCodec<IN, OUT, CFG> codec) {
             super(field);
             this.codec = Objects.requireNonNull(codec);
@@ -177,18 +181,14 @@ public CharFieldCodec(Field field, Codec.CharCodec<IN, OUT, CFG> codec) {
 
         @Override
         public OUT encodeField(CodecCoreEx<IN, OUT, CFG> core, Object obj, OUT out) {
-            setAccessible(true);
-            final char fieldVal = CodecException.wrap(() -> field.getChar(obj));
-            setAccessible(false);
+            final char fieldVal = accessor.getChar(obj);
             return codec.encodePrim(fieldVal, out);
         }
 
         @Override
         public void decodeField(CodecCoreEx<IN, OUT, CFG> core, Object obj, IN in) {
             final char fieldVal = codec.decodePrim(in);
-            setAccessible(true);
-            CodecException.wrap(() -> field.setChar(obj, fieldVal));
-            setAccessible(false);
+            accessor.setChar(obj, fieldVal);
         }
     }
 
@@ -200,6 +200,11 @@ public void decodeField(CodecCoreEx<IN, OUT, CFG> core, Object obj, IN in) {
 
         protected final Codec<char[], IN, OUT, CFG> codec;
 
+        public CharArrayFieldCodec(Field field, FieldAccessor accessor, Codec<char[], IN, OUT, CFG> codec) {
+            super(field, accessor);
+            this.codec = Objects.requireNonNull(codec);
+        }
+
         public CharArrayFieldCodec(Field field, Codec<char[], IN, OUT, CFG> codec) {
             super(field);
             this.codec = Objects.requireNonNull(codec);
@@ -207,18 +212,14 @@ public CharArrayFieldCodec(Field field, Codec<char[], IN, OUT, CFG> codec) {
 
         @Override
         public OUT encodeField(CodecCoreEx<IN, OUT, CFG> core, Object obj, OUT out) {
-            setAccessible(true);
-            final char[] fieldVal = CodecException.wrap(() -> (char[]) field.get(obj));
-            setAccessible(false);
+            final char[] fieldVal = (char[]) accessor.get(obj);
             return codec.encodeWithCheck(core, fieldVal, out);
         }
 
         @Override
         public void decodeField(CodecCoreEx<IN, OUT, CFG> core, Object obj, IN in) {
             final char[] fieldVal = codec.decodeWithCheck(core, in);
-            setAccessible(true);
-            CodecException.wrap(() -> field.set(obj, fieldVal));
-            setAccessible(false);
+            accessor.set(obj, fieldVal);
         }
     }
 
@@ -230,6 +231,11 @@ public void decodeField(CodecCoreEx<IN, OUT, CFG> core, Object obj, IN in) {
 
         protected final Codec.ShortCodec<IN, OUT, CFG> codec;
 
+        public ShortFieldCodec(Field field, FieldAccessor accessor, Codec.ShortCodec<IN, OUT, CFG> codec) {
+            super(field, accessor);
+            this.codec = Objects.requireNonNull(codec);
+        }
+
         public ShortFieldCodec(Field field, Codec.ShortCodec<IN, OUT, CFG> codec) {
             super(field);
             this.codec = Objects.requireNonNull(codec);
@@ -237,18 +243,14 @@ public ShortFieldCodec(Field field, Codec.ShortCodec<IN, OUT, CFG> codec) {
 
         @Override
         public OUT encodeField(CodecCoreEx<IN, OUT, CFG> core, Object obj, OUT out) {
-            setAccessible(true);
-            final short fieldVal = CodecException.wrap(() -> field.getShort(obj));
-            setAccessible(false);
+            final short fieldVal = accessor.getShort(obj);
             return codec.encodePrim(fieldVal, out);
         }
 
         @Override
         public void decodeField(CodecCoreEx<IN, OUT, CFG> core, Object obj, IN in) {
             final short fieldVal = codec.decodePrim(in);
-            setAccessible(true);
-            CodecException.wrap(() -> field.setShort(obj, fieldVal));
-            setAccessible(false);
+            accessor.setShort(obj, fieldVal);
         }
     }
 
@@ -260,6 +262,11 @@ public void decodeField(CodecCoreEx<IN, OUT, CFG> core, Object obj, IN in) {
 
         protected final Codec<short[], IN, OUT, CFG> codec;
 
+        public ShortArrayFieldCodec(Field field, FieldAccessor accessor, Codec<short[], IN, OUT, CFG> codec) {
+            super(field, accessor);
+            this.codec = Objects.requireNonNull(codec);
+        }
+
         public ShortArrayFieldCodec(Field field, Codec<short[], IN, OUT, CFG> codec) {
             super(field);
             this.codec = Objects.requireNonNull(codec);
@@ -267,18 +274,14 @@ public ShortArrayFieldCodec(Field field, Codec<short[], IN, OUT, CFG> codec) {
 
         @Override
         public OUT encodeField(CodecCoreEx<IN, OUT, CFG> core, Object obj, OUT out) {
-            setAccessible(true);
-            final short[] fieldVal = CodecException.wrap(() -> (short[]) field.get(obj));
-            setAccessible(false);
+            final short[] fieldVal = (short[]) accessor.get(obj);
             return codec.encodeWithCheck(core, fieldVal, out);
         }
 
         @Override
         public void decodeField(CodecCoreEx<IN, OUT, CFG> core, Object obj, IN in) {
             final short[] fieldVal = codec.decodeWithCheck(core, in);
-            setAccessible(true);
-            CodecException.wrap(() -> field.set(obj, fieldVal));
-            setAccessible(false);
+            accessor.set(obj, fieldVal);
         }
     }
 
@@ -290,6 +293,11 @@ public void decodeField(CodecCoreEx<IN, OUT, CFG> core, Object obj, IN in) {
 
         protected final Codec.IntCodec<IN, OUT, CFG> codec;
 
+        public IntegerFieldCodec(Field field, FieldAccessor accessor, Codec.IntCodec<IN, OUT, CFG> codec) {
+            super(field, accessor);
+            this.codec = Objects.requireNonNull(codec);
+        }
+
         public IntegerFieldCodec(Field field, Codec.IntCodec<IN, OUT, CFG> codec) {
             super(field);
             this.codec = Objects.requireNonNull(codec);
@@ -297,17 +305,13 @@ public IntegerFieldCodec(Field field, Codec.IntCodec<IN, OUT, CFG> codec) {
 
         @Override
         public OUT encodeField(CodecCoreEx<IN, OUT, CFG> core, Object obj, OUT out) {
-            setAccessible(true);
-            final int fieldVal = CodecException.wrap(() -> field.getInt(obj));
-            setAccessible(false);
+            final int fieldVal = accessor.getInt(obj);
             return codec.encodePrim(fieldVal, out);
         }
 
         public void decodeField(CodecCoreEx<IN, OUT, CFG> core, Object obj, IN in) {
             final int fieldVal = codec.decodePrim(in);
-            setAccessible(true);
-            CodecException.wrap(() -> field.setInt(obj, fieldVal));
-            setAccessible(false);
+            accessor.setInt(obj, fieldVal);
         }
     }
 
@@ -319,6 +323,11 @@ public void decodeField(CodecCoreEx<IN, OUT, CFG> core, Object obj, IN in) {
 
         protected final Codec<int[], IN, OUT, CFG> codec;
 
+        public IntegerArrayFieldCodec(Field field, FieldAccessor accessor, Codec<int[], IN, OUT, CFG> codec) {
+            super(field, accessor);
+            this.codec = Objects.requireNonNull(codec);
+        }
+
         public IntegerArrayFieldCodec(Field field, Codec<int[], IN, OUT, CFG> codec) {
             super(field);
             this.codec = Objects.requireNonNull(codec);
@@ -326,18 +335,14 @@ public IntegerArrayFieldCodec(Field field, Codec<int[], IN, OUT, CFG> codec) {
 
         @Override
         public OUT encodeField(CodecCoreEx<IN, OUT, CFG> core, Object obj, OUT out) {
-            setAccessible(true);
-            final int[] fieldVal = CodecException.wrap(() -> (int[]) field.get(obj));
-            setAccessible(false);
+            final int[] fieldVal = (int[]) accessor.get(obj);
             return codec.encodeWithCheck(core, fieldVal, out);
         }
 
         @Override
         public void decodeField(CodecCoreEx<IN, OUT, CFG> core, Object obj, IN in) {
             final int[] fieldVal = codec.decodeWithCheck(core, in);
-            setAccessible(true);
-            CodecException.wrap(() -> field.set(obj, fieldVal));
-            setAccessible(false);
+            accessor.set(obj, fieldVal);
         }
     }
 
@@ -349,6 +354,11 @@ public void decodeField(CodecCoreEx<IN, OUT, CFG> core, Object obj, IN in) {
 
         protected final Codec.LongCodec<IN, OUT, CFG> codec;
 
+        public LongFieldCodec(Field field, FieldAccessor accessor, Codec.LongCodec<IN, OUT, CFG> codec) {
+            super(field, accessor);
+            this.codec = Objects.requireNonNull(codec);
+        }
+
         public LongFieldCodec(Field field, Codec.LongCodec<IN, OUT, CFG> codec) {
             super(field);
             this.codec = Objects.requireNonNull(codec);
@@ -356,18 +366,14 @@ public LongFieldCodec(Field field, Codec.LongCodec<IN, OUT, CFG> codec) {
 
         @Override
         public OUT encodeField(CodecCoreEx<IN, OUT, CFG> core, Object obj, OUT out) {
-            setAccessible(true);
-            final long fieldVal = CodecException.wrap(() -> field.getLong(obj));
-            setAccessible(false);
+            final long fieldVal = accessor.getLong(obj);
             return codec.encodePrim(fieldVal, out);
         }
 
         @Override
         public void decodeField(CodecCoreEx<IN, OUT, CFG> core, Object obj, IN in) {
             final long fieldVal = codec.decodePrim(in);
-            setAccessible(true);
-            CodecException.wrap(() -> field.setLong(obj, fieldVal));
-            setAccessible(false);
+            accessor.setLong(obj, fieldVal);
         }
     }
 
@@ -379,6 +385,11 @@ public void decodeField(CodecCoreEx<IN, OUT, CFG> core, Object obj, IN in) {
 
         protected final Codec<long[], IN, OUT, CFG> codec;
 
+        public LongArrayFieldCodec(Field field, FieldAccessor accessor, Codec<long[], IN, OUT, CFG> codec) {
+            super(field, accessor);
+            this.codec = Objects.requireNonNull(codec);
+        }
+
         public LongArrayFieldCodec(Field field, Codec<long[], IN, OUT, CFG> codec) {
             super(field);
             this.codec = Objects.requireNonNull(codec);
@@ -386,18 +397,14 @@ public LongArrayFieldCodec(Field field, Codec<long[], IN, OUT, CFG> codec) {
 
         @Override
         public OUT encodeField(CodecCoreEx<IN, OUT, CFG> core, Object obj, OUT out) {
-            setAccessible(true);
-            final long[] fieldVal = CodecException.wrap(() -> (long[]) field.get(obj));
-            setAccessible(false);
+            final long[] fieldVal = (long[]) accessor.get(obj);
             return codec.encodeWithCheck(core, fieldVal, out);
         }
 
         @Override
         public void decodeField(CodecCoreEx<IN, OUT, CFG> core, Object obj, IN in) {
             final long[] fieldVal = codec.decodeWithCheck(core, in);
-            setAccessible(true);
-            CodecException.wrap(() -> field.set(obj, fieldVal));
-            setAccessible(false);
+            accessor.set(obj, fieldVal);
         }
     }
 
@@ -409,6 +416,11 @@ public void decodeField(CodecCoreEx<IN, OUT, CFG> core, Object obj, IN in) {
 
         protected final Codec.FloatCodec<IN, OUT, CFG> codec;
 
+        public FloatFieldCodec(Field field, FieldAccessor accessor, Codec.FloatCodec<IN, OUT, CFG> codec) {
+            super(field, accessor);
+            this.codec = Objects.requireNonNull(codec);
+        }
+
         public FloatFieldCodec(Field field, Codec.FloatCodec<IN, OUT, CFG> codec) {
             super(field);
             this.codec = Objects.requireNonNull(codec);
@@ -416,18 +428,14 @@ public FloatFieldCodec(Field field, Codec.FloatCodec<IN, OUT, CFG> codec) {
 
         @Override
         public OUT encodeField(CodecCoreEx<IN, OUT, CFG> core, Object obj, OUT out) {
-            setAccessible(true);
-            final float fieldVal = CodecException.wrap(() -> field.getFloat(obj));
-            setAccessible(false);
+            final float fieldVal = accessor.getFloat(obj);
             return codec.encodePrim(fieldVal, out);
         }
 
         @Override
         public void decodeField(CodecCoreEx<IN, OUT, CFG> core, Object obj, IN in) {
             final float fieldVal = codec.decodePrim(in);
-            setAccessible(true);
-            CodecException.wrap(() -> field.setFloat(obj, fieldVal));
-            setAccessible(false);
+            accessor.setFloat(obj, fieldVal);
         }
     }
 
@@ -439,6 +447,11 @@ public void decodeField(CodecCoreEx<IN, OUT, CFG> core, Object obj, IN in) {
 
         protected final Codec<float[], IN, OUT, CFG> codec;
 
+        public FloatArrayFieldCodec(Field field, FieldAccessor accessor, Codec<float[], IN, OUT, CFG> codec) {
+            super(field, accessor);
+            this.codec = Objects.requireNonNull(codec);
+        }
+
         public FloatArrayFieldCodec(Field field, Codec<float[], IN, OUT, CFG> codec) {
             super(field);
             this.codec = Objects.requireNonNull(codec);
@@ -446,18 +459,14 @@ public FloatArrayFieldCodec(Field field, Codec<float[], IN, OUT, CFG> codec) {
 
         @Override
         public OUT encodeField(CodecCoreEx<IN, OUT, CFG> core, Object obj, OUT out) {
-            setAccessible(true);
-            final float[] fieldVal = CodecException.wrap(() -> (float[]) field.get(obj));
-            setAccessible(false);
+            final float[] fieldVal = (float[]) accessor.get(obj);
             return codec.encodeWithCheck(core, fieldVal, out);
         }
 
         @Override
         public void decodeField(CodecCoreEx<IN, OUT, CFG> core, Object obj, IN in) {
             final float[] fieldVal = codec.decodeWithCheck(core, in);
-            setAccessible(true);
-            CodecException.wrap(() -> field.set(obj, fieldVal));
-            setAccessible(false);
+            accessor.set(obj, fieldVal);
         }
     }
 
@@ -469,6 +478,11 @@ public void decodeField(CodecCoreEx<IN, OUT, CFG> core, Object obj, IN in) {
 
         protected final Codec.DoubleCodec<IN, OUT, CFG> codec;
 
+        public DoubleFieldCodec(Field field, FieldAccessor accessor, Codec.DoubleCodec<IN, OUT, CFG> codec) {
+            super(field, accessor);
+            this.codec = Objects.requireNonNull(codec);
+        }
+
         public DoubleFieldCodec(Field field, Codec.DoubleCodec<IN, OUT, CFG> codec) {
             super(field);
             this.codec = Objects.requireNonNull(codec);
@@ -476,18 +490,14 @@ public DoubleFieldCodec(Field field, Codec.DoubleCodec<IN, OUT, CFG> codec) {
 
         @Override
         public OUT encodeField(CodecCoreEx<IN, OUT, CFG> core, Object obj, OUT out) {
-            setAccessible(true);
-            final double fieldVal = CodecException.wrap(() -> field.getDouble(obj));
-            setAccessible(false);
+            final double fieldVal = accessor.getDouble(obj);
             return codec.encodePrim(fieldVal, out);
         }
 
         @Override
         public void decodeField(CodecCoreEx<IN, OUT, CFG> core, Object obj, IN in) {
             final double fieldVal = codec.decodePrim(in);
-            setAccessible(true);
-            CodecException.wrap(() -> field.setDouble(obj, fieldVal));
-            setAccessible(false);
+            accessor.setDouble(obj, fieldVal);
         }
     }
 
@@ -499,6 +509,11 @@ public void decodeField(CodecCoreEx<IN, OUT, CFG> core, Object obj, IN in) {
 
         protected final Codec<double[], IN, OUT, CFG> codec;
 
+        public DoubleArrayFieldCodec(Field field, FieldAccessor accessor, Codec<double[], IN, OUT, CFG> codec) {
+            super(field, accessor);
+            this.codec = Objects.requireNonNull(codec);
+        }
+
         public DoubleArrayFieldCodec(Field field, Codec<double[], IN, OUT, CFG> codec) {
             super(field);
             this.codec = Objects.requireNonNull(codec);
@@ -506,18 +521,14 @@ public DoubleArrayFieldCodec(Field field, Codec<double[], IN, OUT, CFG> codec) {
 
         @Override
         public OUT encodeField(CodecCoreEx<IN, OUT, CFG> core, Object obj, OUT out) {
-            setAccessible(true);
-            final double[] fieldVal = CodecException.wrap(() -> (double[]) field.get(obj));
-            setAccessible(false);
+            final double[] fieldVal = (double[]) accessor.get(obj);
             return codec.encodeWithCheck(core, fieldVal, out);
         }
 
         @Override
         public void decodeField(CodecCoreEx<IN, OUT, CFG> core, Object obj, IN in) {
             final double[] fieldVal = codec.decodeWithCheck(core, in);
-            setAccessible(true);
-            CodecException.wrap(() -> field.set(obj, fieldVal));
-            setAccessible(false);
+            accessor.set(obj, fieldVal);
         }
     }
 
@@ -530,6 +541,11 @@ public void decodeField(CodecCoreEx<IN, OUT, CFG> core, Object obj, IN in) {
 
         protected final Codec<T, IN, OUT, CFG> codec;
 
+        public ObjectFieldCodec(Field field, FieldAccessor accessor, Codec<T, IN, OUT, CFG> codec) {
+            super(field, accessor);
+            this.codec = Objects.requireNonNull(codec);
+        }
+
         public ObjectFieldCodec(Field field, Codec<T, IN, OUT, CFG> codec) {
             super(field);
             this.codec = Objects.requireNonNull(codec);
@@ -537,19 +553,14 @@ public ObjectFieldCodec(Field field, Codec<T, IN, OUT, CFG> codec) {
 
         @Override
         public OUT encodeField(CodecCoreEx<IN, OUT, CFG> core, Object obj, OUT out) {
-            setAccessible(true);
-            final T fieldVal = CodecException.wrap(() -> (T) field.get(obj));
-            setAccessible(false);
+            final T fieldVal = (T) accessor.get(obj);
             return codec.encodeWithCheck(core, fieldVal, out);
         }
 
         @Override
         public void decodeField(CodecCoreEx<IN, OUT, CFG> core, Object obj, IN in) {
-            final T fieldVal;
-            fieldVal = codec.decodeWithCheck(core, in);
-            setAccessible(true);
-            CodecException.wrap(() -> field.set(obj, fieldVal));
-            setAccessible(false);
+            final T fieldVal = codec.decodeWithCheck(core, in);
+            accessor.set(obj, fieldVal);
         }
     }
 
@@ -562,6 +573,11 @@ public void decodeField(CodecCoreEx<IN, OUT, CFG> core, Object obj, IN in) {
 
         protected final Codec<T[], IN, OUT, CFG> codec;
 
+        public ObjectArrayFieldCodec(Field field, FieldAccessor accessor, Codec<T[], IN, OUT, CFG> codec) {
+            super(field, accessor);
+            this.codec = Objects.requireNonNull(codec);
+        }
+
         public ObjectArrayFieldCodec(Field field, Codec<T[], IN, OUT, CFG> codec) {
             super(field);
             this.codec = Objects.requireNonNull(codec);
@@ -569,20 +585,14 @@ public ObjectArrayFieldCodec(Field field, Codec<T[], IN, OUT, CFG> codec) {
 
         @Override
         public OUT encodeField(CodecCoreEx<IN, OUT, CFG> core, Object obj, OUT out) {
-            setAccessible(true);
-            final T[] fieldVal;
-            fieldVal = CodecException.wrap(() -> (T[]) field.get(obj));
-            setAccessible(false);
+            final T[] fieldVal = (T[]) accessor.get(obj);
             return codec.encodeWithCheck(core, fieldVal, out);
         }
 
         @Override
         public void decodeField(CodecCoreEx<IN, OUT, CFG> core, Object obj, IN in) {
-            final T[] fieldVal;
-            fieldVal = codec.decodeWithCheck(core, in);
-            setAccessible(true);
-            CodecException.wrap(() -> field.set(obj, fieldVal));
-            setAccessible(false);
+            final T[] fieldVal = codec.decodeWithCheck(core, in);
+            accessor.set(obj, fieldVal);
         }
     }
 
@@ -30,4 +30,15 @@
     default Stream<Field<T, IN, OUT, B>> stream() {
         return StreamSupport.stream(spliterator(), false);
     }
+
+    /**
+     * Return the fields as an array, in iteration order.
+     * Formats which iterate over the fields for every value should obtain the array once,
+     * when the object codec is created.
+     * @return          the fields
+     */
+    @SuppressWarnings("unchecked")
+    default Field<T, IN, OUT, B>[] toArray() {
+        return stream().toArray(Field[]::new);
+    }
 }
@@ -0,0 +1,286 @@
+package org.typemeta.funcj.codec;
+
+import java.util.*;
+
+/**
+ * A compiled plan for encoding and decoding the fields of an object,
+ * which flattens the fields of a class into an array of {@link Step}s.
+ * <p>
+ * Every step is an instance of the same final class,
+ * which switches on a primitive kind tag to a code path which reads or writes the field
+ * via its {@link FieldAccessor}, and calls the format's codec directly.
+ * This replaces the chain of {@code ObjectMeta.Field}, {@link FieldCodec} and {@link Codec} calls per field,
+ * so that the field call site in a format's object codec only ever sees the one step class,
+ * and the codec call site in each primitive code path only sees the one codec class of the format.
+ * <p>
+ * Formats obtain the steps via {@link #toArray()}.
+ * @param <T>       the type of object being encoded
+ * @param <IN>      the encoded input type
+ * @param <OUT>     the encoded output type
+ * @param <CFG>     the config type
+ */
+@SuppressWarnings("unchecked")
+public final class ObjectPlan<T, IN, OUT, CFG extends CodecConfig>
+        implements ObjectMeta<T, IN, OUT, ObjectPlan.Builder<T>> {
+
+    /**
+     * The builder for an object plan, which wraps the object under construction.
+     * @param <T>       the type of object being constructed
+     */
+    public static final class Builder<T> implements ObjectMeta.Builder<T> {
+        private final T val;
+
+        Builder(T val) {
+            this.val = val;
+        }
+
+        @Override
+        public T construct() {
+            return val;
+        }
+    }
+
+    private static final byte DELEGATE = 0;
+    private static final byte OBJECT = 1;
+    private static final byte BOOLEAN = 2;
+    private static final byte BYTE = 3;
+    private static final byte CHAR = 4;
+    private static final byte SHORT = 5;
+    private static final byte INT = 6;
+    private static final byte LONG = 7;
+    private static final byte FLOAT = 8;
+    private static final byte DOUBLE = 9;
+
+    /**
+     * A single field step.
+     * Fields whose {@link FieldCodec} is an instance of one of the standard implementations
+     * (and not of a subclass) are encoded and decoded directly,
+     * while other {@code FieldCodec} implementations are delegated to.
+     * @param <T>       the type of object being encoded
+     * @param <IN>      the encoded input type
+     * @param <OUT>     the encoded output type
+     * @param <CFG>     the config type
+     */
+    public static final class Step<T, IN, OUT, CFG extends CodecConfig>
+            implements ObjectMeta.Field<T, IN, OUT, Builder<T>> {
+
+        private final String name;
+        private final byte kind;
+        private final CodecCoreEx<IN, OUT, CFG> core;
+        private final FieldAccessor accessor;
+        private final Codec<Object, IN, OUT, CFG> codec;
+        private final FieldCodec<IN, OUT, CFG> fieldCodec;
+
+        private Step(
+                String name,
+                byte kind,
+                CodecCoreEx<IN, OUT, CFG> core,
+                FieldAccessor accessor,
+                Codec<?, IN, OUT, CFG> codec,
+                FieldCodec<IN, OUT, CFG> fieldCodec) {
+            this.name = name;
+            this.kind = kind;
+            this.core = core;
+            this.accessor = accessor;
+            this.codec = (Codec<Object, IN, OUT, CFG>)codec;
+            this.fieldCodec = fieldCodec;
+        }
+
+        @Override
+        public String name() {
+            return name;
+        }
+
+        @Override
+        public OUT encodeField(T val, OUT out) {
+            switch (kind) {
+                case OBJECT:
+                    return codec.encodeWithCheck(core, accessor.get(val), out);
+                case BOOLEAN:
+                    return ((Codec.BooleanCodec<IN, OUT, CFG>)(Codec<?, IN, OUT, CFG>)codec)
+                            .encodePrim(accessor.getBoolean(val), out);
+                case BYTE:
+                    return ((Codec.ByteCodec<IN, OUT, CFG>)(Codec<?, IN, OUT, CFG>)codec)
+                            .encodePrim(accessor.getByte(val), out);
+                case CHAR:
+                    return ((Codec.CharCodec<IN, OUT, CFG>)(Codec<?, IN, OUT, CFG>)codec)
+                            .encodePrim(accessor.getChar(val), out);
+                case SHORT:
+                    return ((Codec.ShortCodec<IN, OUT, CFG>)(Codec<?, IN, OUT, CFG>)codec)
+                            .encodePrim(accessor.getShort(val), out);
+                case INT:
+                    return ((Codec.IntCodec<IN, OUT, CFG>)(Codec<?, IN, OUT, CFG>)codec)
+                            .encodePrim(accessor.getInt(val), out);
+                case LONG:
+                    return ((Codec.LongCodec<IN, OUT, CFG>)(Codec<?, IN, OUT, CFG>)codec)
+                            .encodePrim(accessor.getLong(val), out);
+                case FLOAT:
+                    return ((Codec.FloatCodec<IN, OUT, CFG>)(Codec<?, IN, OUT, CFG>)codec)
+                            .encodePrim(accessor.getFloat(val), out);
+                case DOUBLE:
+                    return ((Codec.DoubleCodec<IN, OUT, CFG>)(Codec<?, IN, OUT, CFG>)codec)
+                            .encodePrim(accessor.getDouble(val), out);
+                default:
+                    return fieldCodec.encodeField(core, val, out);
+            }
+        }
+
+        @Override
+        public Builder<T> decodeField(Builder<T> acc, IN in) {
+            final Object obj = acc.val;
+            switch (kind) {
+                case OBJECT:
+                    accessor.set(obj, codec.decodeWithCheck(core, in));
+                    break;
+                case BOOLEAN:
+                    accessor.setBoolean(obj, ((Codec.BooleanCodec<IN, OUT, CFG>)(Codec<?, IN, OUT, CFG>)codec)
+                            .decodePrim(in));
+                    break;
+                case BYTE:
+                    accessor.setByte(obj, ((Codec.ByteCodec<IN, OUT, CFG>)(Codec<?, IN, OUT, CFG>)codec)
+                            .decodePrim(in));
+                    break;
+                case CHAR:
+                    accessor.setChar(obj, ((Codec.CharCodec<IN, OUT, CFG>)(Codec<?, IN, OUT, CFG>)codec)
+                            .decodePrim(in));
+                    break;
+                case SHORT:
+                    accessor.setShort(obj, ((Codec.ShortCodec<IN, OUT, CFG>)(Codec<?, IN, OUT, CFG>)codec)
+                            .decodePrim(in));
+                    break;
+                case INT:
+                    accessor.setInt(obj, ((Codec.IntCodec<IN, OUT, CFG>)(Codec<?, IN, OUT, CFG>)codec)
+                            .decodePrim(in));
+                    break;
+                case LONG:
+                    accessor.setLong(obj, ((Codec.LongCodec<IN, OUT, CFG>)(Codec<?, IN, OUT, CFG>)codec)
+                            .decodePrim(in));
+                    break;
+                case FLOAT:
+                    accessor.setFloat(obj, ((Codec.FloatCodec<IN, OUT, CFG>)(Codec<?, IN, OUT, CFG>)codec)
+                            .decodePrim(in));
+                    break;
+                case DOUBLE:
+                    accessor.setDouble(obj, ((Codec.DoubleCodec<IN, OUT, CFG>)(Codec<?, IN, OUT, CFG>)codec)
+                            .decodePrim(in));
+                    break;
+                default:
+                    fieldCodec.decodeField(core, obj, in);
+                    break;
+            }
+            return acc;
+        }
+    }
+
+    /**
+     * Compile a {@code FieldCodec} into a step.
+     * Instances of the standard {@code FieldCodec} implementations are unpacked into their accessor and codec,
+     * and tagged with the kind of their field.
+     */
+    static <T, IN, OUT, CFG extends CodecConfig> Step<T, IN, OUT, CFG> compile(
+            CodecCoreEx<IN, OUT, CFG> core,
+            String name,
+            FieldCodec<IN, OUT, CFG> fc) {
+        // Match the exact class, as a subclass may override encodeField or decodeField,
+        // in which case the step must delegate to it.
+        final Class<?> fcClass = fc.getClass();
+        final byte kind;
+        final Codec<?, IN, OUT, CFG> codec;
+        if (fcClass == FieldCodec.BooleanFieldCodec.class) {
+            kind = BOOLEAN;
+            codec = ((FieldCodec.BooleanFieldCodec<IN, OUT, CFG>)fc).codec;
+        } else if (fcClass == FieldCodec.ByteFieldCodec.class) {
+            kind = BYTE;
+            codec = ((FieldCodec.ByteFieldCodec<IN, OUT, CFG>)fc).codec;
+        } else if (fcClass == FieldCodec.CharFieldCodec.class) {
+            kind = CHAR;
+            codec = ((FieldCodec.CharFieldCodec<IN, OUT, CFG>)fc).codec;
+        } else if (fcClass == FieldCodec.ShortFieldCodec.class) {
+            kind = SHORT;
+            codec = ((FieldCodec.ShortFieldCodec<IN, OUT, CFG>)fc).codec;
+        } else if (fcClass == FieldCodec.IntegerFieldCodec.class) {
+            kind = INT;
+            codec = ((FieldCodec.IntegerFieldCodec<IN, OUT, CFG>)fc).codec;
+        } else if (fcClass == FieldCodec.LongFieldCodec.class) {
+            kind = LONG;
+            codec = ((FieldCodec.LongFieldCodec<IN, OUT, CFG>)fc).codec;
+        } else if (fcClass == FieldCodec.FloatFieldCodec.class) {
+            kind = FLOAT;
+            codec = ((FieldCodec.FloatFieldCodec<IN, OUT, CFG>)fc).codec;
+        } else if (fcClass == FieldCodec.DoubleFieldCodec.class) {
+            kind = DOUBLE;
+            codec = ((FieldCodec.DoubleFieldCodec<IN, OUT, CFG>)fc).codec;
+        } else if (fcClass == FieldCodec.ObjectFieldCodec.class) {
+            kind = OBJECT;
+            codec = ((FieldCodec.ObjectFieldCodec<?, IN, OUT, CFG>)fc).codec;
+        } else if (fcClass == FieldCodec.ObjectArrayFieldCodec.class) {
+            kind = OBJECT;
+            codec = ((FieldCodec.ObjectArrayFieldCodec<?, IN, OUT, CFG>)fc).codec;
+        } else if (fcClass == FieldCodec.BooleanArrayFieldCodec.class) {
+            kind = OBJECT;
+            codec = ((FieldCodec.BooleanArrayFieldCodec<IN, OUT, CFG>)fc).codec;
+        } else if (fcClass == FieldCodec.ByteArrayFieldCodec.class) {
+            kind = OBJECT;
+            codec = ((FieldCodec.ByteArrayFieldCodec<IN, OUT, CFG>)fc).codec;
+        } else if (fcClass == FieldCodec.CharArrayFieldCodec.class) {
+            kind = OBJECT;
+            codec = ((FieldCodec.CharArrayFieldCodec<IN, OUT, CFG>)fc).codec;
+        } else if (fcClass == FieldCodec.ShortArrayFieldCodec.class) {
+            kind = OBJECT;
+            codec = ((FieldCodec.ShortArrayFieldCodec<IN, OUT, CFG>)fc).codec;
+        } else if (fcClass == FieldCodec.IntegerArrayFieldCodec.class) {
+            kind = OBJECT;
+            codec = ((FieldCodec.IntegerArrayFieldCodec<IN, OUT, CFG>)fc).codec;
+        } else if (fcClass == FieldCodec.LongArrayFieldCodec.class) {
+            kind = OBJECT;
+            codec = ((FieldCodec.LongArrayFieldCodec<IN, OUT, CFG>)fc).codec;
+        } else if (fcClass == FieldCodec.FloatArrayFieldCodec.class) {
+            kind = OBJECT;
+            codec = ((FieldCodec.FloatArrayFieldCodec<IN, OUT, CFG>)fc).codec;
+        } else if (fcClass == FieldCodec.DoubleArrayFieldCodec.class) {
+            kind = OBJECT;
+            codec = ((FieldCodec.DoubleArrayFieldCodec<IN, OUT, CFG>)fc).codec;
+        } else {
+            return new Step<>(name, DELEGATE, core, null, null, fc);
+        }
+
+        return new Step<>(name, kind, core, ((FieldCodec.Impl<IN, OUT, CFG>)fc).accessor, codec, fc);
+    }
+
+    private final Step<T, IN, OUT, CFG>[] steps;
+    private final NoArgsTypeCtor<T> ctor;
+
+    /**
+     * Compile a plan from a map of field names to {@code FieldCodec}s,
+     * preserving the map order.
+     * @param core      the codec core
+     * @param fieldCodecs the field codecs
+     * @param ctor      the constructor for the object type
+     */
+    public ObjectPlan(
+            CodecCoreEx<IN, OUT, CFG> core,
+            Map<String, FieldCodec<IN, OUT, CFG>> fieldCodecs,
+            NoArgsTypeCtor<T> ctor) {
+        this.steps = new Step[fieldCodecs.size()];
+        int i = 0;
+        for (Map.Entry<String, FieldCodec<IN, OUT, CFG>> en : fieldCodecs.entrySet()) {
+            steps[i++] = compile(core, en.getKey(), en.getValue());
+        }
+        this.ctor = ctor;
+    }
+
+    @Override
+    public Field<T, IN, OUT, Builder<T>>[] toArray() {
+        return steps.clone();
+    }
+
+    @Override
+    public Iterator<Field<T, IN, OUT, Builder<T>>> iterator() {
+        return Arrays.<Field<T, IN, OUT, Builder<T>>>asList(steps).iterator();
+    }
+
+    @Override
+    public Builder<T> createBuilder() {
+        return new Builder<>(ctor.construct());
+    }
+}
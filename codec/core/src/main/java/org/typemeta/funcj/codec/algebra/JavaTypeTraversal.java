@@ -18,7 +18,15 @@ public JavaTypeTraversal(JavaTypeAlg<T> alg) {
     }
 
     private T getCache(Class<?> clazz, Function<Class<?>, T> generator) {
-        return cache.computeIfAbsent(clazz.getName(), u -> generator.apply(clazz));
+        // Not computeIfAbsent, as the generator recursively populates the cache.
+        final T value = cache.get(clazz.getName());
+        if (value != null) {
+            return value;
+        } else {
+            final T newValue = generator.apply(clazz);
+            cache.put(clazz.getName(), newValue);
+            return newValue;
+        }
     }
 
     private void putCache(Class<?> clazz, T value) {
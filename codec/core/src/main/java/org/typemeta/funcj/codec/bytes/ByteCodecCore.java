@@ -2,9 +2,12 @@
 
 import org.typemeta.funcj.codec.CodecStrAPI;
 import org.typemeta.funcj.codec.bytes.ByteTypes.*;
+import org.typemeta.funcj.codec.bytes.io.*;
 import org.typemeta.funcj.codec.impl.*;
+import org.typemeta.funcj.codec.utils.CodecException;
 
 import java.io.*;
+import java.nio.*;
 
 /**
  * Interface for classes which implement an encoding via byte streams.
@@ -25,6 +28,16 @@ public ByteCodecCore() {
         this(new ByteConfig());
     }
 
+    private OutStream compactIfEnabled(OutStream out) {
+        final Config config = config();
+        return config.compactEncoding() ? new CompactOutputImpl(out, config.deltaEncoding()) : out;
+    }
+
+    private InStream compactIfEnabled(InStream in) {
+        final Config config = config();
+        return config.compactEncoding() ? new CompactInputImpl(in, config.deltaEncoding()) : in;
+    }
+
     /**
      * Encode the given value into byte data and write the results to the {@link OutputStream} object.
      * The static type determines whether type information is written to recover the value's
@@ -36,7 +49,7 @@ public ByteCodecCore() {
      * @return          the output stream
      */
     public <T> OutputStream encode(Class<? super T> type, T value, OutputStream os) {
-        encodeImpl(type, value, ByteTypes.outputOf(os));
+        encodeImpl(type, value, compactIfEnabled(ByteTypes.outputOf(os)));
         return os;
     }
 
@@ -49,6 +62,71 @@ public <T> OutputStream encode(Class<? super T> type, T value, OutputStream os)
      */
     @Override
     public <T> T decode(Class<? super T> type, InputStream is) {
-        return decodeImpl(type, ByteTypes.inputOf(is));
+        return decodeImpl(type, compactIfEnabled(ByteTypes.inputOf(is)));
+    }
+
+    /**
+     * Encode the given value into byte data and write the results into the given {@link ByteBuffer},
+     * starting at its current position and using its byte order.
+     * If the buffer has insufficient space then a larger buffer is allocated,
+     * and the existing contents copied into it.
+     * The position of the returned buffer is just after the encoded data.
+     * @param type      the static type of the value
+     * @param value     the value to be encoded
+     * @param bb        the buffer to which the byte data is written
+     * @param <T>       the static type of the value
+     * @return          the buffer containing the encoded data,
+     *                  which is a new buffer if the supplied one was too small
+     */
+    public <T> ByteBuffer encode(Class<? super T> type, T value, ByteBuffer bb) {
+        final BufferOutputImpl out = ByteTypes.outputOf(bb);
+        encodeImpl(type, value, compactIfEnabled(out));
+        return out.buffer();
+    }
+
+    /**
+     * Decode a value by reading byte data from the given {@link ByteBuffer},
+     * starting at its current position and using its byte order.
+     * The position of the buffer is advanced past the data read.
+     * @param type      the static type of the value to be decoded.
+     * @param bb        the buffer from which byte data is read
+     * @param <T>       the static type of the value
+     * @return          the decoded value
+     */
+    public <T> T decode(Class<? super T> type, ByteBuffer bb) {
+        try {
+            return decodeImpl(type, compactIfEnabled(ByteTypes.inputOf(bb)));
+        } catch (BufferUnderflowException ex) {
+            throw new CodecException("Unexpected end of input", ex);
+        }
+    }
+
+    /**
+     * Encode the given value into a byte array.
+     * The value is encoded into a pooled per-thread buffer, which is then copied.
+     * @param type      the static type of the value
+     * @param value     the value to be encoded
+     * @param <T>       the static type of the value
+     * @return          the encoded data
+     */
+    public <T> byte[] encodeToBytes(Class<? super T> type, T value) {
+        final BufferOutputImpl out = BufferOutputImpl.pooled();
+        try {
+            encodeImpl(type, value, compactIfEnabled(out));
+            return out.toByteArray();
+        } finally {
+            out.release();
+        }
+    }
+
+    /**
+     * Decode a value from a byte array.
+     * @param type      the static type of the value to be decoded.
+     * @param bytes     the encoded data
+     * @param <T>       the static type of the value
+     * @return          the decoded value
+     */
+    public <T> T decode(Class<? super T> type, byte[] bytes) {
+        return decode(type, ByteBuffer.wrap(bytes));
     }
 }
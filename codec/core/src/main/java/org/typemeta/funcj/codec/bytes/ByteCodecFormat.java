@@ -5,7 +5,6 @@
 import org.typemeta.funcj.codec.impl.CollectionCodec;
 import org.typemeta.funcj.codec.stream.StreamCodecFormat;
 import org.typemeta.funcj.functions.Functions;
-import org.typemeta.funcj.util.Folds;
 
 import java.lang.reflect.*;
 import java.util.*;
@@ -104,23 +103,14 @@ public Class<boolean[]> type() {
 
         @Override
         public OutStream encode(CodecCoreEx<InStream, OutStream, Config> core, boolean[] value, OutStream out) {
-            out.writeInt(value.length);
-            for (boolean val : value) {
-                booleanCodec().encodePrim(val, out);
-            }
-            return out;
+            out.writeLength(value.length);
+            return out.writeBooleans(value);
         }
 
         @Override
         public boolean[] decode(CodecCoreEx<InStream, OutStream, Config> core, InStream in) {
-            final int l = in.readInt();
-            final boolean[] vals = new boolean[l];
-
-            for (int i = 0; i < l; ++i) {
-                vals[i] = booleanCodec().decodePrim(in);
-            }
-
-            return vals;
+            final int l = in.readLength();
+            return in.readBooleans(l);
         }
     };
 
@@ -159,23 +149,14 @@ public Class<byte[]> type() {
 
         @Override
         public OutStream encode(CodecCoreEx<InStream, OutStream, Config> core, byte[] value, OutStream out) {
-            out.writeInt(value.length);
-            for (byte val : value) {
-                byteCodec().encodePrim(val, out);
-            }
-            return out;
+            out.writeLength(value.length);
+            return out.writeBytes(value);
         }
 
         @Override
         public byte[] decode(CodecCoreEx<InStream, OutStream, Config> core, InStream in) {
-            final int l = in.readInt();
-            final byte[] vals = new byte[l];
-
-            for (int i = 0; i < l; ++i) {
-                vals[i] = byteCodec().decodePrim(in);
-            }
-
-            return vals;
+            final int l = in.readLength();
+            return in.readBytes(l);
         }
     };
 
@@ -214,23 +195,14 @@ public Class<char[]> type() {
 
         @Override
         public OutStream encode(CodecCoreEx<InStream, OutStream, Config> core, char[] value, OutStream out) {
-            out.writeInt(value.length);
-            for (char val : value) {
-                charCodec().encodePrim(val, out);
-            }
-            return out;
+            out.writeLength(value.length);
+            return out.writeChars(value);
         }
 
         @Override
         public char[] decode(CodecCoreEx<InStream, OutStream, Config> core, InStream in) {
-            final int l = in.readInt();
-            final char[] vals = new char[l];
-
-            for (int i = 0; i < l; ++i) {
-                vals[i] = charCodec().decodePrim(in);
-            }
-
-            return vals;
+            final int l = in.readLength();
+            return in.readChars(l);
         }
     };
 
@@ -269,23 +241,14 @@ public Class<short[]> type() {
 
         @Override
         public OutStream encode(CodecCoreEx<InStream, OutStream, Config> core, short[] value, OutStream out) {
-            out.writeInt(value.length);
-            for (short val : value) {
-                shortCodec().encodePrim(val, out);
-            }
-            return out;
+            out.writeLength(value.length);
+            return out.writeShorts(value);
         }
 
         @Override
         public short[] decode(CodecCoreEx<InStream, OutStream, Config> core, InStream in) {
-            final int l = in.readInt();
-            final short[] vals = new short[l];
-
-            for (int i = 0; i < l; ++i) {
-                vals[i] = shortCodec().decodePrim(in);
-            }
-
-            return vals;
+            final int l = in.readLength();
+            return in.readShorts(l);
         }
     };
 
@@ -324,23 +287,14 @@ public Class<int[]> type() {
 
         @Override
         public OutStream encode(CodecCoreEx<InStream, OutStream, Config> core, int[] value, OutStream out) {
-            out.writeInt(value.length);
-            for (int val : value) {
-                intCodec().encodePrim(val, out);
-            }
-            return out;
+            out.writeLength(value.length);
+            return out.writeInts(value);
         }
 
         @Override
         public int[] decode(CodecCoreEx<InStream, OutStream, Config> core, InStream in) {
-            final int l = in.readInt();
-            final int[] vals = new int[l];
-
-            for (int i = 0; i < l; ++i) {
-                vals[i] = intCodec().decodePrim(in);
-            }
-
-            return vals;
+            final int l = in.readLength();
+            return in.readInts(l);
         }
     };
 
@@ -379,23 +333,14 @@ public Class<long[]> type() {
 
         @Override
         public OutStream encode(CodecCoreEx<InStream, OutStream, Config> core, long[] value, OutStream out) {
-            out.writeInt(value.length);
-            for (long val : value) {
-                longCodec().encodePrim(val, out);
-            }
-            return out;
+            out.writeLength(value.length);
+            return out.writeLongs(value);
         }
 
         @Override
         public long[] decode(CodecCoreEx<InStream, OutStream, Config> core, InStream in) {
-            final int l = in.readInt();
-            final long[] vals = new long[l];
-
-            for (int i = 0; i < l; ++i) {
-                vals[i] = longCodec().decodePrim(in);
-            }
-
-            return vals;
+            final int l = in.readLength();
+            return in.readLongs(l);
         }
     };
 
@@ -434,23 +379,14 @@ public Class<float[]> type() {
 
         @Override
         public OutStream encode(CodecCoreEx<InStream, OutStream, Config> core, float[] value, OutStream out) {
-            out.writeInt(value.length);
-            for (float val : value) {
-                floatCodec().encodePrim(val, out);
-            }
-            return out;
+            out.writeLength(value.length);
+            return out.writeFloats(value);
         }
 
         @Override
         public float[] decode(CodecCoreEx<InStream, OutStream, Config> core, InStream in) {
-            final int l = in.readInt();
-            final float[] vals = new float[l];
-
-            for (int i = 0; i < l; ++i) {
-                vals[i] = floatCodec().decodePrim(in);
-            }
-
-            return vals;
+            final int l = in.readLength();
+            return in.readFloats(l);
         }
     };
 
@@ -489,23 +425,14 @@ public Class<double[]> type() {
 
         @Override
         public OutStream encode(CodecCoreEx<InStream, OutStream, Config> core, double[] value, OutStream out) {
-            out.writeInt(value.length);
-            for (double val : value) {
-                doubleCodec().encodePrim(val, out);
-            }
-            return out;
+            out.writeLength(value.length);
+            return out.writeDoubles(value);
         }
 
         @Override
         public double[] decode(CodecCoreEx<InStream, OutStream, Config> core, InStream in) {
-            final int l = in.readInt();
-            final double[] vals = new double[l];
-
-            for (int i = 0; i < l; ++i) {
-                vals[i] = doubleCodec().decodePrim(in);
-            }
-
-            return vals;
+            final int l = in.readLength();
+            return in.readDoubles(l);
         }
     };
 
@@ -581,7 +508,7 @@ public OutStream encodeWithCheck(
 
             @Override
             public OutStream encode(CodecCoreEx<InStream, OutStream, Config> core, Collection<T> value, OutStream out) {
-                out.writeInt(value.size());
+                out.writeLength(value.size());
                 for (T val : value) {
                     elemCodec.encodeWithCheck(core, val, out);
                 }
@@ -590,7 +517,7 @@ public OutStream encode(CodecCoreEx<InStream, OutStream, Config> core, Collectio
 
             @Override
             public Collection<T> decode(CodecCoreEx<InStream, OutStream, Config> core, InStream in) {
-                final int l = in.readInt();
+                final int l = in.readLength();
                 final CollectionBuilder<T> collectionBuilder = getCollectionBuilder(core);
 
                 for (int i = 0; i < l; ++i) {
@@ -616,7 +543,7 @@ public Class<T[]> type() {
 
             @Override
             public OutStream encode(CodecCoreEx<InStream, OutStream, Config> core, T[] value, OutStream out) {
-                out.writeInt(value.length);
+                out.writeLength(value.length);
                 for (T val : value) {
                     elemCodec.encodeWithCheck(core, val, out);
                 }
@@ -625,7 +552,7 @@ public OutStream encode(CodecCoreEx<InStream, OutStream, Config> core, T[] value
 
             @Override
             public T[] decode(CodecCoreEx<InStream, OutStream, Config> core, InStream in) {
-                final int l = in.readInt();
+                final int l = in.readLength();
                 final T[] vals = (T[]) Array.newInstance(elemType, l);
 
                 for (int i = 0; i < l; ++i) {
@@ -653,12 +580,14 @@ public <T, RA extends ObjectMeta.Builder<T>> Codec<T, InStream, OutStream, Confi
 
         private final Class<T> type;
         private final ObjectMeta<T, InStream, OutStream, RA> objMeta;
+        private final ObjectMeta.Field<T, InStream, OutStream, RA>[] fields;
 
         private ObjectCodec(
                 Class<T> type,
                 ObjectMeta<T, InStream, OutStream, RA> objMeta) {
             this.type = type;
             this.objMeta = objMeta;
+            this.fields = objMeta.toArray();
         }
 
         @Override
@@ -668,19 +597,19 @@ public Class<T> type() {
 
         @Override
         public OutStream encode(CodecCoreEx<InStream, OutStream, Config> core, T value, OutStream out) {
-            objMeta.forEach(field ->
-                    field.encodeField(value, out)
-            );
+            for (ObjectMeta.Field<T, InStream, OutStream, RA> field : fields) {
+                field.encodeField(value, out);
+            }
             return out;
         }
 
         @Override
         public T decode(CodecCoreEx<InStream, OutStream, Config> core, InStream in) {
-            return Folds.foldLeft(
-                    (acc, field) -> field.decodeField(acc, in),
-                    objMeta.createBuilder(),
-                    objMeta
-            ).construct();
+            RA ra = objMeta.createBuilder();
+            for (ObjectMeta.Field<T, InStream, OutStream, RA> field : fields) {
+                ra = field.decodeField(ra, in);
+            }
+            return ra.construct();
         }
     }
 
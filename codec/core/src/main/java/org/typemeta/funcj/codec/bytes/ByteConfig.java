@@ -10,6 +10,10 @@ public class ByteConfig extends CodecConfigImpl implements ByteTypes.Config {
 
     public static class Builder extends AbstractBuilder<Builder, ByteTypes.Config> {
 
+        protected boolean compactEncoding = false;
+
+        protected boolean deltaEncoding = false;
+
         @Override
         public ByteTypes.Config build() {
             return new ByteConfig(this);
@@ -29,16 +33,60 @@ public Builder failOnNoTypeConstructor(boolean enable) {
         public Builder failOnUnrecognisedFields(boolean enable) {
             throw new NotSupportedException();
         }
+
+        /**
+         * Enable or disable the compact encoding,
+         * whereby integral values are written as zig-zag encoded LEB128 variable-length integers,
+         * and lengths as unsigned variable-length integers.
+         * @param enable    true to enable the compact encoding
+         * @return          this builder
+         */
+        public Builder compactEncoding(boolean enable) {
+            compactEncoding = enable;
+            return this;
+        }
+
+        /**
+         * Enable or disable delta encoding of {@code int[]} and {@code long[]} arrays.
+         * Enabling delta encoding also enables the compact encoding.
+         * @param enable    true to enable delta encoding
+         * @return          this builder
+         */
+        public Builder deltaEncoding(boolean enable) {
+            deltaEncoding = enable;
+            if (enable) {
+                compactEncoding = true;
+            }
+            return this;
+        }
     }
 
     public static ByteConfig.Builder builder() {
         return new ByteConfig.Builder();
     }
 
+    protected final boolean compactEncoding;
+
+    protected final boolean deltaEncoding;
+
     public ByteConfig() {
+        this.compactEncoding = false;
+        this.deltaEncoding = false;
     }
 
     public ByteConfig(Builder builder) {
         super(builder);
+        this.compactEncoding = builder.compactEncoding;
+        this.deltaEncoding = builder.deltaEncoding;
+    }
+
+    @Override
+    public boolean compactEncoding() {
+        return compactEncoding;
+    }
+
+    @Override
+    public boolean deltaEncoding() {
+        return deltaEncoding;
     }
 }
@@ -41,7 +41,7 @@ public OutStream encode(
                 Map<K, V> value,
                 OutStream out
         ) {
-            core.format().intCodec().encodePrim(value.size(), out);
+            out.writeLength(value.size());
 
             for (Map.Entry<K, V> entry : value.entrySet()) {
                 keyCodec.encodeWithCheck(core, entry.getKey(), out);
@@ -53,7 +53,7 @@ public OutStream encode(
 
         @Override
         public Map<K, V> decode(CodecCoreEx<InStream, OutStream, Config> core, InStream in) {
-            final int l = core.format().intCodec().decodePrim(in);
+            final int l = in.readLength();
 
             final MapProxy<K, V> mapProxy = getMapProxy(core);
 
@@ -101,7 +101,7 @@ public OutStream encode(
                 Map<String, V> value,
                 OutStream out
         ) {
-            core.format().intCodec().encodePrim(value.size(), out);
+            out.writeLength(value.size());
 
             for (Map.Entry<String, V> entry : value.entrySet()) {
                 core.format().stringCodec().encode(core, entry.getKey(), out);
@@ -113,7 +113,7 @@ public OutStream encode(
 
         @Override
         public Map<String, V> decode(CodecCoreEx<InStream, OutStream, Config> core, InStream in) {
-            final int l = core.format().intCodec().decodePrim(in);
+            final int l = in.readLength();
 
             final MapProxy<String, V> mapProxy = getMapProxy(core);
 
@@ -5,6 +5,7 @@
 import org.typemeta.funcj.codec.stream.StreamCodecFormat;
 
 import java.io.*;
+import java.nio.ByteBuffer;
 
 public abstract class ByteTypes {
 
@@ -13,18 +14,182 @@ public abstract class ByteTypes {
      * for {@link ByteCodecCore} implementations.
      */
     public interface Config extends CodecConfig {
+
+        /**
+         * Indicates whether integral values and lengths are written as variable-length integers.
+         * @return          true if the compact encoding is enabled
+         */
+        boolean compactEncoding();
+
+        /**
+         * Indicates whether the elements of {@code int[]} and {@code long[]} arrays
+         * are written as the differences between consecutive elements.
+         * Only applicable when {@link #compactEncoding()} is enabled.
+         * @return          true if delta encoding is enabled
+         */
+        boolean deltaEncoding();
     }
 
     /**
-     * Interface for classes which implement an input stream of bytes
+     * Interface for classes which implement an input stream of bytes.
+     * The primitive array methods read the array elements only, not the array length.
+     * The default implementations read each element individually.
      */
     public interface InStream extends StreamCodecFormat.Input<InStream> {
+
+        /**
+         * Read the length of a string, array, collection or map.
+         * @return          the length
+         */
+        default int readLength() {
+            return readInt();
+        }
+
+        /**
+         * Return the number of bytes remaining in the input, if known,
+         * so that a decoded length can be validated before an array of that length is allocated.
+         * @return          the number of bytes remaining, or -1 if unknown
+         */
+        default long remaining() {
+            return -1;
+        }
+
+        default boolean[] readBooleans(int len) {
+            final boolean[] vals = new boolean[len];
+            for (int i = 0; i < len; ++i) {
+                vals[i] = readBoolean();
+            }
+            return vals;
+        }
+
+        default byte[] readBytes(int len) {
+            final byte[] vals = new byte[len];
+            for (int i = 0; i < len; ++i) {
+                vals[i] = readByte();
+            }
+            return vals;
+        }
+
+        default char[] readChars(int len) {
+            final char[] vals = new char[len];
+            for (int i = 0; i < len; ++i) {
+                vals[i] = readChar();
+            }
+            return vals;
+        }
+
+        default short[] readShorts(int len) {
+            final short[] vals = new short[len];
+            for (int i = 0; i < len; ++i) {
+                vals[i] = readShort();
+            }
+            return vals;
+        }
+
+        default int[] readInts(int len) {
+            final int[] vals = new int[len];
+            for (int i = 0; i < len; ++i) {
+                vals[i] = readInt();
+            }
+            return vals;
+        }
+
+        default long[] readLongs(int len) {
+            final long[] vals = new long[len];
+            for (int i = 0; i < len; ++i) {
+                vals[i] = readLong();
+            }
+            return vals;
+        }
+
+        default float[] readFloats(int len) {
+            final float[] vals = new float[len];
+            for (int i = 0; i < len; ++i) {
+                vals[i] = readFloat();
+            }
+            return vals;
+        }
+
+        default double[] readDoubles(int len) {
+            final double[] vals = new double[len];
+            for (int i = 0; i < len; ++i) {
+                vals[i] = readDouble();
+            }
+            return vals;
+        }
     }
 
     /**
-     * Interface for classes which implement an output stream of bytes
+     * Interface for classes which implement an output stream of bytes.
+     * The primitive array methods write the array elements only, not the array length.
+     * The default implementations write each element individually.
      */
     public interface OutStream extends StreamCodecFormat.Output<OutStream> {
+
+        /**
+         * Write the length of a string, array, collection or map.
+         * @param len       the length
+         * @return          this stream
+         */
+        default OutStream writeLength(int len) {
+            return writeInt(len);
+        }
+
+        default OutStream writeBooleans(boolean[] vals) {
+            for (boolean val : vals) {
+                writeBoolean(val);
+            }
+            return this;
+        }
+
+        default OutStream writeBytes(byte[] vals) {
+            for (byte val : vals) {
+                writeByte(val);
+            }
+            return this;
+        }
+
+        default OutStream writeChars(char[] vals) {
+            for (char val : vals) {
+                writeChar(val);
+            }
+            return this;
+        }
+
+        default OutStream writeShorts(short[] vals) {
+            for (short val : vals) {
+                writeShort(val);
+            }
+            return this;
+        }
+
+        default OutStream writeInts(int[] vals) {
+            for (int val : vals) {
+                writeInt(val);
+            }
+            return this;
+        }
+
+        default OutStream writeLongs(long[] vals) {
+            for (long val : vals) {
+                writeLong(val);
+            }
+            return this;
+        }
+
+        default OutStream writeFloats(float[] vals) {
+            for (float val : vals) {
+                writeFloat(val);
+            }
+            return this;
+        }
+
+        default OutStream writeDoubles(double[] vals) {
+            for (double val : vals) {
+                writeDouble(val);
+            }
+            return this;
+        }
     }
 
     public static InStream inputOf(InputStream is) {
@@ -35,6 +200,10 @@ public static InStream inputOf(DataInput input) {
         return new InputImpl(input);
     }
 
+    public static BufferInputImpl inputOf(ByteBuffer bb) {
+        return new BufferInputImpl(bb);
+    }
+
     public static OutStream outputOf(OutputStream os) {
         return new OutputImpl(new DataOutputStream(os));
     }
@@ -42,4 +211,8 @@ public static OutStream outputOf(OutputStream os) {
     public static OutStream outputOf(DataOutput output) {
         return new OutputImpl(output);
     }
+
+    public static BufferOutputImpl outputOf(ByteBuffer bb) {
+        return new BufferOutputImpl(bb);
+    }
 }
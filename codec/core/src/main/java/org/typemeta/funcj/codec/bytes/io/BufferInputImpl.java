@@ -0,0 +1,160 @@
+package org.typemeta.funcj.codec.bytes.io;
+
+import org.typemeta.funcj.codec.bytes.ByteTypes;
+import org.typemeta.funcj.codec.utils.CodecException;
+
+import java.nio.ByteBuffer;
+
+/**
+ * An {@link ByteTypes.InStream} implementation which reads directly from a {@link ByteBuffer},
+ * using the byte order of the buffer, and advancing its position.
+ * <p>
+ * Primitive arrays are read with a single bulk copy via a view buffer.
+ * Reading past the end of the buffer raises a {@link java.nio.BufferUnderflowException}.
+ */
+public final class BufferInputImpl implements ByteTypes.InStream {
+
+    private final ByteBuffer buffer;
+
+    public BufferInputImpl(ByteBuffer buffer) {
+        this.buffer = buffer;
+    }
+
+    public BufferInputImpl(byte[] bytes) {
+        this(ByteBuffer.wrap(bytes));
+    }
+
+    /**
+     * Check that an array of {@code len} elements, each of {@code elemSize} bytes,
+     * can be read from the buffer, before allocating the array.
+     */
+    private void checkAvailable(int len, int elemSize) {
+        if (len < 0 || (long)len * elemSize > buffer.remaining()) {
+            throw new CodecException(
+                    "Array length " + len + " exceeds the " + buffer.remaining() + " bytes remaining"
+            );
+        }
+    }
+
+    @Override
+    public long remaining() {
+        return buffer.remaining();
+    }
+
+    @Override
+    public boolean readBoolean() {
+        return buffer.get() != 0;
+    }
+
+    @Override
+    public byte readByte() {
+        return buffer.get();
+    }
+
+    @Override
+    public char readChar() {
+        return buffer.getChar();
+    }
+
+    @Override
+    public short readShort() {
+        return buffer.getShort();
+    }
+
+    @Override
+    public int readInt() {
+        return buffer.getInt();
+    }
+
+    @Override
+    public long readLong() {
+        return buffer.getLong();
+    }
+
+    @Override
+    public float readFloat() {
+        return buffer.getFloat();
+    }
+
+    @Override
+    public double readDouble() {
+        return buffer.getDouble();
+    }
+
+    @Override
+    public String readString() {
+        return new String(readChars(buffer.getInt()));
+    }
+
+    @Override
+    public boolean[] readBooleans(int len) {
+        checkAvailable(len, 1);
+        final boolean[] vals = new boolean[len];
+        for (int i = 0; i < len; ++i) {
+            vals[i] = buffer.get() != 0;
+        }
+        return vals;
+    }
+
+    @Override
+    public byte[] readBytes(int len) {
+        checkAvailable(len, 1);
+        final byte[] vals = new byte[len];
+        buffer.get(vals);
+        return vals;
+    }
+
+    @Override
+    public char[] readChars(int len) {
+        checkAvailable(len, Character.BYTES);
+        final char[] vals = new char[len];
+        buffer.asCharBuffer().get(vals);
+        buffer.position(buffer.position() + len * Character.BYTES);
+        return vals;
+    }
+
+    @Override
+    public short[] readShorts(int len) {
+        checkAvailable(len, Short.BYTES);
+        final short[] vals = new short[len];
+        buffer.asShortBuffer().get(vals);
+        buffer.position(buffer.position() + len * Short.BYTES);
+        return vals;
+    }
+
+    @Override
+    public int[] readInts(int len) {
+        checkAvailable(len, Integer.BYTES);
+        final int[] vals = new int[len];
+        buffer.asIntBuffer().get(vals);
+        buffer.position(buffer.position() + len * Integer.BYTES);
+        return vals;
+    }
+
+    @Override
+    public long[] readLongs(int len) {
+        checkAvailable(len, Long.BYTES);
+        final long[] vals = new long[len];
+        buffer.asLongBuffer().get(vals);
+        buffer.position(buffer.position() + len * Long.BYTES);
+        return vals;
+    }
+
+    @Override
+    public float[] readFloats(int len) {
+        checkAvailable(len, Float.BYTES);
+        final float[] vals = new float[len];
+        buffer.asFloatBuffer().get(vals);
+        buffer.position(buffer.position() + len * Float.BYTES);
+        return vals;
+    }
+
+    @Override
+    public double[] readDoubles(int len) {
+        checkAvailable(len, Double.BYTES);
+        final double[] vals = new double[len];
+        buffer.asDoubleBuffer().get(vals);
+        buffer.position(buffer.position() + len * Double.BYTES);
+        return vals;
+    }
+}
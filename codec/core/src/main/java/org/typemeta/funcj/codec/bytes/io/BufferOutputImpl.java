@@ -0,0 +1,261 @@
+package org.typemeta.funcj.codec.bytes.io;
+
+import org.typemeta.funcj.codec.bytes.ByteTypes;
+
+import java.nio.*;
+
+/**
+ * An {@link ByteTypes.OutStream} implementation which writes directly into a {@link ByteBuffer},
+ * using the byte order of the buffer.
+ * <p>
+ * If the buffer has insufficient space then it is replaced with a larger buffer,
+ * of the same kind (heap or direct) and byte order, into which the existing contents are copied.
+ * {@link #buffer()} returns the current buffer.
+ * Primitive arrays are written with a single bulk copy via a view buffer.
+ */
+public final class BufferOutputImpl implements ByteTypes.OutStream {
+
+    private static final int DEFAULT_SIZE = 4096;
+
+    // Buffers larger than this are not returned to the pool.
+    private static final int MAX_POOLED_SIZE = 1 << 20;
+
+    private static final ThreadLocal<ByteBuffer> POOL = new ThreadLocal<>();
+
+    /**
+     * Create a {@code BufferOutputImpl} which writes into a per-thread pooled heap buffer.
+     * The buffer should be returned to the pool, via {@link #release()},
+     * once the encoded bytes have been extracted.
+     * @return          the new {@code BufferOutputImpl}
+     */
+    public static BufferOutputImpl pooled() {
+        ByteBuffer bb = POOL.get();
+        if (bb == null) {
+            bb = ByteBuffer.allocate(DEFAULT_SIZE);
+        } else {
+            // Remove the buffer from the pool while in use, in case of re-entrant encoding.
+            POOL.set(null);
+            bb.clear();
+        }
+        return new BufferOutputImpl(bb, true);
+    }
+
+    private ByteBuffer buffer;
+    private final boolean pooled;
+
+    private BufferOutputImpl(ByteBuffer buffer, boolean pooled) {
+        this.buffer = buffer;
+        this.pooled = pooled;
+    }
+
+    /**
+     * Construct a {@code BufferOutputImpl} which writes into the given buffer,
+     * starting at its current position.
+     * @param buffer    the buffer
+     */
+    public BufferOutputImpl(ByteBuffer buffer) {
+        this(buffer, false);
+    }
+
+    public BufferOutputImpl() {
+        this(ByteBuffer.allocate(DEFAULT_SIZE));
+    }
+
+    /**
+     * Return the buffer, which may differ from the original buffer if it had to be grown.
+     * The position of the buffer is just after the last byte written.
+     * @return          the buffer
+     */
+    public ByteBuffer buffer() {
+        return buffer;
+    }
+
+    /**
+     * Return a copy of the bytes written so far.
+     * @return          a copy of the bytes written so far
+     */
+    public byte[] toByteArray() {
+        final ByteBuffer bb = buffer.duplicate();
+        bb.flip();
+        final byte[] bytes = new byte[bb.remaining()];
+        bb.get(bytes);
+        return bytes;
+    }
+
+    /**
+     * Return a pooled buffer to the pool.
+     * This {@code BufferOutputImpl} must not be used afterwards.
+     */
+    public void release() {
+        if (pooled && buffer.capacity() <= MAX_POOLED_SIZE) {
+            POOL.set(buffer);
+        }
+    }
+
+    private void ensureSpace(int required) {
+        if (buffer.remaining() < required) {
+            grow(required);
+        }
+    }
+
+    private void grow(int required) {
+        final long minCap = (long)buffer.position() + required;
+        if (minCap > Integer.MAX_VALUE) {
+            throw new BufferOverflowException();
+        }
+
+        final int newCap = (int)Math.min(Integer.MAX_VALUE, Math.max(minCap, (long)buffer.capacity() * 2));
+        final ByteBuffer newBuffer = buffer.isDirect() ?
+                ByteBuffer.allocateDirect(newCap) :
+                ByteBuffer.allocate(newCap);
+        newBuffer.order(buffer.order());
+        buffer.flip();
+        newBuffer.put(buffer);
+        buffer = newBuffer;
+    }
+
+    private static int checkedSize(int len, int elemSize) {
+        final long size = (long)len * elemSize;
+        if (size > Integer.MAX_VALUE) {
+            throw new BufferOverflowException();
+        }
+        return (int)size;
+    }
+
+    @Override
+    public BufferOutputImpl writeBoolean(boolean v) {
+        ensureSpace(1);
+        buffer.put(v ? (byte)1 : (byte)0);
+        return this;
+    }
+
+    @Override
+    public BufferOutputImpl writeByte(byte v) {
+        ensureSpace(1);
+        buffer.put(v);
+        return this;
+    }
+
+    @Override
+    public BufferOutputImpl writeChar(char v) {
+        ensureSpace(Character.BYTES);
+        buffer.putChar(v);
+        return this;
+    }
+
+    @Override
+    public BufferOutputImpl writeShort(short v) {
+        ensureSpace(Short.BYTES);
+        buffer.putShort(v);
+        return this;
+    }
+
+    @Override
+    public BufferOutputImpl writeInt(int v) {
+        ensureSpace(Integer.BYTES);
+        buffer.putInt(v);
+        return this;
+    }
+
+    @Override
+    public BufferOutputImpl writeLong(long v) {
+        ensureSpace(Long.BYTES);
+        buffer.putLong(v);
+        return this;
+    }
+
+    @Override
+    public BufferOutputImpl writeFloat(float v) {
+        ensureSpace(Float.BYTES);
+        buffer.putFloat(v);
+        return this;
+    }
+
+    @Override
+    public BufferOutputImpl writeDouble(double v) {
+        ensureSpace(Double.BYTES);
+        buffer.putDouble(v);
+        return this;
+    }
+
+    @Override
+    public BufferOutputImpl writeString(String s) {
+        final int len = s.length();
+        ensureSpace(Integer.BYTES + checkedSize(len, Character.BYTES));
+        buffer.putInt(len);
+        for (int i = 0; i < len; ++i) {
+            buffer.putChar(s.charAt(i));
+        }
+        return this;
+    }
+
+    @Override
+    public BufferOutputImpl writeBooleans(boolean[] vals) {
+        ensureSpace(vals.length);
+        for (boolean val : vals) {
+            buffer.put(val ? (byte)1 : (byte)0);
+        }
+        return this;
+    }
+
+    @Override
+    public BufferOutputImpl writeBytes(byte[] vals) {
+        ensureSpace(vals.length);
+        buffer.put(vals);
+        return this;
+    }
+
+    @Override
+    public BufferOutputImpl writeChars(char[] vals) {
+        final int size = checkedSize(vals.length, Character.BYTES);
+        ensureSpace(size);
+        buffer.asCharBuffer().put(vals);
+        buffer.position(buffer.position() + size);
+        return this;
+    }
+
+    @Override
+    public BufferOutputImpl writeShorts(short[] vals) {
+        final int size = checkedSize(vals.length, Short.BYTES);
+        ensureSpace(size);
+        buffer.asShortBuffer().put(vals);
+        buffer.position(buffer.position() + size);
+        return this;
+    }
+
+    @Override
+    public BufferOutputImpl writeInts(int[] vals) {
+        final int size = checkedSize(vals.length, Integer.BYTES);
+        ensureSpace(size);
+        buffer.asIntBuffer().put(vals);
+        buffer.position(buffer.position() + size);
+        return this;
+    }
+
+    @Override
+    public BufferOutputImpl writeLongs(long[] vals) {
+        final int size = checkedSize(vals.length, Long.BYTES);
+        ensureSpace(size);
+        buffer.asLongBuffer().put(vals);
+        buffer.position(buffer.position() + size);
+        return this;
+    }
+
+    @Override
+    public BufferOutputImpl writeFloats(float[] vals) {
+        final int size = checkedSize(vals.length, Float.BYTES);
+        ensureSpace(size);
+        buffer.asFloatBuffer().put(vals);
+        buffer.position(buffer.position() + size);
+        return this;
+    }
+
+    @Override
+    public BufferOutputImpl writeDoubles(double[] vals) {
+        final int size = checkedSize(vals.length, Double.BYTES);
+        ensureSpace(size);
+        buffer.asDoubleBuffer().put(vals);
+        buffer.position(buffer.position() + size);
+        return this;
+    }
+}
@@ -0,0 +1,230 @@
+package org.typemeta.funcj.codec.bytes.io;
+
+import org.typemeta.funcj.codec.bytes.ByteTypes;
+import org.typemeta.funcj.codec.utils.CodecException;
+
+import java.util.Arrays;
+
+/**
+ * An {@link ByteTypes.InStream} implementation which reads data written by {@link CompactOutputImpl}.
+ */
+public final class CompactInputImpl implements ByteTypes.InStream {
+
+    // The largest array allocated up-front for a decoded length, when the size of the input is unknown.
+    private static final int MAX_INITIAL_CAPACITY = 4096;
+
+    private final ByteTypes.InStream input;
+    private final boolean deltaEncoding;
+
+    public CompactInputImpl(ByteTypes.InStream input, boolean deltaEncoding) {
+        this.input = input;
+        this.deltaEncoding = deltaEncoding;
+    }
+
+    public CompactInputImpl(ByteTypes.InStream input) {
+        this(input, false);
+    }
+
+    static int unZigZag(int v) {
+        return (v >>> 1) ^ -(v & 1);
+    }
+
+    static long unZigZag(long v) {
+        return (v >>> 1) ^ -(v & 1);
+    }
+
+    private int readVarInt() {
+        int result = 0;
+        for (int shift = 0; shift < 35; shift += 7) {
+            final byte b = input.readByte();
+            result |= (b & 0x7F) << shift;
+            if (b >= 0) {
+                return result;
+            }
+        }
+        throw new CodecException("Malformed variable-length int");
+    }
+
+    private long readVarLong() {
+        long result = 0;
+        for (int shift = 0; shift < 70; shift += 7) {
+            final byte b = input.readByte();
+            result |= (long)(b & 0x7F) << shift;
+            if (b >= 0) {
+                return result;
+            }
+        }
+        throw new CodecException("Malformed variable-length long");
+    }
+
+    /**
+     * Validate a decoded array length, and return the capacity of the array to allocate for it.
+     * Each element is encoded in at least one byte, so the length can't exceed the remaining input.
+     * If the size of the input is unknown, the array is allocated incrementally instead,
+     * so that a corrupt length can't force a huge allocation.
+     */
+    private int initialCapacity(int len) {
+        if (len < 0) {
+            throw new CodecException("Invalid length " + (len & 0xFFFFFFFFL));
+        }
+
+        final long remaining = input.remaining();
+        if (remaining < 0) {
+            return Math.min(len, MAX_INITIAL_CAPACITY);
+        } else if (len > remaining) {
+            throw new CodecException("Array length " + len + " exceeds the " + remaining + " bytes remaining");
+        } else {
+            return len;
+        }
+    }
+
+    private static int grow(int capacity, int len) {
+        return (int)Math.min(len, 2L * capacity);
+    }
+
+    @Override
+    public void close() {
+        input.close();
+    }
+
+    @Override
+    public long remaining() {
+        return input.remaining();
+    }
+
+    @Override
+    public int readLength() {
+        final int len = readVarInt();
+        if (len < 0) {
+            throw new CodecException("Invalid length " + (len & 0xFFFFFFFFL));
+        }
+        return len;
+    }
+
+    @Override
+    public boolean readBoolean() {
+        return input.readBoolean();
+    }
+
+    @Override
+    public byte readByte() {
+        return input.readByte();
+    }
+
+    @Override
+    public char readChar() {
+        return (char)readVarInt();
+    }
+
+    @Override
+    public short readShort() {
+        return (short)unZigZag(readVarInt());
+    }
+
+    @Override
+    public int readInt() {
+        return unZigZag(readVarInt());
+    }
+
+    @Override
+    public long readLong() {
+        return unZigZag(readVarLong());
+    }
+
+    @Override
+    public float readFloat() {
+        return input.readFloat();
+    }
+
+    @Override
+    public double readDouble() {
+        return input.readDouble();
+    }
+
+    @Override
+    public String readString() {
+        return new String(readChars(readLength()));
+    }
+
+    @Override
+    public boolean[] readBooleans(int len) {
+        return input.readBooleans(len);
+    }
+
+    @Override
+    public byte[] readBytes(int len) {
+        return input.readBytes(len);
+    }
+
+    @Override
+    public char[] readChars(int len) {
+        char[] vals = new char[initialCapacity(len)];
+        for (int i = 0; i < len; ++i) {
+            if (i == vals.length) {
+                vals = Arrays.copyOf(vals, grow(i, len));
+            }
+            vals[i] = (char)readVarInt();
+        }
+        return vals;
+    }
+
+    @Override
+    public short[] readShorts(int len) {
+        short[] vals = new short[initialCapacity(len)];
+        for (int i = 0; i < len; ++i) {
+            if (i == vals.length) {
+                vals = Arrays.copyOf(vals, grow(i, len));
+            }
+            vals[i] = (short)unZigZag(readVarInt());
+        }
+        return vals;
+    }
+
+    @Override
+    public int[] readInts(int len) {
+        int[] vals = new int[initialCapacity(len)];
+        int prev = 0;
+        for (int i = 0; i < len; ++i) {
+            if (i == vals.length) {
+                vals = Arrays.copyOf(vals, grow(i, len));
+            }
+            final int val = unZigZag(readVarInt());
+            if (deltaEncoding) {
+                prev += val;
+                vals[i] = prev;
+            } else {
+                vals[i] = val;
+            }
+        }
+        return vals;
+    }
+
+    @Override
+    public long[] readLongs(int len) {
+        long[] vals = new long[initialCapacity(len)];
+        long prev = 0;
+        for (int i = 0; i < len; ++i) {
+            if (i == vals.length) {
+                vals = Arrays.copyOf(vals, grow(i, len));
+            }
+            final long val = unZigZag(readVarLong());
+            if (deltaEncoding) {
+                prev += val;
+                vals[i] = prev;
+            } else {
+                vals[i] = val;
+            }
+        }
+        return vals;
+    }
+
+    @Override
+    public float[] readFloats(int len) {
+        return input.readFloats(len);
+    }
+
+    @Override
+    public double[] readDoubles(int len) {
+        return input.readDoubles(len);
+    }
+}
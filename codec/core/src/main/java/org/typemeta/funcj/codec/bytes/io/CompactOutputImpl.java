@@ -0,0 +1,180 @@
+package org.typemeta.funcj.codec.bytes.io;
+
+import org.typemeta.funcj.codec.bytes.ByteTypes;
+
+/**
+ * An {@link ByteTypes.OutStream} implementation which writes integral values
+ * as LEB128 variable-length integers to an underlying {@code OutStream}.
+ * <p>
+ * Signed values ({@code short}, {@code int} and {@code long}) are zig-zag encoded first,
+ * so that small negative values also occupy few bytes.
+ * Lengths and {@code char} values are written as unsigned variable-length integers.
+ * Strings are written as a length followed by the chars.
+ * Optionally, the elements of {@code int[]} and {@code long[]} arrays are written
+ * as the differences between consecutive elements,
+ * which suits sorted or slowly-varying data such as timestamps.
+ * Other values are passed through unchanged.
+ */
+public final class CompactOutputImpl implements ByteTypes.OutStream {
+
+    private final ByteTypes.OutStream output;
+    private final boolean deltaEncoding;
+
+    public CompactOutputImpl(ByteTypes.OutStream output, boolean deltaEncoding) {
+        this.output = output;
+        this.deltaEncoding = deltaEncoding;
+    }
+
+    public CompactOutputImpl(ByteTypes.OutStream output) {
+        this(output, false);
+    }
+
+    static int zigZag(int v) {
+        return (v << 1) ^ (v >> 31);
+    }
+
+    static long zigZag(long v) {
+        return (v << 1) ^ (v >> 63);
+    }
+
+    private void writeVarInt(int v) {
+        while ((v & ~0x7F) != 0) {
+            output.writeByte((byte)((v & 0x7F) | 0x80));
+            v >>>= 7;
+        }
+        output.writeByte((byte)v);
+    }
+
+    private void writeVarLong(long v) {
+        while ((v & ~0x7FL) != 0) {
+            output.writeByte((byte)((v & 0x7F) | 0x80));
+            v >>>= 7;
+        }
+        output.writeByte((byte)v);
+    }
+
+    @Override
+    public void close() {
+        output.close();
+    }
+
+    @Override
+    public CompactOutputImpl writeLength(int len) {
+        writeVarInt(len);
+        return this;
+    }
+
+    @Override
+    public CompactOutputImpl writeBoolean(boolean v) {
+        output.writeBoolean(v);
+        return this;
+    }
+
+    @Override
+    public CompactOutputImpl writeByte(byte v) {
+        output.writeByte(v);
+        return this;
+    }
+
+    @Override
+    public CompactOutputImpl writeChar(char v) {
+        writeVarInt(v);
+        return this;
+    }
+
+    @Override
+    public CompactOutputImpl writeShort(short v) {
+        writeVarInt(zigZag(v));
+        return this;
+    }
+
+    @Override
+    public CompactOutputImpl writeInt(int v) {
+        writeVarInt(zigZag(v));
+        return this;
+    }
+
+    @Override
+    public CompactOutputImpl writeLong(long v) {
+        writeVarLong(zigZag(v));
+        return this;
+    }
+
+    @Override
+    public CompactOutputImpl writeFloat(float v) {
+        output.writeFloat(v);
+        return this;
+    }
+
+    @Override
+    public CompactOutputImpl writeDouble(double v) {
+        output.writeDouble(v);
+        return this;
+    }
+
+    @Override
+    public CompactOutputImpl writeString(String s) {
+        final int len = s.length();
+        writeVarInt(len);
+        for (int i = 0; i < len; ++i) {
+            writeVarInt(s.charAt(i));
+        }
+        return this;
+    }
+
+    @Override
+    public CompactOutputImpl writeBooleans(boolean[] vals) {
+        output.writeBooleans(vals);
+        return this;
+    }
+
+    @Override
+    public CompactOutputImpl writeBytes(byte[] vals) {
+        output.writeBytes(vals);
+        return this;
+    }
+
+    @Override
+    public CompactOutputImpl writeInts(int[] vals) {
+        if (deltaEncoding) {
+            int prev = 0;
+            for (int val : vals) {
+                writeVarInt(zigZag(val - prev));
+                prev = val;
+            }
+        } else {
+            for (int val : vals) {
+                writeVarInt(zigZag(val));
+            }
+        }
+        return this;
+    }
+
+    @Override
+    public CompactOutputImpl writeLongs(long[] vals) {
+        if (deltaEncoding) {
+            long prev = 0;
+            for (long val : vals) {
+                writeVarLong(zigZag(val - prev));
+                prev = val;
+            }
+        } else {
+            for (long val : vals) {
+                writeVarLong(zigZag(val));
+            }
+        }
+        return this;
+    }
+
+    @Override
+    public CompactOutputImpl writeFloats(float[] vals) {
+        output.writeFloats(vals);
+        return this;
+    }
+
+    @Override
+    public CompactOutputImpl writeDoubles(double[] vals) {
+        output.writeDoubles(vals);
+        return this;
+    }
+}
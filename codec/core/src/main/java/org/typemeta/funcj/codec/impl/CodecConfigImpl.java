@@ -1,6 +1,6 @@
 package org.typemeta.funcj.codec.impl;
 
-import org.typemeta.funcj.codec.CodecConfig;
+import org.typemeta.funcj.codec.*;
 import org.typemeta.funcj.codec.utils.CodecException;
 
 import java.lang.reflect.Field;
@@ -46,6 +46,8 @@ public class CodecConfigImpl implements CodecConfig {
 
         protected boolean failOnUnrecognisedFields = true;
 
+        protected FieldAccessor.Factory fieldAccessorFactory = FieldAccessor.Factory.METHOD_HANDLE;
+
         @Override
         public B registerAllowedPackage(Package pkg) {
             allowedPackages.add(pkg);
@@ -95,6 +97,12 @@ public B failOnUnrecognisedFields(boolean enable) {
             failOnUnrecognisedFields = enable;
             return (B)this;
         }
+
+        @Override
+        public B fieldAccessorFactory(FieldAccessor.Factory factory) {
+            fieldAccessorFactory = Objects.requireNonNull(factory);
+            return (B)this;
+        }
     }
 
     protected final Set<Package> allowedPackages;
@@ -119,6 +127,8 @@ public B failOnUnrecognisedFields(boolean enable) {
 
     protected boolean failOnUnrecognisedFields;
 
+    protected FieldAccessor.Factory fieldAccessorFactory;
+
     protected CodecConfigImpl() {
         this.allowedPackages = new TreeSet<>(Comparator.comparing(Package::getName));;
         this.allowedClasses = new TreeSet<>(Comparator.comparing(Class::getName));
@@ -129,6 +139,7 @@ protected CodecConfigImpl() {
         this.dynamicTypeTags = true;
         this.failOnNoTypeConstructor = true;
         this.failOnUnrecognisedFields = true;
+        this.fieldAccessorFactory = FieldAccessor.Factory.METHOD_HANDLE;
     }
 
     protected CodecConfigImpl(AbstractBuilder<? extends Builder, ? extends CodecConfig> builder) {
@@ -141,6 +152,7 @@ protected CodecConfigImpl(AbstractBuilder<? extends Builder, ? extends CodecConf
         this.dynamicTypeTags = builder.dynamicTypeTags;
         this.failOnNoTypeConstructor = builder.failOnNoTypeConstructor;
         this.failOnUnrecognisedFields = builder.failOnUnrecognisedFields;
+        this.fieldAccessorFactory = builder.fieldAccessorFactory;
     }
 
     @Override
@@ -263,4 +275,9 @@ public boolean failOnNoTypeConstructor() {
     public boolean failOnUnrecognisedFields() {
         return failOnUnrecognisedFields;
     }
+
+    @Override
+    public FieldAccessor.Factory fieldAccessorFactory() {
+        return fieldAccessorFactory;
+    }
 }
@@ -1,6 +1,7 @@
 package org.typemeta.funcj.codec.impl;
 
 import org.typemeta.funcj.codec.*;
+import org.typemeta.funcj.codec.utils.RegistryStats;
 import org.typemeta.funcj.functions.Functions;
 
 import java.util.*;
@@ -85,4 +86,9 @@ public <K, V> Codec<Map<K, V>, IN, OUT, CFG> getMapCodec(
     ) {
         return delegate.getMapCodec(mapType, keyType, valType);
     }
+
+    @Override
+    public RegistryStats registryStats() {
+        return delegate.registryStats();
+    }
 }
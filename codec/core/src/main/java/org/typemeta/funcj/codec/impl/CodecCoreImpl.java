@@ -7,6 +7,7 @@
 import java.lang.reflect.*;
 import java.util.*;
 import java.util.concurrent.*;
+import java.util.concurrent.atomic.*;
 import java.util.function.Supplier;
 
 import static java.util.stream.Collectors.toList;
@@ -26,6 +27,43 @@
      */
     protected final ConcurrentMap<ClassKey<?>, Codec<?, IN, OUT, CFG>> codecRegistry = new ConcurrentHashMap<>();
 
+    /**
+     * A cache of fully resolved codecs, keyed directly on the class being looked up.
+     * Entries are only added once the class has passed the allowed check,
+     * and been mapped to its proxy, so a hit bypasses both.
+     * Class equality is identity, so lookups require no key allocation.
+     */
+    protected final ConcurrentMap<Class<?>, Codec<?, IN, OUT, CFG>> resolvedCodecs = new ConcurrentHashMap<>();
+
+    /**
+     * Canonical {@code ClassKey} instances, so that registry lookups don't allocate keys.
+     */
+    protected final ClassKey.Interner classKeys = new ClassKey.Interner();
+
+    /**
+     * The number of registry lookups which did not find a codec.
+     */
+    protected final LongAdder registryMisses = new LongAdder();
+
+    /**
+     * The codecs under construction, each of which has been claimed by a single thread.
+     * Another thread which looks up a codec under construction waits for its future to be completed,
+     * whereas lookups of codecs already in the registry, and lookups of other codecs, don't wait.
+     */
+    protected final ConcurrentMap<ClassKey<?>, CompletableFuture<Codec<?, IN, OUT, CFG>>> constructions =
+            new ConcurrentHashMap<>();
+
+    /**
+     * The codec constructions being performed by the current thread.
+     */
+    private final ThreadLocal<Constructions> threadConstructions = ThreadLocal.withInitial(Constructions::new);
+
+    /**
+     * The number of codec registrations,
+     * used to detect a resolution which raced with a registration.
+     */
+    protected final AtomicInteger registrations = new AtomicInteger();
+
     /**
      * A map that associates a class with a {@code NoArgsTypeCtor}.
      */
@@ -54,9 +92,11 @@ public CFG config() {
     @Override
     public <T> void registerCodec(Class<? extends T> clazz, Codec<T, IN, OUT, CFG> codec) {
         config().checkClassIsAllowed(clazz);
-        synchronized (codecRegistry) {
-            codecRegistry.put(ClassKey.valueOf(clazz), codec);
-        }
+        codecRegistry.put(classKeys.valueOf(clazz), codec);
+        // A registration may change how other classes resolve (e.g. via proxies),
+        // so discard all resolved codecs.
+        registrations.incrementAndGet();
+        resolvedCodecs.clear();
     }
 
     @Override
@@ -97,7 +137,7 @@ public <T> void registerNoArgsCtor(
             NoArgsTypeCtor<T> typeCtor
     ) {
         config().checkClassIsAllowed(clazz);
-        noArgsCtorRegistry.put(ClassKey.valueOf(clazz), typeCtor);
+        noArgsCtorRegistry.put(classKeys.valueOf(clazz), typeCtor);
     }
 
     @Override
@@ -106,13 +146,13 @@ public <T> void registerArgArrayCtor(
             ArgArrayTypeCtor<T> typeCtor
     ) {
         config().checkClassIsAllowed(clazz);
-        argArrayCtorRegistry.put(ClassKey.valueOf(clazz), typeCtor);
+        argArrayCtorRegistry.put(classKeys.valueOf(clazz), typeCtor);
     }
 
     @Override
     public <T> void registerArgMapTypeCtor(Class<? extends T> clazz, ArgMapTypeCtor<T> typeCtor) {
         config().checkClassIsAllowed(clazz);
-        argMapCtorRegistry.put(ClassKey.valueOf(clazz), typeCtor);
+        argMapCtorRegistry.put(classKeys.valueOf(clazz), typeCtor);
     }
 
     @Override
@@ -127,7 +167,7 @@ public <T> T decodeImpl(Class<? super T> clazz, IN in) {
 
     @Override
     public <T> NoArgsTypeCtor<T> getNoArgsCtor(Class<T> clazz) {
-        final ClassKey<?> key = ClassKey.valueOf(clazz);
+        final ClassKey<?> key = classKeys.valueOf(clazz);
 
         if (noArgsCtorRegistry.containsKey(key)) {
             return (NoArgsTypeCtor<T>)noArgsCtorRegistry.get(key);
@@ -153,21 +193,42 @@ protected <T> T raiseNoTypeCtorException(Class<?> clazz) {
 
     @Override
     public <T> ArgArrayTypeCtor<T> getArgArrayCtor(Class<T> clazz) {
-        return (ArgArrayTypeCtor<T>)argArrayCtorRegistry.get(ClassKey.valueOf(clazz));
+        return (ArgArrayTypeCtor<T>)argArrayCtorRegistry.get(classKeys.valueOf(clazz));
     }
 
     @Override
     public <T> ArgMapTypeCtor<T> getArgMapTypeCtor(Class<T> clazz) {
-        return (ArgMapTypeCtor<T>)argMapCtorRegistry.get(ClassKey.valueOf(clazz));
+        return (ArgMapTypeCtor<T>)argMapCtorRegistry.get(classKeys.valueOf(clazz));
     }
 
     @Override
     public <T> Codec<T, IN, OUT, CFG> getCodec(Class<T> clazz) {
+        final Codec<?, IN, OUT, CFG> codec = resolvedCodecs.get(clazz);
+        if (codec != null) {
+            return (Codec<T, IN, OUT, CFG>)codec;
+        } else {
+            return resolveCodec(clazz);
+        }
+    }
+
+    protected <T> Codec<T, IN, OUT, CFG> resolveCodec(Class<T> clazz) {
         config().checkClassIsAllowed(clazz);
-        return getCodec(
-                ClassKey.valueOf(config().mapToProxy(clazz)),
-                () -> createCodec(clazz)
-        );
+        final int regs = registrations.get();
+        final ClassKey<?> key = classKeys.valueOf(config().mapToProxy(clazz));
+        final Codec<T, IN, OUT, CFG> codec = getCodec(key, () -> createCodec(clazz));
+
+        // Only cache a codec once it has been published to the registry,
+        // and not one that is still under construction, or which refers to one.
+        if (codecRegistry.get(key) == codec) {
+            resolvedCodecs.putIfAbsent(clazz, codec);
+            // If a registration has occurred since the lookup then the codec may be stale,
+            // and the registration may have already cleared the cache before the above put.
+            if (registrations.get() != regs) {
+                resolvedCodecs.remove(clazz, codec);
+            }
+        }
+
+        return codec;
     }
 
     @Override
@@ -175,36 +236,194 @@ public <T> Codec<T, IN, OUT, CFG> getCodec(
             ClassKey<?> key,
             Supplier<Codec<T, IN, OUT, CFG>> codecSupp
     ) {
-        // First attempt, without locking.
-        if (codecRegistry.containsKey(key)) {
-            return (Codec<T, IN, OUT, CFG>)codecRegistry.get(key);
-        } else {
-            final CodecRef<T, IN, OUT, CFG> codecRef;
-            // Lock and try again.
-            synchronized(codecRegistry) {
-                if (codecRegistry.containsKey(key)) {
-                    return (Codec<T, IN, OUT, CFG>) codecRegistry.get(key);
-                } else {
-                    // Ok, it's definitely not there, so add a CodecRef
-                    // (in case the class has a recursive self-reference).
-                    codecRef = new CodecRef<>();
-                    codecRegistry.put(key, codecRef);
+        final Codec<?, IN, OUT, CFG> codec = codecRegistry.get(key);
+        if (codec != null) {
+            return (Codec<T, IN, OUT, CFG>)codec;
+        }
+
+        registryMisses.increment();
+
+        final Constructions cons = threadConstructions.get();
+        final Codec<?, IN, OUT, CFG> ownCodec = cons.get(key);
+        if (ownCodec != null) {
+            // Either a CodecRef for a recursive reference to a codec under construction by this thread,
+            // or a codec constructed within the current outer construction, which is not yet published.
+            return (Codec<T, IN, OUT, CFG>)ownCodec;
+        }
+
+        while (true) {
+            final CompletableFuture<Codec<?, IN, OUT, CFG>> future = new CompletableFuture<>();
+            final CompletableFuture<Codec<?, IN, OUT, CFG>> claimed = constructions.putIfAbsent(key, future);
+            if (claimed == null) {
+                return construct(key, codecSupp, future, cons);
+            } else if (cons.isConstructing()) {
+                // The thread which claimed the key may itself be waiting for a codec this thread is constructing,
+                // so rather than wait, construct a private codec, which the claiming thread's codec supersedes.
+                return construct(key, codecSupp, null, cons);
+            } else {
+                final Codec<?, IN, OUT, CFG> result = await(claimed);
+                if (result != null) {
+                    return (Codec<T, IN, OUT, CFG>)result;
                 }
+                // The construction was abandoned, so try again.
             }
+        }
+    }
 
-            // Initialise the CodecRef, and overwrite the registry entry with the real Codec.
-            codecRegistry.put(key, codecRef.setIfUninitialised(codecSupp::get));
+    private <T> Codec<T, IN, OUT, CFG> construct(
+            ClassKey<?> key,
+            Supplier<Codec<T, IN, OUT, CFG>> codecSupp,
+            CompletableFuture<Codec<?, IN, OUT, CFG>> future,
+            Constructions cons
+    ) {
+        if (future != null) {
+            // Another thread may have published the codec between the registry lookup and the claim.
+            final Codec<?, IN, OUT, CFG> prevCodec = codecRegistry.get(key);
+            if (prevCodec != null) {
+                constructions.remove(key, future);
+                future.complete(prevCodec);
+                return (Codec<T, IN, OUT, CFG>)prevCodec;
+            }
+        }
+
+        // A CodecRef stands in for the codec, in case the class has a recursive self-reference.
+        final CodecRef<T, IN, OUT, CFG> codecRef = new CodecRef<>();
+        cons.refs.put(key, codecRef);
+        final Codec<T, IN, OUT, CFG> newCodec;
+        try {
+            newCodec = codecRef.setIfUninitialised(codecSupp::get);
+        } catch (RuntimeException | Error ex) {
+            cons.refs.remove(key);
+            if (future != null) {
+                constructions.remove(key, future);
+                future.completeExceptionally(ex);
+            }
+            if (!cons.isConstructing()) {
+                // The codecs constructed within this construction may refer to its CodecRef.
+                cons.abandon();
+            }
+            throw ex;
+        }
+        cons.refs.remove(key);
 
+        // Codecs constructed within an outer construction may refer to a CodecRef which is not yet initialised,
+        // so aren't published until the outermost construction is complete.
+        cons.completed.put(key, new Completed(newCodec, future));
+        if (cons.isConstructing()) {
+            return newCodec;
+        } else {
+            cons.publish();
             return (Codec<T, IN, OUT, CFG>)codecRegistry.get(key);
         }
     }
 
+    private static <C> C await(CompletableFuture<C> future) {
+        try {
+            return future.join();
+        } catch (CompletionException ex) {
+            final Throwable cause = ex.getCause();
+            if (cause instanceof RuntimeException) {
+                throw (RuntimeException)cause;
+            } else if (cause instanceof Error) {
+                throw (Error)cause;
+            } else {
+                throw new CodecException(cause);
+            }
+        }
+    }
+
+    /**
+     * A codec constructed by a thread, along with the future which claimed its key,
+     * or null for a private codec.
+     */
+    private final class Completed {
+        final Codec<?, IN, OUT, CFG> codec;
+        final CompletableFuture<Codec<?, IN, OUT, CFG>> future;
+
+        Completed(Codec<?, IN, OUT, CFG> codec, CompletableFuture<Codec<?, IN, OUT, CFG>> future) {
+            this.codec = codec;
+            this.future = future;
+        }
+    }
+
+    /**
+     * The codec constructions being performed by a single thread.
+     */
+    private final class Constructions {
+        // The CodecRefs for the codecs under construction, outermost first.
+        final Map<ClassKey<?>, CodecRef<?, IN, OUT, CFG>> refs = new LinkedHashMap<>();
+
+        // The codecs constructed within the outermost construction, including the outermost codec itself.
+        final Map<ClassKey<?>, Completed> completed = new LinkedHashMap<>();
+
+        boolean isConstructing() {
+            return !refs.isEmpty();
+        }
+
+        Codec<?, IN, OUT, CFG> get(ClassKey<?> key) {
+            final CodecRef<?, IN, OUT, CFG> codecRef = refs.get(key);
+            if (codecRef != null) {
+                return codecRef;
+            } else {
+                final Completed comp = completed.get(key);
+                return comp == null ? null : comp.codec;
+            }
+        }
+
+        // Publish the completed codecs to the registry, and wake any threads waiting for them.
+        void publish() {
+            for (Map.Entry<ClassKey<?>, Completed> en : completed.entrySet()) {
+                final ClassKey<?> key = en.getKey();
+                final Completed comp = en.getValue();
+                // A codec registered during the construction takes precedence.
+                final Codec<?, IN, OUT, CFG> prevCodec = codecRegistry.putIfAbsent(key, comp.codec);
+                if (comp.future != null) {
+                    constructions.remove(key, comp.future);
+                    comp.future.complete(prevCodec != null ? prevCodec : comp.codec);
+                }
+            }
+            completed.clear();
+        }
+
+        // Discard the completed codecs, and wake any threads waiting for them, so they retry.
+        void abandon() {
+            for (Map.Entry<ClassKey<?>, Completed> en : completed.entrySet()) {
+                final Completed comp = en.getValue();
+                if (comp.future != null) {
+                    constructions.remove(en.getKey(), comp.future);
+                    comp.future.complete(null);
+                }
+            }
+            completed.clear();
+        }
+    }
+
+    @Override
+    public RegistryStats registryStats() {
+        final Map<Integer, Integer> hashCounts = new HashMap<>();
+        int size = 0;
+        for (ClassKey<?> key : codecRegistry.keySet()) {
+            hashCounts.merge(key.hashCode(), 1, Integer::sum);
+            ++size;
+        }
+
+        // Count every key which shares its hash code, including the first key with that hash code.
+        int collisions = 0;
+        for (int count : hashCounts.values()) {
+            if (count > 1) {
+                collisions += count;
+            }
+        }
+
+        return new RegistryStats(size, resolvedCodecs.size(), collisions, registryMisses.sum());
+    }
+
     @Override
     public <T> Codec<Collection<T>, IN, OUT, CFG> getCollCodec(
             Class<Collection<T>> collType,
             Class<T> elemType
     ) {
-        final ClassKey<?> key = ClassKey.valueOf(collType, elemType);
+        final ClassKey<?> key = classKeys.valueOf(collType, elemType);
         return getCodec(key, () -> format().createCollCodec((Class)collType, getCodec(elemType)));
     }
 
@@ -213,7 +432,7 @@ public <T> Codec<Collection<T>, IN, OUT, CFG> getCollCodec(
             Class<Collection<T>> collType,
             Codec<T, IN, OUT, CFG> elemCodec
     ) {
-        final ClassKey<?> key = ClassKey.valueOf(collType, elemCodec.type());
+        final ClassKey<?> key = classKeys.valueOf(collType, elemCodec.type());
         return getCodec(key, () -> format().createCollCodec(collType, elemCodec));
     }
 
@@ -223,7 +442,7 @@ public <K, V> Codec<Map<K, V>, IN, OUT, CFG> getMapCodec(
             Class<K> keyType,
             Class<V> valType
     ) {
-        final ClassKey<?> key = ClassKey.valueOf(mapType, keyType, valType);
+        final ClassKey<?> key = classKeys.valueOf(mapType, keyType, valType);
         return getCodec(key, () -> createMapCodec(mapType, keyType, valType));
     }
 
@@ -233,7 +452,7 @@ public <K, V> Codec<Map<K, V>, IN, OUT, CFG> getMapCodec(
             Codec<K, IN, OUT, CFG> keyCodec,
             Codec<V, IN, OUT, CFG> valueCodec
     ) {
-        final ClassKey<?> key = ClassKey.valueOf(mapType, keyCodec.type(), valueCodec.type());
+        final ClassKey<?> key = classKeys.valueOf(mapType, keyCodec.type(), valueCodec.type());
         return getCodec(key, () -> format().createMapCodec((Class)mapType, keyCodec, valueCodec));
     }
 
@@ -242,7 +461,7 @@ public <V> Codec<Map<String, V>, IN, OUT, CFG> getMapCodec(
             Class<Map<String, V>> mapType,
             Codec<V, IN, OUT, CFG> valueCodec
     ) {
-        final ClassKey<?> key = ClassKey.valueOf(mapType, String.class, valueCodec.type());
+        final ClassKey<?> key = classKeys.valueOf(mapType, String.class, valueCodec.type());
         return getCodec(key, () -> format().createMapCodec((Class)mapType, valueCodec));
     }
 
@@ -436,57 +655,7 @@ public <T> Codec<T, IN, OUT, CFG> createObjectCodec(
             Map<String, FieldCodec<IN, OUT, CFG>> fieldCodecs,
             NoArgsTypeCtor<T> ctor
     ) {
-        final class BuilderImpl implements ObjectMeta.Builder<T> {
-            final T val;
-
-            BuilderImpl() {
-                this.val = ctor.construct();
-            }
-
-            @Override
-            public T construct() {
-                return val;
-            }
-        }
-
-        final List<ObjectMeta.Field<T, IN, OUT, BuilderImpl>> fieldMetas =
-                fieldCodecs.entrySet().stream()
-                        .map(en -> {
-                            final String name = en.getKey();
-                            final FieldCodec<IN, OUT, CFG> codec = en.getValue();
-                            return new ObjectMeta.Field<T, IN, OUT, BuilderImpl>() {
-                                @Override
-                                public String name() {
-                                    return name;
-                                }
-
-                                @Override
-                                public OUT encodeField(T val, OUT out) {
-                                    return codec.encodeField(CodecCoreImpl.this, val, out);
-                                }
-
-                                @Override
-                                public BuilderImpl decodeField(BuilderImpl acc, IN in) {
-                                    codec.decodeField(CodecCoreImpl.this, acc.val, in);
-                                    return acc;
-                                }
-                            };
-                        }).collect(toList());
-
-        return format().createObjectCodec(
-                clazz,
-                new ObjectMeta<T, IN, OUT, BuilderImpl>() {
-                        @Override
-                        public Iterator<Field<T, IN, OUT, BuilderImpl>> iterator() {
-                            return fieldMetas.iterator();
-                        }
-
-                        @Override
-                        public BuilderImpl createBuilder() {
-                            return new BuilderImpl();
-                        }
-                }
-        );
+        return format().createObjectCodec(clazz, new ObjectPlan<>(this, fieldCodecs, ctor));
     }
 
     protected <T> Map<String, ObjectCodecBuilder.FieldCodec<T, IN, OUT, CFG>> buildFieldCodecs(Class<T> clazz) {
@@ -647,13 +816,9 @@ protected <T, FT> ObjectCodecBuilder.FieldCodec<T, IN, OUT, CFG> createFieldCode
             Field field,
             Codec<FT, IN, OUT, CFG> codec
     ) {
+        final FieldAccessor accessor = config().fieldAccessorFactory().create(field);
         return new ObjectCodecBuilder.FieldCodec<>(
-                t -> CodecException.wrap(() -> {
-                    field.setAccessible(true);
-                    final FT fv = (FT)field.get(t);
-                    field.setAccessible(false);
-                    return fv;
-                }),
+                t -> (FT)accessor.get(t),
                 codec
         );
     }
@@ -661,47 +826,48 @@ protected <T, FT> ObjectCodecBuilder.FieldCodec<T, IN, OUT, CFG> createFieldCode
     @Override
     public FieldCodec<IN, OUT, CFG> createFieldCodec(Field field) {
         final Class<?> clazz = field.getType();
+        final FieldAccessor accessor = config().fieldAccessorFactory().create(field);
         if (clazz.isPrimitive()) {
             if (clazz.equals(boolean.class)) {
-                return new FieldCodec.BooleanFieldCodec<>(field, format.booleanCodec());
+                return new FieldCodec.BooleanFieldCodec<>(field, accessor, format.booleanCodec());
             } else if (clazz.equals(byte.class)) {
-                return new FieldCodec.ByteFieldCodec<>(field, format.byteCodec());
+                return new FieldCodec.ByteFieldCodec<>(field, accessor, format.byteCodec());
             } else if (clazz.equals(char.class)) {
-                return new FieldCodec.CharFieldCodec<>(field, format.charCodec());
+                return new FieldCodec.CharFieldCodec<>(field, accessor, format.charCodec());
             } else if (clazz.equals(short.class)) {
-                return new FieldCodec.ShortFieldCodec<>(field, format.shortCodec());
+                return new FieldCodec.ShortFieldCodec<>(field, accessor, format.shortCodec());
             } else if (clazz.equals(int.class)) {
-                return new FieldCodec.IntegerFieldCodec<>(field, format.intCodec());
+                return new FieldCodec.IntegerFieldCodec<>(field, accessor, format.intCodec());
             } else if (clazz.equals(long.class)) {
-                return new FieldCodec.LongFieldCodec<>(field, format.longCodec());
+                return new FieldCodec.LongFieldCodec<>(field, accessor, format.longCodec());
             } else if (clazz.equals(float.class)) {
-                return new FieldCodec.FloatFieldCodec<>(field, format.floatCodec());
+                return new FieldCodec.FloatFieldCodec<>(field, accessor, format.floatCodec());
             } else if (clazz.equals(double.class)) {
-                return new FieldCodec.DoubleFieldCodec<>(field, format.doubleCodec());
+                return new FieldCodec.DoubleFieldCodec<>(field, accessor, format.doubleCodec());
             } else {
                 throw new IllegalStateException("Unexpected primitive type - " + clazz);
             }
         } else if (clazz.isArray()) {
             final Class<?> elemType = clazz.getComponentType();
             if (elemType.equals(boolean.class)) {
-                return new FieldCodec.BooleanArrayFieldCodec<>(field, format.booleanArrayCodec());
+                return new FieldCodec.BooleanArrayFieldCodec<>(field, accessor, format.booleanArrayCodec());
             } else if (elemType.equals(byte.class)) {
-                return new FieldCodec.ByteArrayFieldCodec<>(field, format.byteArrayCodec());
+                return new FieldCodec.ByteArrayFieldCodec<>(field, accessor, format.byteArrayCodec());
             } else if (elemType.equals(char.class)) {
-                return new FieldCodec.CharArrayFieldCodec<>(field, format.charArrayCodec());
+                return new FieldCodec.CharArrayFieldCodec<>(field, accessor, format.charArrayCodec());
             } else if (elemType.equals(short.class)) {
-                return new FieldCodec.ShortArrayFieldCodec<>(field, format.shortArrayCodec());
+                return new FieldCodec.ShortArrayFieldCodec<>(field, accessor, format.shortArrayCodec());
             } else if (elemType.equals(int.class)) {
-                return new FieldCodec.IntegerArrayFieldCodec<>(field, format.intArrayCodec());
+                return new FieldCodec.IntegerArrayFieldCodec<>(field, accessor, format.intArrayCodec());
             } else if (elemType.equals(long.class)) {
-                return new FieldCodec.LongArrayFieldCodec<>(field, format.longArrayCodec());
+                return new FieldCodec.LongArrayFieldCodec<>(field, accessor, format.longArrayCodec());
             } else if (elemType.equals(float.class)) {
-                return new FieldCodec.FloatArrayFieldCodec<>(field, format.floatArrayCodec());
+                return new FieldCodec.FloatArrayFieldCodec<>(field, accessor, format.floatArrayCodec());
             } else if (elemType.equals(double.class)) {
-                return new FieldCodec.DoubleArrayFieldCodec<>(field, format.doubleArrayCodec());
+                return new FieldCodec.DoubleArrayFieldCodec<>(field, accessor, format.doubleArrayCodec());
             } else {
                 final Codec<Object[], IN, OUT, CFG> codec = getCodec((Class<Object[]>)clazz);
-                return new FieldCodec.ObjectArrayFieldCodec<>(field, codec);
+                return new FieldCodec.ObjectArrayFieldCodec<>(field, accessor, codec);
             }
         } else {
             final Codec<?, IN, OUT, CFG> codec;
@@ -740,7 +906,7 @@ public FieldCodec<IN, OUT, CFG> createFieldCodec(Field field) {
                 codec = getCodec(clazz);
             }
 
-            return new FieldCodec.ObjectFieldCodec<>(field, codec);
+            return new FieldCodec.ObjectFieldCodec<>(field, accessor, codec);
         }
     }
 }
@@ -1,5 +1,7 @@
 package org.typemeta.funcj.codec.utils;
 
+import java.util.concurrent.*;
+
 /**
  * ClassKey wraps classes in an outer class which supports use as a key in collections.
  * @param <T>       the class type
@@ -17,6 +19,67 @@ static <T> ClassKey<T> valueOf(Class<T> clazz, Class<?> clazzB, Class<?> clazzC)
         return new Triple<T>(clazz, clazzB, clazzC);
     }
 
+    /**
+     * An {@code Interner} maintains a canonical {@code ClassKey} instance for each
+     * combination of classes, so that repeated lookups don't allocate new keys.
+     * Keys are held in nested maps keyed on the individual classes.
+     */
+    class Interner {
+        private final ConcurrentMap<Class<?>, Single<?>> singles =
+                new ConcurrentHashMap<>();
+
+        private final ConcurrentMap<Class<?>, ConcurrentMap<Class<?>, Double<?>>> doubles =
+                new ConcurrentHashMap<>();
+
+        private final ConcurrentMap<Class<?>, ConcurrentMap<Class<?>, ConcurrentMap<Class<?>, Triple<?>>>> triples =
+                new ConcurrentHashMap<>();
+
+        @SuppressWarnings("unchecked")
+        public <T> ClassKey<T> valueOf(Class<T> clazz) {
+            final Single<?> key = singles.get(clazz);
+            if (key != null) {
+                return (ClassKey<T>)key;
+            } else {
+                return (ClassKey<T>)singles.computeIfAbsent(clazz, Single::new);
+            }
+        }
+
+        @SuppressWarnings("unchecked")
+        public <T> ClassKey<T> valueOf(Class<T> clazz, Class<?> clazzA) {
+            ConcurrentMap<Class<?>, Double<?>> keys = doubles.get(clazz);
+            if (keys == null) {
+                keys = doubles.computeIfAbsent(clazz, c -> new ConcurrentHashMap<>());
+            }
+
+            final Double<?> key = keys.get(clazzA);
+            if (key != null) {
+                return (ClassKey<T>)key;
+            } else {
+                return (ClassKey<T>)keys.computeIfAbsent(clazzA, ca -> new Double<T>(clazz, ca));
+            }
+        }
+
+        @SuppressWarnings("unchecked")
+        public <T> ClassKey<T> valueOf(Class<T> clazz, Class<?> clazzA, Class<?> clazzB) {
+            ConcurrentMap<Class<?>, ConcurrentMap<Class<?>, Triple<?>>> keysA = triples.get(clazz);
+            if (keysA == null) {
+                keysA = triples.computeIfAbsent(clazz, c -> new ConcurrentHashMap<>());
+            }
+
+            ConcurrentMap<Class<?>, Triple<?>> keysB = keysA.get(clazzA);
+            if (keysB == null) {
+                keysB = keysA.computeIfAbsent(clazzA, ca -> new ConcurrentHashMap<>());
+            }
+
+            final Triple<?> key = keysB.get(clazzB);
+            if (key != null) {
+                return (ClassKey<T>)key;
+            } else {
+                return (ClassKey<T>)keysB.computeIfAbsent(clazzB, cb -> new Triple<T>(clazz, clazzA, cb));
+            }
+        }
+    }
+
     class Single<T> implements ClassKey<T> {
         final Class<T> clazz;
 
@@ -94,7 +157,7 @@ public boolean equals(Object rhs) {
 
         @Override
         public int hashCode() {
-            return clazz.hashCode();
+            return 31 * clazz.hashCode() + clazzA.hashCode();
         }
 
         @Override
@@ -150,7 +213,7 @@ public boolean equals(Object rhs) {
 
         @Override
         public int hashCode() {
-            return clazz.hashCode();
+            return 31 * (31 * clazz.hashCode() + clazzA.hashCode()) + clazzB.hashCode();
         }
 
         @Override
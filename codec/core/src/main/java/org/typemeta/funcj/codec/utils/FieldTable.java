@@ -0,0 +1,220 @@
+package org.typemeta.funcj.codec.utils;
+
+import org.typemeta.funcj.codec.ObjectMeta;
+
+import java.util.*;
+import java.util.function.Function;
+
+/**
+ * A precomputed, immutable table of the fields of a class, indexed by name.
+ * <p>
+ * Field names are placed into an open-addressed hash table whose size and hash multiplier
+ * are chosen, where possible, so that every name has its own slot, i.e. the hash is perfect
+ * and a lookup requires a single probe.
+ * Otherwise lookups fall back to linear probing.
+ * <p>
+ * Decoders track which fields have been seen using a {@code long} bitmask
+ * for the first 64 fields, plus an overflow {@code long[]} for classes with more fields.
+ * @param <F>       the field type
+ */
+public final class FieldTable<F> {
+
+    private static final int[] MULTIPLIERS = {
+            0x9E3779B9, 0x85EBCA6B, 0xC2B2AE35, 0x27D4EB2F, 0x165667B1, 0xD3A2646C, 0xFD7046C5, 0xB55A4F09
+    };
+
+    /**
+     * Construct a {@code FieldTable} from the fields of an {@link ObjectMeta}.
+     * @param objMeta   the object meta
+     * @param <T>       the object type
+     * @param <IN>      the encoded input type
+     * @param <OUT>     the encoded output type
+     * @param <RA>      the object builder type
+     * @return          the new {@code FieldTable}
+     */
+    public static <T, IN, OUT, RA extends ObjectMeta.Builder<T>>
+    FieldTable<ObjectMeta.Field<T, IN, OUT, RA>> of(ObjectMeta<T, IN, OUT, RA> objMeta) {
+        return new FieldTable<>(Arrays.asList(objMeta.toArray()), ObjectMeta.Field::name);
+    }
+
+    private final Object[] fields;
+    private final String[] names;
+
+    private final String[] slotNames;
+    private final int[] slotIndices;
+    private final int multiplier;
+    private final int shift;
+    private final int mask;
+
+    public FieldTable(List<F> fields, Function<F, String> nameFn) {
+        final int n = fields.size();
+        this.fields = fields.toArray();
+        this.names = new String[n];
+        for (int i = 0; i < n; ++i) {
+            names[i] = nameFn.apply(fields.get(i));
+        }
+
+        int bits = 1;
+        while ((1 << bits) < n * 2) {
+            ++bits;
+        }
+
+        // Search for a multiplier (and table size) which gives a perfect hash.
+        int mult = MULTIPLIERS[0];
+        search:
+        for (int b = bits; b <= bits + 2; ++b) {
+            for (int m : MULTIPLIERS) {
+                if (isPerfect(names, m, b)) {
+                    mult = m;
+                    bits = b;
+                    break search;
+                }
+            }
+        }
+
+        final int size = 1 << bits;
+        this.multiplier = mult;
+        this.shift = 32 - bits;
+        this.mask = size - 1;
+        this.slotNames = new String[size];
+        this.slotIndices = new int[size];
+
+        for (int i = 0; i < n; ++i) {
+            int slot = slot(names[i].hashCode());
+            while (slotNames[slot] != null) {
+                if (slotNames[slot].equals(names[i])) {
+                    throw new CodecException("Duplicate field name '" + names[i] + "'");
+                }
+                slot = (slot + 1) & mask;
+            }
+            slotNames[slot] = names[i];
+            slotIndices[slot] = i;
+        }
+    }
+
+    private static boolean isPerfect(String[] names, int mult, int bits) {
+        final boolean[] used = new boolean[1 << bits];
+        for (String name : names) {
+            final int slot = (name.hashCode() * mult) >>> (32 - bits);
+            if (used[slot]) {
+                return false;
+            }
+            used[slot] = true;
+        }
+        return true;
+    }
+
+    private int slot(int hash) {
+        return (hash * multiplier) >>> shift;
+    }
+
+    /**
+     * Return the number of fields.
+     * @return          the number of fields
+     */
+    public int size() {
+        return fields.length;
+    }
+
+    /**
+     * Return the field with the given index.
+     * @param index     the field index
+     * @return          the field
+     */
+    @SuppressWarnings("unchecked")
+    public F field(int index) {
+        return (F)fields[index];
+    }
+
+    /**
+     * Return the name of the field with the given index.
+     * @param index     the field index
+     * @return          the field name
+     */
+    public String name(int index) {
+        return names[index];
+    }
+
+    /**
+     * Return the index of the field with the given name, or -1 if there is no such field.
+     * @param name      the field name
+     * @return          the field index, or -1
+     */
+    public int indexOf(String name) {
+        int slot = slot(name.hashCode());
+        String slotName;
+        while ((slotName = slotNames[slot]) != null) {
+            if (slotName.equals(name)) {
+                return slotIndices[slot];
+            }
+            slot = (slot + 1) & mask;
+        }
+        return -1;
+    }
+
+    /**
+     * Create the overflow seen-set, for tracking fields beyond the first 64.
+     * @return          the overflow seen-set, or null if this table has no more than 64 fields
+     */
+    public long[] newSeenExt() {
+        final int n = fields.length;
+        return n <= 64 ? null : new long[(n - 1) >> 6];
+    }
+
+    /**
+     * Check whether a field has been seen.
+     * @param index     the field index
+     * @param seen      the seen bitmask for the first 64 fields
+     * @param seenExt   the overflow seen-set
+     * @return          true if the field has been seen
+     */
+    public static boolean isSeen(int index, long seen, long[] seenExt) {
+        if (index < 64) {
+            return (seen & (1L << index)) != 0;
+        } else {
+            return (seenExt[(index >> 6) - 1] & (1L << index)) != 0;
+        }
+    }
+
+    /**
+     * Mark a field as seen.
+     * @param index     the field index
+     * @param seen      the seen bitmask for the first 64 fields
+     * @param seenExt   the overflow seen-set, which is updated in-place
+     * @return          the updated seen bitmask
+     */
+    public static long markSeen(int index, long seen, long[] seenExt) {
+        if (index < 64) {
+            return seen | (1L << index);
+        } else {
+            seenExt[(index >> 6) - 1] |= 1L << index;
+            return seen;
+        }
+    }
+
+    /**
+     * Check that all fields have been seen.
+     * @param clazz     the class being decoded
+     * @param seen      the seen bitmask for the first 64 fields
+     * @param seenExt   the overflow seen-set
+     * @throws CodecException if any field has not been seen
+     */
+    public void checkSeen(Class<?> clazz, long seen, long[] seenExt) {
+        final int n = fields.length;
+        final long allSeen = n >= 64 ? -1L : (1L << n) - 1;
+        boolean complete = seen == allSeen;
+        for (int i = 64; complete && i < n; ++i) {
+            complete = isSeen(i, seen, seenExt);
+        }
+
+        if (!complete) {
+            final Set<String> keys = new TreeSet<>();
+            for (int i = 0; i < n; ++i) {
+                if (!isSeen(i, seen, seenExt)) {
+                    keys.add(names[i]);
+                }
+            }
+            throw new CodecException("Missing fields for type " + clazz + " : " + keys);
+        }
+    }
+}
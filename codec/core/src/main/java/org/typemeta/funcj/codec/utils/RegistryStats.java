@@ -0,0 +1,61 @@
+package org.typemeta.funcj.codec.utils;
+
+/**
+ * An immutable snapshot of the state of the codec registry of a {@code CodecCore}.
+ */
+public class RegistryStats {
+
+    private final int size;
+    private final int resolvedSize;
+    private final int collisions;
+    private final long misses;
+
+    public RegistryStats(int size, int resolvedSize, int collisions, long misses) {
+        this.size = size;
+        this.resolvedSize = resolvedSize;
+        this.collisions = collisions;
+        this.misses = misses;
+    }
+
+    /**
+     * Return the number of codecs in the registry.
+     * @return          the number of codecs in the registry
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Return the number of classes for which a resolved codec has been cached.
+     * @return          the number of classes with a cached resolved codec
+     */
+    public int resolvedSize() {
+        return resolvedSize;
+    }
+
+    /**
+     * Return the number of registry keys whose hash code is shared with another key.
+     * @return          the number of colliding keys
+     */
+    public int collisions() {
+        return collisions;
+    }
+
+    /**
+     * Return the number of registry lookups which did not find a codec.
+     * @return          the number of registry misses
+     */
+    public long misses() {
+        return misses;
+    }
+
+    @Override
+    public String toString() {
+        return "RegistryStats{" +
+                "size=" + size +
+                ", resolvedSize=" + resolvedSize +
+                ", collisions=" + collisions +
+                ", misses=" + misses +
+                '}';
+    }
+}
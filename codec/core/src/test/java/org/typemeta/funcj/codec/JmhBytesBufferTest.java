@@ -0,0 +1,91 @@
+package org.typemeta.funcj.codec;
+
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.*;
+import org.openjdk.jmh.runner.options.*;
+import org.typemeta.funcj.codec.bytes.*;
+
+import java.io.*;
+import java.nio.ByteBuffer;
+
+/**
+ * Compares the {@code DataOutput}/{@code DataInput} stream implementation of the bytes codec
+ * against the {@code ByteBuffer} implementation, for a type dominated by primitive arrays.
+ */
+@State(Scope.Benchmark)
+public class JmhBytesBufferTest {
+
+    public static class HasPrimArrays {
+        final int[] ints;
+        final long[] longs;
+        final double[] doubles;
+        final String name;
+
+        public HasPrimArrays() {
+            this.ints = null;
+            this.longs = null;
+            this.doubles = null;
+            this.name = null;
+        }
+
+        public HasPrimArrays(int size) {
+            this.ints = new int[size];
+            this.longs = new long[size];
+            this.doubles = new double[size];
+            for (int i = 0; i < size; ++i) {
+                ints[i] = i * 31;
+                longs[i] = i * 1_000_003L;
+                doubles[i] = i / 7.0;
+            }
+            this.name = "HasPrimArrays-" + size;
+        }
+    }
+
+    private ByteCodecCore codec;
+    private HasPrimArrays value;
+    private byte[] bytes;
+
+    @Setup
+    public void setup() {
+        codec = TestBase.prepareCodecCore(ByteConfig.builder(), Codecs::byteCodec);
+        value = new HasPrimArrays(1000);
+        bytes = codec.encodeToBytes(HasPrimArrays.class, value);
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.Throughput)
+    public byte[] encodeStream() {
+        final ByteArrayOutputStream baos = new ByteArrayOutputStream();
+        codec.encode(HasPrimArrays.class, value, baos);
+        return baos.toByteArray();
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.Throughput)
+    public byte[] encodeBuffer() {
+        return codec.encodeToBytes(HasPrimArrays.class, value);
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.Throughput)
+    public HasPrimArrays decodeStream() {
+        return codec.decode(HasPrimArrays.class, new ByteArrayInputStream(bytes));
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.Throughput)
+    public HasPrimArrays decodeBuffer() {
+        return codec.decode(HasPrimArrays.class, ByteBuffer.wrap(bytes));
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        final Options opt = new OptionsBuilder()
+                .include(JmhBytesBufferTest.class.getSimpleName())
+                .warmupIterations(5)
+                .measurementIterations(5)
+                .forks(1)
+                .build();
+
+        new Runner(opt).run();
+    }
+}
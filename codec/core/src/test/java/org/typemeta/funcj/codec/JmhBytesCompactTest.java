@@ -0,0 +1,141 @@
+package org.typemeta.funcj.codec;
+
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.*;
+import org.openjdk.jmh.runner.options.*;
+import org.typemeta.funcj.codec.bytes.*;
+
+import java.io.*;
+import java.util.*;
+import java.util.zip.*;
+
+/**
+ * Compares the fixed-width bytes encoding against the compact (varint) encoding,
+ * with and without delta encoding, and against gzipping the fixed-width encoding.
+ * {@link #main} also prints the encoded size for each mode.
+ */
+@State(Scope.Benchmark)
+public class JmhBytesCompactTest {
+
+    public static class Event {
+        final long timestamp;
+        final int type;
+        final short flags;
+        final String source;
+
+        public Event() {
+            this.timestamp = 0;
+            this.type = 0;
+            this.flags = 0;
+            this.source = null;
+        }
+
+        public Event(long timestamp, int type, short flags, String source) {
+            this.timestamp = timestamp;
+            this.type = type;
+            this.flags = flags;
+            this.source = source;
+        }
+    }
+
+    public static class EventLog {
+        final long[] timestamps;
+        final int[] counts;
+        final List<Event> events;
+
+        public EventLog() {
+            this.timestamps = null;
+            this.counts = null;
+            this.events = null;
+        }
+
+        public EventLog(int size) {
+            final Random rand = new Random(1234);
+            this.timestamps = new long[size];
+            this.counts = new int[size];
+            this.events = new ArrayList<>(size);
+            long ts = 1_600_000_000_000L;
+            for (int i = 0; i < size; ++i) {
+                ts += rand.nextInt(5000);
+                timestamps[i] = ts;
+                counts[i] = rand.nextInt(100);
+                events.add(new Event(ts, rand.nextInt(16), (short)rand.nextInt(4), "src" + rand.nextInt(8)));
+            }
+        }
+    }
+
+    @Param({"fixed", "compact", "delta", "gzip"})
+    public String mode;
+
+    private ByteCodecCore codec;
+    private EventLog value;
+    private byte[] bytes;
+
+    static ByteCodecCore codec(String mode) {
+        final ByteConfig.Builder cfgBldr = ByteConfig.builder();
+        switch (mode) {
+            case "compact":
+                cfgBldr.compactEncoding(true);
+                break;
+            case "delta":
+                cfgBldr.deltaEncoding(true);
+                break;
+        }
+        return TestBase.prepareCodecCore(cfgBldr, Codecs::byteCodec);
+    }
+
+    static byte[] encode(ByteCodecCore codec, String mode, EventLog value) throws IOException {
+        if (mode.equals("gzip")) {
+            final ByteArrayOutputStream baos = new ByteArrayOutputStream();
+            try (GZIPOutputStream gzos = new GZIPOutputStream(baos)) {
+                codec.encode(EventLog.class, value, gzos);
+            }
+            return baos.toByteArray();
+        } else {
+            return codec.encodeToBytes(EventLog.class, value);
+        }
+    }
+
+    static EventLog decode(ByteCodecCore codec, String mode, byte[] bytes) throws IOException {
+        if (mode.equals("gzip")) {
+            return codec.decode(EventLog.class, new GZIPInputStream(new ByteArrayInputStream(bytes)));
+        } else {
+            return codec.decode(EventLog.class, bytes);
+        }
+    }
+
+    @Setup
+    public void setup() throws IOException {
+        codec = codec(mode);
+        value = new EventLog(1000);
+        bytes = encode(codec, mode, value);
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.Throughput)
+    public byte[] encode() throws IOException {
+        return encode(codec, mode, value);
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.Throughput)
+    public EventLog decode() throws IOException {
+        return decode(codec, mode, bytes);
+    }
+
+    public static void main(String[] args) throws Exception {
+        final EventLog value = new EventLog(1000);
+        for (String mode : new String[]{"fixed", "compact", "delta", "gzip"}) {
+            System.out.println(mode + " size = " + encode(codec(mode), mode, value).length + " bytes");
+        }
+
+        final Options opt = new OptionsBuilder()
+                .include(JmhBytesCompactTest.class.getSimpleName())
+                .warmupIterations(5)
+                .measurementIterations(5)
+                .forks(1)
+                .build();
+
+        new Runner(opt).run();
+    }
+}
@@ -0,0 +1,67 @@
+package org.typemeta.funcj.codec;
+
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+import org.openjdk.jmh.runner.*;
+import org.openjdk.jmh.runner.options.*;
+import org.typemeta.funcj.codec.bytes.*;
+
+import java.util.*;
+
+import static org.typemeta.funcj.codec.TestTypes.*;
+
+/**
+ * Measures {@link CodecCore#getCodec(Class)} lookups of already-resolved codecs,
+ * as performed per element when encoding polymorphic collections.
+ * {@link #main} runs the benchmark with 1 to 32 threads sharing a single core.
+ */
+@State(Scope.Benchmark)
+public class JmhCodecRegistryTest {
+
+    private static final Class<?>[] CLASSES = {
+            BooleanData.class,
+            ByteData.class,
+            CharData.class,
+            ShortData.class,
+            IntegerData.class,
+            LongData.class,
+            FloatData.class,
+            DoubleData.class,
+            String.class,
+            Integer.class,
+            ArrayList.class,
+            HashMap.class
+    };
+
+    private ByteCodecCore codec;
+
+    @Setup
+    public void setup() {
+        codec = TestBase.prepareCodecCore(ByteConfig.builder(), Codecs::byteCodec);
+        for (Class<?> clazz : CLASSES) {
+            codec.getCodec(clazz);
+        }
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.Throughput)
+    public void getCodec(Blackhole bh) {
+        for (Class<?> clazz : CLASSES) {
+            bh.consume(codec.getCodec(clazz));
+        }
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        for (int threads = 1; threads <= 32; threads *= 2) {
+            final Options opt = new OptionsBuilder()
+                    .include(JmhCodecRegistryTest.class.getSimpleName())
+                    .warmupIterations(5)
+                    .measurementIterations(5)
+                    .threads(threads)
+                    .forks(1)
+                    .build();
+
+            new Runner(opt).run();
+        }
+    }
+}
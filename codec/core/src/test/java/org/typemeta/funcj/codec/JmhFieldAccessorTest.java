@@ -0,0 +1,238 @@
+package org.typemeta.funcj.codec;
+
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.*;
+import org.openjdk.jmh.runner.options.*;
+import org.typemeta.funcj.codec.bytes.*;
+import org.typemeta.funcj.codec.utils.CodecException;
+
+import java.io.*;
+import java.lang.reflect.Field;
+
+import static org.typemeta.funcj.codec.TestTypes.*;
+
+/**
+ * Compares the {@link FieldAccessor.Factory} strategies,
+ * and the original per-call {@code setAccessible} path,
+ * by round-tripping objects through the byte codec.
+ */
+@State(Scope.Thread)
+public class JmhFieldAccessorTest {
+
+    /**
+     * The original field access path, which toggled {@code setAccessible}
+     * and allocated a lambda on every call, for comparison.
+     */
+    private static final class PerCallAccessor extends FieldAccessor.ReflectionAccessor {
+
+        PerCallAccessor(Field field) {
+            super(field);
+        }
+
+        @Override
+        public boolean getBoolean(Object obj) {
+            field.setAccessible(true);
+            final boolean val = CodecException.wrap(() -> field.getBoolean(obj));
+            field.setAccessible(false);
+            return val;
+        }
+
+        @Override
+        public void setBoolean(Object obj, boolean val) {
+            field.setAccessible(true);
+            CodecException.wrap(() -> field.setBoolean(obj, val));
+            field.setAccessible(false);
+        }
+
+        @Override
+        public byte getByte(Object obj) {
+            field.setAccessible(true);
+            final byte val = CodecException.wrap(() -> field.getByte(obj));
+            field.setAccessible(false);
+            return val;
+        }
+
+        @Override
+        public void setByte(Object obj, byte val) {
+            field.setAccessible(true);
+            CodecException.wrap(() -> field.setByte(obj, val));
+            field.setAccessible(false);
+        }
+
+        @Override
+        public char getChar(Object obj) {
+            field.setAccessible(true);
+            final char val = CodecException.wrap(() -> field.getChar(obj));
+            field.setAccessible(false);
+            return val;
+        }
+
+        @Override
+        public void setChar(Object obj, char val) {
+            field.setAccessible(true);
+            CodecException.wrap(() -> field.setChar(obj, val));
+            field.setAccessible(false);
+        }
+
+        @Override
+        public short getShort(Object obj) {
+            field.setAccessible(true);
+            final short val = CodecException.wrap(() -> field.getShort(obj));
+            field.setAccessible(false);
+            return val;
+        }
+
+        @Override
+        public void setShort(Object obj, short val) {
+            field.setAccessible(true);
+            CodecException.wrap(() -> field.setShort(obj, val));
+            field.setAccessible(false);
+        }
+
+        @Override
+        public int getInt(Object obj) {
+            field.setAccessible(true);
+            final int val = CodecException.wrap(() -> field.getInt(obj));
+            field.setAccessible(false);
+            return val;
+        }
+
+        @Override
+        public void setInt(Object obj, int val) {
+            field.setAccessible(true);
+            CodecException.wrap(() -> field.setInt(obj, val));
+            field.setAccessible(false);
+        }
+
+        @Override
+        public long getLong(Object obj) {
+            field.setAccessible(true);
+            final long val = CodecException.wrap(() -> field.getLong(obj));
+            field.setAccessible(false);
+            return val;
+        }
+
+        @Override
+        public void setLong(Object obj, long val) {
+            field.setAccessible(true);
+            CodecException.wrap(() -> field.setLong(obj, val));
+            field.setAccessible(false);
+        }
+
+        @Override
+        public float getFloat(Object obj) {
+            field.setAccessible(true);
+            final float val = CodecException.wrap(() -> field.getFloat(obj));
+            field.setAccessible(false);
+            return val;
+        }
+
+        @Override
+        public void setFloat(Object obj, float val) {
+            field.setAccessible(true);
+            CodecException.wrap(() -> field.setFloat(obj, val));
+            field.setAccessible(false);
+        }
+
+        @Override
+        public double getDouble(Object obj) {
+            field.setAccessible(true);
+            final double val = CodecException.wrap(() -> field.getDouble(obj));
+            field.setAccessible(false);
+            return val;
+        }
+
+        @Override
+        public void setDouble(Object obj, double val) {
+            field.setAccessible(true);
+            CodecException.wrap(() -> field.setDouble(obj, val));
+            field.setAccessible(false);
+        }
+
+        @Override
+        public Object get(Object obj) {
+            field.setAccessible(true);
+            final Object val = CodecException.wrap(() -> field.get(obj));
+            field.setAccessible(false);
+            return val;
+        }
+
+        @Override
+        public void set(Object obj, Object val) {
+            field.setAccessible(true);
+            CodecException.wrap(() -> field.set(obj, val));
+            field.setAccessible(false);
+        }
+    }
+
+    @Param({"PER_CALL", "REFLECTION", "METHOD_HANDLE"})
+    public String accessor;
+
+    private ByteCodecCore codec;
+
+    private final IntegerData intData = new IntegerData(Init.INIT);
+    private final DoubleData dblData = new DoubleData(Init.INIT);
+
+    private byte[] intBytes;
+    private byte[] dblBytes;
+
+    @Setup
+    public void setup() {
+        final ByteConfig.Builder cfgBldr = ByteConfig.builder();
+        switch (accessor) {
+            case "PER_CALL":
+                cfgBldr.fieldAccessorFactory(PerCallAccessor::new);
+                break;
+            case "REFLECTION":
+                cfgBldr.fieldAccessorFactory(FieldAccessor.Factory.REFLECTION);
+                break;
+            default:
+                cfgBldr.fieldAccessorFactory(FieldAccessor.Factory.METHOD_HANDLE);
+                break;
+        }
+        codec = TestBase.prepareCodecCore(cfgBldr, Codecs::byteCodec);
+        intBytes = encode(IntegerData.class, intData);
+        dblBytes = encode(DoubleData.class, dblData);
+    }
+
+    private <T> byte[] encode(Class<T> clazz, T val) {
+        final ByteArrayOutputStream baos = new ByteArrayOutputStream();
+        codec.encode(clazz, val, baos);
+        return baos.toByteArray();
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.Throughput)
+    public byte[] encodeIntegerData() {
+        return encode(IntegerData.class, intData);
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.Throughput)
+    public byte[] encodeDoubleData() {
+        return encode(DoubleData.class, dblData);
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.Throughput)
+    public IntegerData decodeIntegerData() {
+        return codec.decode(IntegerData.class, new ByteArrayInputStream(intBytes));
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.Throughput)
+    public DoubleData decodeDoubleData() {
+        return codec.decode(DoubleData.class, new ByteArrayInputStream(dblBytes));
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        final Options opt = new OptionsBuilder()
+                .include(JmhFieldAccessorTest.class.getSimpleName())
+                .warmupIterations(10)
+                .measurementIterations(10)
+                .forks(3)
+                .build();
+
+        new Runner(opt).run();
+    }
+}
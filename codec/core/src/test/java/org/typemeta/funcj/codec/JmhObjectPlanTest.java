@@ -0,0 +1,104 @@
+package org.typemeta.funcj.codec;
+
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.*;
+import org.openjdk.jmh.runner.options.*;
+import org.typemeta.funcj.codec.bytes.*;
+
+import static org.typemeta.funcj.codec.TestTypes.*;
+
+/**
+ * Measures the per-field overhead of object encoding and decoding,
+ * using objects which consist mostly of primitive fields.
+ * The setup encodes a variety of other types first,
+ * so that the field-level call sites have seen several receiver types, as they would in an application.
+ */
+@State(Scope.Thread)
+public class JmhObjectPlanTest {
+
+    public static class Flat {
+        boolean b0 = true;
+        boolean b1 = false;
+        short s0 = 1234;
+        short s1 = -1234;
+        int i0 = 123456;
+        int i1 = -654321;
+        int i2 = 42;
+        int i3 = Integer.MAX_VALUE;
+        long l0 = 1234567890123L;
+        long l1 = -1L;
+        long l2 = 0L;
+        float f0 = 1.25f;
+        float f1 = -3.5f;
+        double d0 = Math.PI;
+        double d1 = Math.E;
+        double d2 = -0.001;
+        char c0 = 'x';
+        byte y0 = 7;
+        String str = "flat";
+    }
+
+    public static class Outer {
+        Flat a = new Flat();
+        Flat b = new Flat();
+        int count = 2;
+    }
+
+    private ByteCodecCore codec;
+
+    private final Flat flat = new Flat();
+    private final Outer outer = new Outer();
+
+    private byte[] flatBytes;
+    private byte[] outerBytes;
+
+    @Setup
+    public void setup() {
+        codec = TestBase.prepareCodecCore(ByteConfig.builder(), Codecs::byteCodec);
+
+        for (int i = 0; i < 2000; ++i) {
+            codec.encodeToBytes(BooleanData.class, new BooleanData(Init.INIT));
+            codec.encodeToBytes(IntegerData.class, new IntegerData(Init.INIT));
+            codec.encodeToBytes(LongData.class, new LongData(Init.INIT));
+            codec.encodeToBytes(DoubleData.class, new DoubleData(Init.INIT));
+        }
+
+        flatBytes = codec.encodeToBytes(Flat.class, flat);
+        outerBytes = codec.encodeToBytes(Outer.class, outer);
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.Throughput)
+    public byte[] encodeFlat() {
+        return codec.encodeToBytes(Flat.class, flat);
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.Throughput)
+    public Flat decodeFlat() {
+        return codec.decode(Flat.class, flatBytes);
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.Throughput)
+    public byte[] encodeOuter() {
+        return codec.encodeToBytes(Outer.class, outer);
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.Throughput)
+    public Outer decodeOuter() {
+        return codec.decode(Outer.class, outerBytes);
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        final Options opt = new OptionsBuilder()
+                .include(JmhObjectPlanTest.class.getSimpleName())
+                .warmupIterations(5)
+                .measurementIterations(5)
+                .forks(1)
+                .build();
+
+        new Runner(opt).run();
+    }
+}
@@ -0,0 +1,214 @@
+package org.typemeta.funcj.codec;
+
+import org.junit.Test;
+import org.typemeta.funcj.codec.bytes.*;
+import org.typemeta.funcj.codec.bytes.ByteTypes.*;
+import org.typemeta.funcj.codec.bytes.io.*;
+import org.typemeta.funcj.codec.impl.CodecCoreImpl;
+
+import java.lang.reflect.*;
+import java.util.*;
+
+import static org.junit.Assert.*;
+
+public class ObjectPlanTest {
+
+    public static class AllKinds {
+        boolean bo = true;
+        byte by = -7;
+        char ch = 'x';
+        short sh = -1234;
+        int in = 123456;
+        long lo = -1234567890123L;
+        float fl = 1.25f;
+        double du = Math.PI;
+        boolean[] boa = {true, false};
+        byte[] bya = {1, -2};
+        char[] cha = {'a', 'b'};
+        short[] sha = {3, -4};
+        int[] ina = {5, -6};
+        long[] loa = {7L, -8L};
+        float[] fla = {9.5f, -10.5f};
+        double[] dua = {11.5, -12.5};
+        String str = "string";
+        String[] stra = {"a", null, "c"};
+
+        AllKinds() {
+        }
+
+        AllKinds(boolean empty) {
+            bo = false;
+            by = 0;
+            ch = 0;
+            sh = 0;
+            in = 0;
+            lo = 0;
+            fl = 0;
+            du = 0;
+            boa = null;
+            bya = null;
+            cha = null;
+            sha = null;
+            ina = null;
+            loa = null;
+            fla = null;
+            dua = null;
+            str = null;
+            stra = null;
+        }
+    }
+
+    // An IntegerFieldCodec subclass which overrides the encoding of the field.
+    static class OffsetIntFieldCodec extends FieldCodec.IntegerFieldCodec<InStream, OutStream, Config> {
+        static final int OFFSET = 1000;
+
+        OffsetIntFieldCodec(Field field, Codec.IntCodec<InStream, OutStream, Config> codec) {
+            super(field, codec);
+        }
+
+        @Override
+        public OutStream encodeField(CodecCoreEx<InStream, OutStream, Config> core, Object obj, OutStream out) {
+            return codec.encodePrim(accessor.getInt(obj) + OFFSET, out);
+        }
+
+        @Override
+        public void decodeField(CodecCoreEx<InStream, OutStream, Config> core, Object obj, InStream in) {
+            accessor.setInt(obj, codec.decodePrim(in) - OFFSET);
+        }
+    }
+
+    private static CodecCoreImpl<InStream, OutStream, Config> codecCore() {
+        final ByteConfig.Builder cfgBldr = ByteConfig.builder();
+        cfgBldr.registerAllowedPackage(ObjectPlanTest.class.getPackage());
+        return Codecs.registerAll(cfgBldr, cfg -> new CodecCoreImpl<>(new ByteCodecFormat(cfg)));
+    }
+
+    private static List<Field> fields() {
+        final List<Field> fields = new ArrayList<>();
+        for (Field field : AllKinds.class.getDeclaredFields()) {
+            if (!Modifier.isStatic(field.getModifiers()) && !field.isSynthetic()) {
+                field.setAccessible(true);
+                fields.add(field);
+            }
+        }
+        return fields;
+    }
+
+    private static Map<String, FieldCodec<InStream, OutStream, Config>> fieldCodecs(
+            CodecCoreImpl<InStream, OutStream, Config> core) {
+        final Map<String, FieldCodec<InStream, OutStream, Config>> fieldCodecs = new LinkedHashMap<>();
+        for (Field field : fields()) {
+            fieldCodecs.put(field.getName(), core.createFieldCodec(field));
+        }
+        return fieldCodecs;
+    }
+
+    private static <T> byte[] encode(ObjectPlan<T, InStream, OutStream, Config> plan, T val) {
+        final BufferOutputImpl out = new BufferOutputImpl();
+        OutStream os = out;
+        for (ObjectMeta.Field<T, InStream, OutStream, ObjectPlan.Builder<T>> step : plan.toArray()) {
+            os = step.encodeField(val, os);
+        }
+        return out.toByteArray();
+    }
+
+    private static <T> T decode(ObjectPlan<T, InStream, OutStream, Config> plan, byte[] bytes) {
+        final InStream in = new BufferInputImpl(bytes);
+        ObjectPlan.Builder<T> bldr = plan.createBuilder();
+        for (ObjectMeta.Field<T, InStream, OutStream, ObjectPlan.Builder<T>> step : plan.toArray()) {
+            bldr = step.decodeField(bldr, in);
+        }
+        return bldr.construct();
+    }
+
+    private static void assertFieldsEqual(AllKinds expected, AllKinds actual) throws IllegalAccessException {
+        for (Field field : fields()) {
+            assertTrue(field.getName(), Objects.deepEquals(field.get(expected), field.get(actual)));
+        }
+    }
+
+    @Test
+    public void testRoundTripAllKinds() throws IllegalAccessException {
+        final CodecCoreImpl<InStream, OutStream, Config> core = codecCore();
+        final Map<String, FieldCodec<InStream, OutStream, Config>> fieldCodecs = fieldCodecs(core);
+        final ObjectPlan<AllKinds, InStream, OutStream, Config> plan =
+                new ObjectPlan<>(core, fieldCodecs, () -> new AllKinds(true));
+
+        for (AllKinds val : new AllKinds[]{new AllKinds(), new AllKinds(true)}) {
+            final byte[] bytes = encode(plan, val);
+
+            // The steps must encode each field exactly as its FieldCodec does.
+            final BufferOutputImpl out = new BufferOutputImpl();
+            OutStream os = out;
+            for (FieldCodec<InStream, OutStream, Config> fc : fieldCodecs.values()) {
+                os = fc.encodeField(core, val, os);
+            }
+            assertArrayEquals(out.toByteArray(), bytes);
+
+            assertFieldsEqual(val, decode(plan, bytes));
+        }
+    }
+
+    @Test
+    public void testOverriddenFieldCodec() throws NoSuchFieldException, IllegalAccessException {
+        final CodecCoreImpl<InStream, OutStream, Config> core = codecCore();
+        final Map<String, FieldCodec<InStream, OutStream, Config>> fieldCodecs = fieldCodecs(core);
+        final Field inField = AllKinds.class.getDeclaredField("in");
+        fieldCodecs.put("in", new OffsetIntFieldCodec(inField, core.format().intCodec()));
+
+        final ObjectPlan<AllKinds, InStream, OutStream, Config> plan =
+                new ObjectPlan<>(core, fieldCodecs, () -> new AllKinds(true));
+
+        final AllKinds val = new AllKinds();
+        final byte[] bytes = encode(plan, val);
+
+        // Skip the preceding fields, and check the overridden encoding was used.
+        final InStream in = new BufferInputImpl(bytes);
+        final AllKinds skipped = new AllKinds(true);
+        for (Map.Entry<String, FieldCodec<InStream, OutStream, Config>> en : fieldCodecs.entrySet()) {
+            if (en.getKey().equals("in")) {
+                break;
+            }
+            en.getValue().decodeField(core, skipped, in);
+        }
+        assertEquals(val.in + OffsetIntFieldCodec.OFFSET, in.readInt());
+
+        assertFieldsEqual(val, decode(plan, bytes));
+    }
+
+    @Test
+    public void testCustomFieldCodec() throws NoSuchFieldException, IllegalAccessException {
+        final CodecCoreImpl<InStream, OutStream, Config> core = codecCore();
+        final Map<String, FieldCodec<InStream, OutStream, Config>> fieldCodecs = new LinkedHashMap<>();
+        final Field strField = AllKinds.class.getDeclaredField("str");
+        strField.setAccessible(true);
+        fieldCodecs.put("str", new FieldCodec<InStream, OutStream, Config>() {
+            @Override
+            public OutStream encodeField(CodecCoreEx<InStream, OutStream, Config> core, Object obj, OutStream out) {
+                try {
+                    return out.writeString("<" + strField.get(obj) + ">");
+                } catch (IllegalAccessException ex) {
+                    throw new RuntimeException(ex);
+                }
+            }
+
+            @Override
+            public void decodeField(CodecCoreEx<InStream, OutStream, Config> core, Object obj, InStream in) {
+                final String s = in.readString();
+                try {
+                    strField.set(obj, s.substring(1, s.length() - 1));
+                } catch (IllegalAccessException ex) {
+                    throw new RuntimeException(ex);
+                }
+            }
+        });
+
+        final ObjectPlan<AllKinds, InStream, OutStream, Config> plan =
+                new ObjectPlan<>(core, fieldCodecs, () -> new AllKinds(true));
+
+        final AllKinds val = new AllKinds();
+        final byte[] bytes = encode(plan, val);
+        assertEquals("<string>", new BufferInputImpl(bytes).readString());
+        assertEquals("string", decode(plan, bytes).str);
+    }
+}
@@ -0,0 +1,45 @@
+package org.typemeta.funcj.codec.bytes;
+
+import org.junit.Assert;
+import org.typemeta.funcj.codec.*;
+
+import java.io.*;
+import java.nio.*;
+
+public class BufferBytesCodecTest extends TestBase {
+
+    @Override
+    protected <T> void roundTrip(T val, Class<T> clazz) {
+        final ByteConfig.Builder cfgBldr = ByteConfig.builder();
+        final ByteCodecCore codec = prepareCodecCore(cfgBldr, Codecs::byteCodec);
+
+        final byte[] ba = codec.encodeToBytes(clazz, val);
+
+        if (printData()) {
+            System.out.println(TestDataUtils.printHexBinary(ba));
+        }
+
+        // The buffer encoding should be identical to the stream encoding.
+        final ByteArrayOutputStream baos = new ByteArrayOutputStream();
+        codec.encode(clazz, val, baos);
+        Assert.assertArrayEquals(baos.toByteArray(), ba);
+
+        Assert.assertEquals(val, codec.decode(clazz, ba));
+
+        // Start with a tiny little-endian direct buffer, to exercise growing.
+        final ByteBuffer bb = codec.encode(
+                clazz,
+                val,
+                ByteBuffer.allocateDirect(1).order(ByteOrder.LITTLE_ENDIAN)
+        );
+        Assert.assertTrue(bb.isDirect());
+        Assert.assertEquals(ByteOrder.LITTLE_ENDIAN, bb.order());
+        Assert.assertEquals(ba.length, bb.position());
+
+        bb.flip();
+        final T val2 = codec.decode(clazz, bb);
+        Assert.assertFalse(bb.hasRemaining());
+
+        Assert.assertEquals(val, val2);
+    }
+}
@@ -0,0 +1,172 @@
+package org.typemeta.funcj.codec.bytes;
+
+import org.junit.*;
+import org.typemeta.funcj.codec.*;
+import org.typemeta.funcj.codec.bytes.io.*;
+import org.typemeta.funcj.codec.utils.CodecException;
+
+import java.io.*;
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+
+public class CompactBytesCodecTest extends TestBase {
+
+    @Override
+    protected <T> void roundTrip(T val, Class<T> clazz) {
+        roundTrip(val, clazz, false);
+        roundTrip(val, clazz, true);
+    }
+
+    private <T> void roundTrip(T val, Class<T> clazz, boolean delta) {
+        final ByteConfig.Builder cfgBldr = ByteConfig.builder()
+                .compactEncoding(true)
+                .deltaEncoding(delta);
+        final ByteCodecCore codec = prepareCodecCore(cfgBldr, Codecs::byteCodec);
+
+        final ByteArrayOutputStream baos = new ByteArrayOutputStream();
+        codec.encode(clazz, val, baos);
+        final byte[] ba = baos.toByteArray();
+
+        if (printData()) {
+            System.out.println(TestDataUtils.printHexBinary(ba));
+        }
+
+        if (printSizes()) {
+            System.out.println("Encoded compact bytes " + clazz.getSimpleName() + " data size = " + ba.length + " bytes");
+        }
+
+        Assert.assertArrayEquals(ba, codec.encodeToBytes(clazz, val));
+
+        final T val2 = codec.decode(clazz, new ByteArrayInputStream(ba));
+
+        if (!printData() && !val.equals(val2)) {
+            System.out.println(TestDataUtils.printHexBinary(ba));
+        }
+
+        Assert.assertEquals(val, val2);
+        Assert.assertEquals(val, codec.decode(clazz, ByteBuffer.wrap(ba)));
+    }
+
+    @Test
+    public void testSmallValuesAreCompact() {
+        final ByteCodecCore fixed = prepareCodecCore(ByteConfig.builder(), Codecs::byteCodec);
+        final ByteCodecCore compact = prepareCodecCore(ByteConfig.builder().compactEncoding(true), Codecs::byteCodec);
+        final ByteCodecCore delta = prepareCodecCore(ByteConfig.builder().deltaEncoding(true), Codecs::byteCodec);
+
+        final long[] timestamps = new long[100];
+        for (int i = 0; i < timestamps.length; ++i) {
+            timestamps[i] = 1_600_000_000_000L + i * 1000L;
+        }
+
+        final int fixedSize = fixed.encodeToBytes(long[].class, timestamps).length;
+        final int compactSize = compact.encodeToBytes(long[].class, timestamps).length;
+        final int deltaSize = delta.encodeToBytes(long[].class, timestamps).length;
+
+        Assert.assertTrue(compactSize < fixedSize);
+        Assert.assertTrue(deltaSize < compactSize);
+
+        Assert.assertArrayEquals(timestamps, delta.decode(long[].class, delta.encodeToBytes(long[].class, timestamps)));
+
+        final int[] extremes = {0, -1, 1, Integer.MIN_VALUE, Integer.MAX_VALUE, -64, 63, 64};
+        Assert.assertArrayEquals(extremes, compact.decode(int[].class, compact.encodeToBytes(int[].class, extremes)));
+        Assert.assertArrayEquals(extremes, delta.decode(int[].class, delta.encodeToBytes(int[].class, extremes)));
+    }
+
+    private static CompactInputImpl bufferInput(byte... bytes) {
+        return new CompactInputImpl(new BufferInputImpl(bytes));
+    }
+
+    private static CompactInputImpl streamInput(byte... bytes) {
+        return new CompactInputImpl(ByteTypes.inputOf(new ByteArrayInputStream(bytes)));
+    }
+
+    private static void assertFails(Runnable decode) {
+        try {
+            decode.run();
+            Assert.fail("Expected CodecException");
+        } catch (CodecException ex) {
+            // Expected.
+        }
+    }
+
+    @Test
+    public void testLargeArraysFromStream() {
+        final ByteCodecCore codec = prepareCodecCore(ByteConfig.builder().compactEncoding(true), Codecs::byteCodec);
+
+        // Larger than the initial capacity used when the input size is unknown.
+        final int[] ints = new int[10_000];
+        final long[] longs = new long[10_000];
+        final char[] chars = new char[10_000];
+        for (int i = 0; i < ints.length; ++i) {
+            ints[i] = i * 31 - 5000;
+            longs[i] = i * 1_000_003L;
+            chars[i] = (char)(i % 500);
+        }
+
+        final ByteArrayOutputStream baos = new ByteArrayOutputStream();
+        codec.encode(int[].class, ints, baos);
+        Assert.assertArrayEquals(ints, codec.decode(int[].class, new ByteArrayInputStream(baos.toByteArray())));
+
+        baos.reset();
+        codec.encode(long[].class, longs, baos);
+        Assert.assertArrayEquals(longs, codec.decode(long[].class, new ByteArrayInputStream(baos.toByteArray())));
+
+        baos.reset();
+        codec.encode(char[].class, chars, baos);
+        Assert.assertArrayEquals(chars, codec.decode(char[].class, new ByteArrayInputStream(baos.toByteArray())));
+    }
+
+    @Test
+    public void testTruncatedInput() {
+        final ByteCodecCore codec = prepareCodecCore(ByteConfig.builder().compactEncoding(true), Codecs::byteCodec);
+
+        final int[] ints = new int[100];
+        for (int i = 0; i < ints.length; ++i) {
+            ints[i] = i * 1000;
+        }
+        final byte[] intBytes = codec.encodeToBytes(int[].class, ints);
+        final byte[] strBytes = codec.encodeToBytes(String.class, "a string which is truncated");
+
+        for (int len = 0; len < intBytes.length; len += 7) {
+            final byte[] trunc = Arrays.copyOf(intBytes, len);
+            assertFails(() -> codec.decode(int[].class, trunc));
+            assertFails(() -> codec.decode(int[].class, new ByteArrayInputStream(trunc)));
+        }
+
+        for (int len = 0; len < strBytes.length; len += 3) {
+            final byte[] trunc = Arrays.copyOf(strBytes, len);
+            assertFails(() -> codec.decode(String.class, trunc));
+            assertFails(() -> codec.decode(String.class, new ByteArrayInputStream(trunc)));
+        }
+    }
+
+    @Test
+    public void testCorruptLengths() {
+        // A varint length of 7 * 2^28, followed by a few bytes of data.
+        final byte[] huge = {(byte)0x80, (byte)0x80, (byte)0x80, (byte)0x80, 0x07, 1, 2, 3};
+        // A varint length which overflows to -1.
+        final byte[] negative = {(byte)0xFF, (byte)0xFF, (byte)0xFF, (byte)0xFF, 0x0F, 1, 2, 3};
+
+        // Where the input size is known the length is rejected before any allocation,
+        // otherwise the input runs out long before the full length is allocated.
+        assertFails(() -> bufferInput(huge).readString());
+        assertFails(() -> streamInput(huge).readString());
+        assertFails(() -> bufferInput(negative).readString());
+        assertFails(() -> streamInput(negative).readString());
+
+        for (boolean stream : new boolean[]{false, true}) {
+            final CompactInputImpl in = stream ? streamInput(huge) : bufferInput(huge);
+            final int len = in.readLength();
+            Assert.assertEquals(7 << 28, len);
+            assertFails(() -> in.readInts(len));
+        }
+
+        assertFails(() -> bufferInput(negative).readLength());
+        final byte[] data = {1, 2, 3};
+        assertFails(() -> bufferInput(data).readInts(-1));
+        assertFails(() -> streamInput(data).readLongs(-1));
+        assertFails(() -> bufferInput(data).readChars(4));
+        assertFails(() -> bufferInput(data).readShorts(Integer.MAX_VALUE));
+        assertFails(() -> streamInput(data).readLongs(Integer.MAX_VALUE));
+    }
+}
@@ -0,0 +1,25 @@
+package org.typemeta.funcj.codec.bytes;
+
+import org.junit.Assert;
+import org.typemeta.funcj.codec.*;
+
+import java.io.*;
+
+public class ReflectionAccessorBytesCodecTest extends TestBase {
+
+    @Override
+    protected <T> void roundTrip(T val, Class<T> clazz) {
+        final ByteConfig.Builder cfgBldr = ByteConfig.builder();
+        cfgBldr.fieldAccessorFactory(FieldAccessor.Factory.REFLECTION);
+        final ByteCodecCore codec = prepareCodecCore(cfgBldr, Codecs::byteCodec);
+
+        final ByteArrayOutputStream baos = new ByteArrayOutputStream();
+
+        codec.encode(clazz, val, baos);
+
+        final ByteArrayInputStream bais = new ByteArrayInputStream(baos.toByteArray());
+        final T val2 = codec.decode(clazz, bais);
+
+        Assert.assertEquals(val, val2);
+    }
+}
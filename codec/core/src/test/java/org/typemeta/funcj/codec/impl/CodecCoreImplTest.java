@@ -0,0 +1,324 @@
+package org.typemeta.funcj.codec.impl;
+
+import org.junit.Test;
+import org.typemeta.funcj.codec.*;
+import org.typemeta.funcj.codec.bytes.*;
+import org.typemeta.funcj.codec.bytes.ByteTypes.*;
+import org.typemeta.funcj.codec.utils.*;
+
+import java.io.*;
+import java.util.*;
+import java.util.concurrent.*;
+
+import static org.junit.Assert.*;
+import static org.typemeta.funcj.codec.TestTypes.*;
+
+public class CodecCoreImplTest {
+
+    private static final int THREADS = 8;
+
+    // A distinct codec instance which delegates to another codec.
+    private static final class Delegate<T> implements Codec<T, InStream, OutStream, Config> {
+        private final Codec<T, InStream, OutStream, Config> impl;
+
+        Delegate(Codec<T, InStream, OutStream, Config> impl) {
+            this.impl = impl;
+        }
+
+        @Override
+        public Class<T> type() {
+            return impl.type();
+        }
+
+        @Override
+        public OutStream encode(CodecCoreEx<InStream, OutStream, Config> core, T value, OutStream out) {
+            return impl.encode(core, value, out);
+        }
+
+        @Override
+        public T decode(CodecCoreEx<InStream, OutStream, Config> core, InStream in) {
+            return impl.decode(core, in);
+        }
+    }
+
+    private static CodecCoreImpl<InStream, OutStream, Config> codecCore() {
+        final ByteConfig.Builder cfgBldr = ByteConfig.builder();
+        cfgBldr.registerAllowedPackage(TestTypes.class.getPackage());
+        return Codecs.registerAll(cfgBldr, cfg -> new CodecCoreImpl<>(new ByteCodecFormat(cfg)));
+    }
+
+    // Run the task concurrently on several threads, all of which start together.
+    private static <T> List<T> runConcurrently(Callable<T> task) throws Exception {
+        final ExecutorService exec = Executors.newFixedThreadPool(THREADS);
+        try {
+            final CyclicBarrier barrier = new CyclicBarrier(THREADS);
+            final List<Future<T>> futures = new ArrayList<>();
+            for (int i = 0; i < THREADS; ++i) {
+                futures.add(exec.submit(() -> {
+                    barrier.await();
+                    return task.call();
+                }));
+            }
+            final List<T> results = new ArrayList<>();
+            for (Future<T> future : futures) {
+                results.add(future.get());
+            }
+            return results;
+        } finally {
+            exec.shutdown();
+        }
+    }
+
+    @Test
+    public void testConcurrentFirstUse() throws Exception {
+        for (int n = 0; n < 20; ++n) {
+            final ByteCodecCore core = TestBase.prepareCodecCore(ByteConfig.builder(), Codecs::byteCodec);
+            final Recursive rec = new Recursive(new Recursive(null, 1), 2);
+            final CommonData common = new CommonData(Init.INIT);
+
+            runConcurrently(() -> {
+                final ByteArrayOutputStream baos = new ByteArrayOutputStream();
+                core.encode(Recursive.class, rec, baos);
+                core.encode(CommonData.class, common, baos);
+
+                final ByteArrayInputStream bais = new ByteArrayInputStream(baos.toByteArray());
+                assertEquals(rec, core.decode(Recursive.class, bais));
+                assertEquals(common, core.decode(CommonData.class, bais));
+                return null;
+            });
+        }
+    }
+
+    @Test
+    public void testConcurrentLookupWaitsForConstruction() throws Exception {
+        final CodecCoreImpl<InStream, OutStream, Config> core = codecCore();
+        final Codec<IntegerData, InStream, OutStream, Config> codec = core.getCodec(IntegerData.class);
+        final ClassKey<?> key = ClassKey.valueOf(Custom.class);
+
+        final CountDownLatch constructing = new CountDownLatch(1);
+
+        final ExecutorService exec = Executors.newSingleThreadExecutor();
+        try {
+            final Future<Codec<IntegerData, InStream, OutStream, Config>> first = exec.submit(() ->
+                    core.getCodec(key, () -> {
+                        constructing.countDown();
+                        try {
+                            Thread.sleep(200);
+                        } catch (InterruptedException ex) {
+                            throw new RuntimeException(ex);
+                        }
+                        return codec;
+                    })
+            );
+
+            constructing.await();
+
+            // This lookup must wait for the codec constructed by the other thread,
+            // rather than return the uninitialised CodecRef or construct another codec.
+            final Codec<IntegerData, InStream, OutStream, Config> second =
+                    core.getCodec(key, () -> {
+                        throw new AssertionError("Codec constructed twice");
+                    });
+
+            assertSame(codec, second);
+            assertSame(codec, first.get());
+        } finally {
+            exec.shutdown();
+        }
+    }
+
+    @Test
+    public void testUnrelatedConstructionsOverlap() throws Exception {
+        final CodecCoreImpl<InStream, OutStream, Config> core = codecCore();
+        final Codec<IntegerData, InStream, OutStream, Config> codec = core.getCodec(IntegerData.class);
+        final List<ClassKey<?>> keys = Arrays.asList(ClassKey.valueOf(Custom.class), ClassKey.valueOf(Recursive.class));
+
+        final CountDownLatch constructing = new CountDownLatch(keys.size());
+
+        final ExecutorService exec = Executors.newFixedThreadPool(keys.size());
+        try {
+            final List<Future<Codec<IntegerData, InStream, OutStream, Config>>> futures = new ArrayList<>();
+            for (ClassKey<?> key : keys) {
+                futures.add(exec.submit(() ->
+                        core.getCodec(key, () -> {
+                            constructing.countDown();
+                            // Each construction must be able to start while the other is still in progress.
+                            try {
+                                if (!constructing.await(10, TimeUnit.SECONDS)) {
+                                    throw new AssertionError("Unrelated codec constructions did not overlap");
+                                }
+                            } catch (InterruptedException ex) {
+                                throw new RuntimeException(ex);
+                            }
+                            return new Delegate<>(codec);
+                        })
+                ));
+            }
+
+            for (int i = 0; i < keys.size(); ++i) {
+                final Codec<IntegerData, InStream, OutStream, Config> result = futures.get(i).get();
+                assertSame(result, core.getCodec(keys.get(i), () -> {
+                    throw new AssertionError("Codec constructed twice");
+                }));
+            }
+        } finally {
+            exec.shutdown();
+        }
+    }
+
+    @Test
+    public void testRecursiveLookupReturnsCodecRef() {
+        final CodecCoreImpl<InStream, OutStream, Config> core = codecCore();
+        final Codec<IntegerData, InStream, OutStream, Config> codec = core.getCodec(IntegerData.class);
+        final ClassKey<?> key = ClassKey.valueOf(Custom.class);
+
+        final List<Codec<IntegerData, InStream, OutStream, Config>> inner = new ArrayList<>();
+        final Codec<IntegerData, InStream, OutStream, Config> outer =
+                core.getCodec(key, () -> {
+                    inner.add(core.getCodec(key, () -> {
+                        throw new AssertionError("Codec constructed twice");
+                    }));
+                    return codec;
+                });
+
+        assertSame(codec, outer);
+        assertTrue(inner.get(0) instanceof CodecRef);
+        assertSame(codec, ((CodecRef<IntegerData, InStream, OutStream, Config>)inner.get(0)).get());
+        assertSame(codec, core.getCodec(key, () -> null));
+    }
+
+    @Test
+    public void testRegisterWhileResolving() throws Exception {
+        final CodecCoreImpl<InStream, OutStream, Config> core = codecCore();
+        final Codec<IntegerData, InStream, OutStream, Config> codec = core.getCodec(IntegerData.class);
+
+        final int registrations = 200;
+        final List<Codec<IntegerData, InStream, OutStream, Config>> stale = Collections.synchronizedList(new ArrayList<>());
+        final ExecutorService exec = Executors.newFixedThreadPool(THREADS - 1);
+        try {
+            final CountDownLatch done = new CountDownLatch(1);
+            final List<Future<?>> futures = new ArrayList<>();
+            for (int i = 0; i < THREADS - 1; ++i) {
+                futures.add(exec.submit(() -> {
+                    while (done.getCount() > 0) {
+                        core.getCodec(IntegerData.class);
+                    }
+                }));
+            }
+
+            for (int i = 0; i < registrations; ++i) {
+                final Codec<IntegerData, InStream, OutStream, Config> regCodec = new Delegate<>(codec);
+                core.registerCodec(IntegerData.class, regCodec);
+
+                // Once the registration has returned, no lookup may resolve to a previous codec.
+                for (int j = 0; j < 100; ++j) {
+                    final Codec<IntegerData, InStream, OutStream, Config> resolved = core.getCodec(IntegerData.class);
+                    if (resolved != regCodec) {
+                        stale.add(resolved);
+                    }
+                }
+            }
+
+            done.countDown();
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        } finally {
+            exec.shutdown();
+        }
+
+        assertEquals(Collections.emptyList(), stale);
+    }
+
+    @Test
+    public void testRegisterDuringResolution() throws Exception {
+        final CountDownLatch lookedUp = new CountDownLatch(1);
+        final CountDownLatch registered = new CountDownLatch(1);
+
+        final ByteConfig.Builder cfgBldr = ByteConfig.builder();
+        cfgBldr.registerAllowedPackage(TestTypes.class.getPackage());
+        final CodecCoreImpl<InStream, OutStream, Config> core = Codecs.registerAll(cfgBldr, cfg ->
+                new CodecCoreImpl<InStream, OutStream, Config>(new ByteCodecFormat(cfg)) {
+                    @Override
+                    public <T> Codec<T, InStream, OutStream, Config> getCodec(
+                            ClassKey<?> key,
+                            java.util.function.Supplier<Codec<T, InStream, OutStream, Config>> codecSupp) {
+                        final Codec<T, InStream, OutStream, Config> codec = super.getCodec(key, codecSupp);
+                        // Pause the resolving thread between the registry lookup and the caching of the result.
+                        if (key.equals(ClassKey.valueOf(IntegerData.class)) && lookedUp.getCount() > 0) {
+                            lookedUp.countDown();
+                            try {
+                                registered.await();
+                            } catch (InterruptedException ex) {
+                                throw new RuntimeException(ex);
+                            }
+                        }
+                        return codec;
+                    }
+                }
+        );
+
+        final Codec<IntegerData, InStream, OutStream, Config> regCodec = new Delegate<>(new CodecRef<>());
+
+        final ExecutorService exec = Executors.newSingleThreadExecutor();
+        try {
+            final Future<Codec<IntegerData, InStream, OutStream, Config>> resolving =
+                    exec.submit(() -> core.getCodec(IntegerData.class));
+
+            lookedUp.await();
+            core.registerCodec(IntegerData.class, regCodec);
+            registered.countDown();
+
+            assertNotSame(regCodec, resolving.get());
+        } finally {
+            exec.shutdown();
+        }
+
+        // The codec resolved prior to the registration must not have been cached.
+        assertSame(regCodec, core.getCodec(IntegerData.class));
+    }
+
+    // A key with a fixed hash code.
+    private static final class CollidingKey implements ClassKey<Object> {
+        @Override
+        public int hashCode() {
+            return 0x5EED;
+        }
+
+        @Override
+        public int compareTo(ClassKey<Object> rhs) {
+            return Integer.compare(System.identityHashCode(this), System.identityHashCode(rhs));
+        }
+    }
+
+    @Test
+    public void testRegistryStats() {
+        final CodecCoreImpl<InStream, OutStream, Config> core = codecCore();
+        final RegistryStats stats0 = core.registryStats();
+        assertEquals(core.codecRegistry.size(), stats0.size());
+        assertEquals(0, stats0.resolvedSize());
+
+        core.getCodec(IntegerData.class);
+        final RegistryStats stats1 = core.registryStats();
+        assertTrue(stats1.size() > stats0.size());
+        assertTrue(stats1.misses() > stats0.misses());
+        // The field types are resolved as well.
+        assertTrue(stats1.resolvedSize() > 1);
+
+        // A repeat lookup is resolved from the cache.
+        core.getCodec(IntegerData.class);
+        final RegistryStats stats2 = core.registryStats();
+        assertEquals(stats1.size(), stats2.size());
+        assertEquals(stats1.misses(), stats2.misses());
+        assertEquals(stats1.resolvedSize(), stats2.resolvedSize());
+
+        // Each key which shares its hash code with another key counts as a collision.
+        final Codec<IntegerData, InStream, OutStream, Config> codec = core.getCodec(IntegerData.class);
+        core.codecRegistry.put(new CollidingKey(), codec);
+        assertEquals(stats2.collisions(), core.registryStats().collisions());
+        core.codecRegistry.put(new CollidingKey(), codec);
+        assertEquals(stats2.collisions() + 2, core.registryStats().collisions());
+        core.codecRegistry.put(new CollidingKey(), codec);
+        assertEquals(stats2.collisions() + 3, core.registryStats().collisions());
+    }
+}
@@ -0,0 +1,52 @@
+package org.typemeta.funcj.codec.utils;
+
+import org.junit.Test;
+
+import java.util.*;
+
+import static org.junit.Assert.*;
+
+public class ClassKeyTest {
+
+    @Test
+    public void testCompositeHashCodes() {
+        assertNotEquals(
+                ClassKey.valueOf(List.class, String.class).hashCode(),
+                ClassKey.valueOf(List.class, Integer.class).hashCode());
+        assertNotEquals(
+                ClassKey.valueOf(Map.class, String.class, Integer.class).hashCode(),
+                ClassKey.valueOf(Map.class, String.class, Double.class).hashCode());
+        assertNotEquals(
+                ClassKey.valueOf(Map.class, String.class, Integer.class).hashCode(),
+                ClassKey.valueOf(Map.class, Integer.class, String.class).hashCode());
+
+        assertEquals(ClassKey.valueOf(List.class, String.class), ClassKey.valueOf(List.class, String.class));
+        assertEquals(
+                ClassKey.valueOf(List.class, String.class).hashCode(),
+                ClassKey.valueOf(List.class, String.class).hashCode());
+    }
+
+    @Test
+    public void testInterner() {
+        final ClassKey.Interner interner = new ClassKey.Interner();
+
+        final ClassKey<String> single = interner.valueOf(String.class);
+        assertSame(single, interner.valueOf(String.class));
+        assertEquals(ClassKey.valueOf(String.class), single);
+        assertNotEquals(single, interner.valueOf(Integer.class));
+
+        final ClassKey<List> dbl = interner.valueOf(List.class, String.class);
+        assertSame(dbl, interner.valueOf(List.class, String.class));
+        assertEquals(ClassKey.valueOf(List.class, String.class), dbl);
+        assertNotEquals(dbl, interner.valueOf(List.class, Integer.class));
+        assertNotEquals(dbl, interner.valueOf(Set.class, String.class));
+
+        final ClassKey<Map> triple = interner.valueOf(Map.class, String.class, Integer.class);
+        assertSame(triple, interner.valueOf(Map.class, String.class, Integer.class));
+        assertEquals(ClassKey.valueOf(Map.class, String.class, Integer.class), triple);
+        assertNotEquals(triple, interner.valueOf(Map.class, Integer.class, String.class));
+
+        // Keys of different arity don't collide.
+        assertNotEquals(interner.valueOf(List.class), interner.valueOf(List.class, List.class));
+    }
+}
@@ -0,0 +1,57 @@
+package org.typemeta.funcj.codec.utils;
+
+import org.junit.Test;
+
+import java.util.*;
+import java.util.function.Function;
+
+import static org.junit.Assert.*;
+
+public class FieldTableTest {
+
+    private static FieldTable<String> table(int n) {
+        final List<String> names = new ArrayList<>();
+        for (int i = 0; i < n; ++i) {
+            names.add("field" + i);
+        }
+        return new FieldTable<>(names, Function.identity());
+    }
+
+    @Test
+    public void testIndexOf() {
+        for (int n : new int[]{0, 1, 2, 7, 64, 65, 200}) {
+            final FieldTable<String> ft = table(n);
+            assertEquals(n, ft.size());
+            for (int i = 0; i < n; ++i) {
+                final String name = "field" + i;
+                assertEquals(i, ft.indexOf(name));
+            }
+            assertEquals(-1, ft.indexOf("unknown"));
+            assertEquals(-1, ft.indexOf("field"));
+        }
+    }
+
+    @Test
+    public void testSeen() {
+        final FieldTable<String> ft = table(130);
+        long seen = 0L;
+        final long[] seenExt = ft.newSeenExt();
+        for (int i = 0; i < ft.size(); ++i) {
+            assertFalse(FieldTable.isSeen(i, seen, seenExt));
+            seen = FieldTable.markSeen(i, seen, seenExt);
+            assertTrue(FieldTable.isSeen(i, seen, seenExt));
+        }
+        ft.checkSeen(String.class, seen, seenExt);
+    }
+
+    @Test(expected = CodecException.class)
+    public void testMissing() {
+        final FieldTable<String> ft = table(70);
+        long seen = 0L;
+        final long[] seenExt = ft.newSeenExt();
+        for (int i = 0; i < ft.size() - 1; ++i) {
+            seen = FieldTable.markSeen(i, seen, seenExt);
+        }
+        ft.checkSeen(String.class, seen, seenExt);
+    }
+}
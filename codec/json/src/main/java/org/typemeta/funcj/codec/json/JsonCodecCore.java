@@ -1,10 +1,17 @@
 package org.typemeta.funcj.codec.json;
 
-import org.typemeta.funcj.codec.CodecStrAPI;
+import org.typemeta.funcj.codec.*;
 import org.typemeta.funcj.codec.impl.*;
 import org.typemeta.funcj.codec.json.JsonTypes.*;
+import org.typemeta.funcj.codec.json.io.*;
+import org.typemeta.funcj.codec.utils.CodecException;
+import org.typemeta.funcj.json.parser.*;
 
 import java.io.*;
+import java.nio.*;
+import java.util.*;
+import java.util.concurrent.ForkJoinPool;
+import java.util.stream.*;
 
 /**
  * Interface for classes which implement an encoding via JSON.
@@ -27,7 +34,9 @@ public JsonCodecCore() {
 
     @Override
     public <T> Writer encode(Class<? super T> type, T value, Writer writer) {
-        encodeImpl(type, value, JsonTypes.outputOf(writer));
+        try (final OutStream out = JsonTypes.outputOf(writer)) {
+            encodeImpl(type, value, out);
+        }
         return writer;
     }
 
@@ -35,4 +44,269 @@ public <T> Writer encode(Class<? super T> type, T value, Writer writer) {
     public <T> T decode(Class<? super T> type, Reader reader) {
         return decodeImpl(type, JsonTypes.inputOf(reader));
     }
+
+    /**
+     * Encode a value of type {@code T} as UTF-8 JSON into an {@link OutputStream}.
+     * The bytes are encoded directly, without an intermediate {@link OutputStreamWriter}.
+     * @param type      the class of the decoded value
+     * @param value     the value to encode
+     * @param os        the output stream
+     * @param <T>       the decoded value type
+     * @return          the output stream
+     */
+    @Override
+    public <T> OutputStream encode(Class<? super T> type, T value, OutputStream os) {
+        try {
+            final Utf8Writer wtr = new Utf8Writer(os);
+            encode(type, value, wtr);
+            wtr.flush();
+            return os;
+        } catch (IOException ex) {
+            throw new CodecException(ex);
+        }
+    }
+
+    /**
+     * Decode a value of type {@code T} from UTF-8 JSON read from an {@link InputStream}.
+     * The bytes are decoded directly, without an intermediate {@link InputStreamReader}.
+     * @param type      the type of the decoded value
+     * @param is        the input stream
+     * @param <T>       the decoded value type
+     * @return          the decoded value
+     */
+    @Override
+    public <T> T decode(Class<? super T> type, InputStream is) {
+        return decodeImpl(type, JsonTypes.inputOf(is));
+    }
+
+    /**
+     * Encode a value of type {@code T} as UTF-8 JSON into a {@link ByteBuffer},
+     * advancing the position of the buffer.
+     * @param type      the class of the decoded value
+     * @param value     the value to encode
+     * @param bb        the buffer
+     * @param <T>       the decoded value type
+     * @return          the buffer
+     * @throws CodecException if the buffer has insufficient space,
+     *                  in which case the position of the buffer is left unchanged
+     */
+    public <T> ByteBuffer encode(Class<? super T> type, T value, ByteBuffer bb) {
+        // The writer drains into the buffer as it goes, so restore the position if the encoding fails.
+        final int start = bb.position();
+        try {
+            final Utf8Writer wtr = new Utf8Writer(bb);
+            encode(type, value, wtr);
+            wtr.flush();
+            return bb;
+        } catch (IOException | BufferOverflowException ex) {
+            bb.position(start);
+            throw new CodecException(ex);
+        } catch (RuntimeException ex) {
+            bb.position(start);
+            throw ex;
+        }
+    }
+
+    /**
+     * Decode a value of type {@code T} from UTF-8 JSON held in a {@link ByteBuffer}.
+     * The position of the buffer is not modified.
+     * @param type      the type of the decoded value
+     * @param bb        the buffer
+     * @param <T>       the decoded value type
+     * @return          the decoded value
+     */
+    public <T> T decode(Class<? super T> type, ByteBuffer bb) {
+        return decodeImpl(type, JsonTypes.inputOf(bb));
+    }
+
+    /**
+     * Encode a value of type {@code T} as UTF-8 JSON into a {@code byte} array.
+     * @param type      the class of the decoded value
+     * @param value     the value to encode
+     * @param <T>       the decoded value type
+     * @return          the encoded bytes
+     */
+    public <T> byte[] encodeToBytes(Class<? super T> type, T value) {
+        final Utf8Writer wtr = new Utf8Writer();
+        encode(type, value, wtr);
+        return wtr.toByteArray();
+    }
+
+    /**
+     * Decode a value of type {@code T} from UTF-8 JSON held in a {@code byte} array.
+     * @param type      the type of the decoded value
+     * @param bytes     the encoded bytes
+     * @param <T>       the decoded value type
+     * @return          the decoded value
+     */
+    public <T> T decode(Class<? super T> type, byte[] bytes) {
+        return decodeImpl(type, JsonTypes.inputOf(bytes));
+    }
+
+    /**
+     * Encode a sequence of values of type {@code T} as JSON into a {@link Writer},
+     * either as the elements of a JSON array, or as NDJSON.
+     * The values are encoded as they are taken from the iterator,
+     * and are not otherwise retained.
+     * @param type      the class of the values
+     * @param values    the values to encode
+     * @param format    the sequence format
+     * @param writer    the writer
+     * @param <T>       the value type
+     * @return          the writer
+     */
+    public <T> Writer encodeSequence(
+            Class<T> type,
+            Iterator<? extends T> values,
+            SequenceFormat format,
+            Writer writer) {
+        final Codec<T, InStream, OutStream, Config> codec = getCodec(type);
+        try (final JsonGenerator out = JsonTypes.outputOf(writer)) {
+            if (format == SequenceFormat.ARRAY) {
+                out.startArray();
+                while (values.hasNext()) {
+                    codec.encodeWithCheck(delegate, values.next(), out);
+                }
+                out.endArray();
+            } else {
+                while (values.hasNext()) {
+                    codec.encodeWithCheck(delegate, values.next(), out);
+                    out.writeNewline();
+                }
+            }
+        }
+        return writer;
+    }
+
+    /**
+     * Encode a stream of values of type {@code T} as JSON into a {@link Writer},
+     * either as the elements of a JSON array, or as NDJSON.
+     * @param type      the class of the values
+     * @param values    the values to encode
+     * @param format    the sequence format
+     * @param writer    the writer
+     * @param <T>       the value type
+     * @return          the writer
+     * @see #encodeSequence(Class, Iterator, SequenceFormat, Writer)
+     */
+    public <T> Writer encodeSequence(
+            Class<T> type,
+            Stream<? extends T> values,
+            SequenceFormat format,
+            Writer writer) {
+        return encodeSequence(type, values.iterator(), format, writer);
+    }
+
+    /**
+     * Return an iterator which lazily decodes a sequence of values of type {@code T}
+     * from JSON read from a {@link Reader},
+     * where the values are either the elements of a top-level JSON array, or NDJSON.
+     * <p>
+     * Each value is decoded when it is requested,
+     * using a single parser and the codec for {@code T},
+     * so memory usage is independent of the number of values.
+     * The reader is not closed by the iterator.
+     * @param type      the class of the values
+     * @param reader    the reader
+     * @param format    the sequence format
+     * @param <T>       the value type
+     * @return          the iterator
+     */
+    public <T> Iterator<T> decodeIterator(Class<T> type, Reader reader, SequenceFormat format) {
+        return new SequenceIterator<T>(getCodec(type), JsonTypes.inputOf(reader), format);
+    }
+
+    /**
+     * Return a stream which lazily decodes a sequence of values of type {@code T}
+     * from JSON read from a {@link Reader}.
+     * @param type      the class of the values
+     * @param reader    the reader
+     * @param format    the sequence format
+     * @param <T>       the value type
+     * @return          the stream
+     * @see #decodeIterator(Class, Reader, SequenceFormat)
+     */
+    public <T> Stream<T> decodeStream(Class<T> type, Reader reader, SequenceFormat format) {
+        return StreamSupport.stream(
+                Spliterators.spliteratorUnknownSize(
+                        decodeIterator(type, reader, format),
+                        Spliterator.ORDERED),
+                false);
+    }
+
+    /**
+     * Decode the records of a large JSON input in parallel, into values of type {@code T}.
+     * The codec for {@code T} is resolved once, and shared by all the worker threads.
+     * @param type      the class of the values
+     * @param records   the records, i.e. the elements of a JSON array, or the lines of NDJSON
+     * @param ordered   if true, the stream is in record order, otherwise the order is unspecified
+     * @param <T>       the value type
+     * @return          a parallel stream of the decoded values
+     * @see JsonRecords#stream(java.util.function.Function, boolean)
+     */
+    public <T> Stream<T> decodeParallel(Class<T> type, JsonRecords records, boolean ordered) {
+        final Codec<T, InStream, OutStream, Config> codec = getCodec(type);
+        return records.stream(rdr -> new SequenceIterator<T>(codec, JsonTypes.inputOf(rdr), SequenceFormat.NDJSON), ordered);
+    }
+
+    /**
+     * Decode the records of a large JSON input on the given {@code ForkJoinPool},
+     * into values of type {@code T}, in record order.
+     * @param type      the class of the values
+     * @param records   the records, i.e. the elements of a JSON array, or the lines of NDJSON
+     * @param pool      the pool
+     * @param <T>       the value type
+     * @return          the decoded values
+     */
+    public <T> List<T> decodeParallel(Class<T> type, JsonRecords records, ForkJoinPool pool) {
+        final Codec<T, InStream, OutStream, Config> codec = getCodec(type);
+        return records.decode(pool, rdr -> new SequenceIterator<T>(codec, JsonTypes.inputOf(rdr), SequenceFormat.NDJSON));
+    }
+
+    private final class SequenceIterator<T> implements Iterator<T> {
+        private final Codec<T, InStream, OutStream, Config> codec;
+        private final InStream in;
+        private final SequenceFormat format;
+        private boolean started = false;
+        private boolean finished = false;
+
+        private SequenceIterator(
+                Codec<T, InStream, OutStream, Config> codec,
+                InStream in,
+                SequenceFormat format) {
+            this.codec = codec;
+            this.in = in;
+            this.format = format;
+        }
+
+        @Override
+        public boolean hasNext() {
+            if (finished) {
+                return false;
+            }
+
+            if (format == SequenceFormat.ARRAY) {
+                if (!started) {
+                    in.startArray();
+                    started = true;
+                }
+                if (in.currentEventType() == JsonEvent.Type.ARRAY_END) {
+                    in.endArray();
+                    finished = true;
+                }
+            } else if (!in.notEOF()) {
+                finished = true;
+            }
+
+            return !finished;
+        }
+
+        @Override
+        public T next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            return codec.decodeWithCheck(delegate, in);
+        }
+    }
 }
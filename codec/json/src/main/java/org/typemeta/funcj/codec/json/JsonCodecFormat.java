@@ -4,15 +4,13 @@
 import org.typemeta.funcj.codec.impl.CollectionCodec;
 import org.typemeta.funcj.codec.json.JsonTypes.*;
 import org.typemeta.funcj.codec.stream.StreamCodecFormat;
-import org.typemeta.funcj.codec.utils.CodecException;
+import org.typemeta.funcj.codec.utils.*;
 import org.typemeta.funcj.functions.Functions;
 import org.typemeta.funcj.json.parser.JsonEvent;
 
 import java.lang.reflect.*;
 import java.util.*;
 
-import static org.typemeta.funcj.codec.utils.StreamUtils.toLinkedHashMap;
-
 /**
  * Encoding via JSON streams.
  */
@@ -86,11 +84,10 @@ public <T> T decodeDynamicType(InStream in, Functions.F2<String, InStream, T> de
                 in.currentEventType() == JsonEvent.Type.OBJECT_START
         ) {
             final String typeFieldName = config.typeFieldName();
-            final JsonEvent.FieldName typeField = new JsonEvent.FieldName(typeFieldName);
             final String valueFieldName = config.valueFieldName();
 
-            final JsonEvent next = in.event(1);
-            if (next.equals(typeField)) {
+            if (in.eventType(1) == JsonEvent.Type.FIELD_NAME &&
+                    typeFieldName.equals(in.eventValue(1))) {
                 in.startObject();
 
                 in.readFieldName(typeFieldName);
@@ -704,18 +701,14 @@ public <T, RA extends ObjectMeta.Builder<T>> Codec<T, InStream, OutStream, Confi
 
         private final Class<T> type;
         private final ObjectMeta<T, InStream, OutStream, RA> objMeta;
-        private final Map<String, ObjectMeta.Field<T, InStream, OutStream, RA>> fields;
+        private final FieldTable<ObjectMeta.Field<T, InStream, OutStream, RA>> fields;
 
         private ObjectCodec(
                 Class<T> type,
                 ObjectMeta<T, InStream, OutStream, RA> objMeta) {
             this.type = type;
             this.objMeta = objMeta;
-            this.fields = objMeta.stream()
-                    .collect(toLinkedHashMap(
-                            ObjectMeta.Field::name,
-                            f -> f
-                    ));
+            this.fields = FieldTable.of(objMeta);
         }
 
         @Override
@@ -727,10 +720,10 @@ public Class<T> type() {
         public OutStream encode(CodecCoreEx<InStream, OutStream, Config> core, T value, OutStream out) {
             out.startObject();
 
-            fields.forEach((name, field) -> {
-                out.writeField(field.name());
-                field.encodeField(value, out);
-            });
+            for (int i = 0, n = fields.size(); i < n; ++i) {
+                out.writeField(fields.name(i));
+                fields.field(i).encodeField(value, out);
+            }
 
             return out.endObject();
         }
@@ -739,13 +732,14 @@ public OutStream encode(CodecCoreEx<InStream, OutStream, Config> core, T value,
         public T decode(CodecCoreEx<InStream, OutStream, Config> core, InStream in) {
             in.startObject();
 
-            final Set<String> expNames = fields.keySet();
-            final Set<String> actNames = new HashSet<>();
+            long seen = 0L;
+            final long[] seenExt = fields.newSeenExt();
             final RA ra = objMeta.createBuilder();
 
             while (in.notEOF() && in.currentEventType() != JsonEvent.Type.OBJECT_END) {
                 final String name = in.readFieldName();
-                if (!expNames.contains(name)) {
+                final int index = fields.indexOf(name);
+                if (index == -1) {
                     if (config().failOnUnrecognisedFields()) {
                         throw new CodecException(
                                 "Field name '" + name + "' unexpected for type " + type +
@@ -753,17 +747,17 @@ public T decode(CodecCoreEx<InStream, OutStream, Config> core, InStream in) {
                     } else {
                         in.skipNode();
                     }
-                } else if (actNames.contains(name)) {
+                } else if (FieldTable.isSeen(index, seen, seenExt)) {
                     throw new CodecException(
                             "Duplicate field name '" + name + "' for type " + type +
                                     " at location " + in.location());
                 } else {
-                    actNames.add(name);
-                    fields.get(name).decodeField(ra, in);
+                    seen = FieldTable.markSeen(index, seen, seenExt);
+                    fields.field(index).decodeField(ra, in);
                 }
             }
 
-            checkFields(type, expNames, actNames);
+            fields.checkSeen(type, seen, seenExt);
 
             in.endObject();
 
@@ -7,9 +7,26 @@
 
 import java.io.*;
 import java.math.BigDecimal;
+import java.nio.ByteBuffer;
 
 public abstract class JsonTypes {
 
+    /**
+     * The layout of a sequence of JSON values, for streamed encoding and decoding.
+     */
+    public enum SequenceFormat {
+        /**
+         * The values are the elements of a single top-level JSON array.
+         */
+        ARRAY,
+
+        /**
+         * Newline-delimited JSON, i.e. a sequence of top-level JSON values, one per line.
+         * When decoding, the values may be separated by any whitespace.
+         */
+        NDJSON
+    }
+
     /**
      * Interface for classes which provide configuration information
      * for {@link JsonCodecCore} implementations.
@@ -36,6 +53,23 @@ public interface InStream extends StreamCodecFormat.Input<InStream> {
 
         JsonEvent event(int lookahead);
 
+        /**
+         * Return the type of an upcoming event, without consuming any events.
+         * Unlike {@link #event(int)}, this does not construct an event.
+         * @param lookahead the number of events beyond the current event
+         * @return          the event type
+         */
+        JsonEvent.Type eventType(int lookahead);
+
+        /**
+         * Return the text of an upcoming string, field name or number event,
+         * without consuming any events.
+         * Unlike {@link #event(int)}, this does not construct an event.
+         * @param lookahead the number of events beyond the current event
+         * @return          the event text, or null if the event has no text
+         */
+        String eventValue(int lookahead);
+
         void skipNode();
 
         <T> T readNull();
@@ -72,12 +106,33 @@ public interface OutStream extends StreamCodecFormat.Output<OutStream> {
         OutStream endArray();
     }
 
-    private static final int MAX_PARSER_LOOKAHEAD = 3;
+    private static final int PARSER_LOOKAHEAD = 3;
 
     public static JsonStreamParser inputOf(Reader reader) {
-        return new JsonStreamParser(reader, MAX_PARSER_LOOKAHEAD);
+        return new JsonStreamParser(reader, PARSER_LOOKAHEAD);
+    }
+
+    public static JsonStreamParser inputOf(InputStream is) {
+        return inputOf(new Utf8Reader(is));
     }
 
+    public static JsonStreamParser inputOf(byte[] bytes) {
+        return inputOf(new Utf8Reader(bytes));
+    }
+
+    public static JsonStreamParser inputOf(ByteBuffer bb) {
+        return inputOf(new Utf8Reader(bb));
+    }
+
+    /**
+     * Construct a generator which writes JSON to a {@code Writer}.
+     * Output is buffered, and is written to the {@code Writer} as each top-level value is completed.
+     * The generator should be closed once writing is complete,
+     * which writes any output of an incomplete value and releases the buffer.
+     * Neither flushing nor closing the generator flushes or closes the {@code Writer}.
+     * @param writer    the {@code Writer} to write to
+     * @return          the generator
+     */
     public static JsonGenerator outputOf(Writer writer) {
         return new JsonGenerator(writer);
     }
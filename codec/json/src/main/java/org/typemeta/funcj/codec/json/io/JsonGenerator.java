@@ -1,6 +1,7 @@
 package org.typemeta.funcj.codec.json.io;
 
 import org.typemeta.funcj.codec.json.JsonTypes;
+import org.typemeta.funcj.json.model.JsonOutputBuffer;
 
 import java.io.*;
 import java.math.BigDecimal;
@@ -9,17 +10,47 @@
 
 public class JsonGenerator implements JsonTypes.OutStream {
 
-    private final Writer writer;
+    private final JsonOutputBuffer buf;
 
     private boolean pendingComma = false;
 
+    // The nesting depth of the current value, used to detect the end of a top-level value.
+    private int depth = 0;
+
+    /**
+     * Construct a {@code JsonGenerator} which writes to the given {@code Writer}.
+     * Output is buffered, and is written to the {@code Writer} as each top-level value is completed,
+     * though the {@code Writer} itself is not flushed.
+     * The generator must be closed to return its buffer to the pool.
+     * @param writer    the {@code Writer} to write to
+     */
     public JsonGenerator(Writer writer) {
-        this.writer = writer;
+        this.buf = JsonOutputBuffer.pooled(writer);
+    }
+
+    @Override
+    public void close() {
+        try {
+            buf.close();
+        } catch (IOException ex) {
+            throw raiseWriteFailure(ex);
+        }
+    }
+
+    /**
+     * Write a newline, which terminates the current top-level value,
+     * so that a subsequent value is not preceded by a comma.
+     * Used to write newline-delimited JSON.
+     * @return          this generator
+     */
+    public JsonGenerator writeNewline() {
+        pendingComma = false;
+        return writeUnquotedString('\n').endValue();
     }
 
     private JsonGenerator writeUnquotedString(String value) {
         try {
-            writer.append(value);
+            buf.append(value);
             return this;
         } catch (IOException ex) {
             throw raiseWriteFailure(ex);
@@ -28,7 +59,7 @@ private JsonGenerator writeUnquotedString(String value) {
 
     private JsonGenerator writeUnquotedString(char value) {
         try {
-            writer.append(value);
+            buf.append(value);
             return this;
         } catch (IOException ex) {
             throw raiseWriteFailure(ex);
@@ -37,7 +68,7 @@ private JsonGenerator writeUnquotedString(char value) {
 
     private JsonGenerator writeQuotedString(String value) {
         try {
-            write(value, writer);
+            buf.appendQuoted(value);
             return this;
         } catch (IOException ex) {
             throw raiseWriteFailure(ex);
@@ -46,13 +77,61 @@ private JsonGenerator writeQuotedString(String value) {
 
     private JsonGenerator writeQuotedString(char value) {
         try {
-            write(value, writer);
+            buf.appendQuoted(value);
             return this;
         } catch (IOException ex) {
             throw raiseWriteFailure(ex);
         }
     }
 
+    private JsonGenerator writeBool(boolean value) {
+        try {
+            buf.append(value);
+            return this;
+        } catch (IOException ex) {
+            throw raiseWriteFailure(ex);
+        }
+    }
+
+    private JsonGenerator writeIntegral(long value) {
+        try {
+            buf.append(value);
+            return this;
+        } catch (IOException ex) {
+            throw raiseWriteFailure(ex);
+        }
+    }
+
+    private JsonGenerator writeFloating(float value) {
+        try {
+            buf.append(value);
+            return this;
+        } catch (IOException ex) {
+            throw raiseWriteFailure(ex);
+        }
+    }
+
+    private JsonGenerator writeFloating(double value) {
+        try {
+            buf.append(value);
+            return this;
+        } catch (IOException ex) {
+            throw raiseWriteFailure(ex);
+        }
+    }
+
+    // Write the buffered output of a completed top-level value to the underlying writer.
+    private JsonGenerator endValue() {
+        if (depth == 0) {
+            try {
+                buf.drain();
+            } catch (IOException ex) {
+                throw raiseWriteFailure(ex);
+            }
+        }
+        return this;
+    }
+
     private void writeComma() {
         writeUnquotedString(',');
     }
@@ -63,7 +142,7 @@ public JsonGenerator writeNull() {
             writeComma();
         }
         pendingComma = true;
-        return writeUnquotedString("null");
+        return writeUnquotedString("null").endValue();
     }
 
     @Override
@@ -72,7 +151,7 @@ public JsonGenerator writeBoolean(boolean value) {
             writeComma();
         }
         pendingComma = true;
-        return writeUnquotedString(Boolean.toString(value));
+        return writeBool(value).endValue();
     }
 
     @Override
@@ -81,7 +160,7 @@ public JsonGenerator writeString(String value) {
             writeComma();
         }
         pendingComma = true;
-        return writeQuotedString(value);
+        return writeQuotedString(value).endValue();
     }
 
     @Override
@@ -90,7 +169,7 @@ public JsonGenerator writeChar(char value) {
             writeComma();
         }
         pendingComma = true;
-        return writeQuotedString(value);
+        return writeQuotedString(value).endValue();
     }
 
     @Override
@@ -99,7 +178,7 @@ public JsonGenerator writeByte(byte value) {
             writeComma();
         }
         pendingComma = true;
-        return writeUnquotedString(Byte.toString(value));
+        return writeIntegral(value).endValue();
     }
 
     @Override
@@ -108,7 +187,7 @@ public JsonGenerator writeShort(short value) {
             writeComma();
         }
         pendingComma = true;
-        return writeUnquotedString(Short.toString(value));
+        return writeIntegral(value).endValue();
     }
 
     @Override
@@ -117,7 +196,7 @@ public JsonGenerator writeInt(int value) {
             writeComma();
         }
         pendingComma = true;
-        return writeUnquotedString(Integer.toString(value));
+        return writeIntegral(value).endValue();
     }
 
     @Override
@@ -126,7 +205,7 @@ public JsonGenerator writeLong(long value) {
             writeComma();
         }
         pendingComma = true;
-        return writeUnquotedString(Long.toString(value));
+        return writeIntegral(value).endValue();
     }
 
     @Override
@@ -135,7 +214,7 @@ public JsonGenerator writeFloat(float value) {
             writeComma();
         }
         pendingComma = true;
-        return writeUnquotedString(Float.toString(value));
+        return writeFloating(value).endValue();
     }
 
     @Override
@@ -144,7 +223,7 @@ public JsonGenerator writeDouble(double value) {
             writeComma();
         }
         pendingComma = true;
-        return writeUnquotedString(Double.toString(value));
+        return writeFloating(value).endValue();
     }
 
     @Override
@@ -153,7 +232,7 @@ public JsonGenerator writeNumber(Number value) {
             writeComma();
         }
         pendingComma = true;
-        return writeUnquotedString(value.toString());
+        return writeUnquotedString(value.toString()).endValue();
     }
 
     @Override
@@ -162,7 +241,7 @@ public JsonGenerator writeBigDecimal(BigDecimal value) {
             writeComma();
         }
         pendingComma = true;
-        return writeUnquotedString(value.toString());
+        return writeUnquotedString(value.toString()).endValue();
     }
 
     @Override
@@ -171,7 +250,7 @@ public JsonGenerator writeStringNumber(String value) {
             writeComma();
         }
         pendingComma = true;
-        return writeUnquotedString(value);
+        return writeUnquotedString(value).endValue();
     }
 
     @Override
@@ -180,6 +259,7 @@ public JsonGenerator startObject() {
             writeComma();
             pendingComma = false;
         }
+        ++depth;
         return writeUnquotedString('{');
     }
 
@@ -196,7 +276,8 @@ public JsonGenerator writeField(String name) {
     @Override
     public JsonGenerator endObject() {
         pendingComma = true;
-        return writeUnquotedString('}');
+        --depth;
+        return writeUnquotedString('}').endValue();
     }
 
     @Override
@@ -205,12 +286,14 @@ public JsonGenerator startArray() {
             writeComma();
             pendingComma = false;
         }
+        ++depth;
         return writeUnquotedString('[');
     }
 
     @Override
     public JsonGenerator endArray() {
         pendingComma = true;
-        return writeUnquotedString(']');
+        --depth;
+        return writeUnquotedString(']').endValue();
     }
 }
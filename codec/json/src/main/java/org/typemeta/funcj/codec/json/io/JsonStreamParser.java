@@ -13,27 +13,54 @@
  * Pull-based parser. Parses a stream of characters.
  * The caller calls methods on the parser to extract JSON events.
  * We implement our own parser here as we need the ability to lookahead.
+ * <p>
+ * Lookahead events are held in a ring buffer of event types and token values,
+ * which grows as required, so events are not allocated as they are read.
+ * Integer numbers which fit in a {@code long} are held as {@code long}s.
  */
 public class JsonStreamParser implements JsonTypes.InStream {
-    enum State {
-        OBJECT_NAME,
-        OBJECT_COLON,
-        OBJECT_COMMA,
-        OBJECT_VALUE,
-        ARRAY_COMMA,
-        ARRAY_VALUE,
-        END
-    }
-
-    private final JsonTokeniser tokeniser;
+    private static final byte NONE = 0;
+    private static final byte OBJECT_NAME = 1;
+    private static final byte OBJECT_COLON = 2;
+    private static final byte OBJECT_COMMA = 3;
+    private static final byte OBJECT_VALUE = 4;
+    private static final byte ARRAY_COMMA = 5;
+    private static final byte ARRAY_VALUE = 6;
+    private static final byte END = 7;
+
+    private final JsonTokenSource tokeniser;
+
+    // Ring buffer of lookahead events, of which the current event is at bufferPos.
+    private JsonEvent.Type[] types;
+    private String[] values;
+    private long[] longs;
+    private int[] depths;
     private int bufferPos = 0;
-    private final JsonEvent[] eventBuffer;
-    private final List<State> stateStack = new ArrayList<>();
-    private State state = null;
-
-    private JsonStreamParser(JsonTokeniser tokeniser, int lookAhead) {
+    private int bufferLen = 0;
+
+    // The state of the parser after the last event read into the buffer.
+    private byte[] stateStack = new byte[16];
+    private int depth = 0;
+    private byte state = NONE;
+
+    // The nesting depth after the last event processed by the caller.
+    private int currentDepth = 0;
+
+    /**
+     * Construct a parser which reads events from a token source.
+     * @param tokeniser the token source
+     * @param lookAhead the initial lookahead capacity, which is increased as required
+     */
+    public JsonStreamParser(JsonTokenSource tokeniser, int lookAhead) {
         this.tokeniser = tokeniser;
-        this.eventBuffer = new JsonEvent[lookAhead];
+        int capacity = 1;
+        while (capacity < lookAhead) {
+            capacity <<= 1;
+        }
+        this.types = new JsonEvent.Type[capacity];
+        this.values = new String[capacity];
+        this.longs = new long[capacity];
+        this.depths = new int[capacity];
     }
 
     public JsonStreamParser(Reader reader, int lookAhead) {
@@ -48,79 +75,121 @@ private CodecException raiseError(String msg) {
         return new CodecException(msg + " at position " + tokeniser.position());
     }
 
-    private CodecException unexpectedToken(JsonEvent event) {
-        return raiseError("Unexpected token " + event.type());
+    private CodecException unexpectedToken(JsonEvent.Type type) {
+        return raiseError("Unexpected token " + type);
     }
 
-    private void pushState(State newState) {
-        stateStack.add(state);
+    private void pushState(byte newState) {
+        if (depth == stateStack.length) {
+            stateStack = Arrays.copyOf(stateStack, depth * 2);
+        }
+        stateStack[depth++] = state;
         state = newState;
     }
 
     private void popState() {
-        if (stateStack.isEmpty()) {
+        if (depth == 0) {
             throw raiseError("Attempting to pop empty stack due to mis-matching closing brace/bracket");
         } else {
-            state = stateStack.remove(stateStack.size() - 1);
+            state = stateStack[--depth];
         }
     }
 
     public JsonEvent currentEvent() {
-        if (eventBuffer[bufferPos] == null) {
-            pullEventsIntoBuffer(0);
+        return event(0);
+    }
+
+    /**
+     * Ensure the buffer holds the event {@code ahead} events beyond the current event,
+     * and return its index within the buffer.
+     */
+    private int pullEventsIntoBuffer(int ahead) {
+        while (bufferLen <= ahead) {
+            if (bufferLen == types.length) {
+                growBuffer();
+            }
+            readEvent((bufferPos + bufferLen) & (types.length - 1));
+            ++bufferLen;
         }
 
-        return eventBuffer[bufferPos];
+        return (bufferPos + ahead) & (types.length - 1);
+    }
+
+    private void growBuffer() {
+        final int capacity = types.length;
+        final JsonEvent.Type[] newTypes = new JsonEvent.Type[capacity * 2];
+        final String[] newValues = new String[capacity * 2];
+        final long[] newLongs = new long[capacity * 2];
+        final int[] newDepths = new int[capacity * 2];
+        for (int i = 0; i < bufferLen; ++i) {
+            final int j = (bufferPos + i) & (capacity - 1);
+            newTypes[i] = types[j];
+            newValues[i] = values[j];
+            newLongs[i] = longs[j];
+            newDepths[i] = depths[j];
+        }
+        types = newTypes;
+        values = newValues;
+        longs = newLongs;
+        depths = newDepths;
+        bufferPos = 0;
     }
 
-    private JsonEvent pullEventsIntoBuffer(int ahead) {
-        if (ahead > eventBuffer.length) {
-            throw raiseError("Lookahead of " + ahead + " not supported, max is " + eventBuffer.length + ",");
-        } else {
-            int pos = bufferPos;
-            while (true) {
-                if (eventBuffer[pos] == null) {
-                    eventBuffer[pos] = tokeniser.getNextEvent();
+    private void readEvent(int i) {
+        JsonEvent.Type type = tokeniser.nextToken();
 
-                    // Skip over separators.
-                    switch (eventBuffer[pos].type()) {
-                        case COMMA:
-                            switch (state) {
-                                case ARRAY_COMMA:
-                                    state = State.ARRAY_VALUE;
-                                    eventBuffer[pos] = tokeniser.getNextEvent();
-                                    break;
-                                case OBJECT_COMMA:
-                                    state = State.OBJECT_NAME;
-                                    eventBuffer[pos] = tokeniser.getNextEvent();
-                                    break;
-                                default:
-                                    throw unexpectedToken(eventBuffer[pos]);
-                            }
-                            continue;
-                        case COLON:
-                            switch (state) {
-                                case OBJECT_COLON:
-                                    state = State.OBJECT_VALUE;
-                                    eventBuffer[pos] = tokeniser.getNextEvent();
-                                    break;
-                                default:
-                                    throw unexpectedToken(eventBuffer[pos]);
-                            }
-                            continue;
-                    }
+        // Skip over separators.
+        while (true) {
+            if (type == JsonEvent.Type.COMMA) {
+                switch (state) {
+                    case ARRAY_COMMA:
+                        state = ARRAY_VALUE;
+                        break;
+                    case OBJECT_COMMA:
+                        state = OBJECT_NAME;
+                        break;
+                    default:
+                        throw unexpectedToken(type);
                 }
-
-                if (ahead-- == 0) {
-                    return eventBuffer[pos];
+            } else if (type == JsonEvent.Type.COLON) {
+                if (state == OBJECT_COLON) {
+                    state = OBJECT_VALUE;
+                } else {
+                    throw unexpectedToken(type);
                 }
+            } else {
+                break;
+            }
+            type = tokeniser.nextToken();
+        }
 
-                if (++pos == eventBuffer.length) {
-                    pos = 0;
+        updateState(type);
+
+        types[i] = type;
+        depths[i] = depth;
+        switch (type) {
+            case FIELD_NAME:
+            case STRING:
+                values[i] = tokeniser.tokenString();
+                break;
+            case NUMBER:
+                if (tokeniser.tokenIsSmallInteger()) {
+                    values[i] = null;
+                    longs[i] = tokeniser.tokenLong();
+                } else {
+                    values[i] = tokeniser.tokenString();
                 }
-            }
+                break;
+            default:
+                values[i] = null;
         }
     }
+
+    private String numberText(int i) {
+        final String value = values[i];
+        return value != null ? value : Long.toString(longs[i]);
+    }
+
     @Override
     public String location() {
         return "position: " + tokeniser.position();
@@ -128,24 +197,54 @@ public String location() {
 
     @Override
     public boolean notEOF() {
-        return !currentEvent().equals(JsonEvent.Type.EOF);
+        return currentEventType() != JsonEvent.Type.EOF;
     }
 
     @Override
     public JsonEvent.Type currentEventType() {
-        return currentEvent().type();
+        return types[pullEventsIntoBuffer(0)];
     }
 
     @Override
     public JsonEvent event(int ahead) {
-        return pullEventsIntoBuffer(ahead);
+        final int i = pullEventsIntoBuffer(ahead);
+        final JsonEvent.Type type = types[i];
+        switch (type) {
+            case FIELD_NAME:
+                return new JsonEvent.FieldName(values[i]);
+            case STRING:
+                return new JsonEvent.JString(values[i]);
+            case NUMBER:
+                return new JsonEvent.JNumber(numberText(i));
+            default:
+                return type;
+        }
+    }
+
+    @Override
+    public JsonEvent.Type eventType(int ahead) {
+        return types[pullEventsIntoBuffer(ahead)];
+    }
+
+    @Override
+    public String eventValue(int ahead) {
+        final int i = pullEventsIntoBuffer(ahead);
+        switch (types[i]) {
+            case FIELD_NAME:
+            case STRING:
+                return values[i];
+            case NUMBER:
+                return numberText(i);
+            default:
+                return null;
+        }
     }
 
     @Override
     public void skipNode() {
-        int depth = stateStack.size();
+        final int startDepth = currentDepth;
         while (true) {
-            switch (currentEventType().type()) {
+            switch (currentEventType()) {
                 case OBJECT_START:
                 case ARRAY_START:
                 case FIELD_NAME:
@@ -159,31 +258,43 @@ public void skipNode() {
                 case NUMBER:
                 case STRING:
                     processCurrentEvent();
-                    if (stateStack.size() == depth) {
+                    if (currentDepth == startDepth) {
                         return;
                     }
                     break;
                 case EOF:
                     throw new CodecException("Unexpected EOF");
                 default:
-                    throw new CodecException("Unexpected event type " + currentEventType().type());
+                    throw new CodecException("Unexpected event type " + currentEventType());
             }
         }
      }
 
     private void checkTokenType(JsonEvent.Type type) {
-        if (!currentEvent().type().equals(type)) {
-            throw raiseError("Expecting " + type + " token but found " + currentEvent().type());
+        final JsonEvent.Type currType = currentEventType();
+        if (currType != type) {
+            throw raiseError("Expecting " + type + " token but found " + currType);
         }
     }
 
     public void processCurrentEvent() {
-        final JsonEvent event = eventBuffer[bufferPos];
+        final int i = pullEventsIntoBuffer(0);
+        currentDepth = depths[i];
+        values[i] = null;
+        bufferPos = (i + 1) & (types.length - 1);
+        --bufferLen;
+    }
+
+    /**
+     * Check that an event is valid for the current state, and update the state.
+     */
+    private void updateState(JsonEvent.Type type) {
 
-        if (state == null) {
-            switch (event.type()) {
+        // A sequence of top-level values is permitted, to allow for NDJSON.
+        if (state == NONE || state == END) {
+            switch (type) {
                 case ARRAY_START:
-                    pushState(State.ARRAY_VALUE);
+                    pushState(ARRAY_VALUE);
                     break;
                 case EOF:
                 case FALSE:
@@ -191,113 +302,108 @@ public void processCurrentEvent() {
                 case NUMBER:
                 case STRING:
                 case TRUE:
-                    state = State.END;
+                    state = END;
                     break;
                 case OBJECT_START:
-                    pushState(State.OBJECT_NAME);
+                    pushState(OBJECT_NAME);
                     break;
                 default:
-                    throw unexpectedToken(event);
+                    throw unexpectedToken(type);
             }
         } else {
             switch (state) {
                 case OBJECT_NAME:
-                    switch (event.type()) {
+                    switch (type) {
                         case FIELD_NAME:
-                            state = State.OBJECT_COLON;
+                            state = OBJECT_COLON;
                             break;
                         case OBJECT_END:
                             popState();
                             break;
                         default:
-                            throw unexpectedToken(event);
+                            throw unexpectedToken(type);
                     }
                     break;
                 case OBJECT_COLON:
-                    switch (event.type()) {
+                    switch (type) {
                         case COLON:
-                            state = State.OBJECT_VALUE;
+                            state = OBJECT_VALUE;
                             break;
                         default:
-                            throw unexpectedToken(event);
+                            throw unexpectedToken(type);
                     }
                     break;
                 case OBJECT_VALUE:
-                    switch (event.type()) {
+                    switch (type) {
                         case FALSE:
                         case NULL:
                         case NUMBER:
                         case STRING:
                         case TRUE:
-                            state = State.OBJECT_COMMA;
+                            state = OBJECT_COMMA;
                             break;
                         case ARRAY_START:
-                            state = State.OBJECT_COMMA;
-                            pushState(State.ARRAY_VALUE);
+                            state = OBJECT_COMMA;
+                            pushState(ARRAY_VALUE);
                             break;
                         case OBJECT_START:
-                            state = State.OBJECT_COMMA;
-                            pushState(State.OBJECT_NAME);
+                            state = OBJECT_COMMA;
+                            pushState(OBJECT_NAME);
                             break;
                         default:
-                            throw unexpectedToken(event);
+                            throw unexpectedToken(type);
                     }
                     break;
                 case OBJECT_COMMA:
-                    switch (event.type()) {
+                    switch (type) {
                         case COMMA:
-                            state = State.OBJECT_NAME;
+                            state = OBJECT_NAME;
                             break;
                         case OBJECT_END:
                             popState();
                             break;
                         default:
-                            throw unexpectedToken(event);
+                            throw unexpectedToken(type);
                     }
                     break;
                 case ARRAY_VALUE:
-                    switch (event.type()) {
+                    switch (type) {
                         case FALSE:
                         case NULL:
                         case NUMBER:
                         case STRING:
                         case TRUE:
-                            state = State.ARRAY_COMMA;
+                            state = ARRAY_COMMA;
                             break;
                         case ARRAY_START:
-                            state = State.ARRAY_COMMA;
-                            pushState(State.ARRAY_VALUE);
+                            state = ARRAY_COMMA;
+                            pushState(ARRAY_VALUE);
                             break;
                         case ARRAY_END:
                             popState();
                             break;
                         case OBJECT_START:
-                            state = State.ARRAY_COMMA;
-                            pushState(State.OBJECT_NAME);
+                            state = ARRAY_COMMA;
+                            pushState(OBJECT_NAME);
                             break;
                         default:
-                            throw unexpectedToken(event);
+                            throw unexpectedToken(type);
                     }
                     break;
                 case ARRAY_COMMA:
-                    switch (event.type()) {
+                    switch (type) {
                         case COMMA:
-                            state = State.ARRAY_VALUE;
+                            state = ARRAY_VALUE;
                             break;
                         case ARRAY_END:
                             popState();
                             break;
                         default:
-                            throw unexpectedToken(event);
+                            throw unexpectedToken(type);
                     }
                     break;
             }
         }
-
-        eventBuffer[bufferPos++] = null;
-        if (bufferPos == eventBuffer.length) {
-            bufferPos = 0;
-        }
     }
 
     @Override
@@ -309,22 +415,22 @@ public <T> T readNull() {
 
     @Override
     public boolean readBoolean() {
-        final JsonEvent.Type currType = currentEvent().type();
-        if (currType.equals(JsonEvent.Type.FALSE)) {
+        final JsonEvent.Type currType = currentEventType();
+        if (currType == JsonEvent.Type.FALSE) {
             processCurrentEvent();
             return false;
-        } else if (currType.equals(JsonEvent.Type.TRUE)) {
+        } else if (currType == JsonEvent.Type.TRUE) {
             processCurrentEvent();
             return true;
         } else {
-            throw raiseError("Expecting boolean token but found " + currentEvent().type());
+            throw raiseError("Expecting boolean token but found " + currType);
         }
     }
 
     @Override
     public String readString() {
         checkTokenType(JsonEvent.Type.STRING);
-        final String result = ((JsonEvent.JString) currentEvent()).value;
+        final String result = values[bufferPos];
         processCurrentEvent();
         return result;
     }
@@ -332,64 +438,79 @@ public String readString() {
     @Override
     public char readChar() {
         checkTokenType(JsonEvent.Type.STRING);
-        final char result = ((JsonEvent.JString) currentEvent()).value.charAt(0);
+        final char result = values[bufferPos].charAt(0);
         processCurrentEvent();
         return result;
     }
 
-    @Override
-    public byte readByte() {
+    /**
+     * Read an integer number, which must be within the given range.
+     */
+    private long readInteger(long min, long max) {
         checkTokenType(JsonEvent.Type.NUMBER);
-        final String value = ((JsonEvent.JNumber) currentEvent()).value;
+        final String value = values[bufferPos];
+        final long result = longs[bufferPos];
         processCurrentEvent();
-        return Byte.parseByte(value);
+        if (value != null) {
+            final long l = Long.parseLong(value);
+            if (l < min || l > max) {
+                throw new NumberFormatException("Value out of range. Value:\"" + value + "\"");
+            }
+            return l;
+        } else if (result < min || result > max) {
+            throw new NumberFormatException("Value out of range. Value:\"" + result + "\"");
+        } else {
+            return result;
+        }
+    }
+
+    @Override
+    public byte readByte() {
+        return (byte)readInteger(Byte.MIN_VALUE, Byte.MAX_VALUE);
     }
 
     @Override
     public short readShort() {
-        checkTokenType(JsonEvent.Type.NUMBER);
-        final String value = ((JsonEvent.JNumber) currentEvent()).value;
-        processCurrentEvent();
-        return Short.parseShort(value);
+        return (short)readInteger(Short.MIN_VALUE, Short.MAX_VALUE);
     }
 
     @Override
     public int readInt() {
-        checkTokenType(JsonEvent.Type.NUMBER);
-        final String value = ((JsonEvent.JNumber) currentEvent()).value;
-        processCurrentEvent();
-        return Integer.parseInt(value);
+        return (int)readInteger(Integer.MIN_VALUE, Integer.MAX_VALUE);
     }
 
     @Override
     public long readLong() {
-        checkTokenType(JsonEvent.Type.NUMBER);
-        final String value = ((JsonEvent.JNumber) currentEvent()).value;
-        processCurrentEvent();
-        return Long.parseLong(value);
+        return readInteger(Long.MIN_VALUE, Long.MAX_VALUE);
     }
 
     @Override
     public float readFloat() {
         checkTokenType(JsonEvent.Type.NUMBER);
-        final String value = ((JsonEvent.JNumber) currentEvent()).value;
+        final String value = values[bufferPos];
+        final long result = longs[bufferPos];
         processCurrentEvent();
-        return Float.parseFloat(value);
+        return value != null ? Float.parseFloat(value) : (float)result;
     }
 
     @Override
     public double readDouble() {
         checkTokenType(JsonEvent.Type.NUMBER);
-        final String value = ((JsonEvent.JNumber) currentEvent()).value;
+        final String value = values[bufferPos];
+        final long result = longs[bufferPos];
         processCurrentEvent();
-        return Double.parseDouble(value);
+        return value != null ? Double.parseDouble(value) : (double)result;
     }
 
     @Override
     public Number readNumber() {
         checkTokenType(JsonEvent.Type.NUMBER);
-        final String value = ((JsonEvent.JNumber) currentEvent()).value;
+        final String value = values[bufferPos];
+        final long result = longs[bufferPos];
         processCurrentEvent();
+        if (value == null) {
+            return result;
+        }
         try {
             return NumberFormat.getInstance().parse(value);
         } catch (ParseException ex) {
@@ -401,15 +522,16 @@ public Number readNumber() {
     @Override
     public BigDecimal readBigDecimal() {
         checkTokenType(JsonEvent.Type.NUMBER);
-        final String value = ((JsonEvent.JNumber) currentEvent()).value;
+        final String value = values[bufferPos];
+        final long result = longs[bufferPos];
         processCurrentEvent();
-        return new BigDecimal(value);
+        return value != null ? new BigDecimal(value) : BigDecimal.valueOf(result);
     }
 
     @Override
     public String readStringNumber() {
         checkTokenType(JsonEvent.Type.NUMBER);
-        final String value = ((JsonEvent.JNumber) currentEvent()).value;
+        final String value = numberText(bufferPos);
         processCurrentEvent();
         return value;
     }
@@ -423,7 +545,7 @@ public void startObject() {
     @Override
     public String readFieldName() {
         checkTokenType(JsonEvent.Type.FIELD_NAME);
-        final String result = ((JsonEvent.FieldName) currentEvent()).value;
+        final String result = values[bufferPos];
         processCurrentEvent();
         return result;
     }
@@ -0,0 +1,231 @@
+package org.typemeta.funcj.codec.json.io;
+
+import java.io.*;
+import java.nio.ByteBuffer;
+
+/**
+ * A {@link Reader} which decodes UTF-8 bytes directly,
+ * from a {@code byte} array, a heap or direct {@link ByteBuffer}, or an {@link InputStream}.
+ * <p>
+ * Runs of ASCII bytes are detected eight bytes at a time,
+ * by testing the high bit of each byte in a {@code long} word,
+ * and copied without further checks.
+ * Malformed input is replaced with {@code U+FFFD},
+ * consistent with the default behaviour of {@link InputStreamReader}.
+ */
+public class Utf8Reader extends Reader {
+
+    private static final int DEFAULT_BUFFER_SIZE = 8192;
+
+    private static final long HIGH_BITS = 0x8080808080808080L;
+
+    private static final char REPLACEMENT = '\uFFFD';
+
+    private final InputStream is;
+    private final ByteBuffer bb;
+    private boolean isEof;
+    private char pendingLowSurrogate = 0;
+
+    /**
+     * Construct a {@code Utf8Reader} which reads from a {@code ByteBuffer}.
+     * The position of the supplied buffer is not modified.
+     * @param bb        the buffer
+     */
+    public Utf8Reader(ByteBuffer bb) {
+        this.is = null;
+        this.bb = bb.duplicate();
+        this.isEof = true;
+    }
+
+    public Utf8Reader(byte[] bytes, int offset, int length) {
+        this(ByteBuffer.wrap(bytes, offset, length));
+    }
+
+    public Utf8Reader(byte[] bytes) {
+        this(bytes, 0, bytes.length);
+    }
+
+    public Utf8Reader(InputStream is, int bufferSize) {
+        this.is = is;
+        this.bb = ByteBuffer.wrap(new byte[bufferSize]);
+        this.bb.limit(0);
+        this.isEof = false;
+    }
+
+    public Utf8Reader(InputStream is) {
+        this(is, DEFAULT_BUFFER_SIZE);
+    }
+
+    /**
+     * Read more bytes from the input stream, retaining any unconsumed bytes.
+     * @return          true if more bytes were read
+     */
+    private boolean refill() throws IOException {
+        if (isEof) {
+            return false;
+        }
+
+        bb.compact();
+        try {
+            final int n = is.read(bb.array(), bb.arrayOffset() + bb.position(), bb.remaining());
+            if (n == -1) {
+                isEof = true;
+                return false;
+            } else {
+                bb.position(bb.position() + n);
+                return true;
+            }
+        } finally {
+            bb.flip();
+        }
+    }
+
+    @Override
+    public int read(char[] cbuf, int off, int len) throws IOException {
+        if (len == 0) {
+            return 0;
+        } else if (pendingLowSurrogate != 0) {
+            cbuf[off] = pendingLowSurrogate;
+            pendingLowSurrogate = 0;
+            return 1;
+        }
+
+        while (true) {
+            final int n = decode(cbuf, off, len);
+            if (n > 0) {
+                return n;
+            } else if (!refill()) {
+                if (bb.hasRemaining()) {
+                    // Truncated multi-byte sequence at the end of the input.
+                    final int p = bb.position();
+                    bb.position(p + malformedLength(p, sequenceLength(bb.get(p))));
+                    cbuf[off] = REPLACEMENT;
+                    return 1;
+                } else {
+                    return -1;
+                }
+            }
+        }
+    }
+
+    /**
+     * Decode as many chars as possible from the currently buffered bytes.
+     * @return          the number of chars decoded
+     */
+    private int decode(char[] cbuf, int off, int len) {
+        final ByteBuffer bb = this.bb;
+        final int limit = bb.limit();
+        int p = bb.position();
+        int i = off;
+        final int end = off + len;
+
+        while (i < end && p < limit) {
+            if (end - i >= 8 && limit - p >= 8 && (bb.getLong(p) & HIGH_BITS) == 0) {
+                for (int k = 0; k < 8; ++k) {
+                    cbuf[i + k] = (char)bb.get(p + k);
+                }
+                i += 8;
+                p += 8;
+                continue;
+            }
+
+            final int b0 = bb.get(p);
+            if (b0 >= 0) {
+                cbuf[i++] = (char)b0;
+                ++p;
+            } else if ((b0 & 0xE0) == 0xC0) {
+                if (limit - p < 2) {
+                    break;
+                }
+                final int b1 = bb.get(p + 1);
+                final int c = ((b0 & 0x1F) << 6) | (b1 & 0x3F);
+                if (!isCont(b1) || c < 0x80) {
+                    cbuf[i++] = REPLACEMENT;
+                    ++p;
+                } else {
+                    cbuf[i++] = (char)c;
+                    p += 2;
+                }
+            } else if ((b0 & 0xF0) == 0xE0) {
+                if (limit - p < 3) {
+                    break;
+                }
+                final int b1 = bb.get(p + 1);
+                final int b2 = bb.get(p + 2);
+                final int c = ((b0 & 0x0F) << 12) | ((b1 & 0x3F) << 6) | (b2 & 0x3F);
+                if (!isCont(b1) || !isCont(b2) || c < 0x800 || Character.isSurrogate((char)c)) {
+                    cbuf[i++] = REPLACEMENT;
+                    p += malformedLength(p, 3);
+                } else {
+                    cbuf[i++] = (char)c;
+                    p += 3;
+                }
+            } else if ((b0 & 0xF8) == 0xF0) {
+                if (limit - p < 4) {
+                    break;
+                }
+                final int b1 = bb.get(p + 1);
+                final int b2 = bb.get(p + 2);
+                final int b3 = bb.get(p + 3);
+                final int cp = ((b0 & 0x07) << 18) | ((b1 & 0x3F) << 12) | ((b2 & 0x3F) << 6) | (b3 & 0x3F);
+                if (!isCont(b1) || !isCont(b2) || !isCont(b3) ||
+                        cp < Character.MIN_SUPPLEMENTARY_CODE_POINT || cp > Character.MAX_CODE_POINT) {
+                    cbuf[i++] = REPLACEMENT;
+                    p += malformedLength(p, 4);
+                } else {
+                    cbuf[i++] = Character.highSurrogate(cp);
+                    if (i < end) {
+                        cbuf[i++] = Character.lowSurrogate(cp);
+                    } else {
+                        // No room for the low surrogate, so return it from the next read.
+                        pendingLowSurrogate = Character.lowSurrogate(cp);
+                    }
+                    p += 4;
+                }
+            } else {
+                cbuf[i++] = REPLACEMENT;
+                ++p;
+            }
+        }
+
+        bb.position(p);
+        return i - off;
+    }
+
+    /**
+     * Return the length of a malformed sequence which starts at {@code p},
+     * i.e. the lead byte plus any continuation bytes, where {@code maxLen} is the expected sequence length.
+     * A complete sequence which encodes an out-of-range value is treated as a malformed sequence of length one.
+     */
+    private int malformedLength(int p, int maxLen) {
+        final int limit = Math.min(bb.limit(), p + maxLen);
+        int q = p + 1;
+        while (q < limit && isCont(bb.get(q))) {
+            ++q;
+        }
+        return q - p < maxLen ? q - p : 1;
+    }
+
+    private static int sequenceLength(int b0) {
+        if ((b0 & 0xE0) == 0xC0) {
+            return 2;
+        } else if ((b0 & 0xF0) == 0xE0) {
+            return 3;
+        } else if ((b0 & 0xF8) == 0xF0) {
+            return 4;
+        } else {
+            return 1;
+        }
+    }
+
+    private static boolean isCont(int b) {
+        return (b & 0xC0) == 0x80;
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (is != null) {
+            is.close();
+        }
+    }
+}
@@ -0,0 +1,213 @@
+package org.typemeta.funcj.codec.json.io;
+
+import java.io.*;
+import java.nio.*;
+import java.util.Arrays;
+
+/**
+ * A {@link Writer} which encodes chars directly into UTF-8 bytes,
+ * held in an internal {@code byte} array.
+ * The bytes are either retained, and retrieved via {@link #toByteArray()},
+ * or are flushed to an {@link OutputStream} or a heap or direct {@link ByteBuffer}.
+ * <p>
+ * ASCII chars, which dominate JSON output, are stored with a single comparison and array store.
+ * Unpaired surrogates are replaced with {@code '?'},
+ * consistent with the default behaviour of {@link OutputStreamWriter}.
+ */
+public class Utf8Writer extends Writer {
+
+    private static final int DEFAULT_BUFFER_SIZE = 8192;
+
+    // The maximum number of bytes required to encode a single char.
+    private static final int MAX_BYTES_PER_CHAR = 3;
+
+    private final OutputStream os;
+    private final ByteBuffer target;
+    private byte[] buf;
+    private int pos = 0;
+    private char pendingHighSurrogate = 0;
+
+    private Utf8Writer(OutputStream os, ByteBuffer target, int bufferSize) {
+        this.os = os;
+        this.target = target;
+        this.buf = new byte[bufferSize];
+    }
+
+    /**
+     * Construct a {@code Utf8Writer} which retains the encoded bytes,
+     * growing its buffer as required.
+     */
+    public Utf8Writer() {
+        this(null, null, DEFAULT_BUFFER_SIZE);
+    }
+
+    public Utf8Writer(OutputStream os, int bufferSize) {
+        this(os, null, bufferSize);
+    }
+
+    public Utf8Writer(OutputStream os) {
+        this(os, DEFAULT_BUFFER_SIZE);
+    }
+
+    /**
+     * Construct a {@code Utf8Writer} which writes to the given {@code ByteBuffer},
+     * advancing its position.
+     * A {@link BufferOverflowException} is thrown if the buffer has insufficient space.
+     * @param target    the buffer to write to
+     */
+    public Utf8Writer(ByteBuffer target) {
+        this(null, target, DEFAULT_BUFFER_SIZE);
+    }
+
+    /**
+     * Return a copy of the encoded bytes.
+     * Only applicable to a {@code Utf8Writer} which retains its bytes.
+     * @return          a copy of the encoded bytes
+     */
+    public byte[] toByteArray() {
+        return Arrays.copyOf(buf, pos);
+    }
+
+    /**
+     * Ensure there is room in the buffer for at least {@code required} bytes,
+     * either by draining the buffer or, if there is no sink, by growing it.
+     */
+    private void ensureSpace(int required) throws IOException {
+        if (buf.length - pos < required) {
+            if (os != null) {
+                os.write(buf, 0, pos);
+                pos = 0;
+            } else if (target != null) {
+                target.put(buf, 0, pos);
+                pos = 0;
+            }
+
+            if (buf.length - pos < required) {
+                buf = Arrays.copyOf(buf, Math.max(buf.length * 2, pos + required));
+            }
+        }
+    }
+
+    @Override
+    public void write(int c) throws IOException {
+        ensureSpace(2 * MAX_BYTES_PER_CHAR);
+        encode((char)c);
+    }
+
+    @Override
+    public void write(char[] cbuf, int off, int len) throws IOException {
+        final int end = off + len;
+        while (off < end) {
+            final int n = Math.min(end - off, Math.max(1, (buf.length - pos) / MAX_BYTES_PER_CHAR - 1));
+            ensureSpace((n + 1) * MAX_BYTES_PER_CHAR);
+            for (int i = off, chunkEnd = off + n; i < chunkEnd; ++i) {
+                final char c = cbuf[i];
+                if (c < 0x80 && pendingHighSurrogate == 0) {
+                    buf[pos++] = (byte)c;
+                } else {
+                    encode(c);
+                }
+            }
+            off += n;
+        }
+    }
+
+    @Override
+    public void write(String str, int off, int len) throws IOException {
+        final int end = off + len;
+        while (off < end) {
+            final int n = Math.min(end - off, Math.max(1, (buf.length - pos) / MAX_BYTES_PER_CHAR - 1));
+            ensureSpace((n + 1) * MAX_BYTES_PER_CHAR);
+            for (int i = off, chunkEnd = off + n; i < chunkEnd; ++i) {
+                final char c = str.charAt(i);
+                if (c < 0x80 && pendingHighSurrogate == 0) {
+                    buf[pos++] = (byte)c;
+                } else {
+                    encode(c);
+                }
+            }
+            off += n;
+        }
+    }
+
+    @Override
+    public Writer append(CharSequence csq) throws IOException {
+        final String s = String.valueOf(csq);
+        write(s, 0, s.length());
+        return this;
+    }
+
+    @Override
+    public Writer append(char c) throws IOException {
+        write(c);
+        return this;
+    }
+
+    /**
+     * Encode a single char.
+     * The caller must ensure there is room for {@code 2 * MAX_BYTES_PER_CHAR} bytes.
+     */
+    private void encode(char c) {
+        if (pendingHighSurrogate != 0) {
+            final char high = pendingHighSurrogate;
+            pendingHighSurrogate = 0;
+            if (Character.isLowSurrogate(c)) {
+                final int cp = Character.toCodePoint(high, c);
+                buf[pos++] = (byte)(0xF0 | (cp >> 18));
+                buf[pos++] = (byte)(0x80 | ((cp >> 12) & 0x3F));
+                buf[pos++] = (byte)(0x80 | ((cp >> 6) & 0x3F));
+                buf[pos++] = (byte)(0x80 | (cp & 0x3F));
+                return;
+            } else {
+                buf[pos++] = '?';
+            }
+        }
+
+        if (c < 0x80) {
+            buf[pos++] = (byte)c;
+        } else if (c < 0x800) {
+            buf[pos++] = (byte)(0xC0 | (c >> 6));
+            buf[pos++] = (byte)(0x80 | (c & 0x3F));
+        } else if (Character.isHighSurrogate(c)) {
+            pendingHighSurrogate = c;
+        } else if (Character.isLowSurrogate(c)) {
+            buf[pos++] = '?';
+        } else {
+            buf[pos++] = (byte)(0xE0 | (c >> 12));
+            buf[pos++] = (byte)(0x80 | ((c >> 6) & 0x3F));
+            buf[pos++] = (byte)(0x80 | (c & 0x3F));
+        }
+    }
+
+    /**
+     * Write any buffered bytes to the underlying {@code OutputStream} or {@code ByteBuffer}.
+     * Has no effect for a {@code Utf8Writer} which retains its bytes.
+     * @throws IOException if an I/O error occurs
+     */
+    @Override
+    public void flush() throws IOException {
+        if (os != null) {
+            os.write(buf, 0, pos);
+            pos = 0;
+            os.flush();
+        } else if (target != null) {
+            target.put(buf, 0, pos);
+            pos = 0;
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (pendingHighSurrogate != 0) {
+            pendingHighSurrogate = 0;
+            ensureSpace(1);
+            buf[pos++] = '?';
+        }
+
+        flush();
+
+        if (os != null) {
+            os.close();
+        }
+    }
+}
@@ -1,21 +1,44 @@
 package org.typemeta.funcj.codec.jsonnode;
 
-import org.typemeta.funcj.codec.CodecStrAPI;
+import org.typemeta.funcj.codec.*;
 import org.typemeta.funcj.codec.impl.*;
+import org.typemeta.funcj.codec.json.*;
+import org.typemeta.funcj.functions.Functions;
 import org.typemeta.funcj.json.model.*;
-import org.typemeta.funcj.json.parser.JsonParser;
 
 import java.io.*;
+import java.lang.reflect.Field;
+import java.util.Set;
 
 /**
  * Interface for classes which implement an encoding via JSON node values.
+ * <p>
+ * Values can be encoded to, and decoded from, {@link JsValue} trees.
+ * Values encoded to a {@code Writer} or {@code OutputStream},
+ * or decoded from a {@code Reader} or {@code InputStream},
+ * are streamed directly, without constructing a {@code JsValue} tree for the whole document.
+ * The streamed JSON has the same structure as the {@code JsValue} encoding,
+ * and either can be decoded from the other,
+ * however the numbers are formatted as per {@link JsonCodecCore}, rather than as per {@link JsNumber}.
+ * A {@code JsNumber} holds a {@code double}, so for example {@code 1.0} is written as {@code 1},
+ * and a {@code long} beyond 2<sup>53</sup> is rounded,
+ * whereas the streamed JSON writes {@code 1.0}, writes a {@code long} exactly,
+ * and writes a {@code float} at {@code float} precision.
+ * <p>
+ * Streaming is performed by a {@link JsonCodecCore}, which shares the configuration of this codec,
+ * and to which all registrations made with this codec are mirrored.
+ * Codecs registered with this codec operate on {@code JsValue}s,
+ * so when streaming, a {@code JsValue} is constructed for just the values those codecs handle.
  */
 public class JsonNodeCodecCore
         extends CodecCoreDelegate<JsValue, JsValue, JsonNodeTypes.Config>
         implements CodecStrAPI.RW {
 
+    protected final JsonCodecCore streamCore;
+
     public JsonNodeCodecCore(JsonNodeCodecFormat format) {
         super(new CodecCoreImpl<>(format));
+        this.streamCore = new JsonCodecCore(new StreamConfig(format.config()));
     }
 
     public JsonNodeCodecCore(JsonNodeTypes.Config config) {
@@ -26,6 +49,71 @@ public JsonNodeCodecCore() {
         this(new JsonNodeConfig());
     }
 
+    @Override
+    public <T> void registerCodec(
+            Class<? extends T> clazz,
+            Codec<T, JsValue, JsValue, JsonNodeTypes.Config> codec
+    ) {
+        super.registerCodec(clazz, codec);
+        streamCore.registerCodec(clazz, new StreamCodec<>(codec));
+    }
+
+    @Override
+    public <T> ObjectCodecBuilderWithArgArray<T, JsValue, JsValue, JsonNodeTypes.Config>
+    registerCodecWithArgArray(Class<T> clazz) {
+        return new ObjectCodecBuilderWithArgArray<T, JsValue, JsValue, JsonNodeTypes.Config>(delegate, clazz) {
+            @Override
+            protected Codec<T, JsValue, JsValue, JsonNodeTypes.Config> registration(
+                    Codec<T, JsValue, JsValue, JsonNodeTypes.Config> codec
+            ) {
+                registerCodec(clazz, codec);
+                return codec;
+            }
+        };
+    }
+
+    @Override
+    public <T> ObjectCodecBuilderWithArgMap<T, JsValue, JsValue, JsonNodeTypes.Config>
+    registerCodecWithArgMap(Class<T> clazz) {
+        return new ObjectCodecBuilderWithArgMap<T, JsValue, JsValue, JsonNodeTypes.Config>(delegate, clazz) {
+            @Override
+            protected Codec<T, JsValue, JsValue, JsonNodeTypes.Config> registration(
+                    Codec<T, JsValue, JsValue, JsonNodeTypes.Config> codec
+            ) {
+                registerCodec(clazz, codec);
+                return codec;
+            }
+        };
+    }
+
+    @Override
+    public <T> void registerStringProxyCodec(
+            Class<T> clazz,
+            Functions.F<T, String> encode,
+            Functions.F<String, T> decode
+    ) {
+        super.registerStringProxyCodec(clazz, encode, decode);
+        streamCore.registerStringProxyCodec(clazz, encode, decode);
+    }
+
+    @Override
+    public <T> void registerNoArgsCtor(Class<? extends T> clazz, NoArgsTypeCtor<T> typeCtor) {
+        super.registerNoArgsCtor(clazz, typeCtor);
+        streamCore.registerNoArgsCtor(clazz, typeCtor);
+    }
+
+    @Override
+    public <T> void registerArgArrayCtor(Class<? extends T> clazz, ArgArrayTypeCtor<T> typeCtor) {
+        super.registerArgArrayCtor(clazz, typeCtor);
+        streamCore.registerArgArrayCtor(clazz, typeCtor);
+    }
+
+    @Override
+    public <T> void registerArgMapTypeCtor(Class<? extends T> clazz, ArgMapTypeCtor<T> typeCtor) {
+        super.registerArgMapTypeCtor(clazz, typeCtor);
+        streamCore.registerArgMapTypeCtor(clazz, typeCtor);
+    }
+
     public <T> JsValue encode(Class<? super T> type, T value) {
         return encodeImpl(type, value, JSAPI.nul());
     }
@@ -36,13 +124,175 @@ public <T> T decode(Class<? super T> type, JsValue jsv) {
 
     @Override
     public <T> Writer encode(Class<? super T> type, T value, Writer writer) {
-        final JsValue jsv = encode(type, value);
-        return jsv.write(writer);
+        return streamCore.encode(type, value, writer);
     }
 
     @Override
     public <T> T decode(Class<? super T> type, Reader reader) {
-        final JsValue jsv = JsonParser.parse(reader);
-        return decodeImpl(type, jsv);
+        return streamCore.decode(type, reader);
+    }
+
+    @Override
+    public <T> OutputStream encode(Class<? super T> type, T value, OutputStream os) {
+        return streamCore.encode(type, value, os);
+    }
+
+    @Override
+    public <T> T decode(Class<? super T> type, InputStream is) {
+        return streamCore.decode(type, is);
+    }
+
+    /**
+     * Adapts a codec registered with this codec, for use by the streaming codec.
+     * The value is converted to or from a {@code JsValue},
+     * which is then written to or read from the JSON stream.
+     */
+    private class StreamCodec<T> implements Codec<T, JsonTypes.InStream, JsonTypes.OutStream, JsonTypes.Config> {
+
+        private final Codec<T, JsValue, JsValue, JsonNodeTypes.Config> codec;
+
+        StreamCodec(Codec<T, JsValue, JsValue, JsonNodeTypes.Config> codec) {
+            this.codec = codec;
+        }
+
+        @Override
+        public Class<T> type() {
+            return codec.type();
+        }
+
+        @Override
+        public JsonTypes.OutStream encode(
+                CodecCoreEx<JsonTypes.InStream, JsonTypes.OutStream, JsonTypes.Config> core,
+                T value,
+                JsonTypes.OutStream out
+        ) {
+            final JsValue jsv = codec.encode(delegate, value, JSAPI.nul());
+            return JsValueCodec.jsValueCodec.encode(core, jsv, out);
+        }
+
+        @Override
+        public T decode(
+                CodecCoreEx<JsonTypes.InStream, JsonTypes.OutStream, JsonTypes.Config> core,
+                JsonTypes.InStream in
+        ) {
+            final JsValue jsv = JsValueCodec.jsValueCodec.decode(core, in);
+            return codec.decode(delegate, jsv);
+        }
+
+        @Override
+        public JsonTypes.OutStream encodeWithCheck(
+                CodecCoreEx<JsonTypes.InStream, JsonTypes.OutStream, JsonTypes.Config> core,
+                T value,
+                JsonTypes.OutStream out
+        ) {
+            final JsValue jsv = codec.encodeWithCheck(delegate, value, JSAPI.nul());
+            return JsValueCodec.jsValueCodec.encode(core, jsv, out);
+        }
+
+        @Override
+        public T decodeWithCheck(
+                CodecCoreEx<JsonTypes.InStream, JsonTypes.OutStream, JsonTypes.Config> core,
+                JsonTypes.InStream in
+        ) {
+            final JsValue jsv = JsValueCodec.jsValueCodec.decode(core, in);
+            return codec.decodeWithCheck(delegate, jsv);
+        }
+    }
+
+    /**
+     * Presents a {@link JsonNodeTypes.Config} as a {@link JsonTypes.Config}, for the streaming codec.
+     */
+    private static class StreamConfig implements JsonTypes.Config {
+
+        private final JsonNodeTypes.Config config;
+
+        StreamConfig(JsonNodeTypes.Config config) {
+            this.config = config;
+        }
+
+        @Override
+        public String typeFieldName() {
+            return config.typeFieldName();
+        }
+
+        @Override
+        public String keyFieldName() {
+            return config.keyFieldName();
+        }
+
+        @Override
+        public String valueFieldName() {
+            return config.valueFieldName();
+        }
+
+        @Override
+        public <T> Class<T> checkClassIsAllowed(Class<T> clazz) {
+            return config.checkClassIsAllowed(clazz);
+        }
+
+        @Override
+        public <T> Class<T> mapToProxy(Class<T> clazz) {
+            return config.mapToProxy(clazz);
+        }
+
+        @Override
+        public String classToName(Class<?> clazz) {
+            return config.classToName(clazz);
+        }
+
+        @Override
+        public <T> Class<T> nameToClass(String name) {
+            return config.nameToClass(name);
+        }
+
+        @Override
+        public String getFieldName(Field field, int depth, Set<String> existingNames) {
+            return config.getFieldName(field, depth, existingNames);
+        }
+
+        @Override
+        public int defaultArraySize() {
+            return config.defaultArraySize();
+        }
+
+        @Override
+        public int resizeArray(int size) {
+            return config.resizeArray(size);
+        }
+
+        @Override
+        public boolean isDefaultCollectionType(Class<?> intfClass, Class<?> implClass) {
+            return config.isDefaultCollectionType(intfClass, implClass);
+        }
+
+        @Override
+        public <T, U> Class<U> getDefaultCollectionType(Class<T> intfClass) {
+            return config.getDefaultCollectionType(intfClass);
+        }
+
+        @Override
+        public <T> boolean dynamicTypeMatch(Class<T> stcClass, Class<? extends T> dynClass) {
+            return config.dynamicTypeMatch(stcClass, dynClass);
+        }
+
+        @Override
+        public boolean dynamicTypeTags() {
+            return config.dynamicTypeTags();
+        }
+
+        @Override
+        public boolean failOnNoTypeConstructor() {
+            return config.failOnNoTypeConstructor();
+        }
+
+        @Override
+        public boolean failOnUnrecognisedFields() {
+            return config.failOnUnrecognisedFields();
+        }
+
+        @Override
+        public FieldAccessor.Factory fieldAccessorFactory() {
+            return config.fieldAccessorFactory();
+        }
     }
 }
@@ -0,0 +1,89 @@
+package org.typemeta.funcj.codec.json;
+
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.*;
+import org.openjdk.jmh.runner.options.*;
+import org.typemeta.funcj.codec.TestBase;
+import org.typemeta.funcj.codec.TestTypes.*;
+
+import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Compares encoding and decoding UTF-8 bytes via {@link Reader}/{@link Writer} wrappers
+ * against the direct {@code byte[]} and {@link ByteBuffer} paths.
+ */
+@State(Scope.Benchmark)
+public class JmhJsonUtf8Test {
+
+    private JsonCodecCore codec;
+    private Custom value;
+    private byte[] bytes;
+    private ByteBuffer buffer;
+
+    @Setup
+    public void setup() {
+        codec = TestBase.prepareCodecCore(JsonConfig.builder(), Codecs::jsonCodec);
+        value = new Custom(Init.INIT);
+        bytes = codec.encodeToBytes(Custom.class, value);
+        buffer = ByteBuffer.allocateDirect(bytes.length);
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.Throughput)
+    public byte[] encodeWriter() throws IOException {
+        final ByteArrayOutputStream baos = new ByteArrayOutputStream();
+        final Writer wtr = new BufferedWriter(new OutputStreamWriter(baos, StandardCharsets.UTF_8));
+        codec.encode(Custom.class, value, wtr);
+        wtr.flush();
+        return baos.toByteArray();
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.Throughput)
+    public byte[] encodeBytes() {
+        return codec.encodeToBytes(Custom.class, value);
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.Throughput)
+    public ByteBuffer encodeByteBuffer() {
+        buffer.clear();
+        return codec.encode(Custom.class, value, buffer);
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.Throughput)
+    public Custom decodeReader() {
+        final Reader rdr = new BufferedReader(
+                new InputStreamReader(new ByteArrayInputStream(bytes), StandardCharsets.UTF_8)
+        );
+        return codec.decode(Custom.class, rdr);
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.Throughput)
+    public Custom decodeBytes() {
+        return codec.decode(Custom.class, bytes);
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.Throughput)
+    public Custom decodeByteBuffer() {
+        buffer.clear();
+        buffer.put(bytes).flip();
+        return codec.decode(Custom.class, buffer);
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        final Options opt = new OptionsBuilder()
+                .include(JmhJsonUtf8Test.class.getSimpleName())
+                .warmupIterations(5)
+                .measurementIterations(5)
+                .forks(1)
+                .build();
+
+        new Runner(opt).run();
+    }
+}
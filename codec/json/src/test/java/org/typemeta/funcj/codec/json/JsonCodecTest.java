@@ -2,8 +2,12 @@
 
 import org.junit.*;
 import org.typemeta.funcj.codec.*;
+import org.typemeta.funcj.json.parser.JsonRecords;
 
 import java.io.*;
+import java.util.*;
+import java.util.concurrent.ForkJoinPool;
+import java.util.stream.*;
 
 public class JsonCodecTest extends TestBase {
 
@@ -56,4 +60,99 @@ public void testDontFailOnUnrecognisedFields() {
 
         Assert.assertEquals(val, val2);
     }
+
+    private void checkSequence(JsonTypes.SequenceFormat format) {
+        final JsonCodecCore codec = prepareCodecCore(JsonConfig.builder(), Codecs::jsonCodec);
+
+        final List<TestTypes.Custom> vals = new ArrayList<>();
+        for (int i = 0; i < 10; ++i) {
+            vals.add(new TestTypes.Custom(TestTypes.Init.INIT));
+        }
+
+        final StringWriter sw = new StringWriter();
+        codec.encodeSequence(TestTypes.Custom.class, vals.iterator(), format, sw);
+
+        final List<TestTypes.Custom> vals2 =
+                codec.decodeStream(TestTypes.Custom.class, new StringReader(sw.toString()), format)
+                        .collect(Collectors.toList());
+
+        Assert.assertEquals(vals, vals2);
+    }
+
+    @Test
+    public void testArraySequence() {
+        checkSequence(JsonTypes.SequenceFormat.ARRAY);
+    }
+
+    @Test
+    public void testNdjsonSequence() {
+        checkSequence(JsonTypes.SequenceFormat.NDJSON);
+    }
+
+    @Test
+    public void testEmptySequences() {
+        final JsonCodecCore codec = Codecs.jsonCodec();
+        for (JsonTypes.SequenceFormat format : JsonTypes.SequenceFormat.values()) {
+            final StringWriter sw = new StringWriter();
+            codec.encodeSequence(Integer.class, Stream.empty(), format, sw);
+            final Iterator<Integer> iter = codec.decodeIterator(Integer.class, new StringReader(sw.toString()), format);
+            Assert.assertFalse(iter.hasNext());
+        }
+    }
+
+    @Test
+    public void testNdjsonWhitespace() {
+        final JsonCodecCore codec = Codecs.jsonCodec();
+        final List<Integer> vals =
+                codec.decodeStream(Integer.class, new StringReader(" 1\n\n2 3\r\n"), JsonTypes.SequenceFormat.NDJSON)
+                        .collect(Collectors.toList());
+        Assert.assertEquals(Arrays.asList(1, 2, 3), vals);
+    }
+
+    @Test
+    public void testLargeSequence() {
+        final JsonCodecCore codec = Codecs.jsonCodec();
+        final int n = 100000;
+
+        final StringWriter sw = new StringWriter();
+        codec.encodeSequence(String.class, IntStream.range(0, n).mapToObj(i -> "s" + i), JsonTypes.SequenceFormat.ARRAY, sw);
+
+        final Iterator<String> iter =
+                codec.decodeIterator(String.class, new StringReader(sw.toString()), JsonTypes.SequenceFormat.ARRAY);
+        for (int i = 0; i < n; ++i) {
+            Assert.assertEquals("s" + i, iter.next());
+        }
+        Assert.assertFalse(iter.hasNext());
+    }
+
+    @Test
+    public void testParallelDecode() {
+        final JsonCodecCore codec = prepareCodecCore(JsonConfig.builder(), Codecs::jsonCodec);
+
+        final List<TestTypes.Custom> vals = new ArrayList<>();
+        for (int i = 0; i < 100; ++i) {
+            vals.add(new TestTypes.Custom(TestTypes.Init.INIT));
+        }
+
+        for (JsonTypes.SequenceFormat format : JsonTypes.SequenceFormat.values()) {
+            final StringWriter sw = new StringWriter();
+            codec.encodeSequence(TestTypes.Custom.class, vals.iterator(), format, sw);
+
+            final JsonRecords records =
+                    format == JsonTypes.SequenceFormat.ARRAY ?
+                            JsonRecords.array(sw.toString()) :
+                            JsonRecords.ndjson(sw.toString());
+
+            Assert.assertEquals(
+                    vals,
+                    codec.decodeParallel(TestTypes.Custom.class, records, true).collect(Collectors.toList()));
+
+            final ForkJoinPool pool = new ForkJoinPool(4);
+            try {
+                Assert.assertEquals(vals, codec.decodeParallel(TestTypes.Custom.class, records, pool));
+            } finally {
+                pool.shutdown();
+            }
+        }
+    }
 }
@@ -0,0 +1,64 @@
+package org.typemeta.funcj.codec.json;
+
+import org.junit.*;
+import org.typemeta.funcj.codec.*;
+import org.typemeta.funcj.codec.utils.CodecException;
+
+import java.io.*;
+import java.nio.ByteBuffer;
+
+public class JsonUtf8CodecTest extends TestBase {
+
+    @Override
+    protected <T> void roundTrip(T val, Class<T> clazz) {
+        final JsonConfig.Builder cfgBldr = JsonConfig.builder();
+        final JsonCodecCore codec = prepareCodecCore(cfgBldr, Codecs::jsonCodec);
+
+        final byte[] bytes = codec.encodeToBytes(clazz, val);
+
+        if (printData()) {
+            System.out.println(new String(bytes, java.nio.charset.StandardCharsets.UTF_8));
+        }
+
+        if (printSizes()) {
+            System.out.println("Encoded JSON " + clazz.getSimpleName() + " data size = " + bytes.length + " bytes");
+        }
+
+        Assert.assertEquals(val, codec.decode(clazz, bytes));
+
+        final ByteBuffer bb = ByteBuffer.allocateDirect(bytes.length);
+        codec.encode(clazz, val, bb);
+        Assert.assertEquals(bytes.length, bb.position());
+        bb.flip();
+        Assert.assertEquals(val, codec.decode(clazz, bb));
+
+        final ByteArrayOutputStream baos = new ByteArrayOutputStream();
+        codec.encode(clazz, val, baos);
+        Assert.assertArrayEquals(bytes, baos.toByteArray());
+        Assert.assertEquals(val, codec.decode(clazz, new ByteArrayInputStream(baos.toByteArray())));
+    }
+
+    @Test
+    public void testByteBufferOverflow() {
+        final JsonCodecCore codec = prepareCodecCore(JsonConfig.builder(), Codecs::jsonCodec);
+        final TestTypes.CommonData val = new TestTypes.CommonData(TestTypes.Init.INIT);
+        final byte[] bytes = codec.encodeToBytes(TestTypes.CommonData.class, val);
+
+        for (int size : new int[]{0, 1, bytes.length / 2, bytes.length - 1}) {
+            final ByteBuffer bb = ByteBuffer.allocate(size + 4);
+            bb.position(4);
+            try {
+                codec.encode(TestTypes.CommonData.class, val, bb);
+                Assert.fail("Expected CodecException for a buffer of " + size + " bytes");
+            } catch (CodecException ex) {
+                // The partially-encoded JSON must not be left in the buffer.
+                Assert.assertEquals(4, bb.position());
+            }
+        }
+
+        final ByteBuffer bb = ByteBuffer.allocate(bytes.length + 4);
+        bb.position(4);
+        codec.encode(TestTypes.CommonData.class, val, bb);
+        Assert.assertEquals(bytes.length + 4, bb.position());
+    }
+}
@@ -61,5 +61,6 @@ void run() {
                     break;
             }
         }
+        output.close();
     }
 }
@@ -0,0 +1,41 @@
+package org.typemeta.funcj.codec.json.io;
+
+import org.junit.Test;
+import org.typemeta.funcj.codec.json.JsonTypes;
+
+import java.io.StringWriter;
+
+import static org.junit.Assert.*;
+
+public class JsonGeneratorTest {
+    @Test
+    public void testTopLevelValuesReachWriter() {
+        final StringWriter wtr = new StringWriter();
+        final JsonGenerator gen = JsonTypes.outputOf(wtr);
+
+        gen.startObject().writeField("a").startArray().writeInt(1).writeInt(2).endArray();
+        assertEquals("", wtr.toString());
+        gen.endObject();
+        assertEquals("{\"a\":[1,2]}", wtr.toString());
+
+        gen.writeNewline();
+        gen.writeString("x");
+        assertEquals("{\"a\":[1,2]}\n\"x\"", wtr.toString());
+
+        gen.writeNewline().writeLong(3L).writeNewline();
+        assertEquals("{\"a\":[1,2]}\n\"x\"\n3\n", wtr.toString());
+
+        gen.close();
+        assertEquals("{\"a\":[1,2]}\n\"x\"\n3\n", wtr.toString());
+    }
+
+    @Test
+    public void testCloseWritesIncompleteValue() {
+        final StringWriter wtr = new StringWriter();
+        final JsonGenerator gen = JsonTypes.outputOf(wtr);
+        gen.startArray().writeBoolean(true).writeNull();
+        assertEquals("", wtr.toString());
+        gen.close();
+        assertEquals("[true,null", wtr.toString());
+    }
+}
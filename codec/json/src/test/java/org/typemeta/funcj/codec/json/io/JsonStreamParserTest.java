@@ -1,8 +1,12 @@
 package org.typemeta.funcj.codec.json.io;
 
 import org.junit.Test;
+import org.typemeta.funcj.json.parser.JsonEvent;
 
-import java.io.BufferedReader;
+import java.io.*;
+import java.util.*;
+
+import static org.junit.Assert.*;
 
 public class JsonStreamParserTest {
     @Test
@@ -15,4 +19,45 @@ public void test() throws Throwable {
             jp.processCurrentEvent();
         }
     }
+
+    @Test
+    public void testLookaheadGrows() {
+        final String json = "{\"a\": [1, -2.5, \"x\", true, null, {\"b\": 123456789012}], \"c\": \"d\"}";
+
+        final List<JsonEvent> expected = new ArrayList<>();
+        final JsonStreamParser jp = new JsonStreamParser(new StringReader(json), 1);
+        while (jp.notEOF()) {
+            expected.add(jp.currentEvent());
+            jp.processCurrentEvent();
+        }
+
+        final JsonStreamParser jpla = new JsonStreamParser(new StringReader(json), 1);
+        for (int i = 0; i < expected.size(); ++i) {
+            final JsonEvent ev = expected.get(i);
+            assertEquals(ev, jpla.event(i));
+            assertEquals(ev.type(), jpla.eventType(i));
+        }
+
+        assertEquals("a", jpla.eventValue(1));
+        assertEquals("-2.5", jpla.eventValue(4));
+        assertEquals("123456789012", jpla.eventValue(10));
+        assertNull(jpla.eventValue(0));
+
+        jpla.startObject();
+        assertEquals("a", jpla.readFieldName());
+        jpla.startArray();
+        assertEquals(1, jpla.readInt());
+        assertEquals(-2.5, jpla.readDouble(), 0.0);
+        assertEquals("x", jpla.readString());
+        assertTrue(jpla.readBoolean());
+        jpla.readNull();
+        jpla.startObject();
+        jpla.readFieldName("b");
+        assertEquals(123456789012L, jpla.readLong());
+        jpla.endObject();
+        jpla.endArray();
+        jpla.skipNode();
+        jpla.endObject();
+        assertFalse(jpla.notEOF());
+    }
 }
@@ -0,0 +1,100 @@
+package org.typemeta.funcj.codec.json.io;
+
+import org.junit.Test;
+
+import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+public class Utf8Test {
+
+    private static final String[] STRINGS = {
+            "",
+            "abc",
+            "0123456789abcdefghijklmnopqrstuvwxyz",
+            "café £¥€",
+            "日本語テキスト",
+            "emoji 😀🎉 end",
+            "mixed ascii then ÿĀ߿ࠀ￿ and more ascii text"
+    };
+
+    private static String randomString(Random rand, int len) {
+        final StringBuilder sb = new StringBuilder();
+        while (sb.length() < len) {
+            switch (rand.nextInt(4)) {
+                case 0:
+                    sb.append((char)(0x80 + rand.nextInt(0x780)));
+                    break;
+                case 1:
+                    sb.append((char)(0x800 + rand.nextInt(0xD000)));
+                    break;
+                case 2:
+                    sb.appendCodePoint(0x10000 + rand.nextInt(0x100000));
+                    break;
+                default:
+                    sb.append((char)(rand.nextInt(0x80)));
+            }
+        }
+        return sb.toString();
+    }
+
+    private static String readAll(Reader rdr, int chunk) throws IOException {
+        final StringBuilder sb = new StringBuilder();
+        final char[] cbuf = new char[chunk];
+        int n;
+        while ((n = rdr.read(cbuf, 0, chunk)) != -1) {
+            sb.append(cbuf, 0, n);
+        }
+        return sb.toString();
+    }
+
+    private static void check(String s) throws IOException {
+        final byte[] expected = s.getBytes(StandardCharsets.UTF_8);
+
+        final Utf8Writer wtr = new Utf8Writer();
+        wtr.write(s);
+        assertArrayEquals(s, expected, wtr.toByteArray());
+
+        final ByteArrayOutputStream baos = new ByteArrayOutputStream();
+        final Utf8Writer osWtr = new Utf8Writer(baos, 16);
+        for (int i = 0; i < s.length(); ++i) {
+            osWtr.write(s.charAt(i));
+        }
+        osWtr.flush();
+        assertArrayEquals(s, expected, baos.toByteArray());
+
+        for (int chunk = 1; chunk <= 9; chunk += 4) {
+            assertEquals(s, readAll(new Utf8Reader(expected), chunk));
+            assertEquals(s, readAll(new Utf8Reader(ByteBuffer.wrap(expected)), chunk));
+            assertEquals(s, readAll(new Utf8Reader(new ByteArrayInputStream(expected), 5), chunk));
+        }
+
+        final ByteBuffer direct = ByteBuffer.allocateDirect(expected.length);
+        direct.put(expected).flip();
+        assertEquals(s, readAll(new Utf8Reader(direct), 64));
+    }
+
+    @Test
+    public void testRoundTrip() throws IOException {
+        for (String s : STRINGS) {
+            check(s);
+        }
+
+        final Random rand = new Random(1234);
+        for (int i = 0; i < 100; ++i) {
+            check(randomString(rand, rand.nextInt(200)));
+        }
+    }
+
+    @Test
+    public void testMalformedInput() throws IOException {
+        final byte[] bytes = {'a', (byte)0xC3, 'b', (byte)0xE2, (byte)0x82, 'c', (byte)0xE2, (byte)0x82};
+        assertEquals(
+                new String(bytes, StandardCharsets.UTF_8),
+                readAll(new Utf8Reader(bytes), 16)
+        );
+    }
+}
@@ -4,11 +4,22 @@
 import org.typemeta.funcj.codec.*;
 import org.typemeta.funcj.codec.json.Codecs;
 import org.typemeta.funcj.json.model.*;
+import org.typemeta.funcj.json.parser.JsonParser;
 
+import java.io.*;
 import java.util.*;
 
 public class JsonCodecTest extends TestBase {
 
+    public static class Numbers {
+        double d = 1.0;
+        double[] da = {2.0, 2.5};
+        long l = (1L << 53) + 1;
+        long[] la = {Long.MAX_VALUE};
+        float f = 0.1f;
+        int i = 7;
+    }
+
     @Override
     protected <T> void roundTrip(T val, Class<T> clazz) {
         final JsonNodeConfig.Builder cfgBldr = JsonNodeConfig.builder();
@@ -33,6 +44,14 @@ protected <T> void roundTrip(T val, Class<T> clazz) {
         }
 
         Assert.assertEquals(val, val2);
+
+        // The streamed encoding should be interchangeable with the JsValue encoding.
+        final StringWriter sw = new StringWriter();
+        codec.encode(clazz, val, sw);
+
+        Assert.assertEquals(val, codec.decode(clazz, new StringReader(sw.toString())));
+        Assert.assertEquals(val, codec.decode(clazz, JsonParser.parse(sw.toString())));
+        Assert.assertEquals(val, codec.decode(clazz, new StringReader(data)));
     }
 
     @Test
@@ -57,4 +76,31 @@ public void testDontFailOnUnrecognisedFields() {
 
         Assert.assertEquals(val, val2);
     }
+
+    @Test
+    public void testNumberFormats() {
+        final JsonNodeConfig.Builder cfgBldr = JsonNodeConfig.builder();
+        cfgBldr.registerAllowedPackage(Numbers.class.getPackage());
+        final JsonNodeCodecCore codec = Codecs.jsonNodeCodec(cfgBldr);
+
+        // A JsNumber holds a double, so longs beyond 2^53 are rounded.
+        final JsValue jsv = codec.encode(Numbers.class, new Numbers());
+        Assert.assertEquals(
+                "{\"d\":1,\"da\":[2,2.5],\"l\":9.007199254740992E15,\"la\":[9.223372036854776E18]," +
+                        "\"f\":0.10000000149011612,\"i\":7}",
+                jsv.toString());
+
+        // The streamed encoding writes doubles with a decimal point, and longs exactly.
+        final StringWriter sw = new StringWriter();
+        codec.encode(Numbers.class, new Numbers(), sw);
+        Assert.assertEquals(
+                "{\"d\":1.0,\"da\":[2.0,2.5],\"l\":9007199254740993,\"la\":[9223372036854775807]," +
+                        "\"f\":0.1,\"i\":7}",
+                sw.toString());
+
+        final Numbers val = codec.decode(Numbers.class, new StringReader(sw.toString()));
+        Assert.assertEquals((1L << 53) + 1, val.l);
+        Assert.assertEquals(Long.MAX_VALUE, val.la[0]);
+        Assert.assertEquals(0.1f, val.f, 0.0f);
+    }
 }
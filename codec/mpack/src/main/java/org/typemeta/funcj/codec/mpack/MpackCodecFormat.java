@@ -5,7 +5,6 @@
 import org.typemeta.funcj.codec.mpack.MpackTypes.*;
 import org.typemeta.funcj.codec.stream.StreamCodecFormat;
 import org.typemeta.funcj.functions.Functions;
-import org.typemeta.funcj.util.Folds;
 
 import java.lang.reflect.*;
 import java.util.*;
@@ -664,12 +663,14 @@ public <T, RA extends ObjectMeta.Builder<T>> Codec<T, InStream, OutStream, Confi
 
         private final Class<T> type;
         private final ObjectMeta<T, InStream, OutStream, RA> objMeta;
+        private final ObjectMeta.Field<T, InStream, OutStream, RA>[] fields;
 
         private ObjectCodec(
                 Class<T> type,
                 ObjectMeta<T, InStream, OutStream, RA> objMeta) {
             this.type = type;
             this.objMeta = objMeta;
+            this.fields = objMeta.toArray();
         }
 
         @Override
@@ -683,19 +684,19 @@ public OutStream encode(
                 T value,
                 OutStream out
         ) {
-            objMeta.forEach(field ->
-                    field.encodeField(value, out)
-            );
+            for (ObjectMeta.Field<T, InStream, OutStream, RA> field : fields) {
+                field.encodeField(value, out);
+            }
             return out;
         }
 
         @Override
         public T decode(CodecCoreEx<InStream, OutStream, Config> core, InStream in) {
-            return Folds.foldLeft(
-                    (acc, field) -> field.decodeField(acc, in),
-                    objMeta.createBuilder(),
-                    objMeta
-            ).construct();
+            RA ra = objMeta.createBuilder();
+            for (ObjectMeta.Field<T, InStream, OutStream, RA> field : fields) {
+                ra = field.decodeField(ra, in);
+            }
+            return ra.construct();
         }
     }
 
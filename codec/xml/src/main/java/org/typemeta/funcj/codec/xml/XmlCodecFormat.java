@@ -3,15 +3,13 @@
 import org.typemeta.funcj.codec.*;
 import org.typemeta.funcj.codec.impl.CollectionCodec;
 import org.typemeta.funcj.codec.stream.StreamCodecFormat;
-import org.typemeta.funcj.codec.utils.CodecException;
+import org.typemeta.funcj.codec.utils.*;
 import org.typemeta.funcj.codec.xml.XmlTypes.*;
 import org.typemeta.funcj.functions.Functions;
 
 import java.lang.reflect.*;
 import java.util.*;
 
-import static org.typemeta.funcj.codec.utils.StreamUtils.toLinkedHashMap;
-
 /**
  * Encoding via XML streams.
  */
@@ -719,18 +717,14 @@ public <T, RA extends ObjectMeta.Builder<T>> Codec<T, InStream, OutStream, Confi
 
         private final Class<T> type;
         private final ObjectMeta<T, InStream, OutStream, RA> objMeta;
-        private final Map<String, ObjectMeta.Field<T, InStream, OutStream, RA>> fields;
+        private final FieldTable<ObjectMeta.Field<T, InStream, OutStream, RA>> fields;
 
         private ObjectCodec(
                 Class<T> type,
                 ObjectMeta<T, InStream, OutStream, RA> objMeta) {
             this.type = type;
             this.objMeta = objMeta;
-            this.fields = objMeta.stream()
-                    .collect(toLinkedHashMap(
-                            ObjectMeta.Field::name,
-                            f -> f
-                    ));
+            this.fields = FieldTable.of(objMeta);
         }
 
         @Override
@@ -740,23 +734,24 @@ public Class<T> type() {
 
         @Override
         public OutStream encode(CodecCoreEx<InStream, OutStream, Config> core, T value, OutStream out) {
-            fields.forEach((name, field) -> {
-                field.encodeField(value, out.startElement(field.name()));
+            for (int i = 0, n = fields.size(); i < n; ++i) {
+                fields.field(i).encodeField(value, out.startElement(fields.name(i)));
                 out.endElement();
-            });
+            }
 
             return out;
         }
 
         @Override
         public T decode(CodecCoreEx<InStream, OutStream, Config> core, InStream in) {
-            final Set<String> expNames = fields.keySet();
-            final Set<String> actNames = new HashSet<>();
+            long seen = 0L;
+            final long[] seenExt = fields.newSeenExt();
             final RA ra = objMeta.createBuilder();
 
             while (in.hasNext() && in.type().equals(InStream.Type.START_ELEMENT)) {
                 final String name = in.startElement();
-                if (!expNames.contains(name)) {
+                final int index = fields.indexOf(name);
+                if (index == -1) {
                     if (config().failOnUnrecognisedFields()) {
                         throw new CodecException(
                                 "Field name '" + name + "' unexpected for type " + type +
@@ -765,18 +760,18 @@ public T decode(CodecCoreEx<InStream, OutStream, Config> core, InStream in) {
                         in.skipNode();
                         in.endElement();
                     }
-                } else if (actNames.contains(name)) {
+                } else if (FieldTable.isSeen(index, seen, seenExt)) {
                     throw new CodecException(
                             "Duplicate field name '" + name + "' for type " + type +
                                     " at location " + in.location());
                 } else {
-                    actNames.add(name);
-                    fields.get(name).decodeField(ra, in);
+                    seen = FieldTable.markSeen(index, seen, seenExt);
+                    fields.field(index).decodeField(ra, in);
                     in.endElement();
                 }
             }
 
-            checkFields(type, expNames, actNames);
+            fields.checkSeen(type, seen, seenExt);
 
             return ra.construct();
         }
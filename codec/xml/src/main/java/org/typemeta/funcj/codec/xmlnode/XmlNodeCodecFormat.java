@@ -2,7 +2,7 @@
 
 import org.typemeta.funcj.codec.*;
 import org.typemeta.funcj.codec.impl.CollectionCodec;
-import org.typemeta.funcj.codec.utils.CodecException;
+import org.typemeta.funcj.codec.utils.*;
 import org.typemeta.funcj.codec.xmlnode.XmlNodeTypes.Config;
 import org.typemeta.funcj.functions.Functions;
 import org.w3c.dom.*;
@@ -10,8 +10,6 @@
 import java.lang.reflect.*;
 import java.util.*;
 
-import static org.typemeta.funcj.codec.utils.StreamUtils.toLinkedHashMap;
-
 /**
  * Encoding via XML streams.
  */
@@ -745,18 +743,14 @@ public <T, RA extends ObjectMeta.Builder<T>> Codec<T, Element, Element, Config>
 
         private final Class<T> type;
         private final ObjectMeta<T, Element, Element, RA> objMeta;
-        private final Map<String, ObjectMeta.Field<T, Element, Element, RA>> fields;
+        private final FieldTable<ObjectMeta.Field<T, Element, Element, RA>> fields;
 
         private ObjectCodec(
                 Class<T> type,
                 ObjectMeta<T, Element, Element, RA> objMeta) {
             this.type = type;
             this.objMeta = objMeta;
-            this.fields = objMeta.stream()
-                    .collect(toLinkedHashMap(
-                            ObjectMeta.Field::name,
-                            f -> f
-                    ));
+            this.fields = FieldTable.of(objMeta);
         }
 
         @Override
@@ -766,9 +760,9 @@ public Class<T> type() {
 
         @Override
         public Element encode(CodecCoreEx<Element, Element, Config> core, T value, Element out) {
-            fields.forEach((name, field) -> {
-                field.encodeField(value, XmlUtils.addElement(out, field.name()));
-            });
+            for (int i = 0, n = fields.size(); i < n; ++i) {
+                fields.field(i).encodeField(value, XmlUtils.addElement(out, fields.name(i)));
+            }
 
             return out;
         }
@@ -778,8 +772,8 @@ public T decode(CodecCoreEx<Element, Element, Config> core, Element in) {
             final NodeList nodes = in.getChildNodes();
             final int l = nodes.getLength();
 
-            final Set<String> expNames = fields.keySet();
-            final Set<String> actNames = new HashSet<>();
+            long seen = 0L;
+            final long[] seenExt = fields.newSeenExt();
             final RA ra = objMeta.createBuilder();
 
             for (int i = 0; i < l; ++i) {
@@ -787,20 +781,21 @@ public T decode(CodecCoreEx<Element, Element, Config> core, Element in) {
                 if (node.getNodeType() == Node.ELEMENT_NODE) {
                     final Element elem = (Element)node;
                     String name = elem.getTagName();
-                    if (!expNames.contains(name)) {
+                    final int index = fields.indexOf(name);
+                    if (index == -1) {
                         if (config().failOnUnrecognisedFields()) {
                             throw new CodecException("Field name '" + name + "' unexpected for type " + type);
                         }
-                    } else if (actNames.contains(name)) {
+                    } else if (FieldTable.isSeen(index, seen, seenExt)) {
                         throw new CodecException("Duplicate field name '" + name + "' for type " + type);
                     } else {
-                        actNames.add(name);
-                        fields.get(name).decodeField(ra, elem);
+                        seen = FieldTable.markSeen(index, seen, seenExt);
+                        fields.field(index).decodeField(ra, elem);
                     }
                 }
             }
 
-            checkFields(type, expNames, actNames);
+            fields.checkSeen(type, seen, seenExt);
 
             return ra.construct();
         }
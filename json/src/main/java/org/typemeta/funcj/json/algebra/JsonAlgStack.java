@@ -3,27 +3,18 @@
 import org.typemeta.funcj.json.model.*;
 
 import java.util.*;
-import java.util.stream.Collectors;
-
-import static org.typemeta.funcj.json.algebra.JsonAlgStackUtils.*;
 
 /**
  * Iterative, stack-based implementation of applying an object algebra.
  * <p>
  * To avoid {@code StackOverflowException}s, we use a stack to traverse the JSON tree structure.
+ * <p>
+ * Several algebras can be applied in a single traversal,
+ * via {@link #apply(JsValue, JsonAlg[])}.
+ * The pending values and the intermediate results are held in arrays, which are reused across the traversal,
+ * so the only per-node allocations are the element lists and field maps passed to the algebras.
  */
 public abstract class JsonAlgStack {
-    private static final class Entry {
-        // The JSON value.
-        final JsValue value;
-
-        // Indicates if this value is ready to be evaluated.
-        boolean ready;
-
-        private Entry(JsValue value) {
-            this.value = value;
-        }
-    }
 
     /**
      * Process a {Link JsValue} by applying a {@code JsonAlg} to it.
@@ -32,97 +23,192 @@ private Entry(JsValue value) {
      * @param <T>       the result type
      * @return          the result of applying the object algebra
      */
+    @SuppressWarnings("unchecked")
     public static <T> T apply(JsValue value, JsonAlg<T> alg) {
-        final Deque<Entry> pendingStack = new ArrayDeque<>();
-        final Deque<T> resultsStack = new ArrayDeque<>();
+        return (T)apply(value, new JsonAlg<?>[]{alg})[0];
+    }
+
+    /**
+     * Process a {Link JsValue} by applying several object algebras to it, in a single traversal.
+     * @param value     the value to be processed
+     * @param algs      the object algebras to be applied
+     * @return          the results of applying each object algebra, in the same order as the algebras
+     */
+    public static Object[] apply(JsValue value, JsonAlg<?>... algs) {
+        return new Engine(algs).apply(value);
+    }
 
-        pendingStack.push(new Entry(value));
+    private static final class Engine {
+        private final JsonAlg<?>[] algs;
+        private final int n;
+
+        // The values pending evaluation, and whether each is ready to be evaluated.
+        private JsValue[] pending = new JsValue[16];
+        private boolean[] ready = new boolean[16];
+        private int pendingTop = 0;
+
+        // The results, with the n results of each evaluated value held contiguously.
+        private Object[] results;
+        private int resultsTop = 0;
+
+        Engine(JsonAlg<?>[] algs) {
+            this.algs = algs;
+            this.n = algs.length;
+            this.results = new Object[16 * n];
+        }
+
+        private void pushPending(JsValue value, boolean isReady) {
+            if (pendingTop == pending.length) {
+                pending = Arrays.copyOf(pending, pendingTop * 2);
+                ready = Arrays.copyOf(ready, pendingTop * 2);
+            }
+            pending[pendingTop] = value;
+            ready[pendingTop++] = isReady;
+        }
+
+        private void pushResult(Object result) {
+            if (resultsTop == results.length) {
+                results = Arrays.copyOf(results, resultsTop * 2);
+            }
+            results[resultsTop++] = result;
+        }
 
         // The basic approach is:
-        // Pull the next value off the pendingStack.
+        // Pull the next value off the pending stack.
         // 1) For a value with no JsValue children,
-        //    process the value and push the result onto the resultsStack.
+        //    process the value and push the results onto the results stack.
         // 2) For a value with children, if the value is not ready to be evaluated,
-        //    then set ready to true, and push it and its children onto the stack.
+        //    then push it back as ready, and push its children in reverse order,
+        //    so that they are evaluated in order, and their results are pushed in order.
         // 3) For a value with children, if the value is ready to be evaluated,
-        //    pull the child results off the resultsStack,
+        //    pull the child results off the results stack,
         //    and then process the value and its children,
-        //    and push the result onto the resultsStack.
-        while (!pendingStack.isEmpty()) {
-            final Entry next = pendingStack.pop();
-            final Class<? extends JsValue> cls = next.value.getClass();
-
-            if (cls.equals(JsArray.class)) {
-                final JsArray jsArr = (JsArray)next.value;
-                if (next.ready) {
-                    final List<T> results = popN(resultsStack, jsArr.size());
-                    resultsStack.push(alg.arr(results));
-                } else {
-                    next.ready = true;
-                    pendingStack.push(next);
-                    jsArr.stream().map(Entry::new).forEach(pendingStack::push);
-                }
-            } else if (cls.equals(JsBool.class)) {
-                final JsBool jsBl = (JsBool)next.value;
-                resultsStack.push(alg.bool(jsBl.value()));
-            } else if (cls.equals(JsNull.class)) {
-                resultsStack.push(alg.nul());
-            } else if (cls.equals(JsNumber.class)) {
-                final JsNumber jsNum = (JsNumber)next.value;
-                resultsStack.push(alg.num(jsNum.value()));
-            } else if (cls.equals(JsObject.class)) {
-                final JsObject jsObj = (JsObject)next.value;
-                if (next.ready) {
-                    final List<String> names =
-                            jsObj.stream()
-                                    .map(JsObject.Field::name)
-                                    .collect(Collectors.toList());
-                    final List<T> values = popN(resultsStack, jsObj.size());
-                    final LinkedHashMap<String, T> map = zip(names, values);
-                    resultsStack.push(alg.obj(map));
-                } else {
-                    next.ready = true;
-                    pendingStack.push(next);
-                    jsObj.stream()
-                            .map(JsObject.Field::value)
-                            .map(Entry::new)
-                            .forEach(pendingStack::push);
+        //    and push the results onto the results stack.
+        Object[] apply(JsValue root) {
+            pushPending(root, false);
+
+            while (pendingTop > 0) {
+                final JsValue next = pending[--pendingTop];
+                final boolean isReady = ready[pendingTop];
+                pending[pendingTop] = null;
+
+                switch (next.type()) {
+                    case ARRAY:
+                        applyArr(next.asArray(), isReady);
+                        break;
+                    case BOOL: {
+                        final boolean b = next.asBool().value();
+                        for (JsonAlg<?> alg : algs) {
+                            pushResult(alg.bool(b));
+                        }
+                        break;
+                    }
+                    case NULL:
+                        for (JsonAlg<?> alg : algs) {
+                            pushResult(alg.nul());
+                        }
+                        break;
+                    case NUMBER: {
+                        final double d = next.asNumber().value();
+                        for (JsonAlg<?> alg : algs) {
+                            pushResult(alg.num(d));
+                        }
+                        break;
+                    }
+                    case OBJECT:
+                        applyObj(next.asObject(), isReady);
+                        break;
+                    case STRING: {
+                        final String s = next.asString().value();
+                        for (JsonAlg<?> alg : algs) {
+                            pushResult(alg.str(s));
+                        }
+                        break;
+                    }
+                    default:
+                        throw new IllegalStateException("Unrecognised JsValue sub-type : " + next.getClass());
                 }
-            } else if (cls.equals(JsString.class)) {
-                final JsString jsStr = (JsString)next.value;
-                resultsStack.push(alg.str(jsStr.value()));
-            } else {
-                throw new IllegalStateException("Unrecognised JsValue sub-type : " + cls);
             }
-        }
-
-        if (resultsStack.size() != 1) {
-            throw new IllegalStateException(
-                    "resultsStack expected to have exactly 1 entry, but has " + resultsStack.size());
-        }
-
-        return resultsStack.pop();
-    }
-}
 
-abstract class JsonAlgStackUtils {
-    static <T> List<T> popN(Deque<T> stack, int n) {
-        final List<T> l = new ArrayList<>(n);
+            if (resultsTop != n) {
+                throw new IllegalStateException(
+                        "results stack expected to have exactly " + n + " entries, but has " + resultsTop);
+            }
 
-        for (int i = 0; i < n; ++i) {
-            l.add(stack.pop());
+            return Arrays.copyOf(results, n);
         }
 
-        return l;
-    }
-
-    static <K, V> LinkedHashMap<K, V> zip(List<K> names, List<V> values) {
-        final LinkedHashMap<K, V> m = new LinkedHashMap<K, V>();
+        @SuppressWarnings("unchecked")
+        private void applyArr(JsArray jsArr, boolean isReady) {
+            final int size = jsArr.size();
+            if (jsArr.isPrimitive()) {
+                // The elements are all numbers, so there's no need to push them onto the stack.
+                final double[] ds = jsArr.toDoubleArray();
+                for (JsonAlg<?> alg : algs) {
+                    final Object[] elems = new Object[size];
+                    for (int i = 0; i < size; ++i) {
+                        elems[i] = alg.num(ds[i]);
+                    }
+                    pushResult(((JsonAlg<Object>)alg).arr(Arrays.asList(elems)));
+                }
+            } else if (isReady) {
+                final int base = resultsTop - size * n;
+                final Object[] arrs = new Object[n];
+                for (int k = 0; k < n; ++k) {
+                    final Object[] elems = new Object[size];
+                    for (int i = 0; i < size; ++i) {
+                        elems[i] = results[base + i * n + k];
+                    }
+                    arrs[k] = ((JsonAlg<Object>)algs[k]).arr(Arrays.asList(elems));
+                }
+                Arrays.fill(results, base, resultsTop, null);
+                resultsTop = base;
+                for (Object arr : arrs) {
+                    pushResult(arr);
+                }
+            } else {
+                pushPending(jsArr, true);
+                for (int i = size - 1; i >= 0; --i) {
+                    pushPending(jsArr.get(i), false);
+                }
+            }
+        }
 
-        for (int i = 0; i < names.size(); ++i) {
-            m.put(names.get(i), values.get(i));
+        @SuppressWarnings("unchecked")
+        private void applyObj(JsObject jsObj, boolean isReady) {
+            final int size = jsObj.size();
+            if (isReady) {
+                final int base = resultsTop - size * n;
+                final Object[] objs = new Object[n];
+                for (int k = 0; k < n; ++k) {
+                    final LinkedHashMap<String, Object> fields = new LinkedHashMap<>(size * 2);
+                    int i = 0;
+                    for (JsObject.Field field : jsObj) {
+                        fields.put(field.name(), results[base + i++ * n + k]);
+                    }
+                    objs[k] = ((JsonAlg<Object>)algs[k]).obj(fields);
+                }
+                Arrays.fill(results, base, resultsTop, null);
+                resultsTop = base;
+                for (Object obj : objs) {
+                    pushResult(obj);
+                }
+            } else {
+                pushPending(jsObj, true);
+                final int top = pendingTop;
+                for (JsObject.Field field : jsObj) {
+                    pushPending(field.value(), false);
+                }
+                reversePending(top, pendingTop);
+            }
         }
 
-        return m;
+        private void reversePending(int from, int to) {
+            for (int i = from, j = to - 1; i < j; ++i, --j) {
+                final JsValue tmp = pending[i];
+                pending[i] = pending[j];
+                pending[j] = tmp;
+            }
+        }
     }
 }
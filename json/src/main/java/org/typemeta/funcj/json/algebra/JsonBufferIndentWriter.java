@@ -0,0 +1,148 @@
+package org.typemeta.funcj.json.algebra;
+
+import org.typemeta.funcj.functions.SideEffect;
+import org.typemeta.funcj.json.model.*;
+import org.typemeta.funcj.util.Exceptions;
+
+import java.io.Writer;
+import java.util.*;
+
+/**
+ * A {@link JsonAlg} which writes indented JSON to a {@link JsonOutputBuffer}.
+ */
+public class JsonBufferIndentWriter implements JsonAlg<SideEffect.F2<Integer, JsonOutputBuffer>> {
+    private static String generate(int n) {
+        final StringBuilder sb = new StringBuilder(n);
+        for (int i = 0; i < n; ++i) {
+            sb.append(" ");
+        }
+        return sb.toString();
+    }
+
+    private static final int INDENT_LEN = 2;
+    private static final int INITIAL_CACHE_SIZE = 4;
+    private static final String EOL = System.lineSeparator();
+
+    private final List<String> indentCache;
+
+    public JsonBufferIndentWriter(int indentMult) {
+        this.indentCache = new ArrayList<String>(INITIAL_CACHE_SIZE);
+        for (int i = 1; i <= INITIAL_CACHE_SIZE; ++i) {
+            this.indentCache.add(generate(indentMult * i));
+        }
+    }
+
+    private String indent(int depth) {
+        if (depth == 0) {
+            return "";
+        } else {
+            final int d2 = depth - 1;
+            if (d2 >= indentCache.size()) {
+                for (int i = indentCache.size(); i <= d2; ++i) {
+                    indentCache.add(indentCache.get(i - 1) + indentCache.get(0));
+                }
+            }
+            return indentCache.get(d2);
+        }
+    }
+
+
+    /**
+     * Write a JSON value to a {@link Writer}, via a pooled {@link JsonOutputBuffer}.
+     * @param jv        the JSON value
+     * @param w        the {@code Writer} to write the JSON to
+     * @return          the string representation of formatted JSON
+     */
+    public static Writer toString(JsValue jv, Writer w, int indent) {
+        final SideEffect.F2<Integer, JsonOutputBuffer> f = jv.apply(new JsonBufferIndentWriter(indent));
+        Exceptions.wrap(() -> {
+            try (JsonOutputBuffer buf = JsonOutputBuffer.pooled(w)) {
+                f.apply(0, buf);
+            }
+        });
+        return w;
+    }
+
+    @Override
+    public SideEffect.F2<Integer, JsonOutputBuffer> nul() {
+        return (Integer depth, JsonOutputBuffer wtr) -> {
+            Exceptions.wrap(() -> {
+                wtr.append(JsNull.NULL.toString());
+            });
+        };
+    }
+
+    @Override
+    public SideEffect.F2<Integer, JsonOutputBuffer> bool(boolean b) {
+        return (Integer depth, JsonOutputBuffer wtr) -> {
+            Exceptions.wrap(() -> {
+                wtr.append(b);
+            });
+        };
+    }
+
+    @Override
+    public SideEffect.F2<Integer, JsonOutputBuffer> num(double d) {
+        return (Integer depth, JsonOutputBuffer wtr) -> {
+            Exceptions.wrap(() -> {
+                wtr.appendNumber(d);
+            });
+        };
+    }
+
+    @Override
+    public SideEffect.F2<Integer, JsonOutputBuffer> str(String s) {
+        return (Integer depth, JsonOutputBuffer wtr) -> {
+            Exceptions.wrap(() -> {
+                wtr.appendQuoted(s);
+            });
+        };
+    }
+
+    @Override
+    public SideEffect.F2<Integer, JsonOutputBuffer> arr(List<SideEffect.F2<Integer, JsonOutputBuffer>> elems) {
+        return (Integer depth, JsonOutputBuffer wtr) -> {
+            final int d2 = depth + 1;
+            Exceptions.wrap(() -> {
+                wtr.append('[');
+                boolean first = true;
+                for (SideEffect.F2<Integer, JsonOutputBuffer> f : elems) {
+                    if (first) {
+                        first = false;
+                    } else {
+                        wtr.append(',');
+                    }
+                    wtr.append(EOL).append(indent(d2));
+                    f.apply(d2, wtr);
+                }
+                wtr.append(EOL);
+                wtr.append(indent(depth));
+                wtr.append(']');
+            });
+        };
+    }
+
+    @Override
+    public SideEffect.F2<Integer, JsonOutputBuffer> obj(LinkedHashMap<String, SideEffect.F2<Integer, JsonOutputBuffer>> fields) {
+        return (Integer depth, JsonOutputBuffer wtr) -> {
+            final int d2 = depth + 1;
+            Exceptions.wrap(() -> {
+                wtr.append('{');
+                boolean first = true;
+                for (Map.Entry<String, SideEffect.F2<Integer, JsonOutputBuffer>> field : fields.entrySet()) {
+                    if (first) {
+                        first = false;
+                    } else {
+                        wtr.append(',');
+                    }
+                    wtr.append(EOL).append(indent(d2));
+                    wtr.appendQuoted(field.getKey()).append(':').append(' ');
+                    field.getValue().apply(d2, wtr);
+                }
+                wtr.append(EOL);
+                wtr.append(indent(depth));
+                wtr.append('}');
+            });
+        };
+    }
+}
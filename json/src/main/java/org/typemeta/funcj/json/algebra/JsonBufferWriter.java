@@ -0,0 +1,86 @@
+package org.typemeta.funcj.json.algebra;
+
+import org.typemeta.funcj.functions.SideEffect;
+import org.typemeta.funcj.json.model.*;
+import org.typemeta.funcj.util.Exceptions;
+
+import java.io.Writer;
+import java.util.*;
+
+/**
+ * A {@link JsonAlg} which writes JSON to a {@link JsonOutputBuffer}.
+ */
+public class JsonBufferWriter implements JsonAlg<SideEffect.F<JsonOutputBuffer>> {
+    public static final JsonBufferWriter INSTANCE = new JsonBufferWriter();
+
+    /**
+     * Write a JSON value to a {@link Writer}, via a pooled {@link JsonOutputBuffer}.
+     * @param jv        the JSON value
+     * @param w        the {@code Writer} to write the JSON to
+     * @return          the string representation of formatted JSON
+     */
+    public static Writer toString(JsValue jv, Writer w) {
+        final SideEffect.F<JsonOutputBuffer> f = jv.apply(INSTANCE);
+        Exceptions.wrap(() -> {
+            try (JsonOutputBuffer buf = JsonOutputBuffer.pooled(w)) {
+                f.apply(buf);
+            }
+        });
+        return w;
+    }
+
+    @Override
+    public SideEffect.F<JsonOutputBuffer> nul() {
+        return Exceptions.wrap(w -> {w.append(JsNull.NULL.toString());});
+    }
+
+    @Override
+    public SideEffect.F<JsonOutputBuffer> bool(boolean b) {
+        return Exceptions.wrap(w -> {w.append(b);});
+    }
+
+    @Override
+    public SideEffect.F<JsonOutputBuffer> num(double d) {
+        return Exceptions.wrap(w -> {w.appendNumber(d);});
+    }
+
+    @Override
+    public SideEffect.F<JsonOutputBuffer> str(String s) {
+        return Exceptions.wrap(w -> {w.appendQuoted(s);});
+    }
+
+    @Override
+    public SideEffect.F<JsonOutputBuffer> arr(List<SideEffect.F<JsonOutputBuffer>> elems) {
+        return Exceptions.wrap(w -> {
+            w.append('[');
+            boolean first = true;
+            for (SideEffect.F<JsonOutputBuffer> f : elems) {
+                if (first) {
+                    first = false;
+                } else {
+                    w.append(',');
+                }
+                f.apply(w);
+            }
+            w.append(']');
+        });
+    }
+
+    @Override
+    public SideEffect.F<JsonOutputBuffer> obj(LinkedHashMap<String, SideEffect.F<JsonOutputBuffer>> fields) {
+        return Exceptions.wrap(w -> {
+            w.append('{');
+            boolean first = true;
+            for (Map.Entry<String, SideEffect.F<JsonOutputBuffer>> field : fields.entrySet()) {
+                if (first) {
+                    first = false;
+                } else {
+                    w.append(',');
+                }
+                w.appendQuoted(field.getKey()).append(':');
+                field.getValue().apply(w);
+            }
+            w.append('}');
+        });
+    }
+}
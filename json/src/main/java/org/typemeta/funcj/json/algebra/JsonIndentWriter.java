@@ -51,8 +51,7 @@ private String indent(int depth) {
      * @return          the string representation of formatted JSON
      */
     public static Writer toString(JsValue jv, Writer w, int indent) {
-        jv.apply(new JsonIndentWriter(indent)).apply(0, w);
-        return w;
+        return JsonBufferIndentWriter.toString(jv, w, indent);
     }
 
     @Override
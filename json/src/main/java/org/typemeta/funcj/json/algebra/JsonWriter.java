@@ -17,8 +17,7 @@ public class JsonWriter implements JsonAlg<SideEffect.F<Writer>> {
      * @return          the string representation of formatted JSON
      */
     public static Writer toString(JsValue jv, Writer w) {
-        jv.apply(INSTANCE).apply(w);
-        return w;
+        return JsonBufferWriter.toString(jv, w);
     }
 
     @Override
@@ -198,19 +198,20 @@ public static Result<Chr, JsValue> parse(Reader rdr) {
                         uChr.andR(uni)
                 );
 
-        final Parser<Chr, Chr> stringChar =
-                (bsChr.andR(esc)).or(
-                        satisfy("schar", c ->
-                                !c.equals('"') &&
-                                        !c.equals('\\') &&
-                                        !c.equals('\t') &&
-                                        !c.equals('\r') &&
-                                        !c.equals('\n'))
+        // A run of unescaped chars, or a single escaped char.
+        final Parser<Chr, String> stringChars =
+                (bsChr.andR(esc).map(Chr::toString)).or(
+                        takeWhile1("schar", c ->
+                                c != '"' &&
+                                        c != '\\' &&
+                                        c != '\t' &&
+                                        c != '\r' &&
+                                        c != '\n')
                 );
 
         final Parser<Chr, String> jstring =
-                tok(stringChar.many()
-                        .map(Chr::listToString)
+                tok(stringChars.many()
+                        .map(ss -> ss.foldLeft(StringBuilder::append, new StringBuilder()).toString())
                         .between(dqChr, dqChr)
                 );
 
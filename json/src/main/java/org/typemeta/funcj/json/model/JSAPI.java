@@ -1,6 +1,7 @@
 package org.typemeta.funcj.json.model;
 
 import org.typemeta.funcj.data.IList;
+import org.typemeta.funcj.json.parser.JsonIndex;
 
 import java.text.*;
 import java.util.*;
@@ -31,6 +32,46 @@ public static JsArray arr(IList<JsValue> values) {
         return new JsArray(values.toList());
     }
 
+    /**
+     * Construct an array of numbers, backed by a copy of the given {@code double} array.
+     * @param values    the numbers
+     * @return          the array
+     */
+    public static JsArray arr(double[] values) {
+        return new JsArray(new NumericValues.DoubleList(values.clone()));
+    }
+
+    /**
+     * Construct an array of numbers, backed by a copy of the first {@code length} elements
+     * of the given {@code double} array.
+     * @param values    the numbers
+     * @param length    the number of elements to copy
+     * @return          the array
+     */
+    public static JsArray arr(double[] values, int length) {
+        return new JsArray(new NumericValues.DoubleList(Arrays.copyOf(values, length)));
+    }
+
+    /**
+     * Construct an array of numbers, backed by a copy of the given {@code long} array.
+     * @param values    the numbers
+     * @return          the array
+     */
+    public static JsArray arr(long[] values) {
+        return new JsArray(new NumericValues.LongList(values.clone()));
+    }
+
+    /**
+     * Construct an array of numbers, backed by a copy of the first {@code length} elements
+     * of the given {@code long} array.
+     * @param values    the numbers
+     * @param length    the number of elements to copy
+     * @return          the array
+     */
+    public static JsArray arr(long[] values, int length) {
+        return new JsArray(new NumericValues.LongList(Arrays.copyOf(values, length)));
+    }
+
     public static JsNumber num(byte value) {
         return new JsNumber(value);
     }
@@ -110,6 +151,19 @@ public static JsObject obj(Map<String, JsObject.Field> values) {
         return new JsObject(values);
     }
 
+    /**
+     * Construct the root value of an indexed JSON document.
+     * The child values of arrays and objects are materialised on first access,
+     * and are then cached.
+     * @param index     the index
+     * @return          the root value
+     * @throws IllegalStateException if an object contains duplicate field names,
+     *                  when that object is first accessed
+     */
+    public static JsValue lazy(JsonIndex index) {
+        return LazyValues.value(index, 0);
+    }
+
     private static Collector<JsObject.Field, ?, LinkedHashMap<String, JsObject.Field>> toFieldMap() {
         return toMap(
                 JsObject.Field::name,
@@ -5,7 +5,7 @@
 import java.io.StringWriter;
 import java.util.*;
 import java.util.function.Consumer;
-import java.util.stream.Stream;
+import java.util.stream.*;
 
 /**
  * Models a JSON array.
@@ -53,6 +53,56 @@ public Stream<JsValue> stream() {
         return values.stream();
     }
 
+    /**
+     * Indicates whether this array is backed by an array of primitive numbers,
+     * as produced by the parser for an array which consists only of numbers,
+     * in which case the bulk numeric accessors don't need to visit individual {@link JsNumber} values.
+     * @return          true if this array is backed by an array of primitive numbers
+     */
+    public boolean isPrimitive() {
+        return values instanceof NumericValues.NumericList;
+    }
+
+    /**
+     * Return the elements of this array as a {@code double} array.
+     * @return          the elements as a {@code double} array
+     * @throws          RuntimeException if any element is not a {@code JsNumber}
+     */
+    public double[] toDoubleArray() {
+        if (values instanceof NumericValues.NumericList) {
+            return ((NumericValues.NumericList)values).toDoubleArray();
+        } else {
+            return doubleStream().toArray();
+        }
+    }
+
+    /**
+     * Return the elements of this array as a {@code long} array.
+     * Elements which are not integers are truncated.
+     * @return          the elements as a {@code long} array
+     * @throws          RuntimeException if any element is not a {@code JsNumber}
+     */
+    public long[] toLongArray() {
+        if (values instanceof NumericValues.NumericList) {
+            return ((NumericValues.NumericList)values).toLongArray();
+        } else {
+            return values.stream().mapToLong(jsv -> jsv.asNumber().longValue()).toArray();
+        }
+    }
+
+    /**
+     * Return the elements of this array as a {@code DoubleStream}.
+     * @return          the elements as a {@code DoubleStream}
+     * @throws          RuntimeException if any element is not a {@code JsNumber}
+     */
+    public DoubleStream doubleStream() {
+        if (values instanceof NumericValues.NumericList) {
+            return ((NumericValues.NumericList)values).doubleStream();
+        } else {
+            return values.stream().mapToDouble(jsv -> jsv.asNumber().value());
+        }
+    }
+
     public void forEach(Consumer<? super JsValue> action) {
         values.forEach(action);
     }
@@ -53,7 +53,7 @@ public int hashCode() {
         }
     }
 
-    private final LinkedHashMap<String, Field> fields;
+    private final Map<String, Field> fields;
 
     protected JsObject(Map<String, Field> fields) {
         this.fields = new LinkedHashMap<String, Field>(Objects.requireNonNull(fields));
@@ -63,6 +63,10 @@ protected JsObject(LinkedHashMap<String, Field> fields) {
         this.fields = Objects.requireNonNull(fields);
     }
 
+    JsObject(LazyValues.FieldMap fields) {
+        this.fields = fields;
+    }
+
     public boolean isEmpty() {
         return fields.isEmpty();
     }
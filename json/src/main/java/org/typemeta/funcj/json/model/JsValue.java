@@ -2,6 +2,7 @@
 
 import org.typemeta.funcj.functions.Functions.F;
 import org.typemeta.funcj.json.algebra.*;
+import org.typemeta.funcj.tuples.*;
 
 import java.io.*;
 import java.util.OptionalInt;
@@ -136,6 +137,58 @@ default <T> T apply(JsonAlg<T> alg) {
         return JsonAlgStack.apply(this, alg);
     }
 
+    /**
+     * Apply two object algebras to this value, in a single traversal.
+     * @param algA      the first object algebra
+     * @param algB      the second object algebra
+     * @param <A>       the first object algebra result type
+     * @param <B>       the second object algebra result type
+     * @return          the results of applying the object algebras
+     */
+    @SuppressWarnings("unchecked")
+    default <A, B> Tuple2<A, B> apply(JsonAlg<A> algA, JsonAlg<B> algB) {
+        final Object[] rs = JsonAlgStack.apply(this, algA, algB);
+        return Tuple2.of((A)rs[0], (B)rs[1]);
+    }
+
+    /**
+     * Apply three object algebras to this value, in a single traversal.
+     * @param algA      the first object algebra
+     * @param algB      the second object algebra
+     * @param algC      the third object algebra
+     * @param <A>       the first object algebra result type
+     * @param <B>       the second object algebra result type
+     * @param <C>       the third object algebra result type
+     * @return          the results of applying the object algebras
+     */
+    @SuppressWarnings("unchecked")
+    default <A, B, C> Tuple3<A, B, C> apply(JsonAlg<A> algA, JsonAlg<B> algB, JsonAlg<C> algC) {
+        final Object[] rs = JsonAlgStack.apply(this, algA, algB, algC);
+        return Tuple3.of((A)rs[0], (B)rs[1], (C)rs[2]);
+    }
+
+    /**
+     * Apply four object algebras to this value, in a single traversal.
+     * @param algA      the first object algebra
+     * @param algB      the second object algebra
+     * @param algC      the third object algebra
+     * @param algD      the fourth object algebra
+     * @param <A>       the first object algebra result type
+     * @param <B>       the second object algebra result type
+     * @param <C>       the third object algebra result type
+     * @param <D>       the fourth object algebra result type
+     * @return          the results of applying the object algebras
+     */
+    @SuppressWarnings("unchecked")
+    default <A, B, C, D> Tuple4<A, B, C, D> apply(
+            JsonAlg<A> algA,
+            JsonAlg<B> algB,
+            JsonAlg<C> algC,
+            JsonAlg<D> algD) {
+        final Object[] rs = JsonAlgStack.apply(this, algA, algB, algC, algD);
+        return Tuple4.of((A)rs[0], (B)rs[1], (C)rs[2], (D)rs[3]);
+    }
+
     /**
      * @return          true if this value is a {@link JsNull}, otherwise false
      */
@@ -0,0 +1,294 @@
+package org.typemeta.funcj.json.model;
+
+import java.io.*;
+
+/**
+ * A buffer for writing JSON text to a {@link Writer}.
+ * <p>
+ * Chars are accumulated in a {@code char} array, which is written to the {@code Writer} in chunks,
+ * when it fills or when {@link #drain()} is called.
+ * Strings are escaped by copying runs of chars which do not require escaping in bulk.
+ * Integers are formatted directly into the buffer.
+ * <p>
+ * Buffers created via {@link #pooled(Writer)} take their {@code char} array from a per-thread pool,
+ * and return it when {@link #close()} is called.
+ */
+public final class JsonOutputBuffer implements Closeable, Flushable {
+
+    private static final int DEFAULT_SIZE = 4096;
+
+    // Large enough to hold any formatted long.
+    private static final int MIN_SIZE = 32;
+
+    private static final char[] HEX_DIGITS = "0123456789abcdef".toCharArray();
+
+    private static final ThreadLocal<char[]> POOL = new ThreadLocal<>();
+
+    /**
+     * Create a {@code JsonOutputBuffer} which uses a per-thread pooled {@code char} array.
+     * The array is returned to the pool when the buffer is closed.
+     * @param out       the {@code Writer} to write to
+     * @return          the new {@code JsonOutputBuffer}
+     */
+    public static JsonOutputBuffer pooled(Writer out) {
+        char[] buf = POOL.get();
+        if (buf == null) {
+            buf = new char[DEFAULT_SIZE];
+        } else {
+            // Remove the array from the pool while in use, in case of re-entrant writing.
+            POOL.set(null);
+        }
+        return new JsonOutputBuffer(out, buf, true);
+    }
+
+    private final Writer out;
+    private char[] buf;
+    private int pos = 0;
+    private final boolean pooled;
+
+    private StringBuilder scratch;
+
+    private JsonOutputBuffer(Writer out, char[] buf, boolean pooled) {
+        this.out = out;
+        this.buf = buf;
+        this.pooled = pooled;
+    }
+
+    public JsonOutputBuffer(Writer out, int size) {
+        this(out, new char[Math.max(size, MIN_SIZE)], false);
+    }
+
+    public JsonOutputBuffer(Writer out) {
+        this(out, DEFAULT_SIZE);
+    }
+
+    private void require(int n) throws IOException {
+        if (buf.length - pos < n) {
+            drain();
+        }
+    }
+
+    /**
+     * Write any buffered chars to the underlying {@code Writer}, without flushing it.
+     * @return          this buffer
+     * @throws IOException if the underlying {@code Writer} fails
+     */
+    public JsonOutputBuffer drain() throws IOException {
+        if (pos > 0) {
+            out.write(buf, 0, pos);
+            pos = 0;
+        }
+        return this;
+    }
+
+    /**
+     * Write any buffered chars to the underlying {@code Writer}, and flush it.
+     * @throws IOException if the underlying {@code Writer} fails
+     */
+    @Override
+    public void flush() throws IOException {
+        drain();
+        out.flush();
+    }
+
+    /**
+     * Write any buffered chars to the underlying {@code Writer},
+     * and release the buffer if it is pooled.
+     * The underlying {@code Writer} is neither flushed nor closed.
+     * @throws IOException if the underlying {@code Writer} fails
+     */
+    @Override
+    public void close() throws IOException {
+        if (buf != null) {
+            try {
+                drain();
+            } finally {
+                if (pooled) {
+                    POOL.set(buf);
+                }
+                buf = null;
+            }
+        }
+    }
+
+    public JsonOutputBuffer append(char c) throws IOException {
+        if (pos == buf.length) {
+            drain();
+        }
+        buf[pos++] = c;
+        return this;
+    }
+
+    public JsonOutputBuffer append(String s) throws IOException {
+        return append(s, 0, s.length());
+    }
+
+    public JsonOutputBuffer append(String s, int start, int end) throws IOException {
+        while (start < end) {
+            if (pos == buf.length) {
+                drain();
+            }
+            final int n = Math.min(end - start, buf.length - pos);
+            s.getChars(start, start + n, buf, pos);
+            pos += n;
+            start += n;
+        }
+        return this;
+    }
+
+    public JsonOutputBuffer append(boolean b) throws IOException {
+        return append(b ? "true" : "false");
+    }
+
+    public JsonOutputBuffer append(int i) throws IOException {
+        return append((long)i);
+    }
+
+    public JsonOutputBuffer append(long l) throws IOException {
+        if (l == Long.MIN_VALUE) {
+            return append("-9223372036854775808");
+        }
+
+        require(MIN_SIZE);
+
+        if (l < 0) {
+            buf[pos++] = '-';
+            l = -l;
+        }
+
+        int n = 1;
+        for (long x = 10; n < 19 && l >= x; x *= 10) {
+            ++n;
+        }
+
+        final int end = pos + n;
+        int p = end;
+        do {
+            buf[--p] = (char)('0' + (int)(l % 10));
+            l /= 10;
+        } while (l != 0);
+        pos = end;
+
+        return this;
+    }
+
+    private StringBuilder scratch() {
+        if (scratch == null) {
+            scratch = new StringBuilder(MIN_SIZE);
+        } else {
+            scratch.setLength(0);
+        }
+        return scratch;
+    }
+
+    private JsonOutputBuffer appendScratch(int len) throws IOException {
+        require(len);
+        scratch.getChars(0, len, buf, pos);
+        pos += len;
+        return this;
+    }
+
+    /**
+     * Append a {@code float}, formatted as per {@link Float#toString(float)}.
+     * @param f         the value
+     * @return          this buffer
+     * @throws IOException if the underlying {@code Writer} fails
+     */
+    public JsonOutputBuffer append(float f) throws IOException {
+        final StringBuilder sb = scratch().append(f);
+        return appendScratch(sb.length());
+    }
+
+    /**
+     * Append a {@code double}, formatted as per {@link Double#toString(double)}.
+     * @param d         the value
+     * @return          this buffer
+     * @throws IOException if the underlying {@code Writer} fails
+     */
+    public JsonOutputBuffer append(double d) throws IOException {
+        final StringBuilder sb = scratch().append(d);
+        return appendScratch(sb.length());
+    }
+
+    /**
+     * Append a {@code double}, formatted as per {@link Utils#format(double)},
+     * i.e. without a trailing {@code ".0"}.
+     * @param d         the value
+     * @return          this buffer
+     * @throws IOException if the underlying {@code Writer} fails
+     */
+    public JsonOutputBuffer appendNumber(double d) throws IOException {
+        final StringBuilder sb = scratch().append(d);
+        final int len = sb.length();
+        if (len > 2 && sb.charAt(len - 2) == '.' && sb.charAt(len - 1) == '0') {
+            return appendScratch(len - 2);
+        } else {
+            return appendScratch(len);
+        }
+    }
+
+    /**
+     * Append a string as a quoted and escaped JSON string.
+     * @param s         the string
+     * @return          this buffer
+     * @throws IOException if the underlying {@code Writer} fails
+     */
+    public JsonOutputBuffer appendQuoted(String s) throws IOException {
+        append('"');
+        appendEscaped(s);
+        return append('"');
+    }
+
+    /**
+     * Append a char as a quoted and escaped JSON string.
+     * @param c         the char
+     * @return          this buffer
+     * @throws IOException if the underlying {@code Writer} fails
+     */
+    public JsonOutputBuffer appendQuoted(char c) throws IOException {
+        require(8);
+        buf[pos++] = '"';
+        if (Utils.needsEscape(c)) {
+            appendEscape(c);
+        } else {
+            buf[pos++] = c;
+        }
+        buf[pos++] = '"';
+        return this;
+    }
+
+    /**
+     * Append a string, escaped as per the JSON string rules.
+     * @param s         the string
+     * @return          this buffer
+     * @throws IOException if the underlying {@code Writer} fails
+     */
+    public JsonOutputBuffer appendEscaped(String s) throws IOException {
+        final int len = s.length();
+        int i = 0;
+        while (i < len) {
+            final int j = Utils.safeRunEnd(s, i, len);
+            append(s, i, j);
+            if (j == len) {
+                break;
+            }
+            require(6);
+            appendEscape(s.charAt(j));
+            i = j + 1;
+        }
+        return this;
+    }
+
+    // Assumes there is room for six chars.
+    private void appendEscape(char c) {
+        final char e = Utils.escapeCode(c);
+        buf[pos++] = '\\';
+        buf[pos++] = e;
+        if (e == 'u') {
+            buf[pos++] = HEX_DIGITS[(c >> 12) & 0xF];
+            buf[pos++] = HEX_DIGITS[(c >> 8) & 0xF];
+            buf[pos++] = HEX_DIGITS[(c >> 4) & 0xF];
+            buf[pos++] = HEX_DIGITS[c & 0xF];
+        }
+    }
+}
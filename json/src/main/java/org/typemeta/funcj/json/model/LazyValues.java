@@ -0,0 +1,200 @@
+package org.typemeta.funcj.json.model;
+
+import org.typemeta.funcj.json.parser.JsonIndex;
+
+import java.util.*;
+
+/**
+ * Lazily-materialised JSON values, backed by a {@link JsonIndex}.
+ * <p>
+ * Arrays and objects are represented by the standard {@link JsArray} and {@link JsObject} classes,
+ * backed by collections which materialise each child value on first access, and then cache it.
+ * Object field names are decoded when the object itself is materialised.
+ */
+abstract class LazyValues {
+
+    // Objects with more fields than this use a hash table to look up fields by name.
+    private static final int MAX_LINEAR_FIELDS = 8;
+
+    static JsValue value(JsonIndex index, int entry) {
+        switch (index.kind(entry)) {
+            case JsonIndex.OBJECT:
+                return new JsObject(new FieldMap(index, entry));
+            case JsonIndex.ARRAY:
+                return new JsArray(new ValueList(index, entry));
+            case JsonIndex.STRING:
+                return new JsString(index.string(entry));
+            case JsonIndex.NUMBER:
+                return new JsNumber(index.number(entry));
+            case JsonIndex.TRUE:
+                return JsBool.TRUE;
+            case JsonIndex.FALSE:
+                return JsBool.FALSE;
+            case JsonIndex.NULL:
+                return JsNull.NULL;
+            default:
+                throw new IllegalStateException("Unexpected index entry kind " + index.kind(entry));
+        }
+    }
+
+    /**
+     * The elements of an array.
+     */
+    static final class ValueList extends AbstractList<JsValue> implements RandomAccess {
+        private final JsonIndex index;
+        private final int[] entries;
+        private final JsValue[] values;
+
+        ValueList(JsonIndex index, int entry) {
+            this.index = index;
+            final int size = index.count(entry);
+            this.entries = new int[size];
+            this.values = new JsValue[size];
+            int child = entry + 1;
+            for (int i = 0; i < size; ++i) {
+                entries[i] = child;
+                child = index.next(child);
+            }
+        }
+
+        @Override
+        public JsValue get(int i) {
+            JsValue value = values[i];
+            if (value == null) {
+                value = LazyValues.value(index, entries[i]);
+                values[i] = value;
+            }
+            return value;
+        }
+
+        @Override
+        public int size() {
+            return values.length;
+        }
+    }
+
+    /**
+     * The fields of an object, keyed by name, in document order.
+     */
+    static final class FieldMap extends AbstractMap<String, JsObject.Field> {
+        private final JsonIndex index;
+        private final String[] names;
+        private final int[] entries;
+        private final JsObject.Field[] fields;
+        private final Map<String, Integer> slots;
+
+        FieldMap(JsonIndex index, int entry) {
+            this.index = index;
+            final int size = index.count(entry);
+            this.names = new String[size];
+            this.entries = new int[size];
+            this.fields = new JsObject.Field[size];
+            this.slots = size > MAX_LINEAR_FIELDS ? new HashMap<>(size * 2) : null;
+
+            int child = entry + 1;
+            for (int i = 0; i < size; ++i) {
+                final String name = index.string(child);
+                if (slots != null ? slots.putIfAbsent(name, i) != null : linearSlot(name, i) != -1) {
+                    throw new IllegalStateException("Duplicate keys - " + name);
+                }
+                names[i] = name;
+                entries[i] = child + 1;
+                child = index.next(child + 1);
+            }
+        }
+
+        private int linearSlot(Object name, int size) {
+            for (int i = 0; i < size; ++i) {
+                if (names[i].equals(name)) {
+                    return i;
+                }
+            }
+            return -1;
+        }
+
+        private int slot(Object name) {
+            if (slots != null) {
+                final Integer slot = slots.get(name);
+                return slot == null ? -1 : slot;
+            } else {
+                return linearSlot(name, names.length);
+            }
+        }
+
+        private JsObject.Field field(int i) {
+            JsObject.Field field = fields[i];
+            if (field == null) {
+                field = new JsObject.Field(names[i], LazyValues.value(index, entries[i]));
+                fields[i] = field;
+            }
+            return field;
+        }
+
+        @Override
+        public int size() {
+            return names.length;
+        }
+
+        @Override
+        public boolean containsKey(Object name) {
+            return slot(name) != -1;
+        }
+
+        @Override
+        public JsObject.Field get(Object name) {
+            final int i = slot(name);
+            return i == -1 ? null : field(i);
+        }
+
+        @Override
+        public Set<String> keySet() {
+            return new AbstractSet<String>() {
+                @Override
+                public Iterator<String> iterator() {
+                    return Collections.unmodifiableList(Arrays.asList(names)).iterator();
+                }
+
+                @Override
+                public int size() {
+                    return names.length;
+                }
+
+                @Override
+                public boolean contains(Object name) {
+                    return containsKey(name);
+                }
+            };
+        }
+
+        @Override
+        public Set<Entry<String, JsObject.Field>> entrySet() {
+            return new AbstractSet<Entry<String, JsObject.Field>>() {
+                @Override
+                public Iterator<Entry<String, JsObject.Field>> iterator() {
+                    return new Iterator<Entry<String, JsObject.Field>>() {
+                        int i = 0;
+
+                        @Override
+                        public boolean hasNext() {
+                            return i < names.length;
+                        }
+
+                        @Override
+                        public Entry<String, JsObject.Field> next() {
+                            if (i == names.length) {
+                                throw new NoSuchElementException();
+                            }
+                            final int j = i++;
+                            return new SimpleImmutableEntry<>(names[j], field(j));
+                        }
+                    };
+                }
+
+                @Override
+                public int size() {
+                    return names.length;
+                }
+            };
+        }
+    }
+}
@@ -0,0 +1,137 @@
+package org.typemeta.funcj.json.model;
+
+import java.util.*;
+import java.util.stream.*;
+
+/**
+ * The elements of homogeneous numeric arrays, backed by primitive arrays.
+ * <p>
+ * Arrays of numbers are represented by the standard {@link JsArray} class,
+ * backed by a list which holds the numbers in a {@code double[]} or a {@code long[]},
+ * and which constructs a {@link JsNumber} for an element only when that element is accessed as a {@code JsValue}.
+ * The bulk accessors on {@code JsArray} operate directly on the primitive array.
+ */
+abstract class NumericValues {
+
+    /**
+     * The elements of a numeric array.
+     */
+    static abstract class NumericList extends AbstractList<JsValue> implements RandomAccess {
+
+        abstract double doubleAt(int i);
+
+        abstract double[] toDoubleArray();
+
+        abstract long[] toLongArray();
+
+        abstract DoubleStream doubleStream();
+
+        @Override
+        public JsValue get(int i) {
+            return new JsNumber(doubleAt(i));
+        }
+
+        @Override
+        public boolean equals(Object rhs) {
+            if (rhs instanceof NumericList) {
+                final NumericList rhsT = (NumericList)rhs;
+                final int size = size();
+                if (size != rhsT.size()) {
+                    return false;
+                }
+                for (int i = 0; i < size; ++i) {
+                    if (doubleAt(i) != rhsT.doubleAt(i)) {
+                        return false;
+                    }
+                }
+                return true;
+            } else {
+                return super.equals(rhs);
+            }
+        }
+
+        @Override
+        public int hashCode() {
+            // Consistent with the hash code of a list of the equivalent JsNumber values.
+            int hash = 1;
+            for (int i = 0, size = size(); i < size; ++i) {
+                hash = 31 * hash + 31 + Double.hashCode(doubleAt(i));
+            }
+            return hash;
+        }
+    }
+
+    static final class DoubleList extends NumericList {
+        private final double[] values;
+
+        DoubleList(double[] values) {
+            this.values = values;
+        }
+
+        @Override
+        public int size() {
+            return values.length;
+        }
+
+        @Override
+        double doubleAt(int i) {
+            return values[i];
+        }
+
+        @Override
+        double[] toDoubleArray() {
+            return values.clone();
+        }
+
+        @Override
+        long[] toLongArray() {
+            final long[] longs = new long[values.length];
+            for (int i = 0; i < values.length; ++i) {
+                longs[i] = (long)values[i];
+            }
+            return longs;
+        }
+
+        @Override
+        DoubleStream doubleStream() {
+            return Arrays.stream(values);
+        }
+    }
+
+    static final class LongList extends NumericList {
+        private final long[] values;
+
+        LongList(long[] values) {
+            this.values = values;
+        }
+
+        @Override
+        public int size() {
+            return values.length;
+        }
+
+        @Override
+        double doubleAt(int i) {
+            return values[i];
+        }
+
+        @Override
+        double[] toDoubleArray() {
+            final double[] doubles = new double[values.length];
+            for (int i = 0; i < values.length; ++i) {
+                doubles[i] = values[i];
+            }
+            return doubles;
+        }
+
+        @Override
+        long[] toLongArray() {
+            return values.clone();
+        }
+
+        @Override
+        DoubleStream doubleStream() {
+            return Arrays.stream(values).asDoubleStream();
+        }
+    }
+}
@@ -25,42 +25,20 @@ public static StringBuilder format(String s, StringBuilder sb) {
 
     public static StringBuilder escape(String s, StringBuilder sb) {
         final int len = s.length();
-        for (int i = 0; i < len; ++i) {
-            final char c = s.charAt(i);
-            switch(c) {
-                case '\"':
-                    sb.append("\\\"");
-                    break;
-                case '\\':
-                    sb.append("\\\\");
-                    break;
-//                case '/':
-//                    sb.append("\\/");
-//                    break;
-                case '\b':
-                    sb.append("\\b");
-                    break;
-                case '\f':
-                    sb.append("\\f");
-                    break;
-                case '\n':
-                    sb.append("\\n");
-                    break;
-                case '\r':
-                    sb.append("\\r");
-                    break;
-                case '\t':
-                    sb.append("\\t");
-                    break;
-                default:
-                    if (c <= '\u001F' ||
-                            c >= '\u007F' && c <= '\u009F' ||
-                            c >= '\u00ff') {
-                        sb.append("\\u").append(Integer.toHexString(c | 0x10000).substring(1));
-                    } else {
-                        sb.append(c);
-                    }
+        int i = 0;
+        while (i < len) {
+            final int j = safeRunEnd(s, i, len);
+            sb.append(s, i, j);
+            if (j == len) {
+                break;
             }
+            final char c = s.charAt(j);
+            final char e = escapeCode(c);
+            sb.append('\\').append(e);
+            if (e == 'u') {
+                sb.append(Integer.toHexString(c | 0x10000).substring(1));
+            }
+            i = j + 1;
         }
 
         return sb;
@@ -74,47 +52,71 @@ public static Writer format(String s, Writer w) throws IOException {
 
     public static Writer escape(String s, Writer w) throws IOException {
         final int len = s.length();
-        for (int i = 0; i < len; ++i) {
-            final char c = s.charAt(i);
-            switch(c) {
-                case '\"':
-                    w.append("\\\"");
-                    break;
-                case '\\':
-                    w.append("\\\\");
-                    break;
-//                case '/':
-//                    sb.append("\\/");
-//                    break;
-                case '\b':
-                    w.append("\\b");
-                    break;
-                case '\f':
-                    w.append("\\f");
-                    break;
-                case '\n':
-                    w.append("\\n");
-                    break;
-                case '\r':
-                    w.append("\\r");
-                    break;
-                case '\t':
-                    w.append("\\t");
-                    break;
-                default:
-                    if (c <= '\u001F' ||
-                            c >= '\u007F' && c <= '\u009F' ||
-                            c >= '\u00ff') {
-                        w.append("\\u").append(Integer.toHexString(c | 0x10000).substring(1));
-                    } else {
-                        w.append(c);
-                    }
+        int i = 0;
+        while (i < len) {
+            final int j = safeRunEnd(s, i, len);
+            w.write(s, i, j - i);
+            if (j == len) {
+                break;
+            }
+            final char c = s.charAt(j);
+            final char e = escapeCode(c);
+            w.append('\\').append(e);
+            if (e == 'u') {
+                w.append(Integer.toHexString(c | 0x10000).substring(1));
             }
+            i = j + 1;
         }
 
         return w;
     }
 
+    // For each ASCII char, either 0 if the char is written as-is,
+    // or else the char which follows the backslash in its escape sequence.
+    private static final char[] ESCAPES = new char[128];
+
+    static {
+        for (int c = 0; c <= 0x1F; ++c) {
+            ESCAPES[c] = 'u';
+        }
+        ESCAPES['"'] = '"';
+        ESCAPES['\\'] = '\\';
+        ESCAPES['\b'] = 'b';
+        ESCAPES['\f'] = 'f';
+        ESCAPES['\n'] = 'n';
+        ESCAPES['\r'] = 'r';
+        ESCAPES['\t'] = 't';
+        ESCAPES[0x7F] = 'u';
+    }
+
+    static boolean needsEscape(char c) {
+        if (c < 128) {
+            return ESCAPES[c] != 0;
+        } else {
+            return c <= '\u009F' || c >= '\u00ff';
+        }
+    }
+
+    /**
+     * Return the char which follows the backslash in the escape sequence for a char,
+     * where {@code 'u'} denotes a four-digit unicode escape.
+     */
+    static char escapeCode(char c) {
+        return c < 128 ? ESCAPES[c] : 'u';
+    }
+
+    /**
+     * Return the index of the first char at or after {@code start} which requires escaping,
+     * or {@code end} if there is none.
+     */
+    static int safeRunEnd(String s, int start, int end) {
+        int i = start;
+        while (i < end && !needsEscape(s.charAt(i))) {
+            ++i;
+        }
+        return i;
+    }
+
     static RuntimeException nullTypeError(Class<?> clazz) {
         return new RuntimeException(typeErrorMessage(JsNull.class, clazz));
     }
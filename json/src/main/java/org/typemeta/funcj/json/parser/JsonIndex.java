@@ -0,0 +1,476 @@
+package org.typemeta.funcj.json.parser;
+
+import java.io.*;
+import java.util.Arrays;
+
+/**
+ * A structural index over a JSON document held in a {@code char} array.
+ * <p>
+ * Building the index validates the whole document,
+ * but records only the type and source offsets of each value,
+ * without decoding any strings or numbers, or constructing any {@code JsValue}s.
+ * Values are then decoded on demand, via {@link #string(int)} and {@link #number(int)}.
+ * <p>
+ * Each value, and each object field name, occupies one entry in the index.
+ * Entries are stored in document order, so the children of a container immediately follow it,
+ * with the name entry of each object field immediately preceding the entry for its value.
+ * For each container entry, {@link #next(int)} gives the entry following the last of its descendants,
+ * which allows the children to be traversed without visiting their descendants.
+ * The root value is entry 0.
+ */
+public final class JsonIndex {
+
+    public static final int OBJECT = 0;
+    public static final int ARRAY = 1;
+    public static final int STRING = 2;
+    public static final int NUMBER = 3;
+    public static final int TRUE = 4;
+    public static final int FALSE = 5;
+    public static final int NULL = 6;
+
+    // Set on STRING entries which contain escape sequences.
+    private static final int ESCAPED = 0x10;
+    private static final int KIND_MASK = 0x0F;
+
+    // Each entry consists of the kind, the start offset,
+    // the end offset (or the next entry for containers), and the child count (for containers).
+    private static final int STRIDE = 4;
+
+    private static final int INITIAL_DEPTH = 16;
+
+    // A number without an exponent cannot overflow a double unless it has more digits than this.
+    private static final int MAX_FINITE_LENGTH = 300;
+
+    /**
+     * Build an index over the JSON document held in a {@code String}.
+     * The whole input must consist of a single JSON value.
+     * @param json      the JSON document
+     * @return          the index
+     * @throws JsonException if the document is not valid JSON
+     */
+    public static JsonIndex of(String json) {
+        final char[] src = json.toCharArray();
+        return of(src, src.length, true);
+    }
+
+    /**
+     * Build an index over the JSON document read from a {@code Reader}.
+     * The entire input is read and retained.
+     * @param rdr       the reader
+     * @param consumeAll if true, then the whole input must consist of a single JSON value,
+     *                  otherwise any input following the first value is ignored
+     * @return          the index
+     * @throws JsonException if the document is not valid JSON
+     */
+    public static JsonIndex of(Reader rdr, boolean consumeAll) {
+        char[] buf = new char[8192];
+        int len = 0;
+        try {
+            while (true) {
+                if (len == buf.length) {
+                    buf = Arrays.copyOf(buf, buf.length * 2);
+                }
+                final int n = rdr.read(buf, len, buf.length - len);
+                if (n == -1) {
+                    break;
+                }
+                len += n;
+            }
+        } catch (IOException ex) {
+            throw new JsonException(ex);
+        }
+        return of(buf, len, consumeAll);
+    }
+
+    /**
+     * Build an index over the JSON document held in the first {@code length} chars of a {@code char} array.
+     * The array is retained, and must not be modified while the index is in use.
+     * @param src       the source chars
+     * @param length    the number of chars in the document
+     * @param consumeAll if true, then the whole input must consist of a single JSON value,
+     *                  otherwise any input following the first value is ignored
+     * @return          the index
+     * @throws JsonException if the document is not valid JSON
+     */
+    public static JsonIndex of(char[] src, int length, boolean consumeAll) {
+        final JsonIndex index = new JsonIndex(src, length);
+        index.scan(consumeAll);
+        return index;
+    }
+
+    private final char[] src;
+    private final int end;
+    private int pos = 0;
+
+    private int[] entries;
+    private int size = 0;
+
+    private JsonIndex(char[] src, int end) {
+        this.src = src;
+        this.end = end;
+        this.entries = new int[Math.max(64, end / 4) & ~(STRIDE - 1)];
+    }
+
+    /**
+     * @return          the number of entries in the index
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Return the kind of an entry, which is one of the constants defined in this class.
+     * @param entry     the entry
+     * @return          the entry kind
+     */
+    public int kind(int entry) {
+        return entries[entry * STRIDE] & KIND_MASK;
+    }
+
+    /**
+     * Return the entry which follows an entry and all of its descendants,
+     * which is the next sibling of the entry, if it has one.
+     * @param entry     the entry
+     * @return          the following entry
+     */
+    public int next(int entry) {
+        final int base = entry * STRIDE;
+        final int kind = entries[base] & KIND_MASK;
+        return kind == OBJECT || kind == ARRAY ? entries[base + 2] : entry + 1;
+    }
+
+    /**
+     * Return the number of elements in an array entry, or the number of fields in an object entry.
+     * @param entry     the container entry
+     * @return          the number of children
+     */
+    public int count(int entry) {
+        return entries[entry * STRIDE + 3];
+    }
+
+    /**
+     * Decode a string entry, which is either a string value or an object field name.
+     * @param entry     the string entry
+     * @return          the decoded string
+     */
+    public String string(int entry) {
+        final int base = entry * STRIDE;
+        final int start = entries[base + 1];
+        final int stop = entries[base + 2];
+        if ((entries[base] & ESCAPED) == 0) {
+            return new String(src, start, stop - start);
+        } else {
+            return unescape(start, stop);
+        }
+    }
+
+    /**
+     * Decode a number entry.
+     * @param entry     the number entry
+     * @return          the decoded number
+     */
+    public double number(int entry) {
+        final int base = entry * STRIDE;
+        final int start = entries[base + 1];
+        return JsonNumbers.parseDouble(src, start, entries[base + 2] - start);
+    }
+
+    private JsonException raiseError(String msg) {
+        return new JsonException(msg + ", at position " + pos);
+    }
+
+    private int add(int kind, int start) {
+        if (size * STRIDE == entries.length) {
+            entries = Arrays.copyOf(entries, entries.length * 2);
+        }
+        final int base = size * STRIDE;
+        entries[base] = kind;
+        entries[base + 1] = start;
+        entries[base + 2] = 0;
+        entries[base + 3] = 0;
+        return size++;
+    }
+
+    private int nextNonWs(String eofMsg) {
+        while (pos < end) {
+            final char c = src[pos++];
+            if (!Character.isWhitespace(c)) {
+                return c;
+            }
+        }
+        if (eofMsg == null) {
+            return -1;
+        } else {
+            throw raiseError(eofMsg);
+        }
+    }
+
+    private void scan(boolean consumeAll) {
+        int[] stack = new int[INITIAL_DEPTH];
+        int depth = 0;
+
+        value:
+        while (true) {
+            int c = nextNonWs("Unexpected EOF");
+            final int start = pos - 1;
+            switch (c) {
+                case '{': {
+                    final int e = add(OBJECT, start);
+                    c = nextNonWs("Unexpected EOF");
+                    if (c == '}') {
+                        entries[e * STRIDE + 2] = size;
+                        break;
+                    } else {
+                        if (depth == stack.length) {
+                            stack = Arrays.copyOf(stack, depth * 2);
+                        }
+                        stack[depth++] = e;
+                        scanFieldName(c);
+                        continue value;
+                    }
+                }
+                case '[': {
+                    final int e = add(ARRAY, start);
+                    c = nextNonWs("Unexpected EOF");
+                    if (c == ']') {
+                        entries[e * STRIDE + 2] = size;
+                        break;
+                    } else {
+                        if (depth == stack.length) {
+                            stack = Arrays.copyOf(stack, depth * 2);
+                        }
+                        stack[depth++] = e;
+                        --pos;
+                        continue value;
+                    }
+                }
+                case '"':
+                    scanString();
+                    break;
+                case 't':
+                    scanSymbol("true", TRUE, start);
+                    break;
+                case 'f':
+                    scanSymbol("false", FALSE, start);
+                    break;
+                case 'n':
+                    scanSymbol("null", NULL, start);
+                    break;
+                case '-': case '+':
+                case '0': case '1': case '2': case '3': case '4':
+                case '5': case '6': case '7': case '8': case '9':
+                    scanNumber(start);
+                    break;
+                default:
+                    throw raiseError("Unexpected input '" + (char)c + "'");
+            }
+
+            // A value has been completed, so close any containers which it completes.
+            while (depth > 0) {
+                final int parent = stack[depth - 1];
+                final int base = parent * STRIDE;
+                ++entries[base + 3];
+                final boolean isObj = (entries[base] & KIND_MASK) == OBJECT;
+                c = nextNonWs("Unexpected EOF");
+                if (c == ',') {
+                    if (isObj) {
+                        scanFieldName(nextNonWs("Unexpected EOF"));
+                    }
+                    continue value;
+                } else if (c == (isObj ? '}' : ']')) {
+                    entries[base + 2] = size;
+                    --depth;
+                } else {
+                    throw raiseError(
+                            "Expected " + (isObj ? "OBJECT_END" : "ARRAY_END") +
+                                    " or COMMA but got '" + (char)c + "'"
+                    );
+                }
+            }
+            break;
+        }
+
+        if (consumeAll && nextNonWs(null) != -1) {
+            throw raiseError("Input not at EOF after parsing JSON value");
+        }
+    }
+
+    private void scanFieldName(int c) {
+        if (c != '"') {
+            throw raiseError("Expected FIELD_NAME but got '" + (char)c + "'");
+        }
+        scanString();
+        if (nextNonWs("Unexpected EOF") != ':') {
+            throw raiseError("Expected COLON");
+        }
+    }
+
+    private void scanSymbol(String sym, int kind, int start) {
+        for (int i = 1; i < sym.length(); ++i) {
+            if (pos == end) {
+                throw raiseError("Unexpected end-of-input");
+            } else if (src[pos++] != sym.charAt(i)) {
+                throw raiseError("Unexpected input '" + src[pos - 1] + "' while parsing '" + sym + "'");
+            }
+        }
+        add(kind, start);
+    }
+
+    private void scanString() {
+        final int start = pos;
+        int kind = STRING;
+        while (true) {
+            if (pos == end) {
+                throw raiseError("Unexpected end-of-input while parsing a string");
+            }
+            final char c = src[pos++];
+            if (c == '"') {
+                break;
+            } else if (c == '\\') {
+                kind = STRING | ESCAPED;
+                if (pos == end) {
+                    throw raiseError("Unexpected end-of-input while parsing a string");
+                }
+                final char esc = src[pos++];
+                switch (esc) {
+                    case 'u':
+                        for (int i = 0; i < 4; ++i) {
+                            if (pos == end) {
+                                throw raiseError(
+                                        "Unexpected end-of-input while parsing an escape unicode char within a string"
+                                );
+                            } else if (hexValue(src[pos++]) == -1) {
+                                throw raiseError(
+                                        "Unexpected non-digit '" + src[pos - 1] +
+                                                "' while parsing a string escape unicode char"
+                                );
+                            }
+                        }
+                        break;
+                    case '\\': case '/': case 'b': case 'f':
+                    case 'n': case 'r': case 't': case '"':
+                        break;
+                    default:
+                        throw raiseError("Unrecognised escape character in string - '" + esc + "'");
+                }
+            } else if (c == '\b' || c == '\f' || c == '\n' || c == '\r' || c == '\t') {
+                throw raiseError("Control characters not allowed in strings");
+            }
+        }
+        final int e = add(kind, start);
+        entries[e * STRIDE + 2] = pos - 1;
+    }
+
+    private boolean isDigit() {
+        return pos < end && src[pos] >= '0' && src[pos] <= '9';
+    }
+
+    private void scanNumber(int start) {
+        int c = src[start];
+        if (c == '-' || c == '+') {
+            if (pos == end) {
+                throw raiseError("Unexpected end-of-input while parsing a number");
+            }
+            c = src[pos++];
+            if (c < '0' || c > '9') {
+                throw raiseError("Unexpected input '" + (char)c + "' while parsing a number");
+            }
+        }
+
+        if (c != '0') {
+            while (isDigit()) {
+                ++pos;
+            }
+        }
+
+        if (pos < end && src[pos] == '.') {
+            ++pos;
+            if (!isDigit()) {
+                throw pos == end ?
+                        raiseError("Unexpected end-of-input while parsing a number") :
+                        raiseError("Unexpected input '" + src[pos] + "' while parsing a number");
+            }
+            while (isDigit()) {
+                ++pos;
+            }
+        }
+
+        boolean hasExp = false;
+        if (pos < end && (src[pos] == 'e' || src[pos] == 'E')) {
+            hasExp = true;
+            ++pos;
+            if (pos < end && (src[pos] == '+' || src[pos] == '-')) {
+                ++pos;
+            }
+            if (!isDigit()) {
+                throw pos == end ?
+                        raiseError("Unexpected end-of-input while parsing a number") :
+                        raiseError("Unexpected input '" + src[pos] + "' while parsing a number");
+            }
+            while (isDigit()) {
+                ++pos;
+            }
+        }
+
+        if ((hasExp || pos - start > MAX_FINITE_LENGTH) &&
+                Double.isInfinite(JsonNumbers.parseDouble(src, start, pos - start))) {
+            throw raiseError("Number out of range");
+        }
+
+        final int e = add(NUMBER, start);
+        entries[e * STRIDE + 2] = pos;
+    }
+
+    private static int hexValue(char c) {
+        if (c >= '0' && c <= '9') {
+            return c - '0';
+        } else if (c >= 'a' && c <= 'f') {
+            return c - 'a' + 10;
+        } else if (c >= 'A' && c <= 'F') {
+            return c - 'A' + 10;
+        } else {
+            return -1;
+        }
+    }
+
+    private String unescape(int start, int stop) {
+        final StringBuilder sb = new StringBuilder(stop - start);
+        int i = start;
+        while (i < stop) {
+            final char c = src[i++];
+            if (c != '\\') {
+                sb.append(c);
+            } else {
+                final char esc = src[i++];
+                switch (esc) {
+                    case 'u':
+                        sb.append((char)(
+                                (hexValue(src[i]) << 12) | (hexValue(src[i + 1]) << 8) |
+                                        (hexValue(src[i + 2]) << 4) | hexValue(src[i + 3])
+                        ));
+                        i += 4;
+                        break;
+                    case 'b':
+                        sb.append('\b');
+                        break;
+                    case 'f':
+                        sb.append('\f');
+                        break;
+                    case 'n':
+                        sb.append('\n');
+                        break;
+                    case 'r':
+                        sb.append('\r');
+                        break;
+                    case 't':
+                        sb.append('\t');
+                        break;
+                    default:
+                        sb.append(esc);
+                        break;
+                }
+            }
+        }
+        return sb.toString();
+    }
+}
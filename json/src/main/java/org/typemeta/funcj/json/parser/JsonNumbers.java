@@ -0,0 +1,140 @@
+package org.typemeta.funcj.json.parser;
+
+/**
+ * Utility functions for converting JSON number tokens, held in a region of a char buffer,
+ * directly into primitive values, without first constructing a {@code String}.
+ * <p>
+ * The region is assumed to contain a syntactically valid JSON number,
+ * as produced by {@link JsonTokeniser}.
+ */
+public abstract class JsonNumbers {
+
+    private static final double[] POWERS_OF_TEN = {
+            1e0, 1e1, 1e2, 1e3, 1e4, 1e5, 1e6, 1e7, 1e8, 1e9, 1e10,
+            1e11, 1e12, 1e13, 1e14, 1e15, 1e16, 1e17, 1e18, 1e19, 1e20,
+            1e21, 1e22
+    };
+
+    // The maximum number of significant digits which a double can represent exactly.
+    private static final int MAX_EXACT_DIGITS = 15;
+
+    // The maximum number of digits which can be accumulated in a long without overflow.
+    private static final int MAX_LONG_DIGITS = 18;
+
+    /**
+     * Parse a region of a char buffer as a {@code long}.
+     * @param buf       the char buffer
+     * @param offset    the offset of the number within the buffer
+     * @param length    the length of the number
+     * @return          the {@code long} value
+     * @throws NumberFormatException if the number is not an integer, or is out of range
+     */
+    public static long parseLong(char[] buf, int offset, int length) {
+        int i = offset;
+        final int end = offset + length;
+        boolean neg = false;
+        if (i < end && (buf[i] == '-' || buf[i] == '+')) {
+            neg = buf[i] == '-';
+            ++i;
+        }
+
+        if (i == end || end - i > MAX_LONG_DIGITS) {
+            return Long.parseLong(new String(buf, offset, length));
+        }
+
+        long value = 0;
+        for (; i < end; ++i) {
+            final char c = buf[i];
+            if (c < '0' || c > '9') {
+                throw new NumberFormatException("For input string: \"" + new String(buf, offset, length) + "\"");
+            }
+            value = value * 10 + (c - '0');
+        }
+
+        return neg ? -value : value;
+    }
+
+    /**
+     * Parse a region of a char buffer as a {@code double}.
+     * <p>
+     * Numbers with at most 15 significant digits, and a decimal exponent of at most 22
+     * in magnitude, are converted exactly using a single floating-point multiplication or division.
+     * Other numbers fall back to {@link Double#parseDouble(String)}.
+     * @param buf       the char buffer
+     * @param offset    the offset of the number within the buffer
+     * @param length    the length of the number
+     * @return          the {@code double} value
+     */
+    public static double parseDouble(char[] buf, int offset, int length) {
+        int i = offset;
+        final int end = offset + length;
+        boolean neg = false;
+        if (i < end && (buf[i] == '-' || buf[i] == '+')) {
+            neg = buf[i] == '-';
+            ++i;
+        }
+
+        long mantissa = 0;
+        int sigDigits = 0;
+        int exp10 = 0;
+        boolean afterPoint = false;
+
+        for (; i < end; ++i) {
+            final char c = buf[i];
+            if (c >= '0' && c <= '9') {
+                if (mantissa != 0 || c != '0') {
+                    if (++sigDigits > MAX_EXACT_DIGITS) {
+                        return parseDoubleSlow(buf, offset, length);
+                    }
+                }
+                mantissa = mantissa * 10 + (c - '0');
+                if (afterPoint) {
+                    --exp10;
+                }
+            } else if (c == '.') {
+                afterPoint = true;
+            } else {
+                break;
+            }
+        }
+
+        if (i < end) {
+            // Exponent.
+            ++i;
+            boolean expNeg = false;
+            if (i < end && (buf[i] == '-' || buf[i] == '+')) {
+                expNeg = buf[i] == '-';
+                ++i;
+            }
+
+            int exp = 0;
+            for (; i < end; ++i) {
+                exp = exp * 10 + (buf[i] - '0');
+                if (exp > POWERS_OF_TEN.length * 2) {
+                    return parseDoubleSlow(buf, offset, length);
+                }
+            }
+
+            exp10 += expNeg ? -exp : exp;
+        }
+
+        final double value;
+        if (mantissa == 0) {
+            value = 0.0;
+        } else if (exp10 == 0) {
+            value = mantissa;
+        } else if (exp10 > 0 && exp10 < POWERS_OF_TEN.length) {
+            value = mantissa * POWERS_OF_TEN[exp10];
+        } else if (exp10 < 0 && -exp10 < POWERS_OF_TEN.length) {
+            value = mantissa / POWERS_OF_TEN[-exp10];
+        } else {
+            return parseDoubleSlow(buf, offset, length);
+        }
+
+        return neg ? -value : value;
+    }
+
+    private static double parseDoubleSlow(char[] buf, int offset, int length) {
+        return Double.parseDouble(new String(buf, offset, length));
+    }
+}
@@ -4,6 +4,7 @@
 import org.typemeta.funcj.json.parser.JsonEvent.Type;
 
 import java.io.*;
+import java.nio.ByteBuffer;
 import java.util.*;
 
 /**
@@ -48,31 +49,139 @@ public static JsValue parse(Reader rdr) throws JsonException {
      * @throws JsonException if an error occurs while parsing the input
      */
     public static JsValue parse(Reader rdr, Consume consume) throws JsonException {
-        final JsonParser parser = new JsonParser(rdr);
+        return parse(JsonTokenSource.of(rdr), consume);
+    }
+
+    /**
+     * Parse JSON held as UTF-8 bytes into a JSON value.
+     * The bytes are tokenised by first building an index of the structural characters.
+     * @param utf8          the UTF-8 bytes to be parsed
+     * @param consume       consume flag
+     * @return              the parsed JSON value
+     * @throws JsonException if an error occurs while parsing the input
+     */
+    public static JsValue parse(byte[] utf8, Consume consume) throws JsonException {
+        return parse(JsonStructuralIndex.of(utf8), consume);
+    }
+
+    public static JsValue parse(byte[] utf8) throws JsonException {
+        return parse(utf8, Consume.ALL);
+    }
+
+    /**
+     * Parse JSON held as UTF-8 bytes in a {@code ByteBuffer} into a JSON value.
+     * The position of the buffer is not modified.
+     * @param utf8          the buffer holding the UTF-8 bytes to be parsed
+     * @param consume       consume flag
+     * @return              the parsed JSON value
+     * @throws JsonException if an error occurs while parsing the input
+     * @see #parse(byte[], Consume)
+     */
+    public static JsValue parse(ByteBuffer utf8, Consume consume) throws JsonException {
+        return parse(JsonStructuralIndex.of(utf8), consume);
+    }
+
+    public static JsValue parse(ByteBuffer utf8) throws JsonException {
+        return parse(utf8, Consume.ALL);
+    }
+
+    /**
+     * Parse the JSON tokens from the given token source into a JSON value.
+     * @param tokens        the token source
+     * @param consume       consume flag
+     * @return              the parsed JSON value
+     * @throws JsonException if an error occurs while parsing the input
+     */
+    public static JsValue parse(JsonTokenSource tokens, Consume consume) throws JsonException {
+        final JsonParser parser = new JsonParser(tokens);
         final JsValue jsv = parser.readValue();
         if (consume.equals(Consume.ALL) && !parser.isEof()) {
             throw parser.tokeniser.raiseError("Input not at EOF after parsing JSON value");
-        } else if (jsv.isArray() || jsv.isObject()) {
+        } else {
+            return checkRoot(jsv);
+        }
+    }
+
+    /**
+     * Parse the given JSON string into a lazily-materialised JSON value.
+     * <p>
+     * The input is validated, and a {@link JsonIndex} is built over it,
+     * but the child values of arrays and objects are only constructed when first accessed.
+     * The result is otherwise indistinguishable from the result of {@link #parse(String)}.
+     * @param json          the JSON string to be parsed
+     * @return              the parsed JSON value
+     * @throws JsonException if an error occurs while parsing the input
+     */
+    public static JsValue parseLazy(String json) throws JsonException {
+        return checkRoot(JSAPI.lazy(JsonIndex.of(json)));
+    }
+
+    /**
+     * Parse the JSON content in the given reader into a lazily-materialised JSON value.
+     * The entire content of the reader is read and retained.
+     * @param rdr           the JSON reader to be read from
+     * @param consume       consume flag
+     * @return              the parsed JSON value
+     * @throws JsonException if an error occurs while parsing the input
+     * @see #parseLazy(String)
+     */
+    public static JsValue parseLazy(Reader rdr, Consume consume) throws JsonException {
+        return checkRoot(JSAPI.lazy(JsonIndex.of(rdr, consume.equals(Consume.ALL))));
+    }
+
+    /**
+     * Parse the JSON content in the given reader into a lazily-materialised JSON value.
+     * @param rdr           the JSON reader to be read from
+     * @return              the parsed JSON value
+     * @throws JsonException if an error occurs while parsing the input
+     * @see #parseLazy(String)
+     */
+    public static JsValue parseLazy(Reader rdr) throws JsonException {
+        return parseLazy(rdr, Consume.FIRST);
+    }
+
+    private static JsValue checkRoot(JsValue jsv) {
+        if (jsv.isArray() || jsv.isObject()) {
             return jsv;
         } else {
             throw new JsonException("A JSON payload should be an object or array, not a " + jsv.type());
         }
     }
 
-    private final JsonTokeniser tokeniser;
-    private JsonEvent nextEvent = null;
+    private final JsonTokenSource tokeniser;
+    private Type nextEvent = null;
 
     public JsonParser(Reader rdr) {
-        this.tokeniser = new JsonTokeniser(rdr);
+        this(new JsonTokeniser(rdr));
+    }
+
+    /**
+     * Construct a parser which reads from an existing token source.
+     * @param tokeniser     the token source
+     */
+    public JsonParser(JsonTokenSource tokeniser) {
+        this.tokeniser = tokeniser;
+    }
+
+    /**
+     * Read a JSON value, the first token of which has already been read from the tokeniser.
+     * On return, all the tokens comprising the value have been consumed.
+     * @param current       the type of the current token
+     * @return              the JSON value
+     * @throws JsonException if an error occurs while parsing the input
+     */
+    public JsValue readValue(Type current) {
+        nextEvent = current;
+        return readValue();
     }
 
     public boolean isEof() {
-        return nextEvent().type() == Type.EOF;
+        return nextEvent() == Type.EOF;
     }
 
-    private JsonEvent nextEvent() {
+    private Type nextEvent() {
         if (nextEvent == null) {
-            nextEvent = tokeniser.getNextEvent();
+            nextEvent = tokeniser.nextToken();
         }
 
         return nextEvent;
@@ -83,31 +192,31 @@ private void consumeEvent() {
     }
 
     private void consumeEvent(Type eventType) {
-        if (nextEvent.type() != eventType) {
-            throw tokeniser.raiseError("Expected " + eventType + " but got a " + nextEvent().type());
+        if (nextEvent != eventType) {
+            throw tokeniser.raiseError("Expected " + eventType + " but got a " + nextEvent());
         } else {
             nextEvent = null;
         }
     }
 
     private void checkEventType(Type eventType) {
-        if (nextEvent.type() != eventType) {
-            throw tokeniser.raiseError("Expected " + eventType + " but got a " + nextEvent().type());
+        if (nextEvent != eventType) {
+            throw tokeniser.raiseError("Expected " + eventType + " but got a " + nextEvent());
         }
     }
 
     private void checkEventType(Type eventType1, Type eventType2) {
-        if (nextEvent.type() != eventType1 && nextEvent.type() != eventType2) {
+        if (nextEvent != eventType1 && nextEvent != eventType2) {
             throw tokeniser.raiseError(
-                    "Expected " + eventType1 + " or " + eventType2 + " but got a " + nextEvent().type()
+                    "Expected " + eventType1 + " or " + eventType2 + " but got a " + nextEvent()
             );
         }
     }
 
     private JsValue readValue() {
-        final JsonEvent event = nextEvent();
+        final Type event = nextEvent();
 
-        switch (event.type()) {
+        switch (event) {
             case OBJECT_START:
                 return readObject();
             case ARRAY_START:
@@ -122,28 +231,30 @@ private JsValue readValue() {
                 consumeEvent();
                 return JsNull.NULL;
             case NUMBER: {
-                final String value = ((JsonEvent.JNumber) event).value;
+                final double value = tokeniser.tokenDouble();
+                if (Double.isInfinite(value)) {
+                    throw tokeniser.raiseError("Number out of range");
+                }
                 final JsNumber jsNum = JSAPI.num(value);
                 consumeEvent();
                 return jsNum;
             }
             case STRING: {
-                final String value = ((JsonEvent.JString) event).value;
-                JsString jsStr = JSAPI.str(value);
+                final JsString jsStr = JSAPI.str(tokeniser.tokenString());
                 consumeEvent();
                 return jsStr;
             }
             case EOF:
                 throw tokeniser.raiseError("Unexpected EOF");
             default:
-                throw tokeniser.raiseError("Unexpected event type " + event.type());
+                throw tokeniser.raiseError("Unexpected event type " + event);
         }
     }
 
     private JsObject readObject() {
         consumeEvent(Type.OBJECT_START);
 
-        if (nextEvent().type() == Type.OBJECT_END) {
+        if (nextEvent() == Type.OBJECT_END) {
             consumeEvent();
             return JSAPI.obj();
         }
@@ -154,7 +265,7 @@ private JsObject readObject() {
             nextEvent();
 
             checkEventType(Type.FIELD_NAME);
-            final String name = ((JsonEvent.FieldName)nextEvent()).value;
+            final String name = tokeniser.tokenString();
             consumeEvent();
 
             nextEvent();
@@ -165,7 +276,7 @@ private JsObject readObject() {
 
             fields.add(JSAPI.field(name, value));
 
-            final JsonEvent.Type type = nextEvent().type();
+            final Type type = nextEvent();
 
             if (type == Type.OBJECT_END) {
                 break;
@@ -186,17 +297,45 @@ private JsObject readObject() {
     private JsArray readArray() {
         consumeEvent(Type.ARRAY_START);
 
-        if (nextEvent().type() == Type.ARRAY_END) {
+        if (nextEvent() == Type.ARRAY_END) {
             consumeEvent();
             return JSAPI.arr();
         }
 
-        final List<JsValue> values = new ArrayList<>();
+        final List<JsValue> values;
+
+        if (nextEvent == Type.NUMBER) {
+            // Read a homogeneous array of numbers into a primitive array,
+            // until the end of the array, or the first element which isn't a number.
+            final NumberArray nums = new NumberArray();
+            while (true) {
+                nums.add(tokeniser);
+                consumeEvent();
+
+                final Type type = nextEvent();
+                if (type == Type.ARRAY_END) {
+                    consumeEvent();
+                    return nums.toJsArray();
+                } else if (type == Type.COMMA) {
+                    consumeEvent();
+                    if (nextEvent() != Type.NUMBER) {
+                        values = nums.toList();
+                        break;
+                    }
+                } else {
+                    throw tokeniser.raiseError(
+                            "Expected " + Type.ARRAY_END + " or " + Type.COMMA + " but got a " + type
+                    );
+                }
+            }
+        } else {
+            values = new ArrayList<>();
+        }
 
         while (true) {
             values.add(readValue());
 
-            final JsonEvent.Type type = nextEvent().type();
+            final Type type = nextEvent();
 
             if (type == Type.ARRAY_END) {
                 break;
@@ -213,4 +352,56 @@ private JsArray readArray() {
 
         return JSAPI.arr(values);
     }
+
+    /**
+     * A growable array of numbers, held as {@code long}s while they are all small integers,
+     * and as {@code double}s thereafter.
+     */
+    private static final class NumberArray {
+        private long[] longs = new long[16];
+        private double[] doubles = null;
+        private int size = 0;
+
+        void add(JsonTokenSource tokeniser) {
+            if (doubles == null) {
+                if (tokeniser.tokenIsSmallInteger()) {
+                    if (size == longs.length) {
+                        longs = Arrays.copyOf(longs, size * 2);
+                    }
+                    longs[size++] = tokeniser.tokenLong();
+                    return;
+                }
+
+                doubles = new double[longs.length];
+                for (int i = 0; i < size; ++i) {
+                    doubles[i] = longs[i];
+                }
+                longs = null;
+            }
+
+            final double value = tokeniser.tokenDouble();
+            if (Double.isInfinite(value)) {
+                throw tokeniser.raiseError("Number out of range");
+            }
+
+            if (size == doubles.length) {
+                doubles = Arrays.copyOf(doubles, size * 2);
+            }
+            doubles[size++] = value;
+        }
+
+        JsArray toJsArray() {
+            return doubles == null ?
+                    JSAPI.arr(longs, size) :
+                    JSAPI.arr(doubles, size);
+        }
+
+        List<JsValue> toList() {
+            final List<JsValue> values = new ArrayList<>(size * 2);
+            for (int i = 0; i < size; ++i) {
+                values.add(JSAPI.num(doubles == null ? longs[i] : doubles[i]));
+            }
+            return values;
+        }
+    }
 }
@@ -0,0 +1,531 @@
+package org.typemeta.funcj.json.parser;
+
+import org.typemeta.funcj.json.model.JsValue;
+
+import java.io.*;
+import java.nio.*;
+import java.nio.charset.StandardCharsets;
+import java.util.*;
+import java.util.concurrent.ForkJoinPool;
+import java.util.function.Function;
+import java.util.stream.*;
+
+/**
+ * The record boundaries within a large JSON input,
+ * which allow the records to be decoded independently, and in parallel.
+ * <p>
+ * Two input formats are supported:
+ * <ul>
+ *     <li>{@link #ndjson(CharSequence) NDJSON}, where each non-blank line is a record;</li>
+ *     <li>a top-level JSON {@link #array(CharSequence) array}, where each element is a record.</li>
+ * </ul>
+ * The boundaries are found by a single sequential pre-scan of the input,
+ * which tracks only the nesting depth and whether the scan is inside a string.
+ * The records themselves are not otherwise validated until they are decoded.
+ * <p>
+ * The input may be held either as a {@code CharSequence},
+ * or as UTF-8 encoded bytes in a {@code ByteBuffer}, such as a memory-mapped file.
+ * In the latter case the pre-scan operates on the bytes directly,
+ * and each record is only converted to characters when it is decoded.
+ * As both input types are indexed by {@code int}, as are the record offsets,
+ * an input is limited to {@code Integer.MAX_VALUE} characters (or bytes), i.e. 2GB.
+ * A larger NDJSON file can be mapped as several regions, each ending at a newline,
+ * and the regions processed separately.
+ * <p>
+ * For decoding, consecutive records are grouped into chunks of roughly {@link #CHUNK_SIZE} characters.
+ * Each chunk is presented to the decoder as a single NDJSON {@code Reader},
+ * so that one parser (and its field name cache) is used for all the records in the chunk.
+ * The chunks are decoded via a parallel stream, which by default runs on the common {@link ForkJoinPool}.
+ * The {@link #decode(ForkJoinPool, Function)} method runs the decoding on a specific pool instead.
+ */
+public final class JsonRecords {
+
+    /**
+     * The approximate size, in characters (or bytes), of the chunks of records which are decoded in parallel.
+     */
+    public static final int CHUNK_SIZE = 1 << 15;
+
+    private static final int BLOCK_SIZE = 4096;
+
+    /**
+     * Find the records in NDJSON (newline-delimited JSON) content.
+     * Blank lines are ignored.
+     * @param text      the NDJSON content
+     * @return          the records
+     * @throws JsonException if a line is not structurally complete
+     */
+    public static JsonRecords ndjson(CharSequence text) {
+        return scan(new CharSource(text), false);
+    }
+
+    /**
+     * Find the records in UTF-8 encoded NDJSON (newline-delimited JSON) content,
+     * from the position to the limit of the buffer.
+     * Blank lines are ignored.
+     * @param utf8      the NDJSON content
+     * @return          the records
+     * @throws JsonException if a line is not structurally complete
+     */
+    public static JsonRecords ndjson(ByteBuffer utf8) {
+        return scan(new ByteSource(utf8), false);
+    }
+
+    /**
+     * Find the elements of a top-level JSON array.
+     * @param text      the JSON array
+     * @return          the records
+     * @throws JsonException if the input is not a well-formed JSON array
+     */
+    public static JsonRecords array(CharSequence text) {
+        return scan(new CharSource(text), true);
+    }
+
+    /**
+     * Find the elements of a top-level UTF-8 encoded JSON array,
+     * from the position to the limit of the buffer.
+     * @param utf8      the JSON array
+     * @return          the records
+     * @throws JsonException if the input is not a well-formed JSON array
+     */
+    public static JsonRecords array(ByteBuffer utf8) {
+        return scan(new ByteSource(utf8), true);
+    }
+
+    /**
+     * Random access to the input, by offset.
+     * The scanner only examines ASCII characters,
+     * none of which can occur within a multi-byte UTF-8 sequence,
+     * so the same scan applies equally to chars or bytes.
+     */
+    private static abstract class Source {
+        abstract int length();
+
+        abstract int at(int i);
+
+        abstract String chars(int start, int end);
+
+        // Read the chars from the given offset into the buffer, and return the number read.
+        abstract int read(int pos, char[] buf);
+    }
+
+    private static final class CharSource extends Source {
+        private final CharSequence text;
+
+        CharSource(CharSequence text) {
+            this.text = text;
+        }
+
+        @Override
+        int length() {
+            return text.length();
+        }
+
+        @Override
+        int at(int i) {
+            return text.charAt(i);
+        }
+
+        @Override
+        String chars(int start, int end) {
+            return text.subSequence(start, end).toString();
+        }
+
+        @Override
+        int read(int pos, char[] buf) {
+            final int n = Math.min(buf.length, text.length() - pos);
+            if (text instanceof String) {
+                ((String)text).getChars(pos, pos + n, buf, 0);
+            } else {
+                for (int i = 0; i < n; ++i) {
+                    buf[i] = text.charAt(pos + i);
+                }
+            }
+            return n;
+        }
+    }
+
+    private static final class ByteSource extends Source {
+        private final ByteBuffer buf;
+        private final int base;
+        private final int length;
+        private byte[] bytes = new byte[0];
+
+        ByteSource(ByteBuffer buf) {
+            this.buf = buf;
+            this.base = buf.position();
+            this.length = buf.remaining();
+        }
+
+        @Override
+        int length() {
+            return length;
+        }
+
+        @Override
+        int at(int i) {
+            return buf.get(base + i) & 0xFF;
+        }
+
+        @Override
+        String chars(int start, int end) {
+            if (buf.hasArray()) {
+                return new String(buf.array(), buf.arrayOffset() + base + start, end - start, StandardCharsets.UTF_8);
+            } else {
+                final ByteBuffer slice = buf.duplicate();
+                // Cast to Buffer, as the covariant overrides on ByteBuffer don't exist prior to Java 9.
+                ((Buffer)slice).limit(base + end);
+                ((Buffer)slice).position(base + start);
+                return StandardCharsets.UTF_8.decode(slice).toString();
+            }
+        }
+
+        @Override
+        int read(int pos, char[] chars) {
+            // Bytes are widened without decoding, as only the ASCII characters are of interest.
+            final int n = Math.min(chars.length, length - pos);
+            if (chars.length > bytes.length) {
+                bytes = new byte[chars.length];
+            }
+            final ByteBuffer dup = buf.duplicate();
+            ((Buffer)dup).position(base + pos);
+            dup.get(bytes, 0, n);
+            for (int i = 0; i < n; ++i) {
+                chars[i] = (char)(bytes[i] & 0xFF);
+            }
+            return n;
+        }
+    }
+
+    /**
+     * A growable list of record bounds, stored as (start, end) pairs.
+     */
+    private static final class Bounds {
+        int[] data = new int[64];
+        int size = 0;
+
+        void add(int start, int end) {
+            if (size + 2 > data.length) {
+                data = Arrays.copyOf(data, data.length * 2);
+            }
+            data[size++] = start;
+            data[size++] = end;
+        }
+
+        int[] toArray() {
+            return Arrays.copyOf(data, size);
+        }
+    }
+
+    private static JsonRecords scan(Source src, boolean isArray) {
+        final int len = src.length();
+        final Bounds bounds = new Bounds();
+
+        int i = 0;
+        if (isArray) {
+            while (i < len && Character.isWhitespace(src.at(i))) {
+                ++i;
+            }
+
+            if (i == len || src.at(i) != '[') {
+                throw new JsonException("Expected '[' at start of JSON array, at position " + i);
+            }
+            ++i;
+        }
+
+        int start = i;
+        int depth = 0;
+        boolean inString = false;
+        boolean escaped = false;
+
+        // The input is scanned in blocks, to keep the inner loop over a local array.
+        final char[] block = new char[BLOCK_SIZE];
+        for (int base = i; base < len; ) {
+            final int n = src.read(base, block);
+            for (int j = 0; j < n; ++j) {
+                final char c = block[j];
+                if (inString) {
+                    if (escaped) {
+                        escaped = false;
+                    } else if (c == '\\') {
+                        escaped = true;
+                    } else if (c == '"') {
+                        inString = false;
+                    } else if (c == '\n') {
+                        throw new JsonException(
+                                "Unexpected end-of-line while scanning a string, at position " + (base + j));
+                    }
+                    continue;
+                }
+
+                switch (c) {
+                    case '"':
+                        inString = true;
+                        break;
+                    case '[':
+                    case '{':
+                        ++depth;
+                        break;
+                    case ',':
+                        if (isArray && depth == 0) {
+                            addTrimmed(src, bounds, start, base + j, true);
+                            start = base + j + 1;
+                        }
+                        break;
+                    case '\n':
+                        if (!isArray) {
+                            if (depth != 0) {
+                                throw new JsonException(
+                                        "Unexpected end-of-line inside a JSON value, at position " + (base + j));
+                            }
+                            addTrimmed(src, bounds, start, base + j, false);
+                            start = base + j + 1;
+                        }
+                        break;
+                    case ']':
+                    case '}':
+                        if (depth > 0) {
+                            --depth;
+                        } else if (!isArray || c == '}') {
+                            throw new JsonException("Unexpected '" + c + "', at position " + (base + j));
+                        } else {
+                            // An empty array has no elements, otherwise the last element must be non-blank.
+                            addTrimmed(src, bounds, start, base + j, bounds.size > 0);
+                            for (i = base + j + 1; i < len; ++i) {
+                                if (!Character.isWhitespace(src.at(i))) {
+                                    throw new JsonException(
+                                            "Input not at EOF after parsing JSON array, at position " + i);
+                                }
+                            }
+                            return new JsonRecords(src, bounds.toArray());
+                        }
+                        break;
+                    default:
+                        break;
+                }
+            }
+            base += n;
+        }
+
+        if (isArray || inString || depth != 0) {
+            throw new JsonException("Unexpected end-of-input while scanning JSON, at position " + len);
+        }
+
+        addTrimmed(src, bounds, start, len, false);
+        return new JsonRecords(src, bounds.toArray());
+    }
+
+    private static void addTrimmed(Source src, Bounds bounds, int start, int end, boolean required) {
+        while (start < end && Character.isWhitespace(src.at(start))) {
+            ++start;
+        }
+        while (end > start && Character.isWhitespace(src.at(end - 1))) {
+            --end;
+        }
+        if (start < end) {
+            bounds.add(start, end);
+        } else if (required) {
+            throw new JsonException("Missing JSON array element, at position " + start);
+        }
+    }
+
+    /**
+     * A {@code Reader} over a range of records, separated by newlines.
+     */
+    private final class ChunkReader extends Reader {
+        private final int first;
+        private final int last;
+        private int next;
+        private String rec = "";
+        private int pos = 0;
+
+        ChunkReader(int first, int last) {
+            this.first = first;
+            this.next = first;
+            this.last = last;
+        }
+
+        @Override
+        public int read(char[] cbuf, int off, int len) {
+            int total = 0;
+            while (total < len) {
+                if (pos == rec.length()) {
+                    if (next == last) {
+                        break;
+                    }
+                    rec = src.chars(start(next), end(next));
+                    pos = 0;
+                    ++next;
+                    if (next - 1 != first) {
+                        cbuf[off + total++] = '\n';
+                        continue;
+                    }
+                }
+                final int n = Math.min(len - total, rec.length() - pos);
+                rec.getChars(pos, pos + n, cbuf, off + total);
+                pos += n;
+                total += n;
+            }
+            return total == 0 && len > 0 ? -1 : total;
+        }
+
+        @Override
+        public void close() {
+        }
+    }
+
+    private final Source src;
+    private final int[] bounds;
+
+    // The index of the first record in each chunk, followed by the number of records.
+    private final int[] chunks;
+
+    private JsonRecords(Source src, int[] bounds) {
+        this.src = src;
+        this.bounds = bounds;
+
+        final int size = size();
+        final int[] chunks = new int[size + 1];
+        int n = 0;
+        for (int i = 0; i < size; ++n) {
+            chunks[n] = i;
+            final int limit = start(i) + CHUNK_SIZE;
+            do {
+                ++i;
+            } while (i < size && end(i) <= limit);
+        }
+        chunks[n] = size;
+        this.chunks = Arrays.copyOf(chunks, n + 1);
+    }
+
+    /**
+     * @return          the number of records
+     */
+    public int size() {
+        return bounds.length / 2;
+    }
+
+    /**
+     * @param i         the record index
+     * @return          the offset of the start of the record, relative to the start of the input
+     */
+    public int start(int i) {
+        return bounds[i * 2];
+    }
+
+    /**
+     * @param i         the record index
+     * @return          the offset of the end of the record, relative to the start of the input
+     */
+    public int end(int i) {
+        return bounds[i * 2 + 1];
+    }
+
+    /**
+     * Return a {@code Reader} over the content of a single record.
+     * @param i         the record index
+     * @return          the reader
+     */
+    public Reader reader(int i) {
+        return new StringReader(src.chars(start(i), end(i)));
+    }
+
+    /**
+     * Decode the records, chunk by chunk, using the given decoder function.
+     * The decoder is given a {@code Reader} over the records in a chunk, in NDJSON format,
+     * and returns an iterator over the decoded records.
+     * The chunks are decoded independently, so the decoder must be safe to call from multiple threads.
+     * @param decoder   the decoder function
+     * @param ordered   if true, the stream is in record order, otherwise the order is unspecified
+     * @param <T>       the decoded type
+     * @return          a parallel stream of the decoded records
+     * @throws JsonException if a chunk does not decode to one value per record
+     */
+    public <T> Stream<T> stream(Function<? super Reader, ? extends Iterator<? extends T>> decoder, boolean ordered) {
+        final Stream<T> stream = IntStream.range(0, chunks.length - 1)
+                .parallel()
+                .mapToObj(c -> decodeChunk(c, decoder))
+                .flatMap(List::stream);
+        return ordered ? stream : stream.unordered();
+    }
+
+    /**
+     * Parse each record into a {@link JsValue}.
+     * @param ordered   if true, the stream is in record order, otherwise the order is unspecified
+     * @return          a parallel stream of the parsed records
+     * @throws JsonException if a record is not a valid JSON value
+     */
+    public Stream<JsValue> parse(boolean ordered) {
+        return stream(JsonRecords::parseValues, ordered);
+    }
+
+    /**
+     * Decode the records on the given {@code ForkJoinPool}, and return the results in record order.
+     * @param pool      the pool
+     * @param decoder   the decoder function
+     * @param <T>       the decoded type
+     * @return          the decoded records
+     * @throws JsonException if a chunk does not decode to one value per record
+     * @see #stream(Function, boolean)
+     */
+    public <T> List<T> decode(ForkJoinPool pool, Function<? super Reader, ? extends Iterator<? extends T>> decoder) {
+        return pool.submit(() -> stream(decoder, true).collect(Collectors.<T>toList())).join();
+    }
+
+    /**
+     * Parse each record on the given {@code ForkJoinPool}, and return the results in record order.
+     * @param pool      the pool
+     * @return          the parsed records
+     * @throws JsonException if a record is not a valid JSON value
+     */
+    public List<JsValue> parse(ForkJoinPool pool) {
+        return decode(pool, JsonRecords::parseValues);
+    }
+
+    private static Iterator<JsValue> parseValues(Reader rdr) {
+        final JsonTokeniser tokeniser = new JsonTokeniser(rdr);
+        final JsonParser parser = new JsonParser(tokeniser);
+        return new Iterator<JsValue>() {
+            JsonEvent.Type next = tokeniser.nextToken();
+
+            @Override
+            public boolean hasNext() {
+                return next != JsonEvent.Type.EOF;
+            }
+
+            @Override
+            public JsValue next() {
+                if (!hasNext()) {
+                    throw new NoSuchElementException();
+                }
+                final JsValue jsv = parser.readValue(next);
+                next = tokeniser.nextToken();
+                return jsv;
+            }
+        };
+    }
+
+    private <T> List<T> decodeChunk(int c, Function<? super Reader, ? extends Iterator<? extends T>> decoder) {
+        final int first = chunks[c];
+        final int last = chunks[c + 1];
+        final List<T> values = new ArrayList<>(last - first);
+        try {
+            final Iterator<? extends T> iter = decoder.apply(new ChunkReader(first, last));
+            while (iter.hasNext()) {
+                if (values.size() == last - first) {
+                    throw new JsonException("Record contains more than one JSON value");
+                }
+                values.add(iter.next());
+            }
+        } catch (JsonException ex) {
+            final int i = Math.min(first + values.size(), last - 1);
+            throw new JsonException("Invalid record " + i + " at offset " + start(i) + ": " + ex.getMessage(), ex);
+        }
+
+        if (values.size() != last - first) {
+            throw new JsonException("Expected " + (last - first) + " records at offset " + start(first) +
+                    " but decoded " + values.size());
+        }
+
+        return values;
+    }
+}
@@ -0,0 +1,754 @@
+package org.typemeta.funcj.json.parser;
+
+import java.nio.*;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+/**
+ * A {@link JsonTokenSource} over UTF-8 bytes held in memory, which tokenises in two stages.
+ * <p>
+ * The first stage builds an index of the positions of the structural characters in the input,
+ * i.e. the brackets, braces, colons and commas outside of strings,
+ * the quotes which delimit strings, and the first character of each literal and number.
+ * The input is classified 64 bytes at a time,
+ * eight bytes per {@code long} word, using SWAR (SIMD within a register) arithmetic.
+ * Escaped quotes, and the extent of each string, are then resolved for the whole block
+ * using carry-less bitwise arithmetic over the 64-bit masks,
+ * so that structural characters within strings can be discarded without examining each byte.
+ * <p>
+ * The second stage walks the index to produce tokens.
+ * The contents of a string are located directly from the positions of its delimiting quotes,
+ * and are only examined byte by byte if the first stage found an escape or control character within them.
+ * <p>
+ * The tokens produced are the same as those produced by {@link JsonTokeniser} for the equivalent characters,
+ * except that positions are byte offsets.
+ * Malformed UTF-8 within strings is replaced with {@code U+FFFD}.
+ */
+final class JsonStructuralIndex implements JsonTokenSource {
+
+    /**
+     * Build the index over UTF-8 bytes held in a {@code byte} array.
+     * The array is retained, and must not be modified while the index is in use.
+     * @param utf8      the UTF-8 bytes
+     * @param offset    the offset of the first byte
+     * @param length    the number of bytes
+     * @return          the index, positioned before the first token
+     */
+    static JsonStructuralIndex of(byte[] utf8, int offset, int length) {
+        if (offset < 0 || length < 0 || offset + length > utf8.length) {
+            throw new IndexOutOfBoundsException(
+                    "offset=" + offset + ", length=" + length + ", array length=" + utf8.length
+            );
+        }
+        return new JsonStructuralIndex(utf8, offset, offset + length);
+    }
+
+    static JsonStructuralIndex of(byte[] utf8) {
+        return of(utf8, 0, utf8.length);
+    }
+
+    /**
+     * Build the index over the remaining UTF-8 bytes in a {@code ByteBuffer}.
+     * The position of the buffer is not modified.
+     * The bytes of a direct buffer, or a read-only buffer, are copied.
+     * @param utf8      the buffer
+     * @return          the index, positioned before the first token
+     */
+    static JsonStructuralIndex of(ByteBuffer utf8) {
+        if (utf8.hasArray()) {
+            return of(utf8.array(), utf8.arrayOffset() + utf8.position(), utf8.remaining());
+        } else {
+            final byte[] bytes = new byte[utf8.remaining()];
+            utf8.duplicate().get(bytes);
+            return of(bytes);
+        }
+    }
+
+    private static final int BLOCK_SIZE = 64;
+
+    private static final long ONES = 0x0101010101010101L;
+    private static final long LOW7 = 0x7F7F7F7F7F7F7F7FL;
+    private static final long HIGH = 0x8080808080808080L;
+    private static final long ODD_BITS = 0xAAAAAAAAAAAAAAAAL;
+
+    private static final long QUOTES = '"' * ONES;
+    private static final long BACKSLASHES = '\\' * ONES;
+    private static final long SPACES = ' ' * ONES;
+    private static final long OPEN_BRACES = '{' * ONES;
+    private static final long CLOSE_BRACES = '}' * ONES;
+    private static final long COLONS = ':' * ONES;
+    private static final long COMMAS = ',' * ONES;
+
+    // The bytes which end a literal or number, i.e. whitespace, structural chars and quotes.
+    private static final boolean[] SEPARATOR = new boolean[256];
+
+    static {
+        for (char c : " \t\n\u000B\f\r\u001C\u001D\u001E\u001F{}[]:,\"".toCharArray()) {
+            SEPARATOR[c] = true;
+        }
+    }
+
+    private static final byte[] TRUE = {'t', 'r', 'u', 'e'};
+    private static final byte[] FALSE = {'f', 'a', 'l', 's', 'e'};
+    private static final byte[] NULL = {'n', 'u', 'l', 'l'};
+
+    private static final int NAME_CACHE_SIZE = 256;
+    private static final int MAX_CACHED_NAME_LENGTH = 64;
+
+    private static final byte OBJECT_NAME = 0;
+    private static final byte OBJECT_VALUE = 1;
+    private static final byte OTHER = 2;
+
+    private final byte[] src;
+    private final int start;
+    private final int end;
+
+    // The positions of the structural chars, terminated by the end position.
+    private int[] index;
+    private int size = 0;
+
+    // One bit per input byte, set for backslashes and control chars within strings.
+    private final long[] special;
+
+    // The second stage state.
+    private int next = 0;
+    private int resume = -1;
+    private int pos;
+    private boolean eof = false;
+    private byte state = OTHER;
+    private byte[] stateStack = new byte[16];
+    private int depth = 0;
+
+    // The current token.
+    private int tokenStart;
+    private int tokenEnd;
+    private String tokenStr;
+    private boolean numNeedsNorm;
+    private boolean numIsInteger;
+    private char[] numBuf = new char[32];
+
+    private final String[] nameCache = new String[NAME_CACHE_SIZE];
+
+    private JsonStructuralIndex(byte[] src, int start, int end) {
+        this.src = src;
+        this.start = start;
+        this.end = end;
+        this.pos = start;
+        this.index = new int[Math.max(64, (end - start) / 4)];
+        this.special = new long[(end - start + BLOCK_SIZE - 1) / BLOCK_SIZE + 1];
+        buildIndex();
+    }
+
+    /**
+     * @return          the number of structural positions in the index
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Return a structural position, as an offset into the array.
+     * @param i         the index of the structural position
+     * @return          the structural position
+     */
+    public int position(int i) {
+        if (i < 0 || i >= size) {
+            throw new IndexOutOfBoundsException("Index: " + i + ", Size: " + size);
+        }
+        return index[i];
+    }
+
+    // Stage 1.
+
+    // A mask of the high bit of each byte in x which equals the corresponding byte in pattern.
+    private static long eq(long x, long pattern) {
+        final long t = x ^ pattern;
+        return ~(((t & LOW7) + LOW7) | t | LOW7);
+    }
+
+    // A mask of the high bit of each byte in x which is less than n, where n <= 128.
+    private static long lt(long x, int n) {
+        return ~(((x & LOW7) + (128 - n) * ONES) | x) & HIGH;
+    }
+
+    // Gather the high bit of each byte into the low 8 bits, with the first byte in the lowest bit.
+    private static long gather(long m) {
+        return ((m >>> 7) * 0x0102040810204080L) >>> 56;
+    }
+
+    // Each bit becomes the XOR of itself and all lower bits.
+    private static long prefixXor(long x) {
+        x ^= x << 1;
+        x ^= x << 2;
+        x ^= x << 4;
+        x ^= x << 8;
+        x ^= x << 16;
+        x ^= x << 32;
+        return x;
+    }
+
+    private void buildIndex() {
+        final ByteBuffer bb = ByteBuffer.wrap(src).order(ByteOrder.LITTLE_ENDIAN);
+
+        final int fullEnd = end - (end - start) % BLOCK_SIZE;
+        for (int base = start; base < fullEnd; base += BLOCK_SIZE) {
+            classify(bb, base, base);
+        }
+
+        if (fullEnd < end) {
+            // The last partial block is classified from a copy, padded with spaces.
+            final byte[] pad = new byte[BLOCK_SIZE];
+            Arrays.fill(pad, (byte)' ');
+            System.arraycopy(src, fullEnd, pad, 0, end - fullEnd);
+            classify(ByteBuffer.wrap(pad).order(ByteOrder.LITTLE_ENDIAN), 0, fullEnd);
+
+            // Discard any positions within the padding.
+            while (size > 0 && index[size - 1] >= end) {
+                --size;
+            }
+        }
+
+        if (size == index.length) {
+            index = Arrays.copyOf(index, size + 1);
+        }
+        index[size] = end;
+    }
+
+    // The classification state carried between blocks.
+    private long nextIsEscaped = 0;
+    private long prevInString = 0;
+    private long prevIsSeparator = 1;
+
+    /**
+     * Classify a block of 64 bytes, and add the structural positions to the index.
+     * @param buf       the buffer holding the block
+     * @param off       the offset of the block within the buffer
+     * @param base      the position of the block within the input
+     */
+    private void classify(ByteBuffer buf, int off, int base) {
+        long quote = 0;
+        long backslash = 0;
+        long op = 0;
+        long ws = 0;
+        long ctrl = 0;
+
+        for (int i = 0; i < 8; ++i) {
+            final long x = buf.getLong(off + i * 8);
+            final long lower = x | 0x2020202020202020L;
+            final int shift = i * 8;
+            quote |= gather(eq(x, QUOTES)) << shift;
+            final long bs = eq(x, BACKSLASHES);
+            if (bs != 0) {
+                backslash |= gather(bs) << shift;
+            }
+            op |= gather(eq(lower, OPEN_BRACES) | eq(lower, CLOSE_BRACES) | eq(x, COLONS) | eq(x, COMMAS))
+                    << shift;
+            final long c = lt(x, 0x20);
+            if (c == 0) {
+                ws |= gather(eq(x, SPACES)) << shift;
+            } else {
+                ctrl |= gather(c) << shift;
+                // Whitespace is 0x09-0x0D and 0x1C-0x20, per Character.isWhitespace.
+                ws |= gather((lt(x, 0x21) & ~lt(x, 0x1C)) | (lt(x, 0x0E) & ~lt(x, 0x09))) << shift;
+            }
+        }
+
+        // Find the escaped chars, i.e. those preceded by an odd-length run of backslashes.
+        final long escaped;
+        if (backslash == 0) {
+            escaped = nextIsEscaped;
+            nextIsEscaped = 0;
+        } else {
+            final long potential = backslash & ~nextIsEscaped;
+            final long codes = (((potential << 1) | ODD_BITS) - potential) ^ ODD_BITS;
+            escaped = codes ^ (backslash | nextIsEscaped);
+            nextIsEscaped = (codes & backslash) >>> 63;
+        }
+
+        // The string mask includes the opening quote, but not the closing quote.
+        quote &= ~escaped;
+        final long inString = prefixXor(quote) ^ prevInString;
+        prevInString = inString >> 63;
+
+        final long separator = ws | op | quote;
+        final long scalarStart = ~separator & ~inString & ((separator << 1) | prevIsSeparator);
+        prevIsSeparator = separator >>> 63;
+
+        special[(base - start) >>> 6] = (backslash | ctrl) & inString;
+
+        long bits = (op & ~inString) | quote | scalarStart;
+        if (size + BLOCK_SIZE >= index.length) {
+            index = Arrays.copyOf(index, index.length * 2);
+        }
+        while (bits != 0) {
+            index[size++] = base + Long.numberOfTrailingZeros(bits);
+            bits &= bits - 1;
+        }
+    }
+
+    // Indicates whether any byte in the range is a backslash or a control char.
+    private boolean hasSpecial(int from, int to) {
+        if (from == to) {
+            return false;
+        }
+        final int first = (from - start) >>> 6;
+        final int last = (to - 1 - start) >>> 6;
+        final long head = special[first] & (-1L << (from - start));
+        final long tail = -1L >>> (63 - ((to - 1 - start) & 63));
+        if (first == last) {
+            return (head & tail) != 0;
+        } else if (head != 0 || (special[last] & tail) != 0) {
+            return true;
+        } else {
+            for (int i = first + 1; i < last; ++i) {
+                if (special[i] != 0) {
+                    return true;
+                }
+            }
+            return false;
+        }
+    }
+
+    // Stage 2.
+
+    @Override
+    public long position() {
+        return pos - start;
+    }
+
+    @Override
+    public JsonException raiseError(String msg) {
+        return new JsonException(msg + ", at position " + position());
+    }
+
+    private void pushState(byte newState) {
+        if (depth == stateStack.length) {
+            stateStack = Arrays.copyOf(stateStack, depth * 2);
+        }
+        stateStack[depth++] = state;
+        state = newState;
+    }
+
+    private void popState() {
+        if (depth == 0) {
+            throw raiseError("Can't pop empty state stack");
+        } else {
+            state = stateStack[--depth];
+        }
+    }
+
+    @Override
+    public JsonEvent getNextEvent() {
+        final JsonEvent.Type type = nextToken();
+        switch (type) {
+            case FIELD_NAME:
+                return new JsonEvent.FieldName(tokenString());
+            case STRING:
+                return new JsonEvent.JString(tokenString());
+            case NUMBER:
+                return new JsonEvent.JNumber(tokenString());
+            default:
+                return type;
+        }
+    }
+
+    @Override
+    public JsonEvent.Type nextToken() {
+        if (eof) {
+            return JsonEvent.Type.EOF;
+        }
+
+        int p;
+        if (resume != -1) {
+            p = resume;
+            resume = -1;
+        } else {
+            p = index[next++];
+        }
+
+        while (true) {
+            if (p == end) {
+                eof = true;
+                pos = end;
+                return JsonEvent.Type.EOF;
+            }
+
+            final int b = src[p] & 0xFF;
+            pos = p + 1;
+            switch (b) {
+                case '{':
+                    pushState(OBJECT_NAME);
+                    return JsonEvent.Type.OBJECT_START;
+                case '}':
+                    popState();
+                    return JsonEvent.Type.OBJECT_END;
+                case '[':
+                    pushState(OTHER);
+                    return JsonEvent.Type.ARRAY_START;
+                case ']':
+                    popState();
+                    return JsonEvent.Type.ARRAY_END;
+                case ',':
+                    if (state == OBJECT_VALUE) {
+                        state = OBJECT_NAME;
+                    }
+                    return JsonEvent.Type.COMMA;
+                case ':':
+                    state = OBJECT_VALUE;
+                    return JsonEvent.Type.COLON;
+                case '"':
+                    parseString(p);
+                    return state == OBJECT_NAME ? JsonEvent.Type.FIELD_NAME : JsonEvent.Type.STRING;
+                case 't':
+                    parseSymbol(p, TRUE);
+                    return JsonEvent.Type.TRUE;
+                case 'f':
+                    parseSymbol(p, FALSE);
+                    return JsonEvent.Type.FALSE;
+                case 'n':
+                    parseSymbol(p, NULL);
+                    return JsonEvent.Type.NULL;
+                case '-': case '+':
+                case '0': case '1': case '2': case '3': case '4':
+                case '5': case '6': case '7': case '8': case '9':
+                    parseNumber(p);
+                    return JsonEvent.Type.NUMBER;
+                default:
+                    if (b >= 0x80) {
+                        final int n = utf8Length(b);
+                        final String cs = new String(src, p, Math.min(n, end - p), StandardCharsets.UTF_8);
+                        if (cs.length() == 1 && Character.isWhitespace(cs.charAt(0))) {
+                            p += n;
+                            if (p >= end || SEPARATOR[src[p] & 0xFF]) {
+                                // The separator, or the token following the whitespace, is in the index.
+                                p = index[next++];
+                            }
+                            continue;
+                        }
+                        throw raiseError("Unexpected input '" + cs.charAt(0) + "'");
+                    }
+                    throw raiseError("Unexpected input '" + (char)b + "'");
+            }
+        }
+    }
+
+    private static int utf8Length(int b) {
+        if (b >= 0xF0) {
+            return 4;
+        } else if (b >= 0xE0) {
+            return 3;
+        } else if (b >= 0xC0) {
+            return 2;
+        } else {
+            return 1;
+        }
+    }
+
+    // Record the end of a literal or number token,
+    // and, if the token is not followed by a separator, then resume tokenising from its end.
+    private void endScalar(int p) {
+        pos = p;
+        tokenEnd = p;
+        if (p < end && !SEPARATOR[src[p] & 0xFF]) {
+            resume = p;
+        }
+    }
+
+    private void parseSymbol(int p, byte[] s) {
+        for (int i = 1; i < s.length; ++i) {
+            pos = p + i + 1;
+            if (p + i == end) {
+                pos = end;
+                throw raiseError("Unexpected end-of-input");
+            } else if (src[p + i] != s[i]) {
+                throw raiseError(
+                        "Unexpected input '" + (char)(src[p + i] & 0xFF) +
+                                "' while parsing '" + new String(s, StandardCharsets.US_ASCII) + "'"
+                );
+            }
+        }
+        endScalar(p + s.length);
+    }
+
+    private void parseString(int p) {
+        // The closing quote is the next entry in the index.
+        final int close = index[next];
+        if (close == end) {
+            pos = end;
+            throw raiseError("Unexpected end-of-input while parsing a string");
+        }
+        ++next;
+
+        numNeedsNorm = false;
+        tokenStart = p + 1;
+        tokenEnd = close;
+        pos = close + 1;
+        tokenStr = hasSpecial(tokenStart, tokenEnd) ? unescape(tokenStart, tokenEnd) : null;
+    }
+
+    private String unescape(int from, int to) {
+        final StringBuilder sb = new StringBuilder(to - from);
+        int i = from;
+        int run = from;
+        while (i < to) {
+            final int c = src[i] & 0xFF;
+            if (c == '\\') {
+                sb.append(new String(src, run, i - run, StandardCharsets.UTF_8));
+                pos = i + 2;
+                final char esc = (char)(src[i + 1] & 0xFF);
+                switch (esc) {
+                    case 'u':
+                        int hc = 0;
+                        for (int j = 0; j < 4; ++j) {
+                            // The closing quote is not a hex digit, so this can't run past the string.
+                            pos = i + 3 + j;
+                            final int h = hexValue(src[i + 2 + j]);
+                            if (h == -1) {
+                                throw raiseError(
+                                        "Unexpected non-digit '" + (char)(src[i + 2 + j] & 0xFF) +
+                                                "' while parsing a string escape unicode char"
+                                );
+                            }
+                            hc = (hc << 4) | h;
+                        }
+                        sb.append((char)hc);
+                        i += 6;
+                        break;
+                    case '\\': case '/': case '"':
+                        sb.append(esc);
+                        i += 2;
+                        break;
+                    case 'b':
+                        sb.append('\b');
+                        i += 2;
+                        break;
+                    case 'f':
+                        sb.append('\f');
+                        i += 2;
+                        break;
+                    case 'n':
+                        sb.append('\n');
+                        i += 2;
+                        break;
+                    case 'r':
+                        sb.append('\r');
+                        i += 2;
+                        break;
+                    case 't':
+                        sb.append('\t');
+                        i += 2;
+                        break;
+                    default:
+                        throw raiseError("Unrecognised escape character in string - '" + esc + "'");
+                }
+                run = i;
+            } else {
+                if (c == '\b' || c == '\f' || c == '\n' || c == '\r' || c == '\t') {
+                    pos = i + 1;
+                    throw raiseError("Control characters not allowed in strings");
+                }
+                ++i;
+            }
+        }
+        sb.append(new String(src, run, to - run, StandardCharsets.UTF_8));
+        pos = to + 1;
+        return sb.toString();
+    }
+
+    private static int hexValue(byte c) {
+        if (c >= '0' && c <= '9') {
+            return c - '0';
+        } else if (c >= 'a' && c <= 'f') {
+            return c - 'a' + 10;
+        } else if (c >= 'A' && c <= 'F') {
+            return c - 'A' + 10;
+        } else {
+            return -1;
+        }
+    }
+
+    private boolean isDigit(int p) {
+        return p < end && src[p] >= '0' && src[p] <= '9';
+    }
+
+    private JsonException numberError(int p) {
+        if (p == end) {
+            pos = end;
+            return raiseError("Unexpected end-of-input while parsing a number");
+        } else {
+            pos = p + 1;
+            return raiseError("Unexpected input '" + (char)(src[p] & 0xFF) + "' while parsing a number");
+        }
+    }
+
+    private void parseNumber(int p) {
+        numNeedsNorm = false;
+        numIsInteger = true;
+        tokenStart = p;
+        tokenStr = null;
+
+        final byte first = src[p++];
+        if (first == '-' || first == '+') {
+            if (!isDigit(p)) {
+                throw numberError(p);
+            }
+            if (src[p++] != '0') {
+                while (isDigit(p)) {
+                    ++p;
+                }
+            }
+        } else if (first != '0') {
+            while (isDigit(p)) {
+                ++p;
+            }
+        }
+
+        if (p < end && src[p] == '.') {
+            numIsInteger = false;
+            ++p;
+            if (!isDigit(p)) {
+                throw numberError(p);
+            }
+            while (isDigit(p)) {
+                ++p;
+            }
+        }
+
+        if (p < end && (src[p] == 'e' || src[p] == 'E')) {
+            numIsInteger = false;
+            numNeedsNorm = src[p] == 'e';
+            ++p;
+            if (p < end && (src[p] == '+' || src[p] == '-')) {
+                numNeedsNorm |= src[p] == '+';
+                ++p;
+            }
+            if (!isDigit(p)) {
+                throw numberError(p);
+            }
+            while (isDigit(p)) {
+                ++p;
+            }
+        }
+
+        endScalar(p);
+    }
+
+    // Copy the current number token into the number buffer, and return its length.
+    private int numberChars() {
+        final int len = tokenEnd - tokenStart;
+        if (len > numBuf.length) {
+            numBuf = new char[Math.max(len, numBuf.length * 2)];
+        }
+        for (int i = 0; i < len; ++i) {
+            numBuf[i] = (char)src[tokenStart + i];
+        }
+        return len;
+    }
+
+    @Override
+    public String tokenString() {
+        if (tokenStr != null) {
+            return tokenStr;
+        } else if (numNeedsNorm) {
+            return normalisedNumber();
+        } else if (state == OBJECT_NAME && tokenEnd - tokenStart <= MAX_CACHED_NAME_LENGTH) {
+            return cachedName();
+        } else {
+            return new String(src, tokenStart, tokenEnd - tokenStart, StandardCharsets.UTF_8);
+        }
+    }
+
+    @Override
+    public long tokenLong() {
+        return JsonNumbers.parseLong(numBuf, 0, numberChars());
+    }
+
+    @Override
+    public boolean tokenIsSmallInteger() {
+        final int len = tokenEnd - tokenStart;
+        if (!numIsInteger) {
+            return false;
+        } else if (src[tokenStart] == '-') {
+            return len <= 16 && !(len == 2 && src[tokenStart + 1] == '0');
+        } else {
+            return len <= 15;
+        }
+    }
+
+    @Override
+    public double tokenDouble() {
+        return JsonNumbers.parseDouble(numBuf, 0, numberChars());
+    }
+
+    @Override
+    public boolean tokenEquals(String s) {
+        if (tokenStr != null) {
+            return tokenStr.equals(s);
+        }
+        final int len = tokenEnd - tokenStart;
+        if (s.length() != len) {
+            // The token may still match if it contains multi-byte chars.
+            return s.length() < len && tokenString().equals(s);
+        }
+        for (int i = 0; i < len; ++i) {
+            final byte b = src[tokenStart + i];
+            if (b < 0) {
+                return tokenString().equals(s);
+            } else if (s.charAt(i) != b) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private String cachedName() {
+        int hash = 0;
+        for (int i = tokenStart; i < tokenEnd; ++i) {
+            final byte b = src[i];
+            if (b < 0) {
+                // Only ASCII names are cached.
+                return new String(src, tokenStart, tokenEnd - tokenStart, StandardCharsets.UTF_8);
+            }
+            hash = 31 * hash + b;
+        }
+
+        final int slot = (hash ^ (hash >>> 16)) & (NAME_CACHE_SIZE - 1);
+        final String cached = nameCache[slot];
+        if (cached != null && asciiEquals(cached)) {
+            return cached;
+        } else {
+            final String name = new String(src, tokenStart, tokenEnd - tokenStart, StandardCharsets.US_ASCII);
+            nameCache[slot] = name;
+            return name;
+        }
+    }
+
+    private boolean asciiEquals(String s) {
+        final int len = tokenEnd - tokenStart;
+        if (s.length() != len) {
+            return false;
+        }
+        for (int i = 0; i < len; ++i) {
+            if (s.charAt(i) != src[tokenStart + i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private String normalisedNumber() {
+        final StringBuilder sb = new StringBuilder(tokenEnd - tokenStart);
+        for (int i = tokenStart; i < tokenEnd; ++i) {
+            final char c = (char)src[i];
+            if (c == 'e' || c == 'E') {
+                sb.append('E');
+                if (i + 1 < tokenEnd && src[i + 1] == '+') {
+                    ++i;
+                }
+            } else {
+                sb.append(c);
+            }
+        }
+        return sb.toString();
+    }
+}
@@ -0,0 +1,85 @@
+package org.typemeta.funcj.json.parser;
+
+import java.io.Reader;
+
+/**
+ * A source of JSON tokens, as consumed by {@link JsonParser}.
+ * <p>
+ * {@link JsonTokeniser} tokenises a stream of characters read from a {@link Reader}.
+ * {@link JsonParser} also uses an internal implementation for UTF-8 bytes held in memory,
+ * which first builds an index of the structural characters.
+ */
+public interface JsonTokenSource {
+
+    /**
+     * Construct a token source which reads characters from a {@code Reader}.
+     * @param rdr       the reader
+     * @return          the token source
+     */
+    static JsonTokenSource of(Reader rdr) {
+        return new JsonTokeniser(rdr);
+    }
+
+    /**
+     * @return          the position of the token source within the input
+     */
+    long position();
+
+    /**
+     * Construct an exception for an error at the current position.
+     * @param msg       the error message
+     * @return          the exception
+     */
+    JsonException raiseError(String msg);
+
+    /**
+     * Return the next event.
+     * String, field name and number events carry their token text as a {@code String}.
+     * @return          the next event
+     */
+    JsonEvent getNextEvent();
+
+    /**
+     * Advance to the next token and return its type.
+     * For {@code FIELD_NAME}, {@code STRING} and {@code NUMBER} tokens,
+     * the token text is then available via the {@code token*} methods,
+     * until the next call to this method.
+     * @return          the type of the next token
+     */
+    JsonEvent.Type nextToken();
+
+    /**
+     * Return the current token text as a {@code String}.
+     * Numbers are normalised so that the exponent marker is {@code 'E'}
+     * and any explicit {@code '+'} exponent sign is omitted.
+     * @return          the current token text
+     */
+    String tokenString();
+
+    /**
+     * Return the current number token as a {@code long}.
+     * @return          the current number token as a {@code long}
+     * @throws NumberFormatException if the number is not an integer or is out of range
+     */
+    long tokenLong();
+
+    /**
+     * Indicates whether the current number token is an integer which can be exactly represented as a {@code double},
+     * i.e. has no fraction or exponent, at most 15 digits, and is not negative zero.
+     * @return          true if the current number token is a small integer
+     */
+    boolean tokenIsSmallInteger();
+
+    /**
+     * Return the current number token as a {@code double}.
+     * @return          the current number token as a {@code double}
+     */
+    double tokenDouble();
+
+    /**
+     * Compare the current token text with a string.
+     * @param s         the string to compare with
+     * @return          true if the token text equals the string
+     */
+    boolean tokenEquals(String s);
+}
@@ -5,8 +5,22 @@
 
 /**
  * Tokenise a stream of characters into JSON tokens.
+ * <p>
+ * Input is read in bulk into a reusable {@code char[]} window.
+ * The tokeniser provides two APIs:
+ * <ul>
+ *     <li>{@link #getNextEvent()}, which returns each token as a {@link JsonEvent};</li>
+ *     <li>{@link #nextToken()}, which returns the token type only,
+ *     with the token text available as a region of a char buffer,
+ *     via {@link #tokenBuffer()}, {@link #tokenOffset()} and {@link #tokenLength()},
+ *     or converted directly via {@link #tokenString()}, {@link #tokenLong()}
+ *     and {@link #tokenDouble()}.</li>
+ * </ul>
+ * Strings without escape sequences are presented as slices of the window,
+ * i.e. without copying.
+ * Token text is only valid until the next call to {@code nextToken} or {@code getNextEvent}.
  */
-public class JsonTokeniser {
+public class JsonTokeniser implements JsonTokenSource {
 
     private static final class Buffer {
         private static final int DEFAULT_SIZE = 64;
@@ -18,22 +32,29 @@ private static final class Buffer {
             buffer = new char[DEFAULT_SIZE];
         }
 
-        void add(char c) {
-            if (size == buffer.length) {
+        private void ensureCapacity(int required) {
+            if (required > buffer.length) {
                 if (buffer.length >= Integer.MAX_VALUE / 2) {
                     throw new IllegalStateException("Buffer too large");
                 } else {
-                    buffer = Arrays.copyOf(buffer, buffer.length * 2);
+                    buffer = Arrays.copyOf(buffer, Math.max(buffer.length * 2, required));
                 }
             }
+        }
 
+        void add(char c) {
+            ensureCapacity(size + 1);
             buffer[size++] = c;
         }
 
-        String release() {
-            final String res = new String(buffer, 0, size);
+        void add(char[] cs, int offset, int length) {
+            ensureCapacity(size + length);
+            System.arraycopy(cs, offset, buffer, size, length);
+            size += length;
+        }
+
+        void clear() {
             size = 0;
-            return res;
         }
 
         @Override
@@ -46,7 +67,10 @@ public String toString() {
     private static final char[] FALSE = "false".toCharArray();
     private static final char[] NULL = "null".toCharArray();
 
-    private static final int EMPTY = Integer.MIN_VALUE;
+    private static final int DEFAULT_WINDOW_SIZE = 8192;
+
+    private static final int NAME_CACHE_SIZE = 256;
+    private static final int MAX_CACHED_NAME_LENGTH = 64;
 
     enum State {
         OBJECT_NAME,
@@ -54,24 +78,46 @@ enum State {
         OTHER
     }
 
-    private Reader rdr;
-    private int nextChar = EMPTY;
-    private long pos = 0;
+    private final Reader rdr;
+    private boolean rdrEof = false;
+    private boolean eof = false;
+
+    // The window, its read position and end, and the absolute position of its first char.
+    private char[] window;
+    private int windowPos = 0;
+    private int windowEnd = 0;
+    private long windowOffset = 0;
+
+    // The current token.
+    private char[] tokenBuf;
+    private int tokenOff;
+    private int tokenLen;
+    private boolean numNeedsNorm;
+    private boolean numIsInteger;
+
     private final Buffer buffer;
+    private final String[] nameCache = new String[NAME_CACHE_SIZE];
     private State state = State.OTHER;
     private final List<State> stateStack = new ArrayList<>();
 
-    public JsonTokeniser(Reader rdr) {
+    public JsonTokeniser(Reader rdr, int windowSize) {
         this.rdr = rdr;
+        this.window = new char[windowSize];
         this.buffer = new Buffer();
     }
 
+    public JsonTokeniser(Reader rdr) {
+        this(rdr, DEFAULT_WINDOW_SIZE);
+    }
+
+    @Override
     public long position() {
-        return pos;
+        return windowOffset + windowPos;
     }
 
+    @Override
     public JsonException raiseError(String msg) {
-        return new JsonException(msg + ", at position " + pos);
+        return new JsonException(msg + ", at position " + position());
     }
 
     private void pushState(State newState) {
@@ -87,16 +133,45 @@ private void popState() {
         }
     }
 
+    /**
+     * Refill the window, retaining the chars from {@code keepFrom} onwards.
+     * @return          the number of chars by which the retained chars were shifted,
+     *                  or -1 if the end of the input has been reached
+     */
+    private int fill(int keepFrom) throws IOException {
+        if (rdrEof) {
+            return -1;
+        }
+
+        final int keep = windowEnd - keepFrom;
+        if (keepFrom > 0) {
+            System.arraycopy(window, keepFrom, window, 0, keep);
+            windowOffset += keepFrom;
+            windowPos -= keepFrom;
+            windowEnd = keep;
+        } else if (keep == window.length) {
+            if (window.length >= Integer.MAX_VALUE / 2) {
+                throw new IllegalStateException("Buffer too large");
+            }
+            window = Arrays.copyOf(window, window.length * 2);
+        }
+
+        final int n = rdr.read(window, windowEnd, window.length - windowEnd);
+        if (n == -1) {
+            rdrEof = true;
+            return -1;
+        } else {
+            windowEnd += n;
+            return keepFrom;
+        }
+    }
+
     private int nextChar() throws IOException {
-        int nc;
-        if (nextChar == EMPTY) {
-            nc = rdr.read();
-            ++pos;
+        if (windowPos == windowEnd && fill(windowPos) == -1) {
+            return -1;
         } else {
-            nc = nextChar;
-            nextChar = EMPTY;
+            return window[windowPos++];
         }
-        return nc;
     }
 
     private char nextCharOrThrow(String msg) throws IOException {
@@ -122,12 +197,46 @@ private void parseSymbol(char[] s) throws IOException {
         }
     }
 
+    private void setToken(char[] buf, int off, int len) {
+        tokenBuf = buf;
+        tokenOff = off;
+        tokenLen = len;
+    }
+
     enum NumState {
         A, B, C, D, E, F, G, H, I, J, Z
     }
 
+    /**
+     * Return the next event.
+     * String, field name and number events carry their token text as a {@code String}.
+     * @return          the next event
+     */
+    @Override
     public JsonEvent getNextEvent() {
-        if (rdr == null) {
+        final JsonEvent.Type type = nextToken();
+        switch (type) {
+            case FIELD_NAME:
+                return new JsonEvent.FieldName(tokenString());
+            case STRING:
+                return new JsonEvent.JString(tokenString());
+            case NUMBER:
+                return new JsonEvent.JNumber(tokenString());
+            default:
+                return type;
+        }
+    }
+
+    /**
+     * Advance to the next token and return its type.
+     * For {@code FIELD_NAME}, {@code STRING} and {@code NUMBER} tokens,
+     * the token text is then available via the {@code token*} methods,
+     * until the next call to this method.
+     * @return          the type of the next token
+     */
+    @Override
+    public JsonEvent.Type nextToken() {
+        if (eof) {
             return JsonEvent.Type.EOF;
         }
 
@@ -140,7 +249,7 @@ public JsonEvent getNextEvent() {
             }
 
             if (ic == -1) {
-                rdr = null;
+                eof = true;
                 return JsonEvent.Type.EOF;
             } else {
                 switch (nc) {
@@ -164,70 +273,11 @@ public JsonEvent getNextEvent() {
                     case ':':
                         state = State.OBJECT_VALUE;
                         return JsonEvent.Type.COLON;
-                    case '"': {
-                        while (true) {
-                            final char c2 = nextStringChar();
-                            switch (c2) {
-                                case '"':
-                                    return (state == State.OBJECT_NAME) ?
-                                            new JsonEvent.FieldName(buffer.release()) :
-                                            new JsonEvent.JString(buffer.release());
-                                case '\\': {
-                                    final char esc0 = nextStringChar();
-                                    switch (esc0) {
-                                        case 'u':
-                                            final byte esc1 = nextStringUniChar();
-                                            final byte esc2 = nextStringUniChar();
-                                            final byte esc3 = nextStringUniChar();
-                                            final byte esc4 = nextStringUniChar();
-                                            final int hc = (esc1 << 12) | (esc2 << 8) | (esc3 << 4) | (esc4);
-                                            buffer.add((char)hc);
-                                            break;
-                                        case '\\':
-                                            buffer.add('\\');
-                                            break;
-                                        case '/':
-                                            buffer.add('/');
-                                            break;
-                                        case 'b':
-                                            buffer.add('\b');
-                                            break;
-                                        case 'f':
-                                            buffer.add('\f');
-                                            break;
-                                        case 'n':
-                                            buffer.add('\n');
-                                            break;
-                                        case 'r':
-                                            buffer.add('\r');
-                                            break;
-                                        case 't':
-                                            buffer.add('\t');
-                                            break;
-                                        case '"':
-                                            buffer.add('"');
-                                            break;
-                                        default:
-                                            throw raiseError(
-                                                    "Unrecognised escape character in string - '" + esc0 + "'"
-                                            );
-                                    }
-                                    break;
-                                }
-                                case '\b':
-                                case '\f':
-                                case '\n':
-                                case '\r':
-                                case '\t':
-                                    throw raiseError(
-                                            "Control characters not allowed in strings"
-                                    );
-                                default:
-                                    buffer.add(c2);
-                                    break;
-                            }
-                        }
-                    }
+                    case '"':
+                        parseString();
+                        return (state == State.OBJECT_NAME) ?
+                                JsonEvent.Type.FIELD_NAME :
+                                JsonEvent.Type.STRING;
                     case 't': {
                         parseSymbol(TRUE);
                         return JsonEvent.Type.TRUE;
@@ -241,8 +291,8 @@ public JsonEvent getNextEvent() {
                         return JsonEvent.Type.NULL;
                     }
                     case '0':
-                        buffer.add(nc);
-                        return parseNumber(NumState.B);
+                        parseNumber(NumState.B);
+                        return JsonEvent.Type.NUMBER;
                     case '1':
                     case '2':
                     case '3':
@@ -252,43 +302,12 @@ public JsonEvent getNextEvent() {
                     case '7':
                     case '8':
                     case '9':
-                        buffer.add(nc);
-                        return parseNumber(NumState.C);
+                        parseNumber(NumState.C);
+                        return JsonEvent.Type.NUMBER;
                     case '-':
                     case '+':
-                        buffer.add(nc);
-                        return parseNumber(NumState.A);
-//                    case '/':
-//                        if (!allowComments) {
-//                            throw raiseError(
-//                                    "Unexpected input '" + nc +
-//                                         "' (support for comments is not enabled)");
-//                        } else {
-//                            char c2 = nextCharOrThrow();
-//                            switch (c2) {
-//                                case '/': {
-//                                    c2 = nextCharOrThrow();
-//                                    while (c2 != '\r' && c2 != '\n') {
-//                                        c2 = nextCharOrThrow();
-//                                    }
-//
-//                                    nextChar = c2;
-//                                    break;
-//                                }
-//                                case '*': {
-//                                    c2 = nextCharOrThrow();
-//                                    while (c2 != '*' && nextCharOrThrow() != '/') {
-//                                        c2 = nextCharOrThrow();
-//                                    }
-//
-//                                    nextChar = c2;
-//                                    break;
-//                                }
-//                                default:
-//                                    throw raiseError("Unexpected input '" + nc + "'");
-//                            }
-//                        }
-//                        break;
+                        parseNumber(NumState.A);
+                        return JsonEvent.Type.NUMBER;
                     default:
                         throw raiseError("Unexpected input '" + nc + "'");
                 }
@@ -298,6 +317,239 @@ public JsonEvent getNextEvent() {
         }
     }
 
+    /**
+     * Return the buffer holding the current token text.
+     * @return          the buffer holding the current token text
+     */
+    public char[] tokenBuffer() {
+        return tokenBuf;
+    }
+
+    /**
+     * Return the offset of the current token text within the token buffer.
+     * @return          the offset of the current token text
+     */
+    public int tokenOffset() {
+        return tokenOff;
+    }
+
+    /**
+     * Return the length of the current token text.
+     * @return          the length of the current token text
+     */
+    public int tokenLength() {
+        return tokenLen;
+    }
+
+    /**
+     * Return the current token text as a {@code String}.
+     * Field names are interned via a small per-tokeniser cache,
+     * so repeated names yield the same {@code String} instance.
+     * Numbers are normalised so that the exponent marker is {@code 'E'}
+     * and any explicit {@code '+'} exponent sign is omitted.
+     * @return          the current token text
+     */
+    @Override
+    public String tokenString() {
+        if (numNeedsNorm) {
+            return normalisedNumber();
+        } else if (state == State.OBJECT_NAME && tokenLen <= MAX_CACHED_NAME_LENGTH) {
+            return cachedName();
+        } else {
+            return new String(tokenBuf, tokenOff, tokenLen);
+        }
+    }
+
+    /**
+     * Return the current number token as a {@code long}.
+     * @return          the current number token as a {@code long}
+     * @throws NumberFormatException if the number is not an integer or is out of range
+     */
+    @Override
+    public long tokenLong() {
+        return JsonNumbers.parseLong(tokenBuf, tokenOff, tokenLen);
+    }
+
+    /**
+     * Indicates whether the current number token is an integer which can be exactly represented as a {@code double},
+     * i.e. has no fraction or exponent, at most 15 digits, and is not negative zero.
+     * @return          true if the current number token is a small integer
+     */
+    @Override
+    public boolean tokenIsSmallInteger() {
+        if (!numIsInteger) {
+            return false;
+        } else if (tokenBuf[tokenOff] == '-') {
+            return tokenLen <= 16 && !(tokenLen == 2 && tokenBuf[tokenOff + 1] == '0');
+        } else {
+            return tokenLen <= 15;
+        }
+    }
+
+    /**
+     * Return the current number token as a {@code double}.
+     * @return          the current number token as a {@code double}
+     */
+    @Override
+    public double tokenDouble() {
+        return JsonNumbers.parseDouble(tokenBuf, tokenOff, tokenLen);
+    }
+
+    /**
+     * Compare the current token text with a string, without constructing a {@code String} for the token.
+     * @param s         the string to compare with
+     * @return          true if the token text equals the string
+     */
+    @Override
+    public boolean tokenEquals(String s) {
+        return regionEquals(s);
+    }
+
+    private String cachedName() {
+        int hash = 0;
+        for (int i = tokenOff, end = tokenOff + tokenLen; i < end; ++i) {
+            hash = 31 * hash + tokenBuf[i];
+        }
+
+        final int slot = (hash ^ (hash >>> 16)) & (NAME_CACHE_SIZE - 1);
+        final String cached = nameCache[slot];
+        if (cached != null && regionEquals(cached)) {
+            return cached;
+        } else {
+            final String name = new String(tokenBuf, tokenOff, tokenLen);
+            nameCache[slot] = name;
+            return name;
+        }
+    }
+
+    private boolean regionEquals(String s) {
+        if (s.length() != tokenLen) {
+            return false;
+        }
+        for (int i = 0; i < tokenLen; ++i) {
+            if (s.charAt(i) != tokenBuf[tokenOff + i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private String normalisedNumber() {
+        final StringBuilder sb = new StringBuilder(tokenLen);
+        for (int i = tokenOff, end = tokenOff + tokenLen; i < end; ++i) {
+            final char c = tokenBuf[i];
+            if (c == 'e' || c == 'E') {
+                sb.append('E');
+                if (i + 1 < end && tokenBuf[i + 1] == '+') {
+                    ++i;
+                }
+            } else {
+                sb.append(c);
+            }
+        }
+        return sb.toString();
+    }
+
+    private void parseString() throws IOException {
+        numNeedsNorm = false;
+
+        // Fast path - scan the window for the closing quote.
+        int start = windowPos;
+        while (true) {
+            if (windowPos == windowEnd) {
+                final int shift = fill(start);
+                if (shift == -1) {
+                    throw raiseError("Unexpected end-of-input while parsing a string");
+                }
+                start -= shift;
+            }
+
+            final char c = window[windowPos];
+            if (c == '"') {
+                setToken(window, start, windowPos - start);
+                ++windowPos;
+                return;
+            } else if (c == '\\') {
+                break;
+            } else if (c < ' ') {
+                checkStringChar(c);
+            }
+            ++windowPos;
+        }
+
+        // Slow path - the string contains escape sequences, so copy it into the buffer.
+        buffer.clear();
+        buffer.add(window, start, windowPos - start);
+
+        while (true) {
+            final char c2 = nextStringChar();
+            switch (c2) {
+                case '"':
+                    setToken(buffer.buffer, 0, buffer.size);
+                    return;
+                case '\\': {
+                    final char esc0 = nextStringChar();
+                    switch (esc0) {
+                        case 'u':
+                            final byte esc1 = nextStringUniChar();
+                            final byte esc2 = nextStringUniChar();
+                            final byte esc3 = nextStringUniChar();
+                            final byte esc4 = nextStringUniChar();
+                            final int hc = (esc1 << 12) | (esc2 << 8) | (esc3 << 4) | (esc4);
+                            buffer.add((char)hc);
+                            break;
+                        case '\\':
+                            buffer.add('\\');
+                            break;
+                        case '/':
+                            buffer.add('/');
+                            break;
+                        case 'b':
+                            buffer.add('\b');
+                            break;
+                        case 'f':
+                            buffer.add('\f');
+                            break;
+                        case 'n':
+                            buffer.add('\n');
+                            break;
+                        case 'r':
+                            buffer.add('\r');
+                            break;
+                        case 't':
+                            buffer.add('\t');
+                            break;
+                        case '"':
+                            buffer.add('"');
+                            break;
+                        default:
+                            throw raiseError(
+                                    "Unrecognised escape character in string - '" + esc0 + "'"
+                            );
+                    }
+                    break;
+                }
+                default:
+                    checkStringChar(c2);
+                    buffer.add(c2);
+                    break;
+            }
+        }
+    }
+
+    private void checkStringChar(char c) {
+        switch (c) {
+            case '\b':
+            case '\f':
+            case '\n':
+            case '\r':
+            case '\t':
+                throw raiseError(
+                        "Control characters not allowed in strings"
+                );
+        }
+    }
+
     private char nextStringChar() throws IOException {
         return nextCharOrThrow("Unexpected end-of-input while parsing a string");
     }
@@ -339,10 +591,22 @@ private byte nextStringUniChar() throws IOException {
         }
     }
 
-    private JsonEvent.JNumber parseNumber(NumState state) throws IOException {
-        int ic = EMPTY;
-        while (state != NumState.Z && (ic = nextChar()) != -1) {
-            char c = (char)ic;
+    private void parseNumber(NumState state) throws IOException {
+        numNeedsNorm = false;
+        numIsInteger = true;
+
+        // The first char of the number has already been consumed.
+        int start = windowPos - 1;
+        while (state != NumState.Z) {
+            if (windowPos == windowEnd) {
+                final int shift = fill(start);
+                if (shift == -1) {
+                    break;
+                }
+                start -= shift;
+            }
+
+            final char c = window[windowPos];
             switch (state) {
                 case A:
                     switch (c) {
@@ -363,13 +627,15 @@ private JsonEvent.JNumber parseNumber(NumState state) throws IOException {
                     switch (c) {
                         case '.': {
                             state = NumState.D;
+                            numIsInteger = false;
                             break;
                         }
                         case 'e':
-                            c = 'E';
+                            numNeedsNorm = true;
                             // Fall-through
                         case 'E': {
                             state = NumState.F;
+                            numIsInteger = false;
                             break;
                         }
                         default: {
@@ -382,13 +648,15 @@ private JsonEvent.JNumber parseNumber(NumState state) throws IOException {
                     switch (c) {
                         case '.': {
                             state = NumState.D;
+                            numIsInteger = false;
                             break;
                         }
                         case 'e':
-                            c = 'E';
+                            numNeedsNorm = true;
                             // Fall-through
                         case 'E': {
                             state = NumState.F;
+                            numIsInteger = false;
                             break;
                         }
                         case '0': case '1': case '2': case '3': case '4':
@@ -415,10 +683,11 @@ private JsonEvent.JNumber parseNumber(NumState state) throws IOException {
                 case E:
                     switch (c) {
                         case 'e':
-                            c = 'E';
+                            numNeedsNorm = true;
                             // Fall-through
                         case 'E': {
                             state = NumState.F;
+                            numIsInteger = false;
                             break;
                         }
                         case '0': case '1': case '2': case '3': case '4':
@@ -433,6 +702,7 @@ private JsonEvent.JNumber parseNumber(NumState state) throws IOException {
                 case F:
                     switch (c) {
                         case '+': {
+                            numNeedsNorm = true;
                             state = NumState.J;
                             break;
                         }
@@ -464,10 +734,11 @@ private JsonEvent.JNumber parseNumber(NumState state) throws IOException {
                 case H:
                     switch (c) {
                         case 'e':
-                            c = 'E';
+                            numNeedsNorm = true;
                             // Fall-through
                         case 'E': {
                             state = NumState.F;
+                            numIsInteger = false;
                             break;
                         }
                         default: {
@@ -489,23 +760,20 @@ private JsonEvent.JNumber parseNumber(NumState state) throws IOException {
                     }
                     break;
             }
-            if (state != NumState.Z && state != NumState.J) {
-                buffer.add(c);
+            if (state != NumState.Z) {
+                ++windowPos;
             }
         }
 
-        if (ic != EMPTY) {
-            nextChar = ic;
-        }
-
         switch (state) {
             case A:
             case D:
             case F:
             case G:
+            case J:
                 throw raiseError("Unexpected end-of-input while parsing a number");
             default:
-                return new JsonEvent.JNumber(buffer.release());
+                setToken(window, start, windowPos - start);
         }
     }
 }
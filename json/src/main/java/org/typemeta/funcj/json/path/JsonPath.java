@@ -0,0 +1,256 @@
+package org.typemeta.funcj.json.path;
+
+import org.typemeta.funcj.functions.SideEffect;
+import org.typemeta.funcj.json.model.*;
+
+import java.util.*;
+
+/**
+ * A compiled JSON path, consisting of a sequence of steps from the root value.
+ * <p>
+ * The supported syntax is a subset of JSONPath:
+ * <ul>
+ *     <li>{@code $} - the root value;</li>
+ *     <li>{@code .name} or {@code ['name']} - the named field of an object;</li>
+ *     <li>{@code [n]} - the element at index {@code n} of an array;</li>
+ *     <li>{@code .*} or {@code [*]} - every field value of an object, or every element of an array.</li>
+ * </ul>
+ * For example, {@code $.header.id} or {@code $.items[*].price}.
+ */
+public final class JsonPath {
+
+    enum Kind {
+        FIELD, INDEX, ANY
+    }
+
+    static final class Step {
+        final Kind kind;
+        final String name;
+        final int index;
+
+        Step(Kind kind, String name, int index) {
+            this.kind = kind;
+            this.name = name;
+            this.index = index;
+        }
+
+        @Override
+        public String toString() {
+            switch (kind) {
+                case FIELD:
+                    return "['" + name.replace("\\", "\\\\").replace("'", "\\'") + "']";
+                case INDEX:
+                    return "[" + index + "]";
+                default:
+                    return "[*]";
+            }
+        }
+    }
+
+    /**
+     * Compile a JSON path expression.
+     * @param expr      the path expression
+     * @return          the compiled path
+     * @throws IllegalArgumentException if the expression is not a valid path
+     */
+    public static JsonPath compile(String expr) {
+        return new Compiler(expr).compile();
+    }
+
+    final String expr;
+    final Step[] steps;
+
+    private JsonPath(String expr, Step[] steps) {
+        this.expr = expr;
+        this.steps = steps;
+    }
+
+    /**
+     * @return          the number of steps in this path
+     */
+    public int length() {
+        return steps.length;
+    }
+
+    /**
+     * Apply this path to a JSON value, and pass each matching value to a callback.
+     * @param jsv       the root value
+     * @param callback  the callback
+     */
+    public void select(JsValue jsv, SideEffect.F<JsValue> callback) {
+        select(jsv, 0, callback);
+    }
+
+    /**
+     * Apply this path to a JSON value, and return the matching values.
+     * @param jsv       the root value
+     * @return          the matching values
+     */
+    public List<JsValue> select(JsValue jsv) {
+        final List<JsValue> results = new ArrayList<>();
+        select(jsv, results::add);
+        return results;
+    }
+
+    /**
+     * Apply the steps of this path, from step {@code from} onwards, to a JSON value.
+     */
+    void select(JsValue jsv, int from, SideEffect.F<JsValue> callback) {
+        if (from == steps.length) {
+            callback.apply(jsv);
+            return;
+        }
+
+        final Step step = steps[from];
+        switch (step.kind) {
+            case FIELD:
+                if (jsv.isObject() && jsv.asObject().containsName(step.name)) {
+                    select(jsv.asObject().get(step.name), from + 1, callback);
+                }
+                break;
+            case INDEX:
+                if (jsv.isArray() && step.index < jsv.asArray().size()) {
+                    select(jsv.asArray().get(step.index), from + 1, callback);
+                }
+                break;
+            case ANY:
+                if (jsv.isObject()) {
+                    for (JsObject.Field field : jsv.asObject()) {
+                        select(field.value(), from + 1, callback);
+                    }
+                } else if (jsv.isArray()) {
+                    for (JsValue elem : jsv.asArray()) {
+                        select(elem, from + 1, callback);
+                    }
+                }
+                break;
+        }
+    }
+
+    @Override
+    public String toString() {
+        return expr;
+    }
+
+    @Override
+    public boolean equals(Object rhs) {
+        if (this == rhs) {
+            return true;
+        } else if (rhs == null || getClass() != rhs.getClass()) {
+            return false;
+        } else {
+            return Arrays.toString(steps).equals(Arrays.toString(((JsonPath)rhs).steps));
+        }
+    }
+
+    @Override
+    public int hashCode() {
+        return Arrays.toString(steps).hashCode();
+    }
+
+    private static final class Compiler {
+        private final String expr;
+        private int pos = 0;
+
+        private Compiler(String expr) {
+            this.expr = expr;
+        }
+
+        private IllegalArgumentException error(String msg) {
+            return new IllegalArgumentException(msg + " at position " + pos + " in JSON path '" + expr + "'");
+        }
+
+        private boolean isNameChar(char c) {
+            return Character.isLetterOrDigit(c) || c == '_' || c == '$' || c == '-';
+        }
+
+        JsonPath compile() {
+            if (!expr.startsWith("$")) {
+                throw error("Expected '$'");
+            }
+            pos = 1;
+
+            final List<Step> steps = new ArrayList<>();
+            while (pos < expr.length()) {
+                final char c = expr.charAt(pos++);
+                if (c == '.') {
+                    steps.add(dotStep());
+                } else if (c == '[') {
+                    steps.add(bracketStep());
+                } else {
+                    --pos;
+                    throw error("Unexpected '" + c + "'");
+                }
+            }
+
+            return new JsonPath(expr, steps.toArray(new Step[0]));
+        }
+
+        private Step dotStep() {
+            if (pos < expr.length() && expr.charAt(pos) == '*') {
+                ++pos;
+                return new Step(Kind.ANY, null, -1);
+            }
+
+            final int start = pos;
+            while (pos < expr.length() && isNameChar(expr.charAt(pos))) {
+                ++pos;
+            }
+
+            if (pos == start) {
+                throw error("Expected a field name");
+            }
+
+            return new Step(Kind.FIELD, expr.substring(start, pos), -1);
+        }
+
+        private Step bracketStep() {
+            if (pos == expr.length()) {
+                throw error("Unexpected end of path");
+            }
+
+            final char c = expr.charAt(pos);
+            final Step step;
+            if (c == '*') {
+                ++pos;
+                step = new Step(Kind.ANY, null, -1);
+            } else if (c == '\'' || c == '"') {
+                ++pos;
+                final StringBuilder sb = new StringBuilder();
+                while (true) {
+                    if (pos == expr.length()) {
+                        throw error("Unterminated field name");
+                    }
+                    final char c2 = expr.charAt(pos++);
+                    if (c2 == c) {
+                        break;
+                    } else if (c2 == '\\' && pos < expr.length()) {
+                        sb.append(expr.charAt(pos++));
+                    } else {
+                        sb.append(c2);
+                    }
+                }
+                step = new Step(Kind.FIELD, sb.toString(), -1);
+            } else if (c >= '0' && c <= '9') {
+                final int start = pos;
+                while (pos < expr.length() && expr.charAt(pos) >= '0' && expr.charAt(pos) <= '9') {
+                    ++pos;
+                }
+                try {
+                    step = new Step(Kind.INDEX, null, Integer.parseInt(expr.substring(start, pos)));
+                } catch (NumberFormatException ex) {
+                    throw error("Array index out of range");
+                }
+            } else {
+                throw error("Unexpected '" + c + "'");
+            }
+
+            if (pos == expr.length() || expr.charAt(pos) != ']') {
+                throw error("Expected ']'");
+            }
+            ++pos;
+
+            return step;
+        }
+    }
+}
@@ -0,0 +1,402 @@
+package org.typemeta.funcj.json.path;
+
+import org.typemeta.funcj.functions.SideEffect;
+import org.typemeta.funcj.json.model.JsValue;
+import org.typemeta.funcj.json.parser.*;
+import org.typemeta.funcj.json.parser.JsonEvent.Type;
+
+import java.io.*;
+import java.util.*;
+import java.util.function.Consumer;
+import java.util.stream.*;
+
+/**
+ * A set of {@link JsonPath}s, which are evaluated together in a single pass over a JSON token stream,
+ * without constructing a {@link JsValue} for the whole document.
+ * <p>
+ * Subtrees which cannot contain a match for any of the paths are skipped at the token level,
+ * without decoding their strings and numbers.
+ * Only the matched values themselves are constructed.
+ * Where one path matches a value and another path continues below it,
+ * the latter is evaluated against the constructed value.
+ * <p>
+ * Matches are reported in document order.
+ * Input following the first JSON value is not read.
+ */
+public final class JsonQuery {
+
+    /**
+     * A value matched by a path.
+     */
+    public static final class Match {
+        private final JsonPath path;
+        private final JsValue value;
+
+        Match(JsonPath path, JsValue value) {
+            this.path = path;
+            this.value = value;
+        }
+
+        public JsonPath path() {
+            return path;
+        }
+
+        public JsValue value() {
+            return value;
+        }
+
+        @Override
+        public String toString() {
+            return path + "=" + value;
+        }
+    }
+
+    /**
+     * Compile a query from a set of path expressions.
+     * @param exprs     the path expressions
+     * @return          the query
+     * @throws IllegalArgumentException if any expression is not a valid path
+     */
+    public static JsonQuery of(String... exprs) {
+        return new JsonQuery(Arrays.stream(exprs).map(JsonPath::compile).toArray(JsonPath[]::new));
+    }
+
+    public static JsonQuery of(JsonPath... paths) {
+        return new JsonQuery(paths.clone());
+    }
+
+    private final JsonPath[] paths;
+
+    private JsonQuery(JsonPath[] paths) {
+        this.paths = paths;
+    }
+
+    public List<JsonPath> paths() {
+        return Collections.unmodifiableList(Arrays.asList(paths));
+    }
+
+    /**
+     * Evaluate the query over JSON read from a {@code Reader},
+     * and pass each match to a callback, as it is found.
+     * @param rdr       the reader
+     * @param callback  the callback
+     * @throws JsonException if an error occurs while parsing the input
+     */
+    public void forEach(Reader rdr, SideEffect.F2<JsonPath, JsValue> callback) {
+        final Evaluator ev = new Evaluator(new JsonTokeniser(rdr));
+        final SideEffect.F<Match> sink = m -> callback.apply(m.path, m.value);
+        while (ev.step(sink)) {
+        }
+    }
+
+    public void forEach(String json, SideEffect.F2<JsonPath, JsValue> callback) {
+        forEach(new StringReader(json), callback);
+    }
+
+    /**
+     * Evaluate the query lazily over JSON read from a {@code Reader}.
+     * The input is read as the stream is consumed.
+     * @param rdr       the reader
+     * @return          the stream of matches
+     */
+    public Stream<Match> stream(Reader rdr) {
+        final Evaluator ev = new Evaluator(new JsonTokeniser(rdr));
+        final ArrayDeque<Match> pending = new ArrayDeque<>();
+        final SideEffect.F<Match> sink = pending::add;
+        final Spliterator<Match> split = new Spliterators.AbstractSpliterator<Match>(
+                Long.MAX_VALUE,
+                Spliterator.ORDERED | Spliterator.NONNULL) {
+            @Override
+            public boolean tryAdvance(Consumer<? super Match> action) {
+                while (pending.isEmpty() && ev.step(sink)) {
+                }
+                if (pending.isEmpty()) {
+                    return false;
+                } else {
+                    action.accept(pending.poll());
+                    return true;
+                }
+            }
+        };
+        return StreamSupport.stream(split, false);
+    }
+
+    public Stream<Match> stream(String json) {
+        return stream(new StringReader(json));
+    }
+
+    /**
+     * Evaluate the query over JSON read from a {@code Reader}, and collect the matches for each path.
+     * @param rdr       the reader
+     * @return          the matches, keyed by path, in the order the paths were given
+     */
+    public Map<JsonPath, List<JsValue>> select(Reader rdr) {
+        final Map<JsonPath, List<JsValue>> results = new LinkedHashMap<>();
+        for (JsonPath path : paths) {
+            results.put(path, new ArrayList<>());
+        }
+        forEach(rdr, (path, value) -> results.get(path).add(value));
+        return results;
+    }
+
+    /**
+     * The state for a container being traversed.
+     */
+    private static final class Frame {
+        boolean isObj;
+        int count;
+        boolean needComma;
+
+        // The paths whose steps have matched the path to this container.
+        final int[] active;
+        int activeCount;
+
+        Frame(int pathCount) {
+            this.active = new int[pathCount];
+        }
+    }
+
+    // The states of a container being skipped, i.e. the last token read within an object or array.
+    private static final byte NONE = 0;
+    private static final byte OBJ_START = 1;
+    private static final byte OBJ_NAME = 2;
+    private static final byte OBJ_COLON = 3;
+    private static final byte OBJ_VALUE = 4;
+    private static final byte OBJ_COMMA = 5;
+    private static final byte ARR_START = 6;
+    private static final byte ARR_VALUE = 7;
+    private static final byte ARR_COMMA = 8;
+
+    private final class Evaluator {
+        private final JsonTokeniser tokeniser;
+        private final JsonParser parser;
+
+        private Frame[] stack = new Frame[16];
+        private int depth = 0;
+
+        private byte[] skipStack = new byte[16];
+
+        private boolean started = false;
+        private boolean done = false;
+
+        Evaluator(JsonTokeniser tokeniser) {
+            this.tokeniser = tokeniser;
+            this.parser = new JsonParser(tokeniser);
+        }
+
+        // Return the frame at the given depth, for use as the next child frame.
+        private Frame frame(int d) {
+            if (d == stack.length) {
+                stack = Arrays.copyOf(stack, d * 2);
+            }
+            Frame f = stack[d];
+            if (f == null) {
+                f = new Frame(paths.length);
+                stack[d] = f;
+            }
+            return f;
+        }
+
+        /**
+         * Process the next token.
+         * @return          false if the end of the value has been reached
+         */
+        boolean step(SideEffect.F<Match> sink) {
+            if (done) {
+                return false;
+            }
+
+            if (!started) {
+                started = true;
+                final Type type = tokeniser.nextToken();
+                if (type == Type.EOF) {
+                    throw tokeniser.raiseError("Unexpected EOF");
+                }
+                final Frame child = frame(0);
+                child.activeCount = 0;
+                for (int i = 0; i < paths.length; ++i) {
+                    child.active[child.activeCount++] = i;
+                }
+                processChild(type, child, 0, sink);
+            } else {
+                final Frame f = stack[depth - 1];
+                final Type type = tokeniser.nextToken();
+                switch (type) {
+                    case COMMA:
+                        if (!f.needComma) {
+                            throw tokeniser.raiseError("Unexpected COMMA");
+                        }
+                        f.needComma = false;
+                        break;
+                    case OBJECT_END:
+                    case ARRAY_END:
+                        if (type != (f.isObj ? Type.OBJECT_END : Type.ARRAY_END) ||
+                                (!f.needComma && f.count > 0)) {
+                            throw tokeniser.raiseError("Unexpected " + type);
+                        }
+                        --depth;
+                        break;
+                    case EOF:
+                        throw tokeniser.raiseError("Unexpected EOF");
+                    case FIELD_NAME:
+                        if (!f.isObj || f.needComma) {
+                            throw tokeniser.raiseError("Unexpected " + type);
+                        }
+                        matchField(f, depth - 1);
+                        if (tokeniser.nextToken() != Type.COLON) {
+                            throw tokeniser.raiseError("Expected " + Type.COLON);
+                        }
+                        f.needComma = true;
+                        ++f.count;
+                        processChild(tokeniser.nextToken(), stack[depth], depth, sink);
+                        break;
+                    default:
+                        if (f.isObj || f.needComma) {
+                            throw tokeniser.raiseError("Unexpected " + type);
+                        }
+                        matchIndex(f, depth - 1, f.count);
+                        f.needComma = true;
+                        ++f.count;
+                        processChild(type, stack[depth], depth, sink);
+                        break;
+                }
+            }
+
+            if (depth == 0) {
+                done = true;
+            }
+
+            return !done;
+        }
+
+        private void matchField(Frame f, int level) {
+            final Frame child = frame(level + 1);
+            child.activeCount = 0;
+            for (int i = 0; i < f.activeCount; ++i) {
+                final int id = f.active[i];
+                final JsonPath.Step step = paths[id].steps[level];
+                if (step.kind == JsonPath.Kind.ANY ||
+                        step.kind == JsonPath.Kind.FIELD && tokeniser.tokenEquals(step.name)) {
+                    child.active[child.activeCount++] = id;
+                }
+            }
+        }
+
+        private void matchIndex(Frame f, int level, int index) {
+            final Frame child = frame(level + 1);
+            child.activeCount = 0;
+            for (int i = 0; i < f.activeCount; ++i) {
+                final int id = f.active[i];
+                final JsonPath.Step step = paths[id].steps[level];
+                if (step.kind == JsonPath.Kind.ANY ||
+                        step.kind == JsonPath.Kind.INDEX && step.index == index) {
+                    child.active[child.activeCount++] = id;
+                }
+            }
+        }
+
+        /**
+         * Process a child value, the first token of which has been read,
+         * and which has been reached by the paths in {@code child.active},
+         * after matching {@code level} steps.
+         */
+        private void processChild(Type type, Frame child, int level, SideEffect.F<Match> sink) {
+            if (child.activeCount == 0) {
+                skip(type);
+                return;
+            }
+
+            boolean complete = false;
+            for (int i = 0; i < child.activeCount; ++i) {
+                if (paths[child.active[i]].length() == level) {
+                    complete = true;
+                    break;
+                }
+            }
+
+            if (complete) {
+                final JsValue value = parser.readValue(type);
+                for (int i = 0; i < child.activeCount; ++i) {
+                    final JsonPath path = paths[child.active[i]];
+                    path.select(value, level, jv -> sink.apply(new Match(path, jv)));
+                }
+            } else if (type == Type.OBJECT_START || type == Type.ARRAY_START) {
+                child.isObj = type == Type.OBJECT_START;
+                child.count = 0;
+                child.needComma = false;
+                ++depth;
+            } else if (type != Type.NULL && type != Type.TRUE && type != Type.FALSE &&
+                    type != Type.NUMBER && type != Type.STRING) {
+                throw tokeniser.raiseError("Unexpected " + type);
+            }
+        }
+
+        /**
+         * Skip over a value, the first token of which has been read.
+         * The value is validated, but no values are constructed.
+         */
+        private void skip(Type type) {
+            int d = 0;
+            while (true) {
+                // The state of the innermost container being skipped, if any.
+                final byte state = d == 0 ? NONE : skipStack[d - 1];
+                final boolean valid;
+                switch (type) {
+                    case OBJECT_END:
+                        valid = state == OBJ_START || state == OBJ_VALUE;
+                        --d;
+                        break;
+                    case ARRAY_END:
+                        valid = state == ARR_START || state == ARR_VALUE;
+                        --d;
+                        break;
+                    case COMMA:
+                        valid = state == OBJ_VALUE || state == ARR_VALUE;
+                        if (valid) {
+                            skipStack[d - 1] = state == OBJ_VALUE ? OBJ_COMMA : ARR_COMMA;
+                        }
+                        break;
+                    case FIELD_NAME:
+                        valid = state == OBJ_START || state == OBJ_COMMA;
+                        if (valid) {
+                            skipStack[d - 1] = OBJ_NAME;
+                        }
+                        break;
+                    case COLON:
+                        valid = state == OBJ_NAME;
+                        if (valid) {
+                            skipStack[d - 1] = OBJ_COLON;
+                        }
+                        break;
+                    case EOF:
+                        throw tokeniser.raiseError("Unexpected EOF");
+                    default:
+                        valid = state == NONE || state == OBJ_COLON || state == ARR_START || state == ARR_COMMA;
+                        if (valid && state != NONE) {
+                            skipStack[d - 1] = state == OBJ_COLON ? OBJ_VALUE : ARR_VALUE;
+                        }
+                        if (type == Type.OBJECT_START || type == Type.ARRAY_START) {
+                            if (d == skipStack.length) {
+                                skipStack = Arrays.copyOf(skipStack, d * 2);
+                            }
+                            skipStack[d++] = type == Type.OBJECT_START ? OBJ_START : ARR_START;
+                        } else if (type != Type.NULL && type != Type.TRUE && type != Type.FALSE &&
+                                type != Type.NUMBER && type != Type.STRING) {
+                            throw tokeniser.raiseError("Unexpected " + type);
+                        }
+                        break;
+                }
+
+                if (!valid) {
+                    throw tokeniser.raiseError("Unexpected " + type);
+                }
+
+                if (d == 0) {
+                    return;
+                }
+
+                type = tokeniser.nextToken();
+            }
+        }
+    }
+}
@@ -0,0 +1,5 @@
+/**
+ * This package contains compiled JSON paths,
+ * and queries which evaluate them over a JSON token stream.
+ */
+package org.typemeta.funcj.json.path;
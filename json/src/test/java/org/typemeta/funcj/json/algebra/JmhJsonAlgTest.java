@@ -0,0 +1,65 @@
+package org.typemeta.funcj.json.algebra;
+
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+import org.openjdk.jmh.runner.*;
+import org.openjdk.jmh.runner.options.*;
+import org.typemeta.funcj.json.model.JsValue;
+import org.typemeta.funcj.json.parser.JsonParser;
+
+import java.util.Random;
+
+/**
+ * Compares applying several algebras to a {@link JsValue} one at a time,
+ * against applying them in a single fused traversal.
+ */
+@State(Scope.Benchmark)
+public class JmhJsonAlgTest {
+
+    private JsValue jsv;
+
+    private final JsonAlgQueryTest.NodeCount nodeCount = new JsonAlgQueryTest.NodeCount();
+    private final JsonAlgQueryTest.NodeAsPrimes nodeAsPrimes = new JsonAlgQueryTest.NodeAsPrimes();
+
+    @Setup
+    public void setup() {
+        final Random rand = new Random(1234);
+        final StringBuilder sb = new StringBuilder("[");
+        for (int i = 0; i < 2000; ++i) {
+            if (i > 0) {
+                sb.append(',');
+            }
+            sb.append("{\"id\":").append(i)
+                    .append(",\"name\":\"item").append(rand.nextInt(1000)).append('"')
+                    .append(",\"flag\":").append(rand.nextBoolean())
+                    .append(",\"tags\":[\"a\",\"b\",null]")
+                    .append('}');
+        }
+        jsv = JsonParser.parse(sb.append(']').toString());
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.Throughput)
+    public void separate(Blackhole bh) {
+        bh.consume(jsv.apply(nodeCount));
+        bh.consume(jsv.apply(nodeAsPrimes));
+        bh.consume(jsv.apply(JsonId.INSTANCE));
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.Throughput)
+    public void fused(Blackhole bh) {
+        bh.consume(jsv.apply(nodeCount, nodeAsPrimes, JsonId.INSTANCE));
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        final Options opt = new OptionsBuilder()
+                .include(JmhJsonAlgTest.class.getSimpleName())
+                .warmupIterations(5)
+                .measurementIterations(5)
+                .forks(1)
+                .build();
+
+        new Runner(opt).run();
+    }
+}
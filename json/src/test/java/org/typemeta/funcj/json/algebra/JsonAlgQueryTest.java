@@ -2,6 +2,9 @@
 
 import org.junit.Test;
 import org.typemeta.funcj.algebra.*;
+import org.typemeta.funcj.json.model.JsValue;
+import org.typemeta.funcj.json.parser.JsonParser;
+import org.typemeta.funcj.tuples.*;
 
 import java.util.*;
 
@@ -105,4 +108,36 @@ public void computeNodeAsPrimes() {
         final long exp = 2l*3*3*5*5*5*5*5*5*5*7*7*7*11*11*11*11*13*13*13;
         assertEquals("Nodes mapped into primes and summed", exp, nc);
     }
+
+    @Test
+    public void computeFused() {
+        final Tuple3<Integer, Long, JsValue> res =
+                testValue.apply(new NodeCount(), new NodeAsPrimes(), JsonId.INSTANCE);
+        assertEquals("Count of nodes", testValue.apply(new NodeCount()), res._1);
+        assertEquals("Nodes mapped into primes", testValue.apply(new NodeAsPrimes()), res._2);
+        assertEquals("Identity", testValue, res._3);
+    }
+
+    @Test
+    public void computeFusedPrimitiveArray() {
+        final JsValue jsv = JsonParser.parse("{\"a\": [1, 2.5, 3], \"b\": [[4], \"x\"]}");
+        final Tuple2<Integer, JsValue> res = jsv.apply(new NodeCount(), JsonId.INSTANCE);
+        assertEquals("Count of nodes", Integer.valueOf(9), res._1);
+        assertEquals("Identity", jsv, res._2);
+    }
+
+    @Test
+    public void computeDeeplyNested() {
+        final int depth = 100000;
+        final StringBuilder sb = new StringBuilder();
+        for (int i = 0; i < depth; ++i) {
+            sb.append("[{\"a\":");
+        }
+        sb.append("null");
+        for (int i = 0; i < depth; ++i) {
+            sb.append("}]");
+        }
+        final JsValue jsv = JsonParser.parseLazy(sb.toString());
+        assertEquals("Count of nodes", depth * 2 + 1, jsv.apply(new NodeCount()).intValue());
+    }
 }
@@ -65,4 +65,15 @@ public void testIndent() {
         //System.out.println(actual);
         assertEquals(indent, actual);
     }
+
+    @Test
+    public void testWriterAlgebras() {
+        final StringWriter sw = new StringWriter();
+        TEST_JSON.apply(JsonWriter.INSTANCE).apply(sw);
+        assertEquals(nonIndent, sw.toString());
+
+        final StringWriter isw = new StringWriter();
+        TEST_JSON.apply(new JsonIndentWriter(4)).apply(0, isw);
+        assertEquals(indent, isw.toString());
+    }
 }
@@ -0,0 +1,71 @@
+package org.typemeta.funcj.json.comb;
+
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.*;
+import org.openjdk.jmh.runner.options.*;
+import org.typemeta.funcj.json.model.JsValue;
+
+import java.io.StringReader;
+import java.util.Random;
+
+/**
+ * Measures {@link JsonCombParser} over a payload of mostly non-ASCII text,
+ * read from a {@code String} and from a {@code Reader}.
+ */
+@State(Scope.Benchmark)
+public class JmhJsonCombParserTest {
+
+    private static final String[] WORDS = {
+            "Größe", "naïve", "日本語のテキスト", "ελληνικά", "кириллица", "emoji 😀", "plain"
+    };
+
+    @Param({"1024", "65536"})
+    public int size;
+
+    private String json;
+
+    @Setup
+    public void setup() {
+        final Random rand = new Random(1234);
+        final StringBuilder sb = new StringBuilder(size + 256);
+        sb.append('[');
+        for (int i = 0; sb.length() < size; ++i) {
+            if (i > 0) {
+                sb.append(',');
+            }
+            sb.append("{\"id\":").append(i)
+                    .append(",\"名前\":\"").append(WORDS[rand.nextInt(WORDS.length)]).append('"')
+                    .append(",\"説明\":\"");
+            for (int j = 0; j < 8; ++j) {
+                sb.append(WORDS[rand.nextInt(WORDS.length)]).append(' ');
+            }
+            sb.append("\",\"tags\":[\"α\",\"β\\n\",null]")
+                    .append('}');
+        }
+        sb.append(']');
+        json = sb.toString();
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.Throughput)
+    public JsValue parseString() {
+        return JsonCombParser.parse(json).getOrThrow();
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.Throughput)
+    public JsValue parseReader() {
+        return JsonCombParser.parse(new StringReader(json)).getOrThrow();
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        final Options opt = new OptionsBuilder()
+                .include(JmhJsonCombParserTest.class.getSimpleName())
+                .warmupIterations(5)
+                .measurementIterations(5)
+                .forks(1)
+                .build();
+
+        new Runner(opt).run();
+    }
+}
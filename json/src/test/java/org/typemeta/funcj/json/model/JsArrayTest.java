@@ -0,0 +1,108 @@
+package org.typemeta.funcj.json.model;
+
+import org.junit.Test;
+import org.typemeta.funcj.json.algebra.JsonId;
+import org.typemeta.funcj.json.parser.JsonParser;
+
+import java.util.stream.Collectors;
+
+import static org.junit.Assert.*;
+
+public class JsArrayTest {
+
+    private static JsArray boxed(double... values) {
+        return JSAPI.arr(
+                java.util.Arrays.stream(values)
+                        .mapToObj(JSAPI::num)
+                        .collect(Collectors.toList()));
+    }
+
+    private static void checkSame(JsArray exp, JsArray act) {
+        assertEquals(exp, act);
+        assertEquals(act, exp);
+        assertEquals(exp.hashCode(), act.hashCode());
+        assertEquals(exp.toString(), act.toString());
+        assertEquals(exp, act.apply(JsonId.INSTANCE));
+        assertArrayEquals(exp.toDoubleArray(), act.toDoubleArray(), 0.0);
+        assertArrayEquals(exp.toLongArray(), act.toLongArray());
+    }
+
+    @Test
+    public void testIntegers() {
+        final JsArray arr = JsonParser.parse("[1, -2, 3, 123456789012345, -123456789012345]").asArray();
+        assertTrue(arr.isPrimitive());
+        assertArrayEquals(new long[]{1, -2, 3, 123456789012345L, -123456789012345L}, arr.toLongArray());
+        checkSame(boxed(1, -2, 3, 123456789012345.0, -123456789012345.0), arr);
+    }
+
+    @Test
+    public void testDoubles() {
+        final JsArray arr = JsonParser.parse("[1, 2.5, -0, 3e2, 1234567890123456]").asArray();
+        assertTrue(arr.isPrimitive());
+        assertEquals(JSAPI.num(2.5), arr.get(1));
+        assertEquals(-0.0, arr.get(2).asNumber().value(), 0.0);
+        assertEquals(1 / -0.0, 1 / arr.get(2).asNumber().value(), 0.0);
+        checkSame(boxed(1, 2.5, -0.0, 300, 1234567890123456.0), arr);
+        assertEquals(1234567890123759.5, arr.doubleStream().sum(), 0.0);
+    }
+
+    @Test
+    public void testMixed() {
+        final JsArray arr = JsonParser.parse("[1, 2.5, \"x\", 4]").asArray();
+        assertFalse(arr.isPrimitive());
+        assertEquals(JSAPI.arr(JSAPI.num(1), JSAPI.num(2.5), JSAPI.str("x"), JSAPI.num(4)), arr);
+    }
+
+    @Test
+    public void testNested() {
+        final JsValue jsv = JsonParser.parse("{\"a\": [[1, 2], [3.5], []]}");
+        final JsArray arr = jsv.asObject().get("a").asArray();
+        assertTrue(arr.get(0).asArray().isPrimitive());
+        assertTrue(arr.get(1).asArray().isPrimitive());
+        assertEquals(jsv, jsv.apply(JsonId.INSTANCE));
+        assertEquals("{\"a\":[[1,2],[3.5],[]]}", jsv.toString());
+    }
+
+    @Test
+    public void testFactories() {
+        checkSame(boxed(1.5, 2, -3), JSAPI.arr(new double[]{1.5, 2, -3}));
+        checkSame(boxed(1, 2, -3), JSAPI.arr(new long[]{1, 2, -3}));
+        assertEquals(JSAPI.arr(new double[]{1, 2}), JSAPI.arr(new long[]{1, 2}));
+    }
+
+    @Test
+    public void testFactoriesCopy() {
+        final double[] doubles = {1.5, 2};
+        final JsArray darr = JSAPI.arr(doubles);
+        doubles[0] = 9;
+        checkSame(boxed(1.5, 2), darr);
+
+        final long[] longs = {1, 2};
+        final JsArray larr = JSAPI.arr(longs);
+        longs[0] = 9;
+        checkSame(boxed(1, 2), larr);
+    }
+
+    @Test
+    public void testFactoriesLength() {
+        final double[] doubles = {1.5, 2, 3};
+        final JsArray darr = JSAPI.arr(doubles, 2);
+        doubles[0] = 9;
+        checkSame(boxed(1.5, 2), darr);
+
+        final long[] longs = {1, 2, 3};
+        final JsArray larr = JSAPI.arr(longs, 2);
+        longs[0] = 9;
+        checkSame(boxed(1, 2), larr);
+    }
+
+    @Test(expected = RuntimeException.class)
+    public void testNonNumericToDoubleArray() {
+        JSAPI.arr(JSAPI.num(1), JSAPI.str("x")).toDoubleArray();
+    }
+
+    @Test(expected = RuntimeException.class)
+    public void testOutOfRange() {
+        JsonParser.parse("[1, 2, 1e400]");
+    }
+}
@@ -0,0 +1,79 @@
+package org.typemeta.funcj.json.model;
+
+import org.junit.Test;
+
+import java.io.*;
+
+import static org.junit.Assert.assertEquals;
+
+public class JsonOutputBufferTest {
+
+    private static String escapeEachChar(String s) {
+        final StringBuilder sb = new StringBuilder();
+        for (char c : s.toCharArray()) {
+            switch (c) {
+                case '\"': sb.append("\\\""); break;
+                case '\\': sb.append("\\\\"); break;
+                case '\b': sb.append("\\b"); break;
+                case '\f': sb.append("\\f"); break;
+                case '\n': sb.append("\\n"); break;
+                case '\r': sb.append("\\r"); break;
+                case '\t': sb.append("\\t"); break;
+                default:
+                    if (c <= '\u001F' || c >= '\u007F' && c <= '\u009F' || c >= '\u00ff') {
+                        sb.append("\\u").append(Integer.toHexString(c | 0x10000).substring(1));
+                    } else {
+                        sb.append(c);
+                    }
+            }
+        }
+        return sb.toString();
+    }
+
+    private static String allChars() {
+        final StringBuilder sb = new StringBuilder();
+        for (int i = 0; i < 0x200; ++i) {
+            sb.append("ab").append((char)i);
+        }
+        return sb.append('\uffff').toString();
+    }
+
+    @Test
+    public void testEscapeMatchesPerCharEscape() throws IOException {
+        final String s = allChars();
+        final StringWriter sw = new StringWriter();
+        try (JsonOutputBuffer buf = new JsonOutputBuffer(sw, 1)) {
+            buf.appendEscaped(s);
+        }
+        assertEquals(escapeEachChar(s), sw.toString());
+        assertEquals(escapeEachChar(s), Utils.escape(s, new StringBuilder()).toString());
+        assertEquals(escapeEachChar(s), Utils.escape(s, new StringWriter()).toString());
+    }
+
+    @Test
+    public void testQuotedChars() throws IOException {
+        final StringWriter sw = new StringWriter();
+        try (JsonOutputBuffer buf = JsonOutputBuffer.pooled(sw)) {
+            buf.appendQuoted('a').appendQuoted('"').appendQuoted('\u0001');
+        }
+        assertEquals("\"a\"\"\\\"\"\"\\u0001\"", sw.toString());
+    }
+
+    @Test
+    public void testNumbers() throws IOException {
+        final long[] longs = {0, 1, -1, 9, 10, 99, 100, 1234567890123L, Long.MAX_VALUE, Long.MIN_VALUE};
+        final StringWriter sw = new StringWriter();
+        final StringBuilder exp = new StringBuilder();
+        try (JsonOutputBuffer buf = new JsonOutputBuffer(sw, 40)) {
+            for (long l : longs) {
+                buf.append(l).append(',');
+                exp.append(l).append(',');
+            }
+            buf.append(Integer.MIN_VALUE).append(',');
+            exp.append(Integer.MIN_VALUE).append(',');
+            buf.append(1.5f).append(',').append(-0.001).append(',').appendNumber(1e3).append(',').appendNumber(2.5);
+            exp.append(1.5f).append(',').append(-0.001).append(',').append("1000").append(',').append("2.5");
+        }
+        assertEquals(exp.toString(), sw.toString());
+    }
+}
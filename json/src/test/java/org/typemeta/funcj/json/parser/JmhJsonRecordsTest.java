@@ -0,0 +1,109 @@
+package org.typemeta.funcj.json.parser;
+
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+import org.openjdk.jmh.runner.*;
+import org.openjdk.jmh.runner.options.*;
+import org.typemeta.funcj.json.model.JsValue;
+
+import java.io.StringReader;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.*;
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * Measures the scaling of parallel record parsing via {@link JsonRecords},
+ * for 1 to N threads, against a sequential parse of the whole input.
+ */
+@State(Scope.Benchmark)
+public class JmhJsonRecordsTest {
+
+    @Param({"1", "2", "4", "8", "16", "32"})
+    public int threads;
+
+    @Param({"ARRAY", "NDJSON"})
+    public String format;
+
+    private static final int RECORDS = 50000;
+
+    private String json;
+    private ByteBuffer utf8;
+    private ForkJoinPool pool;
+
+    @Setup
+    public void setup() {
+        final boolean isArray = format.equals("ARRAY");
+        final Random rand = new Random(1234);
+        final StringBuilder sb = new StringBuilder();
+        sb.append(isArray ? "[" : "");
+        for (int i = 0; i < RECORDS; ++i) {
+            if (i > 0) {
+                sb.append(isArray ? ",\n" : "\n");
+            }
+            sb.append("{\"id\":").append(i)
+                    .append(",\"name\":\"item").append(rand.nextInt(1000)).append('"')
+                    .append(",\"price\":").append(rand.nextInt(100000) / 100.0)
+                    .append(",\"description\":\"a longer string value, with an \\\"escape\\\" and a ]\"")
+                    .append(",\"tags\":[\"a\",\"b\",null]")
+                    .append('}');
+        }
+        sb.append(isArray ? "]" : "\n");
+        json = sb.toString();
+        utf8 = ByteBuffer.wrap(json.getBytes(StandardCharsets.UTF_8));
+        pool = new ForkJoinPool(threads);
+    }
+
+    @TearDown
+    public void tearDown() {
+        pool.shutdown();
+    }
+
+    private JsonRecords records(String json) {
+        return format.equals("ARRAY") ? JsonRecords.array(json) : JsonRecords.ndjson(json);
+    }
+
+    private JsonRecords records(ByteBuffer utf8) {
+        return format.equals("ARRAY") ? JsonRecords.array(utf8) : JsonRecords.ndjson(utf8);
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.Throughput)
+    public void parallelChars(Blackhole bh) {
+        bh.consume(records(json).parse(pool));
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.Throughput)
+    public void parallelBytes(Blackhole bh) {
+        bh.consume(records(utf8).parse(pool));
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.Throughput)
+    public void sequential(Blackhole bh) {
+        if (format.equals("ARRAY")) {
+            bh.consume(JsonParser.parse(new StringReader(json)));
+        } else {
+            final JsonTokeniser tokeniser = new JsonTokeniser(new StringReader(json));
+            final JsonParser parser = new JsonParser(tokeniser);
+            // Retain the values, as the parallel benchmarks do.
+            final List<JsValue> values = new ArrayList<>();
+            for (JsonEvent.Type type; (type = tokeniser.nextToken()) != JsonEvent.Type.EOF; ) {
+                values.add(parser.readValue(type));
+            }
+            bh.consume(values);
+        }
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        final Options opt = new OptionsBuilder()
+                .include(JmhJsonRecordsTest.class.getSimpleName())
+                .warmupIterations(5)
+                .measurementIterations(5)
+                .forks(1)
+                .build();
+
+        new Runner(opt).run();
+    }
+}
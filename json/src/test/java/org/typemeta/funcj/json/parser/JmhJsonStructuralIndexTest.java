@@ -0,0 +1,84 @@
+package org.typemeta.funcj.json.parser;
+
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+import org.openjdk.jmh.runner.*;
+import org.openjdk.jmh.runner.options.*;
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.util.Random;
+
+/**
+ * Compares tokenising and parsing UTF-8 bytes via a {@link JsonStructuralIndex}
+ * against decoding the bytes with an {@link InputStreamReader} and tokenising via a {@link JsonTokeniser}.
+ */
+@State(Scope.Benchmark)
+public class JmhJsonStructuralIndexTest {
+
+    @Param({"1024", "65536", "16777216"})
+    public int size;
+
+    private byte[] utf8;
+
+    @Setup
+    public void setup() {
+        utf8 = JmhJsonTokeniserTest.generate(size, new Random(1234)).getBytes(StandardCharsets.UTF_8);
+    }
+
+    private Reader reader() {
+        return new InputStreamReader(new ByteArrayInputStream(utf8), StandardCharsets.UTF_8);
+    }
+
+    private static void consume(JsonTokenSource jts, Blackhole bh) {
+        JsonEvent.Type type;
+        while ((type = jts.nextToken()) != JsonEvent.Type.EOF) {
+            switch (type) {
+                case NUMBER:
+                    bh.consume(jts.tokenDouble());
+                    break;
+                case STRING:
+                case FIELD_NAME:
+                    bh.consume(jts.tokenString());
+                    break;
+                default:
+                    bh.consume(type);
+            }
+        }
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.Throughput)
+    public void tokensIndexed(Blackhole bh) {
+        consume(JsonStructuralIndex.of(utf8), bh);
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.Throughput)
+    public void tokensReader(Blackhole bh) {
+        consume(JsonTokenSource.of(reader()), bh);
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.Throughput)
+    public void parseIndexed(Blackhole bh) {
+        bh.consume(JsonParser.parse(utf8));
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.Throughput)
+    public void parseReader(Blackhole bh) {
+        bh.consume(JsonParser.parse(reader(), JsonParser.Consume.ALL));
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        final Options opt = new OptionsBuilder()
+                .include(JmhJsonStructuralIndexTest.class.getSimpleName())
+                .warmupIterations(5)
+                .measurementIterations(5)
+                .forks(1)
+                .build();
+
+        new Runner(opt).run();
+    }
+}
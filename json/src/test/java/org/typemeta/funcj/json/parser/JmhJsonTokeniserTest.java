@@ -0,0 +1,94 @@
+package org.typemeta.funcj.json.parser;
+
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+import org.openjdk.jmh.runner.*;
+import org.openjdk.jmh.runner.options.*;
+
+import java.io.StringReader;
+import java.util.Random;
+
+/**
+ * Compares the event API ({@link JsonTokeniser#getNextEvent()})
+ * against the token API ({@link JsonTokeniser#nextToken()}),
+ * and measures {@link JsonParser}, over 1KB, 64KB and 16MB payloads.
+ */
+@State(Scope.Benchmark)
+public class JmhJsonTokeniserTest {
+
+    @Param({"1024", "65536", "16777216"})
+    public int size;
+
+    private String json;
+
+    @Setup
+    public void setup() {
+        json = generate(size, new Random(1234));
+    }
+
+    static String generate(int size, Random rand) {
+        final StringBuilder sb = new StringBuilder(size + 256);
+        sb.append('[');
+        for (int i = 0; sb.length() < size; ++i) {
+            if (i > 0) {
+                sb.append(',');
+            }
+            sb.append("{\"id\":").append(i)
+                    .append(",\"name\":\"item").append(rand.nextInt(1000)).append('"')
+                    .append(",\"price\":").append(rand.nextInt(100000) / 100.0)
+                    .append(",\"ratio\":").append(rand.nextDouble())
+                    .append(",\"active\":").append(rand.nextBoolean())
+                    .append(",\"tags\":[\"a\",\"b\\n\",null]")
+                    .append('}');
+        }
+        sb.append(']');
+        return sb.toString();
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.Throughput)
+    public void events(Blackhole bh) {
+        final JsonTokeniser jt = new JsonTokeniser(new StringReader(json));
+        JsonEvent ev;
+        while ((ev = jt.getNextEvent()) != JsonEvent.Type.EOF) {
+            bh.consume(ev);
+        }
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.Throughput)
+    public void tokens(Blackhole bh) {
+        final JsonTokeniser jt = new JsonTokeniser(new StringReader(json));
+        JsonEvent.Type type;
+        while ((type = jt.nextToken()) != JsonEvent.Type.EOF) {
+            switch (type) {
+                case NUMBER:
+                    bh.consume(jt.tokenDouble());
+                    break;
+                case STRING:
+                case FIELD_NAME:
+                    bh.consume(jt.tokenLength());
+                    break;
+                default:
+                    bh.consume(type);
+            }
+        }
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.Throughput)
+    public void parse(Blackhole bh) {
+        bh.consume(JsonParser.parse(json));
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        final Options opt = new OptionsBuilder()
+                .include(JmhJsonTokeniserTest.class.getSimpleName())
+                .warmupIterations(5)
+                .measurementIterations(5)
+                .forks(1)
+                .build();
+
+        new Runner(opt).run();
+    }
+}
@@ -0,0 +1,113 @@
+package org.typemeta.funcj.json.parser;
+
+import org.junit.Test;
+import org.typemeta.funcj.control.Try;
+import org.typemeta.funcj.json.algebra.JsonId;
+import org.typemeta.funcj.json.model.*;
+import org.typemeta.funcj.tuples.Tuple2;
+
+import java.io.StringReader;
+import java.util.*;
+
+import static org.junit.Assert.*;
+
+public class JsonLazyParserTest {
+
+    private static void checkSame(String name, String json) {
+        final Try<JsValue> eager = Try.of(() -> JsonParser.parse(json));
+        final Try<JsValue> lazy = Try.of(() -> JsonParser.parseLazy(json));
+
+        assertEquals("Parse success: " + name, eager.isSuccess(), lazy.isSuccess());
+
+        if (eager.isSuccess()) {
+            final JsValue exp = eager.orElseThrow();
+            assertEquals(name, exp, JsonParser.parseLazy(json));
+            assertEquals(name, JsonParser.parseLazy(json), exp);
+            assertEquals(name, exp.hashCode(), JsonParser.parseLazy(json).hashCode());
+            assertEquals(name, exp.toString(), JsonParser.parseLazy(json).toString());
+            assertEquals(name, exp.formatter().format(), JsonParser.parseLazy(json).formatter().format());
+            assertEquals(name, exp, JsonParser.parseLazy(json).apply(JsonId.INSTANCE));
+        }
+    }
+
+    @Test
+    public void testJsonSuite() {
+        FileUtils.openDir("json").orElseThrow()
+                .forEach(t2 -> checkSame(t2._1, FileUtils.read(t2._2)));
+    }
+
+    @Test
+    public void testExample() {
+        final String json = FileUtils.openResource("/example.json").map(FileUtils::read).orElseThrow();
+        checkSame("example.json", json);
+    }
+
+    @Test
+    public void testEdgeCases() {
+        final String[] tests = {
+                "[]", "{}", "[[[]]]", "[1, -0, +2, 0.5e-3, 1E+2, 1e400]", "[01]", "[1.]", "[-]", "[\"\\q\"]",
+                "[\"a\\u00e9\\\"\\\\\\/b\"]", "{\"a\":1,}", "[1,]", "{\"a\" 1}", "{\"a\":1} x", "1", "[\"\t\"]",
+                "[tru]", "[nul", "{\"a\":{\"b\":[{}, {\"c\":null}]}}"
+        };
+        for (String test : tests) {
+            checkSame(test, test);
+        }
+    }
+
+    @Test
+    public void testPartialAccess() {
+        final JsObject obj = JsonParser.parseLazy(
+                "{\"a\": [1, \"two\", {\"x\": true}], \"b\": {\"c\": null}, \"d\": 4}"
+        ).asObject();
+
+        assertEquals(Arrays.asList("a", "b", "d"), new ArrayList<>(obj.keySet()));
+        assertTrue(obj.containsName("b"));
+        assertFalse(obj.containsName("e"));
+        assertEquals(4, obj.get("d").asNumber().intValue());
+
+        final JsArray arr = obj.get("a").asArray();
+        assertEquals(3, arr.size());
+        assertEquals("two", arr.get(1).asString().value());
+        assertSame(arr.get(2), arr.get(2));
+        assertEquals(JsBool.TRUE, arr.get(2).asObject().get("x"));
+    }
+
+    @Test
+    public void testManyFields() {
+        final StringBuilder sb = new StringBuilder("{");
+        for (int i = 0; i < 100; ++i) {
+            sb.append(i == 0 ? "" : ",").append("\"f").append(i).append("\":").append(i);
+        }
+        final String json = sb.append("}").toString();
+        checkSame("manyFields", json);
+        assertEquals(57, JsonParser.parseLazy(json).asObject().get("f57").asNumber().intValue());
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void testDuplicateKeys() {
+        JsonParser.parseLazy("{\"a\":1,\"a\":2}");
+    }
+
+    @Test
+    public void testReaderConsumeFirst() {
+        final JsValue jsv = JsonParser.parseLazy(new StringReader("[1] trailing"));
+        assertEquals(JSAPI.arr(JSAPI.num(1)), jsv);
+    }
+
+    @Test
+    public void testDeepNesting() {
+        final int depth = 10000;
+        final StringBuilder sb = new StringBuilder();
+        for (int i = 0; i < depth; ++i) {
+            sb.append('[');
+        }
+        for (int i = 0; i < depth; ++i) {
+            sb.append(']');
+        }
+        JsValue jsv = JsonParser.parseLazy(sb.toString());
+        for (int i = 1; i < depth; ++i) {
+            jsv = jsv.asArray().get(0);
+        }
+        assertTrue(jsv.asArray().isEmpty());
+    }
+}
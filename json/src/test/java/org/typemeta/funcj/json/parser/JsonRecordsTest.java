@@ -0,0 +1,131 @@
+package org.typemeta.funcj.json.parser;
+
+import org.junit.Test;
+import org.typemeta.funcj.json.model.*;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.*;
+import java.util.concurrent.ForkJoinPool;
+import java.util.stream.Collectors;
+
+import static org.junit.Assert.*;
+
+public class JsonRecordsTest {
+
+    private static final String ARRAY =
+            " [ {\"a\": [1, 2, {\"b\": \"],\\\\\"}], \"c\": \"\\\"{\"},\n" +
+            "   \"dé\", 3.5, [], {}, null, true ] \n";
+
+    private static final String NDJSON =
+            "{\"a\": [1, 2, {\"b\": \"],\\\\\"}], \"c\": \"\\\"{\"}\r\n" +
+            "\n" +
+            "\"dé\"\n3.5\n[]\n  {}\nnull\ntrue";
+
+    private static List<JsValue> expected() {
+        return JsonParser.parse(ARRAY).asArray().stream().collect(Collectors.toList());
+    }
+
+    private static ByteBuffer utf8(String s) {
+        return ByteBuffer.wrap(s.getBytes(StandardCharsets.UTF_8));
+    }
+
+    @Test
+    public void testArray() {
+        final JsonRecords records = JsonRecords.array(ARRAY);
+        assertEquals(7, records.size());
+        assertEquals(expected(), records.parse(true).collect(Collectors.toList()));
+        assertEquals(expected(), JsonRecords.array(utf8(ARRAY)).parse(true).collect(Collectors.toList()));
+    }
+
+    @Test
+    public void testNdjson() {
+        final JsonRecords records = JsonRecords.ndjson(NDJSON);
+        assertEquals(7, records.size());
+        assertEquals(expected(), records.parse(true).collect(Collectors.toList()));
+        assertEquals(expected(), JsonRecords.ndjson(utf8(NDJSON)).parse(true).collect(Collectors.toList()));
+    }
+
+    @Test
+    public void testUnordered() {
+        final Set<JsValue> exp = new HashSet<>(expected());
+        assertEquals(exp, JsonRecords.array(ARRAY).parse(false).collect(Collectors.toSet()));
+    }
+
+    @Test
+    public void testPool() {
+        final ForkJoinPool pool = new ForkJoinPool(4);
+        try {
+            assertEquals(expected(), JsonRecords.ndjson(NDJSON).parse(pool));
+            assertEquals(0, JsonRecords.array("[]").parse(pool).size());
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    @Test
+    public void testByteBufferPosition() {
+        final ByteBuffer buf = utf8("xx[1, \"é\"]yy");
+        buf.position(2);
+        buf.limit(buf.limit() - 2);
+        assertEquals(
+                Arrays.asList(JSAPI.num(1), JSAPI.str("é")),
+                JsonRecords.array(buf).parse(true).collect(Collectors.toList()));
+    }
+
+    @Test
+    public void testLarge() {
+        final int n = 100000;
+        final StringBuilder sb = new StringBuilder("[");
+        for (int i = 0; i < n; ++i) {
+            sb.append(i == 0 ? "" : ",").append("{\"i\":").append(i).append(",\"s\":\"[").append(i).append("\"}");
+        }
+        sb.append("]");
+        final List<JsValue> values = JsonRecords.array(sb).parse(true).collect(Collectors.toList());
+        assertEquals(n, values.size());
+        for (int i = 0; i < n; ++i) {
+            assertEquals(i, values.get(i).asObject().get("i").asNumber().intValue());
+        }
+    }
+
+    @Test
+    public void testEmpty() {
+        assertEquals(0, JsonRecords.array(" [ ] ").size());
+        assertEquals(0, JsonRecords.ndjson(" \n\n ").size());
+    }
+
+    private static void checkInvalidArray(String json) {
+        try {
+            JsonRecords.array(json);
+            fail("Expected a JsonException for " + json);
+        } catch (JsonException ex) {
+        }
+    }
+
+    @Test
+    public void testInvalidArrays() {
+        checkInvalidArray("");
+        checkInvalidArray("{}");
+        checkInvalidArray("[1,]");
+        checkInvalidArray("[,1]");
+        checkInvalidArray("[1,,2]");
+        checkInvalidArray("[1}");
+        checkInvalidArray("[1, \"]");
+        checkInvalidArray("[1] 2");
+    }
+
+    @Test(expected = JsonException.class)
+    public void testInvalidLine() {
+        JsonRecords.ndjson("[1,\n2]");
+    }
+
+    @Test(expected = JsonException.class)
+    public void testMultipleValuesOnLine() {
+        JsonRecords.ndjson("1\n2 3\n4").parse(true).collect(Collectors.toList());
+    }
+
+    @Test(expected = JsonException.class)
+    public void testInvalidRecord() {
+        JsonRecords.ndjson("1\n{\"a\" 2}\n3").parse(true).collect(Collectors.toList());
+    }
+}
@@ -0,0 +1,180 @@
+package org.typemeta.funcj.json.parser;
+
+import org.junit.Test;
+import org.typemeta.funcj.control.Try;
+import org.typemeta.funcj.json.model.JsValue;
+
+import java.io.StringReader;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.*;
+
+import static org.junit.Assert.*;
+
+public class JsonStructuralIndexTest {
+
+    private static final String ERROR = "<error>";
+
+    // The events, followed by an error marker if tokenising failed.
+    private static List<Object> events(JsonTokenSource jts) {
+        final List<Object> events = new ArrayList<>();
+        try {
+            JsonEvent ev;
+            while ((ev = jts.getNextEvent()) != JsonEvent.Type.EOF) {
+                events.add(ev);
+            }
+        } catch (JsonException ex) {
+            events.add(ERROR);
+        }
+        return events;
+    }
+
+    private static JsonTokenSource indexed(String json) {
+        return JsonStructuralIndex.of(json.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static void checkEvents(String json) {
+        final List<Object> expected = events(new JsonTokeniser(new StringReader(json)));
+        assertEquals(json, expected, events(indexed(json)));
+    }
+
+    private static void checkParse(String name, String json) {
+        final Try<JsValue> expected = Try.of(() -> JsonParser.parse(json));
+        final Try<JsValue> actual = Try.of(() -> JsonParser.parse(json.getBytes(StandardCharsets.UTF_8)));
+
+        assertEquals("Parse success: " + name, expected.isSuccess(), actual.isSuccess());
+        if (expected.isSuccess()) {
+            assertEquals(name, expected.orElseThrow(), actual.orElseThrow());
+        }
+    }
+
+    @Test
+    public void testExample() {
+        final String json = FileUtils.openResource("/example.json").map(FileUtils::read).orElseThrow();
+        checkEvents(json);
+        checkParse("example.json", json);
+    }
+
+    @Test
+    public void testJsonSuite() {
+        FileUtils.openDir("json").orElseThrow()
+                .forEach(t2 -> {
+                    final String json = FileUtils.read(t2._2);
+                    checkEvents(json);
+                    checkParse(t2._1, json);
+                });
+    }
+
+    @Test
+    public void testEdgeCases() {
+        final String[] tests = {
+                "", " ", "[]", "{}", "[[[]]]", "[1, -0, +2, 0.5e-3, 1E+2, 1e400]", "[01]", "[1.]", "[-]",
+                "[\"\\q\"]", "[\"a\\u00e9\\\"\\\\\\/b\"]", "{\"a\":1,}", "[1,]", "{\"a\" 1}", "{\"a\":1} x", "1",
+                "[\"\t\"]", "[tru]", "[nul", "{\"a\":{\"b\":[{}, {\"c\":null}]}}", "[truefalse]", "[1true]",
+                "[12\"a\"]", "[\"abc", "[\"\\u12\"]", "[1e+]", "[\u0001]", "[\u000B1\u001F]", "[\u20281,\u00a02]",
+                "[1\u2028]", "[\"\u00e9\u4e2d\ud83d\ude00\"]", "{\"\u00e9\":\"\\u00e9\"}", "[\"\\\\\"]", "[\"\\\\\\\"\"]",
+                "]", "[1]]", "[\"a\u0001b\"]", "[1,\u00e9]"
+        };
+        for (String test : tests) {
+            checkEvents(test);
+            if (!test.isEmpty()) {
+                checkParse(test, test);
+            }
+        }
+    }
+
+    @Test
+    public void testBlockBoundaries() {
+        final String[] values = {
+                "\"abc\"", "\"a\\\"b\"", "\"a\\\\\"", "\"\\\\\\\\\\\"\"", "\"x\\u0041y\"", "true", "-12.5e3",
+                "\"" + String.join("", Collections.nCopies(70, "\\\\")) + "\"",
+                "\"" + String.join("", Collections.nCopies(70, "\\\"")) + "\"",
+                "\"" + String.join("", Collections.nCopies(70, "{,}:[]")) + "\""
+        };
+        for (String value : values) {
+            for (int pad = 0; pad < 140; ++pad) {
+                final StringBuilder sb = new StringBuilder("[");
+                for (int i = 0; i < pad; ++i) {
+                    sb.append(' ');
+                }
+                sb.append(value).append(',').append(value).append(']');
+                checkEvents(sb.toString());
+            }
+        }
+    }
+
+    @Test
+    public void testRandom() {
+        final Random rand = new Random(1234);
+        final String alphabet = "\"\"\"\\\\\\{}[]:,  \n\t01e-.tx\u00e9";
+        for (int n = 0; n < 2000; ++n) {
+            final int len = rand.nextInt(200);
+            final StringBuilder sb = new StringBuilder();
+            for (int i = 0; i < len; ++i) {
+                sb.append(alphabet.charAt(rand.nextInt(alphabet.length())));
+            }
+            checkEvents(sb.toString());
+        }
+    }
+
+    @Test
+    public void testTokenAccessors() {
+        final JsonTokenSource jts = indexed("{\"name\": [\"a\\nb\", 123, -4.5E+2, \"\u00e9\"], \"name\": 1e2}");
+        assertEquals(JsonEvent.Type.OBJECT_START, jts.nextToken());
+        assertEquals(JsonEvent.Type.FIELD_NAME, jts.nextToken());
+        final String name = jts.tokenString();
+        assertTrue(jts.tokenEquals("name"));
+        assertEquals(JsonEvent.Type.COLON, jts.nextToken());
+        assertEquals(JsonEvent.Type.ARRAY_START, jts.nextToken());
+        assertEquals(JsonEvent.Type.STRING, jts.nextToken());
+        assertEquals("a\nb", jts.tokenString());
+        assertEquals(JsonEvent.Type.COMMA, jts.nextToken());
+        assertEquals(JsonEvent.Type.NUMBER, jts.nextToken());
+        assertTrue(jts.tokenIsSmallInteger());
+        assertEquals(123L, jts.tokenLong());
+        assertEquals(JsonEvent.Type.COMMA, jts.nextToken());
+        assertEquals(JsonEvent.Type.NUMBER, jts.nextToken());
+        assertFalse(jts.tokenIsSmallInteger());
+        assertEquals(-450.0, jts.tokenDouble(), 0.0);
+        assertEquals("-4.5E2", jts.tokenString());
+        assertEquals(JsonEvent.Type.COMMA, jts.nextToken());
+        assertEquals(JsonEvent.Type.STRING, jts.nextToken());
+        assertTrue(jts.tokenEquals("\u00e9"));
+        assertEquals(JsonEvent.Type.ARRAY_END, jts.nextToken());
+        assertEquals(JsonEvent.Type.COMMA, jts.nextToken());
+        assertEquals(JsonEvent.Type.FIELD_NAME, jts.nextToken());
+        assertSame(name, jts.tokenString());
+        assertEquals(JsonEvent.Type.COLON, jts.nextToken());
+        assertEquals(JsonEvent.Type.NUMBER, jts.nextToken());
+        assertEquals(JsonEvent.Type.OBJECT_END, jts.nextToken());
+        assertEquals(JsonEvent.Type.EOF, jts.nextToken());
+    }
+
+    @Test
+    public void testByteBuffers() {
+        final byte[] bytes = "xx[1, \"two\", {\"three\": 3}]yy".getBytes(StandardCharsets.UTF_8);
+        final JsValue expected = JsonParser.parse("[1, \"two\", {\"three\": 3}]");
+
+        final ByteBuffer heap = ByteBuffer.wrap(bytes, 2, bytes.length - 4).slice();
+        assertEquals(expected, JsonParser.parse(heap));
+        assertEquals(0, heap.position());
+
+        final ByteBuffer direct = ByteBuffer.allocateDirect(bytes.length);
+        direct.put(bytes).flip();
+        direct.position(2).limit(bytes.length - 2);
+        assertEquals(expected, JsonParser.parse(direct));
+        assertEquals(2, direct.position());
+    }
+
+    @Test
+    public void testIndex() {
+        final JsonStructuralIndex index = JsonStructuralIndex.of(
+                "{\"a\\\"{\": [true, 12]}".getBytes(StandardCharsets.UTF_8)
+        );
+        final int[] expected = {0, 1, 6, 7, 9, 10, 14, 16, 18, 19};
+        assertEquals(expected.length, index.size());
+        for (int i = 0; i < expected.length; ++i) {
+            assertEquals(expected[i], index.position(i));
+        }
+    }
+}
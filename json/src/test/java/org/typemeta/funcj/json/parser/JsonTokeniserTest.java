@@ -2,6 +2,11 @@
 
 import org.junit.Test;
 
+import java.io.*;
+import java.util.*;
+
+import static org.junit.Assert.*;
+
 public class JsonTokeniserTest {
     @Test
     public void test() throws Throwable {
@@ -15,4 +20,94 @@ public void test() throws Throwable {
                     return 0;
                 }).orElseThrow();
     }
+
+    private static List<JsonEvent> events(JsonTokeniser jt) {
+        final List<JsonEvent> events = new ArrayList<>();
+        JsonEvent ev;
+        while ((ev = jt.getNextEvent()) != JsonEvent.Type.EOF) {
+            events.add(ev);
+        }
+        return events;
+    }
+
+    @Test
+    public void testSmallWindow() {
+        final String json = FileUtils.openResource("/example.json")
+                .map(FileUtils::read)
+                .orElseThrow();
+
+        final List<JsonEvent> expected = events(new JsonTokeniser(new StringReader(json)));
+
+        for (int size = 1; size <= 16; ++size) {
+            final List<JsonEvent> actual = events(new JsonTokeniser(new StringReader(json), size));
+            assertEquals("Window size " + size, expected, actual);
+        }
+    }
+
+    @Test
+    public void testStrings() {
+        final JsonTokeniser jt = new JsonTokeniser(
+                new StringReader("[\"abc\", \"a\\\"b\\\\c\\u0041\", \"\"]"), 4
+        );
+        assertEquals(JsonEvent.Type.ARRAY_START, jt.nextToken());
+        assertEquals(JsonEvent.Type.STRING, jt.nextToken());
+        assertEquals("abc", jt.tokenString());
+        assertEquals(JsonEvent.Type.COMMA, jt.nextToken());
+        assertEquals(JsonEvent.Type.STRING, jt.nextToken());
+        assertEquals("a\"b\\cA", jt.tokenString());
+        assertEquals(JsonEvent.Type.COMMA, jt.nextToken());
+        assertEquals(JsonEvent.Type.STRING, jt.nextToken());
+        assertEquals("", jt.tokenString());
+        assertEquals(JsonEvent.Type.ARRAY_END, jt.nextToken());
+        assertEquals(JsonEvent.Type.EOF, jt.nextToken());
+    }
+
+    @Test
+    public void testFieldNamesAreInterned() {
+        final JsonTokeniser jt = new JsonTokeniser(
+                new StringReader("[{\"name\": 1}, {\"name\": 2}]")
+        );
+        final List<String> names = new ArrayList<>();
+        JsonEvent.Type type;
+        while ((type = jt.nextToken()) != JsonEvent.Type.EOF) {
+            if (type == JsonEvent.Type.FIELD_NAME) {
+                names.add(jt.tokenString());
+            }
+        }
+        assertEquals(2, names.size());
+        assertSame(names.get(0), names.get(1));
+    }
+
+    @Test
+    public void testNumbers() {
+        final String[] nums = {
+                "0", "-0", "1", "-1", "123456789", "9007199254740993", "-9223372036854775808",
+                "0.5", "-0.125", "3.141592653589793", "1.7976931348623157E308", "4.9E-324",
+                "1e10", "1E+10", "1.5e-7", "2.2250738585072014E-308", "123456789012345678901234567890",
+                "0.1", "0.30000000000000004", "1e22", "1e23", "12345678901234.5e-3"
+        };
+
+        for (String num : nums) {
+            final JsonTokeniser jt = new JsonTokeniser(new StringReader(num), 2);
+            assertEquals(num, JsonEvent.Type.NUMBER, jt.nextToken());
+            assertEquals(num, Double.parseDouble(num), jt.tokenDouble(), 0.0);
+            if (num.matches("-?[0-9]{1,19}") && !num.equals("9223372036854775808")) {
+                assertEquals(num, Long.parseLong(num), jt.tokenLong());
+            }
+            assertEquals(num, num.replace('e', 'E').replace("E+", "E"), jt.tokenString());
+            assertEquals(JsonEvent.Type.EOF, jt.nextToken());
+        }
+    }
+
+    @Test(expected = JsonException.class)
+    public void testUnterminatedString() {
+        final JsonTokeniser jt = new JsonTokeniser(new StringReader("\"abc"), 2);
+        jt.nextToken();
+    }
+
+    @Test(expected = JsonException.class)
+    public void testIncompleteExponent() {
+        final JsonTokeniser jt = new JsonTokeniser(new StringReader("1e+"), 2);
+        jt.nextToken();
+    }
 }
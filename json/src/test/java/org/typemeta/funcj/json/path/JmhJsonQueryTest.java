@@ -0,0 +1,73 @@
+package org.typemeta.funcj.json.path;
+
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+import org.openjdk.jmh.runner.*;
+import org.openjdk.jmh.runner.options.*;
+import org.typemeta.funcj.json.model.*;
+import org.typemeta.funcj.json.parser.JsonParser;
+
+import java.io.StringReader;
+import java.util.Random;
+
+/**
+ * Compares extracting a few values via {@link JsonQuery}
+ * against {@link JsonParser#parse(String)} followed by navigation of the {@code JsValue} tree.
+ */
+@State(Scope.Benchmark)
+public class JmhJsonQueryTest {
+
+    @Param({"1024", "65536", "16777216"})
+    public int size;
+
+    private String json;
+
+    private final JsonQuery query = JsonQuery.of("$.header.id", "$.items[*].price");
+
+    @Setup
+    public void setup() {
+        final Random rand = new Random(1234);
+        final StringBuilder sb = new StringBuilder(size + 256);
+        sb.append("{\"header\":{\"id\":1234,\"source\":\"bench\"},\"items\":[");
+        for (int i = 0; sb.length() < size; ++i) {
+            if (i > 0) {
+                sb.append(',');
+            }
+            sb.append("{\"id\":").append(i)
+                    .append(",\"name\":\"item").append(rand.nextInt(1000)).append('"')
+                    .append(",\"price\":").append(rand.nextInt(100000) / 100.0)
+                    .append(",\"description\":\"a longer string value, with an \\\"escape\\\"\"")
+                    .append(",\"tags\":[\"a\",\"b\",null]")
+                    .append('}');
+        }
+        sb.append("]}");
+        json = sb.toString();
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.Throughput)
+    public void query(Blackhole bh) {
+        query.forEach(new StringReader(json), (path, value) -> bh.consume(value));
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.Throughput)
+    public void parseAndNavigate(Blackhole bh) {
+        final JsObject root = JsonParser.parse(new StringReader(json)).asObject();
+        bh.consume(root.get("header").asObject().get("id"));
+        for (JsValue item : root.get("items").asArray()) {
+            bh.consume(item.asObject().get("price"));
+        }
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        final Options opt = new OptionsBuilder()
+                .include(JmhJsonQueryTest.class.getSimpleName())
+                .warmupIterations(5)
+                .measurementIterations(5)
+                .forks(1)
+                .build();
+
+        new Runner(opt).run();
+    }
+}
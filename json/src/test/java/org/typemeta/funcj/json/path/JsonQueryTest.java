@@ -0,0 +1,123 @@
+package org.typemeta.funcj.json.path;
+
+import org.junit.Test;
+import org.typemeta.funcj.json.model.JsValue;
+import org.typemeta.funcj.json.parser.*;
+
+import java.io.StringReader;
+import java.util.*;
+
+import static java.util.stream.Collectors.toList;
+import static org.junit.Assert.*;
+import static org.typemeta.funcj.json.model.JSAPI.*;
+
+public class JsonQueryTest {
+
+    private static final String JSON =
+            "{\"header\": {\"id\": 42, \"name\": \"hdr\"}," +
+            " \"items\": [" +
+            "   {\"price\": 1.5, \"tags\": [\"a\", \"b\"]}," +
+            "   {\"price\": 2.5, \"tags\": []}," +
+            "   {\"name\": \"no price\"}" +
+            " ]," +
+            " \"skipped\": {\"deep\": [[[{\"x\": \"\\u0041\"}]]]}}";
+
+    private static List<JsValue> select(String expr) {
+        return JsonQuery.of(expr).stream(JSON).map(JsonQuery.Match::value).collect(toList());
+    }
+
+    @Test
+    public void testFieldPath() {
+        assertEquals(Collections.singletonList(num(42)), select("$.header.id"));
+        assertEquals(Collections.singletonList(str("hdr")), select("$['header'][\"name\"]"));
+    }
+
+    @Test
+    public void testWildcardPath() {
+        assertEquals(Arrays.asList(num(1.5), num(2.5)), select("$.items[*].price"));
+        assertEquals(Arrays.asList(str("a"), str("b")), select("$.items.*.tags[*]"));
+    }
+
+    @Test
+    public void testIndexPath() {
+        assertEquals(Collections.singletonList(str("b")), select("$.items[0].tags[1]"));
+        assertEquals(Collections.emptyList(), select("$.items[5]"));
+    }
+
+    @Test
+    public void testRootPath() {
+        assertEquals(Collections.singletonList(JsonParser.parse(JSON)), select("$"));
+    }
+
+    @Test
+    public void testNoMatch() {
+        assertEquals(Collections.emptyList(), select("$.header.id.x"));
+        assertEquals(Collections.emptyList(), select("$.missing"));
+    }
+
+    @Test
+    public void testMultiplePathsAgreeWithDom() {
+        final String[] exprs = {
+                "$.header", "$.header.id", "$.items[*].price", "$.items[*]", "$.items[0].tags[*]",
+                "$.skipped.deep[0][0][0].x", "$.*"
+        };
+        final JsonQuery query = JsonQuery.of(exprs);
+        final Map<JsonPath, List<JsValue>> actual = query.select(new StringReader(JSON));
+
+        final JsValue dom = JsonParser.parse(JSON);
+        for (JsonPath path : query.paths()) {
+            assertEquals(path.toString(), path.select(dom), actual.get(path));
+        }
+    }
+
+    @Test
+    public void testCallbackOrder() {
+        final List<String> seen = new ArrayList<>();
+        JsonQuery.of("$.items[*].price", "$.header.id")
+                .forEach(JSON, (path, value) -> seen.add(path + "=" + value));
+        assertEquals(Arrays.asList("$.header.id=42", "$.items[*].price=1.5", "$.items[*].price=2.5"), seen);
+    }
+
+    @Test(expected = JsonException.class)
+    public void testInvalidSkippedInput() {
+        JsonQuery.of("$.a").forEach("{\"b\": [1, 2}, \"a\": 1}", (path, value) -> {});
+    }
+
+    @Test(expected = JsonException.class)
+    public void testMissingComma() {
+        JsonQuery.of("$.a").forEach("{\"b\": 1 \"a\": 1}", (path, value) -> {});
+    }
+
+    @Test
+    public void testMalformedSkippedInput() {
+        final String[] inputs = {
+                "{\"b\": [1 2 3], \"a\": 5}",
+                "{\"b\": {\"x\" 1}, \"a\": 5}",
+                "{\"b\": [1,,2], \"a\": 5}",
+                "{\"b\": [1,2,], \"a\": 5}",
+                "{\"b\": {\"x\": 1,}, \"a\": 5}",
+                "{\"b\": {\"x\": 1 \"y\": 2}, \"a\": 5}",
+                "{\"b\": {1: 2}, \"a\": 5}"
+        };
+        for (String input : inputs) {
+            try {
+                JsonQuery.of("$.a").forEach(input, (path, value) -> {});
+                fail("Expected JsonException for " + input);
+            } catch (JsonException ex) {
+            }
+        }
+    }
+
+    @Test
+    public void testSkippedInput() {
+        final String json = "{\"b\": [1, [], {}, {\"x\": [true, null]}, \"s\"], \"c\": {\"y\": {\"z\": []}}, \"a\": 5}";
+        assertEquals(
+                Collections.singletonList(num(5)),
+                JsonQuery.of("$.a").stream(json).map(JsonQuery.Match::value).collect(toList()));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testInvalidPath() {
+        JsonPath.compile("$.items[");
+    }
+}
@@ -0,0 +1,28 @@
+package org.typemeta.funcj.parser;
+
+import org.typemeta.funcj.data.Chr;
+
+/**
+ * Specialisation of {@link Input} for streams of chars,
+ * which provides access to the current symbol as a primitive {@code char}.
+ * <p>
+ * Parsers in {@link Text}, and the first set checks performed by {@link Parser} combinators,
+ * detect a {@code CharInput} and operate on the {@code char} value,
+ * which avoids constructing a {@link Chr} for every input char.
+ */
+public interface CharInput extends Input<Chr> {
+    /**
+     * Returns the char from the stream indicated by this input.
+     * Will throw if {@code isEof} is true.
+     * @return          the next char
+     */
+    char getChar();
+
+    @Override
+    default Chr get() {
+        return Chr.valueOf(getChar());
+    }
+
+    @Override
+    CharInput next();
+}
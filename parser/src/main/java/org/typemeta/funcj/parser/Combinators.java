@@ -23,6 +23,11 @@ public static <I, A> Parser<I, A> fail() {
             public Result<I, A> apply(Input<I> in, SymSet<I> follow) {
                 return failure(this, in);
             }
+
+            @Override
+            GrammarCompiler.Instr instr() {
+                return GrammarCompiler.Instr.of(GrammarCompiler.FAIL);
+            }
         };
     }
 
@@ -39,6 +44,11 @@ public static <I, A> Parser<I, A> fail(String msg) {
             public Result<I, A> apply(Input<I> in, SymSet<I> follow) {
                 return failure(msg, in);
             }
+
+            @Override
+            GrammarCompiler.Instr instr() {
+                return GrammarCompiler.Instr.withArg(GrammarCompiler.FAIL_MSG, msg);
+            }
         };
     }
 
@@ -55,6 +65,11 @@ public Result<I, Unit> apply(Input<I> in, SymSet<I> follow) {
                         Result.success(Unit.UNIT, in) :
                         failure(this, in);
             }
+
+            @Override
+            GrammarCompiler.Instr instr() {
+                return GrammarCompiler.Instr.of(GrammarCompiler.EOF);
+            }
         };
     }
 
@@ -84,6 +99,11 @@ public static <I, A> Parser<I, A> value(I val, A res) {
             public Result<I, A> apply(Input<I> in, SymSet<I> follow) {
                 return Result.success(res, in.next());
             }
+
+            @Override
+            GrammarCompiler.Instr instr() {
+                return GrammarCompiler.Instr.withArg(GrammarCompiler.VALUE, res);
+            }
         };
     }
 
@@ -100,6 +120,11 @@ public static <I> Parser<I, I> satisfy(String name, Functions.Predicate<I> pred)
             public Result<I, I> apply(Input<I> in, SymSet<I> follow) {
                 return Result.success(in.get(), in.next());
             }
+
+            @Override
+            GrammarCompiler.Instr instr() {
+                return GrammarCompiler.Instr.of(GrammarCompiler.SATISFY);
+            }
         };
     }
 
@@ -116,6 +141,11 @@ public Result<I, I> apply(Input<I> in, SymSet<I> follow) {
                         failureEof(this, in) :
                         Result.success(in.get(), in.next());
             }
+
+            @Override
+            GrammarCompiler.Instr instr() {
+                return GrammarCompiler.Instr.of(GrammarCompiler.ANY);
+            }
         };
     }
 
@@ -0,0 +1,607 @@
+package org.typemeta.funcj.parser;
+
+import org.typemeta.funcj.data.*;
+import org.typemeta.funcj.functions.Functions.F;
+
+import java.util.*;
+
+import static org.typemeta.funcj.parser.Utils.*;
+
+/**
+ * Compiles a {@link Parser} graph into a flat table of instructions,
+ * which is executed by a single, non-recursive interpreter loop.
+ * <p>
+ * Each parser in the graph, with {@link Ref}s resolved, becomes one instruction.
+ * The nullability and first set of each instruction are computed once, at compile time,
+ * and intermediate results are held in a frame stack, rather than in a {@link Result} per step.
+ * The core combinators describe themselves via {@link ParserImpl#instr()};
+ * any other parser is compiled as a call to its {@link Parser#apply(Input, SymSet)} method.
+ * <p>
+ * Each instruction mirrors the implementation of the combinator it was compiled from,
+ * so a compiled parser returns the same results (and failures) as the original.
+ */
+final class GrammarCompiler {
+
+    static final byte PURE = 0;
+    static final byte VALUE = 1;
+    static final byte SATISFY = 2;
+    static final byte ANY = 3;
+    static final byte EOF = 4;
+    static final byte FAIL = 5;
+    static final byte FAIL_MSG = 6;
+    static final byte CALL = 7;
+    static final byte MAP = 8;
+    static final byte AP = 9;
+    static final byte CHOICE = 10;
+    static final byte MANY = 11;
+    static final byte MANY_TILL = 12;
+
+    /**
+     * The description of a parser as an instruction.
+     */
+    static final class Instr {
+        final byte op;
+        final Object arg;
+        final Parser<?, ?>[] args;
+
+        private Instr(byte op, Object arg, Parser<?, ?>[] args) {
+            this.op = op;
+            this.arg = arg;
+            this.args = args;
+        }
+
+        static Instr of(byte op, Parser<?, ?>... args) {
+            return new Instr(op, null, args);
+        }
+
+        static Instr withArg(byte op, Object arg, Parser<?, ?>... args) {
+            return new Instr(op, arg, args);
+        }
+    }
+
+    static <I, A> Parser<I, A> compile(Parser<I, A> parser) {
+        return new Builder<I>().build(parser);
+    }
+
+    private static <I> Parser<I, ?> resolve(Parser<I, ?> parser) {
+        while (parser instanceof Ref) {
+            parser = ((Ref<I, ?>)parser).impl();
+        }
+        return parser;
+    }
+
+    private static final class Builder<I> {
+        private final List<Parser<I, ?>> parsers = new ArrayList<>();
+        private final Map<Parser<I, ?>, Integer> indices = new IdentityHashMap<>();
+
+        private int index(Parser<I, ?> parser) {
+            final Parser<I, ?> p = resolve(parser);
+            final Integer index = indices.get(p);
+            if (index != null) {
+                return index;
+            } else {
+                final int i = parsers.size();
+                parsers.add(p);
+                indices.put(p, i);
+                return i;
+            }
+        }
+
+        @SuppressWarnings("unchecked")
+        <A> Program<I, A> build(Parser<I, A> root) {
+            index(root);
+
+            final List<Instr> instrs = new ArrayList<>();
+            final List<int[]> children = new ArrayList<>();
+
+            // Parsers are appended as they are discovered, so this visits the whole graph.
+            for (int i = 0; i < parsers.size(); ++i) {
+                final Parser<I, ?> p = parsers.get(i);
+                final Instr instr = p instanceof ParserImpl ? ((ParserImpl<I, ?>)p).instr() : null;
+                if (instr == null) {
+                    instrs.add(Instr.withArg(CALL, p));
+                    children.add(new int[0]);
+                } else {
+                    instrs.add(instr);
+                    final int[] cs = new int[instr.args.length];
+                    for (int j = 0; j < cs.length; ++j) {
+                        cs[j] = index((Parser<I, ?>)instr.args[j]);
+                    }
+                    children.add(cs);
+                }
+            }
+
+            final int n = parsers.size();
+            final byte[] ops = new byte[n];
+            final Object[] args = new Object[n];
+            final int[][] cs = children.toArray(new int[n][]);
+            final boolean[] empty = new boolean[n];
+            final SymSet<I>[] first = new SymSet[n];
+            final FollowCache<I>[] caches = new FollowCache[n];
+
+            for (int i = 0; i < n; ++i) {
+                final Parser<I, ?> p = parsers.get(i);
+                final Instr instr = instrs.get(i);
+                ops[i] = instr.op;
+                args[i] = instr.arg;
+                empty[i] = p.acceptsEmpty().apply();
+                first[i] = p.firstSet().apply();
+                if (instr.op == AP || instr.op == MANY || instr.op == MANY_TILL) {
+                    caches[i] = new FollowCache<I>();
+                }
+            }
+
+            return new Program<I, A>(root, ops, args, cs, empty, first, caches);
+        }
+    }
+
+    /**
+     * The stack of frames for the instructions in progress, held in parallel arrays.
+     */
+    static final class Frames {
+        int size = 0;
+        int[] nodes = new int[16];
+        int[] states = new int[16];
+        SymSet<?>[] follows = new SymSet<?>[16];
+        Object[] values = new Object[16];
+
+        void push(int node, int state, SymSet<?> follow, Object value) {
+            if (size == nodes.length) {
+                final int cap = size * 2;
+                nodes = Arrays.copyOf(nodes, cap);
+                states = Arrays.copyOf(states, cap);
+                follows = Arrays.copyOf(follows, cap);
+                values = Arrays.copyOf(values, cap);
+            }
+            nodes[size] = node;
+            states[size] = state;
+            follows[size] = follow;
+            values[size] = value;
+            ++size;
+        }
+
+        void pop() {
+            --size;
+            follows[size] = null;
+            values[size] = null;
+        }
+
+        void clear() {
+            while (size > 0) {
+                pop();
+            }
+        }
+    }
+
+    /**
+     * The position of a parse within its input.
+     * @param <I>       the input stream symbol type
+     */
+    abstract static class Cursor<I> {
+        abstract boolean isEof();
+
+        abstract I get();
+
+        abstract void advance();
+
+        abstract boolean matches(SymSet<I> set);
+
+        /**
+         * @return          the current position as an {@code Input}, for a called parser
+         */
+        abstract Input<I> input();
+
+        /**
+         * Move to the position of an {@code Input} returned by a called parser.
+         * @param in        the input
+         */
+        abstract void moveTo(Input<I> in);
+    }
+
+    /**
+     * A cursor over an {@link Input}, for the {@code Result}-returning API.
+     */
+    static final class InputCursor<I> extends Cursor<I> {
+        private Input<I> in;
+
+        InputCursor(Input<I> in) {
+            this.in = in;
+        }
+
+        @Override
+        boolean isEof() {
+            return in.isEof();
+        }
+
+        @Override
+        I get() {
+            return in.get();
+        }
+
+        @Override
+        void advance() {
+            in = in.next();
+        }
+
+        @Override
+        boolean matches(SymSet<I> set) {
+            return Utils.matches(set, in);
+        }
+
+        @Override
+        Input<I> input() {
+            return in;
+        }
+
+        @Override
+        void moveTo(Input<I> in) {
+            this.in = in;
+        }
+    }
+
+    /**
+     * A cursor which reads chars directly from a {@code CharSequence}, via an {@code int} offset.
+     * An {@code Input} for the sequence is only constructed if a called parser requires one.
+     */
+    static final class CharCursor extends Cursor<Chr> {
+        private CharSequence chars;
+        private int offset;
+        private CharSequenceInput input;
+
+        void reset(CharSequence chars, int offset) {
+            this.chars = chars;
+            this.offset = offset;
+            this.input = null;
+        }
+
+        int offset() {
+            return offset;
+        }
+
+        @Override
+        boolean isEof() {
+            return offset >= chars.length();
+        }
+
+        @Override
+        Chr get() {
+            return Chr.valueOf(chars.charAt(offset));
+        }
+
+        @Override
+        void advance() {
+            ++offset;
+        }
+
+        @Override
+        boolean matches(SymSet<Chr> set) {
+            return set.matchesChar(chars.charAt(offset));
+        }
+
+        @Override
+        Input<Chr> input() {
+            if (input == null) {
+                input = new CharSequenceInput(chars);
+            }
+            return input.seek(offset);
+        }
+
+        @Override
+        void moveTo(Input<Chr> in) {
+            offset = ((SeekableInput<Chr>)in).offset();
+        }
+    }
+
+    /**
+     * A compiled parser.
+     * <p>
+     * The program is immutable once constructed, other than the benign caching of follow sets,
+     * and all parse state is held in a {@link ParseContext} and a {@link Cursor},
+     * so a program may be shared between threads.
+     */
+    static final class Program<I, A> extends ParserImpl<I, A> {
+        private final byte[] ops;
+        private final Object[] args;
+        private final int[][] children;
+        private final boolean[] empty;
+        private final SymSet<I>[] first;
+        private final FollowCache<I>[] caches;
+
+        Program(
+                Parser<I, A> root,
+                byte[] ops,
+                Object[] args,
+                int[][] children,
+                boolean[] empty,
+                SymSet<I>[] first,
+                FollowCache<I>[] caches) {
+            super(root.acceptsEmpty(), root.firstSet());
+            this.ops = ops;
+            this.args = args;
+            this.children = children;
+            this.empty = empty;
+            this.first = first;
+            this.caches = caches;
+
+            // Evaluate the lazy values before the program is published.
+            acceptsEmpty().apply();
+            firstSet().apply();
+        }
+
+        @Override
+        @SuppressWarnings("unchecked")
+        public Result<I, A> apply(Input<I> in, SymSet<I> follow) {
+            final ParseContext<A> ctx = new ParseContext<A>();
+            final InputCursor<I> cursor = new InputCursor<I>(in);
+            if (run(cursor, follow, ctx)) {
+                return Result.success((A)ctx.value, cursor.input());
+            } else if (ctx.failure != null) {
+                return (Result<I, A>)ctx.failure;
+            } else if (ctx.expected instanceof String) {
+                return Result.failureMessage(cursor.input(), (String)ctx.expected);
+            } else {
+                return Result.failure(cursor.input(), (SymSet<I>)ctx.expected);
+            }
+        }
+
+        /**
+         * Apply the program to a char sequence, recording the outcome in the context.
+         * This mirrors {@link Parser#parse(Input)} if {@code requireEof} is true,
+         * otherwise {@link Parser#apply(Input)}.
+         */
+        @SuppressWarnings("unchecked")
+        boolean applyChars(CharSequence s, int start, boolean requireEof, ParseContext<A> ctx) {
+            final CharCursor cc = ctx.cursor();
+            cc.reset(s, start);
+            final Cursor<I> cursor = (Cursor<I>)(Cursor<?>)cc;
+
+            boolean success;
+            if (requireEof && !empty[0] && (cursor.isEof() || !cursor.matches(first[0]))) {
+                ctx.clear();
+                ctx.expected = first[0];
+                success = false;
+            } else {
+                success = run(cursor, SymSet.empty(), ctx);
+                if (success && requireEof && !cursor.isEof()) {
+                    // The first set of the eof parser.
+                    ctx.expected = SymSet.empty();
+                    success = false;
+                }
+            }
+
+            if (!success && ctx.failure != null) {
+                final Result<?, ?> failure = ctx.failure;
+                cc.moveTo(((Result.Failure<Chr, ?>)failure).input());
+                if (failure instanceof Result.FailureOnExpected) {
+                    ctx.expected = ((Result.FailureOnExpected<?, ?>)failure).expected();
+                } else {
+                    ctx.expected = ((Result.FailureMessage<?, ?>)failure).expected();
+                }
+                ctx.failure = null;
+            }
+
+            ctx.success = success;
+            ctx.offset = cc.offset();
+            return success;
+        }
+
+        // The index of the alternative selected by a CHOICE instruction, or -1 if there is none.
+        // This mirrors Parser.choice (and Parser.or, which is equivalent for two alternatives).
+        private int select(int node, Cursor<I> cursor, SymSet<I> follow) {
+            final int[] alts = children[node];
+            if (cursor.isEof()) {
+                for (int alt : alts) {
+                    if (empty[alt]) {
+                        return alt;
+                    }
+                }
+            } else {
+                for (int alt : alts) {
+                    if (cursor.matches(first[alt])) {
+                        return alt;
+                    }
+                }
+                if (cursor.matches(follow)) {
+                    for (int alt : alts) {
+                        if (empty[alt]) {
+                            return alt;
+                        }
+                    }
+                }
+            }
+            return -1;
+        }
+
+        /**
+         * Run the program from the cursor position.
+         * On success the value is held in the context, and the cursor follows the parsed input.
+         * On failure the context holds the expected symbols or error message (or the failure of a called parser),
+         * and the cursor is at the position of the failure.
+         * @return          true if the parse succeeded
+         */
+        @SuppressWarnings("unchecked")
+        private boolean run(Cursor<I> cursor, SymSet<I> follow, ParseContext<?> ctx) {
+            ctx.clear();
+            final Frames frames = ctx.frames;
+            int node = 0;
+            Object value = null;
+            // The expected symbols or error message of a failure, or null.
+            Object expected = null;
+            boolean enter = true;
+
+            while (true) {
+                if (enter) {
+                    // Either complete the instruction, or push a frame and descend into a child.
+                    switch (ops[node]) {
+                        case PURE:
+                            value = args[node];
+                            break;
+                        case VALUE:
+                            value = args[node];
+                            cursor.advance();
+                            break;
+                        case SATISFY:
+                            value = cursor.get();
+                            cursor.advance();
+                            break;
+                        case ANY:
+                            if (cursor.isEof()) {
+                                expected = first[node];
+                            } else {
+                                value = cursor.get();
+                                cursor.advance();
+                            }
+                            break;
+                        case EOF:
+                            if (cursor.isEof()) {
+                                value = Unit.UNIT;
+                            } else {
+                                expected = first[node];
+                            }
+                            break;
+                        case FAIL:
+                            expected = first[node];
+                            break;
+                        case FAIL_MSG:
+                            expected = args[node];
+                            break;
+                        case CALL: {
+                            final Result<I, ?> r = ((Parser<I, ?>)args[node]).apply(cursor.input(), follow);
+                            if (r.isSuccess()) {
+                                final Result.Success<I, ?> succ = (Result.Success<I, ?>)r;
+                                value = succ.value();
+                                cursor.moveTo(succ.next());
+                            } else {
+                                ctx.failure = r;
+                                expected = r;
+                            }
+                            break;
+                        }
+                        case MAP:
+                            frames.push(node, 0, follow, null);
+                            node = children[node][0];
+                            continue;
+                        case AP: {
+                            final int pa = children[node][1];
+                            frames.push(node, 0, follow, null);
+                            follow = caches[node].combine(empty[pa], first[pa], follow);
+                            node = children[node][0];
+                            continue;
+                        }
+                        case CHOICE: {
+                            final int alt = select(node, cursor, follow);
+                            if (alt >= 0) {
+                                node = alt;
+                                continue;
+                            } else {
+                                expected = first[node];
+                            }
+                            break;
+                        }
+                        case MANY:
+                        case MANY_TILL:
+                            // The loop is driven from the frame.
+                            frames.push(node, 0, follow, IList.of());
+                            break;
+                        default:
+                            throw new IllegalStateException("Unknown instruction " + ops[node]);
+                    }
+                    enter = false;
+                }
+
+                // Return the value or failure to the instruction in the top frame.
+                final int f = frames.size - 1;
+                if (f < 0) {
+                    if (expected != null) {
+                        ctx.expected = expected;
+                        return false;
+                    } else {
+                        ctx.value = value;
+                        return true;
+                    }
+                }
+
+                node = frames.nodes[f];
+                final int state = frames.states[f];
+                follow = (SymSet<I>)frames.follows[f];
+
+                switch (ops[node]) {
+                    case MAP:
+                        frames.pop();
+                        if (expected == null) {
+                            value = ((F<Object, Object>)args[node]).apply(value);
+                        }
+                        break;
+                    case AP:
+                        if (expected != null) {
+                            frames.pop();
+                        } else if (state == 0) {
+                            final int pa = children[node][1];
+                            if (!empty[pa] && (cursor.isEof() || !cursor.matches(first[pa]))) {
+                                expected = first[pa];
+                                frames.pop();
+                            } else {
+                                frames.states[f] = 1;
+                                frames.values[f] = value;
+                                node = pa;
+                                enter = true;
+                            }
+                        } else {
+                            final F<Object, Object> fn = (F<Object, Object>)frames.values[f];
+                            frames.pop();
+                            value = fn.apply(value);
+                        }
+                        break;
+                    case MANY: {
+                        if (expected != null) {
+                            frames.pop();
+                            break;
+                        } else if (state == 1) {
+                            frames.values[f] = ((IList<Object>)frames.values[f]).add(value);
+                        }
+                        final int p = children[node][0];
+                        if (!cursor.isEof() && cursor.matches(first[p])) {
+                            frames.states[f] = 1;
+                            follow = caches[node].union(follow, first[p]);
+                            node = p;
+                            enter = true;
+                        } else {
+                            value = ((IList<Object>)frames.values[f]).reverse();
+                            frames.pop();
+                        }
+                        break;
+                    }
+                    case MANY_TILL: {
+                        if (expected != null) {
+                            frames.pop();
+                            break;
+                        } else if (state == 1) {
+                            frames.values[f] = ((IList<Object>)frames.values[f]).add(value);
+                        }
+                        final int p = children[node][0];
+                        final int end = children[node][1];
+                        if (state != 2 && !cursor.isEof()) {
+                            if (cursor.matches(first[end])) {
+                                frames.states[f] = 2;
+                                node = end;
+                                enter = true;
+                                break;
+                            } else if (cursor.matches(first[p])) {
+                                frames.states[f] = 1;
+                                follow = caches[node].combine(empty[end], first[end], follow);
+                                node = p;
+                                enter = true;
+                                break;
+                            }
+                        }
+                        value = ((IList<Object>)frames.values[f]).reverse();
+                        frames.pop();
+                        break;
+                    }
+                    default:
+                        throw new IllegalStateException("Unknown instruction " + ops[node]);
+                }
+            }
+        }
+    }
+}
@@ -17,7 +17,7 @@
      * @param data      the input data
      * @return          the input stream
      */
-    static Input<Chr> of(char[] data) {
+    static CharInput of(char[] data) {
         return new StringInput(data);
     }
 
@@ -26,16 +26,17 @@ static Input<Chr> of(char[] data) {
      * @param s         the input data
      * @return          the input stream
      */
-    static Input<Chr> of(String s) {
+    static CharInput of(String s) {
         return new StringInput(s.toCharArray());
     }
 
     /**
      * Construct an {@code Input} from a {@link java.io.Reader}.
+     * The reader is read in blocks, so need not be buffered.
      * @param rdr       the input data
      * @return          the input stream
      */
-    static Input<Chr> of(Reader rdr) {
+    static CharInput of(Reader rdr) {
         return new ReaderInput(rdr);
     }
 
@@ -67,22 +68,36 @@ static Input<Chr> of(Reader rdr) {
     Object position();
 }
 
-class StringInput implements Input<Chr> {
+/**
+ * A {@link SeekableInput} which holds a memo table, as used by {@link Parser#memo()}.
+ * @param <I>       the input stream symbol type
+ */
+interface MemoInput<I> extends SeekableInput<I> {
+    /**
+     * @return          the memo table for this input stream
+     */
+    MemoTable memoTable();
+}
+
+class StringInput implements CharInput, MemoInput<Chr> {
 
     private final char[] data;
     private int position;
     private final StringInput other;
+    private final MemoTable memoTable;
 
     StringInput(char[] data) {
         this.data = data;
         this.position = 0;
-        this.other = new StringInput(this, data);
+        this.memoTable = new MemoTable.ByOffset(data.length);
+        this.other = new StringInput(this, data, memoTable);
     }
 
-    StringInput(StringInput other, char[] data) {
+    StringInput(StringInput other, char[] data, MemoTable memoTable) {
         this.data = data;
         this.position = 0;
         this.other = other;
+        this.memoTable = memoTable;
     }
 
     private StringInput setPosition(int position) {
@@ -102,15 +117,39 @@ public boolean isEof() {
     }
 
     @Override
-    public Chr get() {
-        return Chr.valueOf(data[position]);
+    public char getChar() {
+        return data[position];
     }
 
     @Override
-    public Input<Chr> next() {
+    public StringInput next() {
         return other.setPosition(position + 1);
     }
 
+    @Override
+    public int offset() {
+        return position;
+    }
+
+    @Override
+    public StringInput seek(int offset) {
+        return other.setPosition(offset);
+    }
+
+    @Override
+    public int retain(int offset) {
+        return 0;
+    }
+
+    @Override
+    public void release(int retained) {
+    }
+
+    @Override
+    public MemoTable memoTable() {
+        return memoTable;
+    }
+
     @Override
     public Object position() {
         return position;
@@ -131,26 +170,166 @@ public int hashCode() {
     }
 }
 
-class ReaderInput implements Input<Chr> {
+/**
+ * An input over a {@code CharSequence}, which reads the chars directly from the sequence, without copying it.
+ * The sequence must not be modified while the input is in use.
+ */
+class CharSequenceInput implements CharInput, MemoInput<Chr> {
+
+    private final CharSequence data;
+    private int position;
+    private final CharSequenceInput other;
+    // Created on first use, and shared with the other input.
+    private MemoTable memoTable;
+
+    CharSequenceInput(CharSequence data) {
+        this.data = data;
+        this.position = 0;
+        this.other = new CharSequenceInput(this, data);
+    }
+
+    private CharSequenceInput(CharSequenceInput other, CharSequence data) {
+        this.data = data;
+        this.position = 0;
+        this.other = other;
+    }
+
+    private CharSequenceInput setPosition(int position) {
+        this.position = position;
+        return this;
+    }
+
+    @Override
+    public String toString() {
+        final String dataStr = isEof() ? "EOF" : String.valueOf(data.charAt(position));
+        return "CharSequenceInput{" + position + ",data=\"" + dataStr + "\"";
+    }
+
+    @Override
+    public boolean isEof() {
+        return position >= data.length();
+    }
+
+    @Override
+    public char getChar() {
+        return data.charAt(position);
+    }
+
+    @Override
+    public CharSequenceInput next() {
+        return other.setPosition(position + 1);
+    }
+
+    @Override
+    public int offset() {
+        return position;
+    }
+
+    @Override
+    public CharSequenceInput seek(int offset) {
+        return other.setPosition(offset);
+    }
+
+    @Override
+    public int retain(int offset) {
+        return 0;
+    }
+
+    @Override
+    public void release(int retained) {
+    }
+
+    @Override
+    public MemoTable memoTable() {
+        if (memoTable == null) {
+            memoTable = other.memoTable = new MemoTable.ByOffset(data.length());
+        }
+        return memoTable;
+    }
+
+    @Override
+    public Object position() {
+        return position;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (o == null || getClass() != o.getClass()) return false;
+        CharSequenceInput that = (CharSequenceInput) o;
+        return position == that.position &&
+                data == that.data;
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(data, position);
+    }
+}
+
+/**
+ * An input which reads chars from a {@code Reader} into a window, a block at a time.
+ * When the window is refilled, the last char of the previous block is retained,
+ * so the position preceding the current position remains readable,
+ * as is any input retained for backtracking, for which the window is enlarged as required.
+ * Memoised results are held in a bounded table.
+ */
+class ReaderInput implements CharInput, MemoInput<Chr> {
+
+    private static final int BLOCK_SIZE = 8192;
+
+    private static final class Window {
+        final Reader reader;
+        char[] buffer = new char[BLOCK_SIZE + 1];
+        // Position in the input stream of buffer[0].
+        int start = 0;
+        int length = 0;
+        boolean isEof = false;
+        int retainFrom = Integer.MAX_VALUE;
+        MemoTable memoTable;
+
+        Window(Reader reader) {
+            this.reader = reader;
+        }
+
+        // Read blocks until the window contains the given position, or EOF is reached.
+        boolean fill(int position) {
+            while (position >= start + length && !isEof) {
+                final int end = start + length;
+                final int keepFrom = length == 0 ? end : Math.max(start, Math.min(retainFrom, end - 1));
+                final int keep = end - keepFrom;
+                final char[] dest = keep + BLOCK_SIZE > buffer.length ? new char[keep + BLOCK_SIZE] : buffer;
+                System.arraycopy(buffer, keepFrom - start, dest, 0, keep);
+                buffer = dest;
+                start = keepFrom;
+                length = keep;
+
+                final char[] buf = buffer;
+                final int n = Exceptions.wrap(() -> reader.read(buf, keep, BLOCK_SIZE));
+                if (n == -1) {
+                    isEof = true;
+                } else {
+                    length += n;
+                }
+            }
+            return position < start + length;
+        }
+    }
 
     protected int position;
-    protected final Reader reader;
-    protected Chr current;
-    protected boolean isEof = false;
+    private final Window window;
 
     protected final ReaderInput other;
 
     ReaderInput(Reader reader) {
         this.position = 0;
-        this.reader = reader;
-        this.current = null;
-        this.other = new ReaderInput(this, reader);
+        this.window = new Window(reader);
+        this.other = new ReaderInput(this, window);
     }
 
-    ReaderInput(ReaderInput other, Reader reader) {
+    private ReaderInput(ReaderInput other, Window window) {
         this.position = -1;
-        this.reader = reader;
-        this.current = null;
+        this.window = window;
         this.other = other;
     }
 
@@ -161,40 +340,66 @@ protected ReaderInput setPosition(int position) {
 
     @Override
     public String toString() {
-        return "ReaderInput{current=\"" + current + "\",isEof=" + isEof + "}";
+        final String dataStr = isEof() ? "EOF" : String.valueOf(getChar());
+        return "ReaderInput{" + position + ",data=\"" + dataStr + "\"}";
     }
 
     @Override
     public boolean isEof() {
-        if (!isEof && current == null) {
-            Exceptions.wrap(() -> {
-                final int ni = reader.read();
-                if (ni == -1) {
-                    current = null;
-                    isEof = true;
-                } else {
-                    current = Chr.valueOf(ni);
-                }
-            });
-        }
-        return isEof;
+        final Window w = window;
+        return position >= w.start + w.length && !w.fill(position);
     }
 
     @Override
-    public Chr get() {
-        if (isEof()) {
-            throw new RuntimeException("End of input");
+    public char getChar() {
+        final Window w = window;
+        final int i = position - w.start;
+        if (i >= 0 && i < w.length) {
+            return w.buffer[i];
+        } else if (i < 0) {
+            throw new IllegalStateException("Input position " + position + " is no longer available");
+        } else if (w.fill(position)) {
+            return w.buffer[position - w.start];
         } else {
-            return current;
+            throw new RuntimeException("End of input");
         }
     }
 
     @Override
-    public Input<Chr> next() {
-        current = null;
+    public ReaderInput next() {
         return other.setPosition(position + 1);
     }
 
+    @Override
+    public int offset() {
+        return position;
+    }
+
+    @Override
+    public ReaderInput seek(int offset) {
+        return other.setPosition(offset);
+    }
+
+    @Override
+    public int retain(int offset) {
+        final int retained = window.retainFrom;
+        window.retainFrom = Math.min(retained, offset);
+        return retained;
+    }
+
+    @Override
+    public void release(int retained) {
+        window.retainFrom = retained;
+    }
+
+    @Override
+    public MemoTable memoTable() {
+        if (window.memoTable == null) {
+            window.memoTable = new MemoTable.Bounded();
+        }
+        return window.memoTable;
+    }
+
     @Override
     public Object position() {
         return position;
@@ -206,11 +411,11 @@ public boolean equals(Object o) {
         if (o == null || getClass() != o.getClass()) return false;
         ReaderInput that = (ReaderInput) o;
         return position == that.position &&
-                reader == that.reader;
+                window == that.window;
     }
 
     @Override
     public int hashCode() {
-        return Objects.hash(position, reader);
+        return Objects.hash(position, window);
     }
 }
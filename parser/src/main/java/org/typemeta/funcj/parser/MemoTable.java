@@ -0,0 +1,180 @@
+package org.typemeta.funcj.parser;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * A table of memoised parse results for an input stream, keyed by memo parser id and input offset.
+ * <p>
+ * As the inputs alias one another, the input held by a result is not a stable record of a position,
+ * so each entry also records the offset at which the result ended,
+ * and a result is replayed by seeking to that offset.
+ */
+abstract class MemoTable {
+
+    private static final AtomicInteger nextId = new AtomicInteger();
+
+    /**
+     * @return          a new id for a memo parser
+     */
+    static int nextId() {
+        return nextId.getAndIncrement();
+    }
+
+    static final class Entry {
+        final int id;
+        final int offset;
+        final Result<?, ?> result;
+        // The offset following a success, or the offset of a failure.
+        final int end;
+
+        <I> Entry(int id, int offset, Result<I, ?> result) {
+            this.id = id;
+            this.offset = offset;
+            this.result = result;
+            this.end = endOffset(result);
+        }
+
+        private static <I> int endOffset(Result<I, ?> result) {
+            if (result instanceof Result.Success) {
+                return ((SeekableInput<I>)((Result.Success<I, ?>)result).next()).offset();
+            } else {
+                return ((SeekableInput<I>)((Result.Failure<I, ?>)result).input()).offset();
+            }
+        }
+
+        /**
+         * Reconstruct the memoised result relative to an input from the same stream.
+         */
+        @SuppressWarnings("unchecked")
+        <I, A> Result<I, A> replay(SeekableInput<I> in) {
+            final Input<I> at = in.seek(end);
+            if (result instanceof Result.Success) {
+                return Result.success(((Result.Success<I, A>)result).value(), at);
+            } else if (result instanceof Result.FailureOnExpected) {
+                return Result.failure(at, ((Result.FailureOnExpected<I, A>)result).expected());
+            } else if (result instanceof Result.FailureMessage) {
+                return Result.failureMessage(at, ((Result.FailureMessage<I, A>)result).expected());
+            } else {
+                return (Result<I, A>)result;
+            }
+        }
+    }
+
+    abstract Entry get(int id, int offset);
+
+    abstract void put(Entry entry);
+
+    /**
+     * A memo table for an input of known length, which records every result,
+     * in an array per memo parser, indexed by offset.
+     * The arrays are held in a small open-addressed map, keyed by memo parser id,
+     * so that the table size depends only on the memo parsers applied to the input.
+     * Each array is divided into pages, which are allocated as results are recorded,
+     * so that parsing a short span of a long input only allocates the pages for that span.
+     */
+    static final class ByOffset extends MemoTable {
+        private static final int INITIAL_CAPACITY = 8;
+
+        private static final int PAGE_BITS = 8;
+        private static final int PAGE_SIZE = 1 << PAGE_BITS;
+        private static final int PAGE_MASK = PAGE_SIZE - 1;
+
+        private final int pages;
+        private int[] ids = new int[INITIAL_CAPACITY];
+        private Entry[][][] rows = new Entry[INITIAL_CAPACITY][][];
+        private int count = 0;
+
+        ByOffset(int length) {
+            // Include the EOF offset.
+            this.pages = (int)((length + (long)PAGE_SIZE) >>> PAGE_BITS);
+        }
+
+        // Return the slot which holds the row for the id, or the empty slot where it belongs.
+        private int slot(int id) {
+            // Ids are allocated sequentially, so map directly to distinct slots.
+            final int mask = rows.length - 1;
+            int i = id & mask;
+            while (rows[i] != null && ids[i] != id) {
+                i = (i + 1) & mask;
+            }
+            return i;
+        }
+
+        @Override
+        Entry get(int id, int offset) {
+            final Entry[][] row = rows[slot(id)];
+            if (row != null) {
+                final Entry[] page = row[offset >>> PAGE_BITS];
+                if (page != null) {
+                    return page[offset & PAGE_MASK];
+                }
+            }
+            return null;
+        }
+
+        @Override
+        void put(Entry entry) {
+            int i = slot(entry.id);
+            Entry[][] row = rows[i];
+            if (row == null) {
+                if ((count + 1) * 2 > rows.length) {
+                    grow();
+                    i = slot(entry.id);
+                }
+                row = rows[i] = new Entry[pages][];
+                ids[i] = entry.id;
+                ++count;
+            }
+            Entry[] page = row[entry.offset >>> PAGE_BITS];
+            if (page == null) {
+                page = row[entry.offset >>> PAGE_BITS] = new Entry[PAGE_SIZE];
+            }
+            page[entry.offset & PAGE_MASK] = entry;
+        }
+
+        private void grow() {
+            final int[] oldIds = ids;
+            final Entry[][][] oldRows = rows;
+            ids = new int[oldIds.length * 2];
+            rows = new Entry[oldRows.length * 2][][];
+            for (int j = 0; j < oldRows.length; ++j) {
+                if (oldRows[j] != null) {
+                    final int i = slot(oldIds[j]);
+                    ids[i] = oldIds[j];
+                    rows[i] = oldRows[j];
+                }
+            }
+        }
+    }
+
+    /**
+     * A bounded, direct-mapped memo table for an input of unknown length,
+     * where a new entry replaces any existing entry in the same slot.
+     */
+    static final class Bounded extends MemoTable {
+        private static final int SIZE = 4096;
+        private static final int MASK = SIZE - 1;
+
+        private final Entry[] entries = new Entry[SIZE];
+
+        private static int slot(int id, int offset) {
+            // Consecutive offsets for the same parser map to consecutive slots.
+            return (offset + id * 0x9E3779B9) & MASK;
+        }
+
+        @Override
+        Entry get(int id, int offset) {
+            final Entry entry = entries[slot(id, offset)];
+            if (entry != null && entry.id == id && entry.offset == offset) {
+                return entry;
+            } else {
+                return null;
+            }
+        }
+
+        @Override
+        void put(Entry entry) {
+            entries[slot(entry.id, entry.offset)] = entry;
+        }
+    }
+}
@@ -0,0 +1,114 @@
+package org.typemeta.funcj.parser;
+
+/**
+ * A reusable context for parsing a {@code CharSequence},
+ * via {@link Text#parse(Parser, CharSequence, ParseContext)} or {@link Text#apply(Parser, CharSequence, int, ParseContext)}.
+ * <p>
+ * The context holds the working state of a parse, and its outcome:
+ * either the result value, or a description of the failure,
+ * and the offset at which the parse ended.
+ * When used with a compiled parser (see {@link Parser#compile()}),
+ * the input position is held as an {@code int} offset into the sequence,
+ * so a parse does not construct the {@link Input} and {@link Result} objects of the {@code Result}-returning API,
+ * and reusing a context for successive parses avoids allocating the working state.
+ * <p>
+ * A context must not be used by more than one thread at a time,
+ * whereas a compiled parser may be shared by any number of threads, each using its own context.
+ * @param <A>       the parser result type
+ */
+public final class ParseContext<A> {
+
+    final GrammarCompiler.Frames frames = new GrammarCompiler.Frames();
+
+    private GrammarCompiler.CharCursor cursor;
+
+    boolean success;
+
+    Object value;
+
+    // The expected symbols (a SymSet) or the error message (a String) of a failure.
+    Object expected;
+
+    // The failure returned by a called parser.
+    Result<?, ?> failure;
+
+    int offset;
+
+    GrammarCompiler.CharCursor cursor() {
+        if (cursor == null) {
+            cursor = new GrammarCompiler.CharCursor();
+        }
+        return cursor;
+    }
+
+    void clear() {
+        frames.clear();
+        success = false;
+        value = null;
+        expected = null;
+        failure = null;
+    }
+
+    void set(Result<?, A> result) {
+        clear();
+        if (result.isSuccess()) {
+            final Result.Success<?, A> succ = (Result.Success<?, A>)result;
+            success = true;
+            value = succ.value();
+            offset = ((SeekableInput<?>)succ.next()).offset();
+        } else {
+            final Result.Failure<?, A> fail = (Result.Failure<?, A>)result;
+            if (fail instanceof Result.FailureOnExpected) {
+                expected = ((Result.FailureOnExpected<?, A>)fail).expected();
+            } else {
+                expected = ((Result.FailureMessage<?, A>)fail).expected();
+            }
+            offset = ((SeekableInput<?>)fail.input()).offset();
+        }
+    }
+
+    /**
+     * Indicates if the last parse was successful.
+     * @return          true if the last parse was successful
+     */
+    public boolean isSuccess() {
+        return success;
+    }
+
+    /**
+     * Return the offset into the sequence following the input consumed by a successful parse,
+     * or the offset at which a parse failed.
+     * @return          the offset at which the last parse ended
+     */
+    public int offset() {
+        return offset;
+    }
+
+    /**
+     * Returns the parse value if the last parse was successful, otherwise throws an exception.
+     * @return          the parse value if the last parse was successful
+     * @throws          RuntimeException if the last parse was unsuccessful
+     */
+    @SuppressWarnings("unchecked")
+    public A getOrThrow() {
+        if (success) {
+            return (A)value;
+        } else {
+            throw new RuntimeException(error());
+        }
+    }
+
+    /**
+     * Describe the failure of the last parse, as per the exception thrown by {@link Result#getOrThrow()}.
+     * @return          the description of the failure, or null if the last parse was successful
+     */
+    public String error() {
+        if (success) {
+            return null;
+        } else if (expected instanceof String) {
+            return "Failure at position " + offset + ", error=" + expected;
+        } else {
+            return "Failure at position " + offset + ", expected=" + expected;
+        }
+    }
+}
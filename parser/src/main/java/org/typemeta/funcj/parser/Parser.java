@@ -54,6 +54,11 @@ static <I, A> Parser<I, A> pure(A a) {
             public Result<I, A> apply(Input<I> in, SymSet<I> follow) {
                 return Result.success(a, in);
             }
+
+            @Override
+            GrammarCompiler.Instr instr() {
+                return GrammarCompiler.Instr.withArg(GrammarCompiler.PURE, a);
+            }
         };
     }
 
@@ -76,10 +81,12 @@ Parser<I, B> ap(Parser<I, F<A, B>> pf, Parser<I, A> pa) {
             Utils.and(pf.acceptsEmpty(), pa.acceptsEmpty()),
             combine(pf.acceptsEmpty(), pf.firstSet(), pa.firstSet())
         ) {
+            private final FollowCache<I> followCache = new FollowCache<I>();
+
             @Override
             public Result<I, B> apply(Input<I> in, SymSet<I> follow) {
                 final SymSet<I> followF =
-                        combine(
+                        followCache.combine(
                                 pa.acceptsEmpty().apply(),
                                 pa.firstSet().apply(),
                                 follow);
@@ -92,7 +99,7 @@ public Result<I, B> apply(Input<I> in, SymSet<I> follow) {
                     if (!pa.acceptsEmpty().apply()) {
                         if (next.isEof()) {
                             return failureEof(pa, next);
-                        } else if (!pa.firstSet().apply().matches(next.get())) {
+                        } else if (!matches(pa.firstSet().apply(), next)) {
                             return failure(pa, next);
                         }
                     }
@@ -103,6 +110,11 @@ public Result<I, B> apply(Input<I> in, SymSet<I> follow) {
                     return ((Result.Failure<I, F<A, B>>) r).cast();
                 }
             }
+
+            @Override
+            GrammarCompiler.Instr instr() {
+                return GrammarCompiler.Instr.of(GrammarCompiler.AP, pf, pa);
+            }
         };
     }
 
@@ -185,13 +197,33 @@ default Result<I, A> parse(Input<I> in) {
             return parserAndEof.apply(in, SymSet.empty());
         } else if (in.isEof()) {
             return failureEof(this, in);
-        } else if (firstSet().apply().matches(in.get())) {
+        } else if (matches(firstSet().apply(), in)) {
             return parserAndEof.apply(in, SymSet.empty());
         } else {
             return failure(this, in);
         }
     }
 
+    /**
+     * Compile this parser into a flat table of instructions, executed by a single interpreter loop.
+     * <p>
+     * The compiled parser includes every parser reachable from this one, following any {@link Ref}s,
+     * and computes the nullability and first set of each in advance.
+     * It returns the same results, and the same failures, as this parser.
+     * The core combinators are compiled into instructions,
+     * whereas any other parsers are called as they are.
+     * All {@code Ref}s reachable from this parser must be initialised before it is compiled.
+     * <p>
+     * A compiled parser holds no parse state, so may be shared by threads parsing different inputs,
+     * provided that any parsers it calls may also be shared.
+     * For {@code Chr} parsers, {@link Text#parse(Parser, CharSequence, ParseContext)} provides a lower-level API
+     * which avoids allocating inputs and results.
+     * @return          the compiled parser
+     */
+    default Parser<I, A> compile() {
+        return GrammarCompiler.compile(this);
+    }
+
     /**
      * Indicate whether this parser accepts the empty symbol.
      * @return          a lazy wrapper for true iff the parser accepts the empty symbol
@@ -247,6 +279,11 @@ default <B> Parser<I, B> map(F<A, B> f) {
             public Result<I, B> apply(Input<I> in, SymSet<I> follow) {
                 return Parser.this.apply(in, follow).map(f);
             }
+
+            @Override
+            GrammarCompiler.Instr instr() {
+                return GrammarCompiler.Instr.withArg(GrammarCompiler.MAP, f, Parser.this);
+            }
         };
     }
 
@@ -274,12 +311,11 @@ public Result<I, A> apply(Input<I> in, SymSet<I> follow) {
                         return failureEof(this, in);
                     }
                 } else {
-                    final I next = in.get();
-                    if (Parser.this.firstSet().apply().matches(next)) {
+                    if (matches(Parser.this.firstSet().apply(), in)) {
                         return Parser.this.apply(in, follow);
-                    } else if (rhs.firstSet().apply().matches(next)) {
+                    } else if (matches(rhs.firstSet().apply(), in)) {
                         return (Result<I, A>)rhs.apply(in, follow);
-                    } else if (follow.matches(next)) {
+                    } else if (matches(follow, in)) {
                         if (Parser.this.acceptsEmpty().apply()) {
                             return Parser.this.apply(in, follow);
                         } else if (rhs.acceptsEmpty().apply()) {
@@ -289,6 +325,108 @@ public Result<I, A> apply(Input<I> in, SymSet<I> follow) {
                     return failure(this, in);
                 }
             }
+
+            @Override
+            GrammarCompiler.Instr instr() {
+                // Equivalent to a choice between the two parsers.
+                return GrammarCompiler.Instr.of(GrammarCompiler.CHOICE, Parser.this, rhs);
+            }
+        };
+    }
+
+    /**
+     * Construct a parser which returns the result of this parser or,
+     * if it fails, then the result of the {@code rhs} parser, applied at the original position.
+     * <p>
+     * Unlike {@link Parser#or(Parser)}, which commits to the first alternative whose first set matches
+     * the next input symbol, this parser backtracks, so the two alternatives may share a common prefix.
+     * As backtracking can take exponential time, the alternatives (or the parsers they share)
+     * should typically be memoised via {@link Parser#memo()}.
+     * Backtracking requires a {@link SeekableInput},
+     * such as the inputs constructed by the {@link Input} {@code of} methods.
+     * For any other input, the parser fails.
+     * @param rhs       the second parser to attempt
+     * @param <B>       the rhs parser result type
+     * @return          a parser which returns the result of either this parser or the {@code rhs} parser.
+     */
+    @SuppressWarnings("unchecked")
+    default <B extends A> Parser<I, A> orElse(Parser<I, B> rhs) {
+        return new ParserImpl<I, A>(
+            Utils.or(Parser.this.acceptsEmpty(), rhs.acceptsEmpty()),
+            union(Parser.this.firstSet(), rhs.firstSet())
+        ) {
+            @Override
+            public Result<I, A> apply(Input<I> in, SymSet<I> follow) {
+                if (!(in instanceof SeekableInput)) {
+                    return failure("Backtracking requires a SeekableInput, but input is a " +
+                            in.getClass().getName(), in);
+                }
+
+                final SeekableInput<I> sin = (SeekableInput<I>)in;
+                final int offset = sin.offset();
+                if (canApply(Parser.this, in, follow)) {
+                    final int retained = sin.retain(offset);
+                    final Result<I, A> r = Parser.this.apply(in, follow);
+                    if (r.isSuccess()) {
+                        sin.release(retained);
+                        return r;
+                    }
+                    in = sin.seek(offset);
+                    sin.release(retained);
+                }
+
+                if (canApply(rhs, in, follow)) {
+                    return (Result<I, A>)rhs.apply(in, follow);
+                } else if (in.isEof()) {
+                    return failureEof(this, in);
+                } else {
+                    return failure(this, in);
+                }
+            }
+        };
+    }
+
+    /**
+     * Construct a parser which memoises the results of this parser,
+     * so that applying it more than once at the same position of an input
+     * (e.g. due to backtracking via {@link Parser#orElse(Parser)}) only parses the input once.
+     * <p>
+     * So that a result can be reused regardless of the context in which the parser is applied,
+     * this parser is applied as if it may be followed by any symbol, as in a PEG (packrat) parser.
+     * Consequently, where an alternative which accepts empty is selected on the basis of the symbol
+     * following the parser, a failure may be reported later in the input than it would otherwise be.
+     * <p>
+     * Results are held in a memo table belonging to the input.
+     * Inputs constructed from a {@code String} or a {@code char} array record every result,
+     * whereas inputs constructed from a {@code Reader} record results in a bounded table,
+     * so that older results may be evicted.
+     * For any other input, the parser is equivalent to this parser.
+     * @return          a memoising parser
+     */
+    default Parser<I, A> memo() {
+        final int id = MemoTable.nextId();
+        return new ParserImpl<I, A>(
+            Parser.this.acceptsEmpty(),
+            Parser.this.firstSet()
+        ) {
+            @Override
+            public Result<I, A> apply(Input<I> in, SymSet<I> follow) {
+                if (!(in instanceof MemoInput)) {
+                    return Parser.this.apply(in, follow);
+                }
+
+                final MemoInput<I> sin = (MemoInput<I>)in;
+                final int offset = sin.offset();
+                final MemoTable memoTable = sin.memoTable();
+                final MemoTable.Entry entry = memoTable.get(id, offset);
+                if (entry != null) {
+                    return entry.replay(sin);
+                }
+
+                final Result<I, A> r = Parser.this.apply(in, SymSet.all());
+                memoTable.put(new MemoTable.Entry(id, offset, r));
+                return r;
+            }
         };
     }
 
@@ -348,14 +486,15 @@ && acceptsEmpty().apply()) {
         // We use an iterative implementation, in favour of a more concise recursive solution,
         // for performance, and to avoid StackOverflowExceptions.
         return new ParserImpl<I, IList<A>>(LTRUE, this.firstSet()) {
+            private final FollowCache<I> followCache = new FollowCache<I>();
+
             @Override
             public Result<I, IList<A>> apply(Input<I> in, SymSet<I> follow) {
                 IList<A> acc = IList.of();
-                final SymSet<I> follow2 = follow.union(Parser.this.firstSet().apply());
+                final SymSet<I> follow2 = followCache.union(follow, Parser.this.firstSet().apply());
                 while (true) {
                     if (!in.isEof()) {
-                        final I i = in.get();
-                        if (Parser.this.firstSet().apply().matches(i)) {
+                        if (matches(Parser.this.firstSet().apply(), in)) {
                             final Result<I, A> r = Parser.this.apply(in, follow2);
                             if (r.isSuccess()) {
                                 final Result.Success<I, A> succ = (Result.Success<I, A>) r;
@@ -370,6 +509,11 @@ public Result<I, IList<A>> apply(Input<I> in, SymSet<I> follow) {
                     return Result.success(acc.reverse(), in);
                 }
             }
+
+            @Override
+            GrammarCompiler.Instr instr() {
+                return GrammarCompiler.Instr.of(GrammarCompiler.MANY, Parser.this);
+            }
         };
     }
 
@@ -385,14 +529,15 @@ default <B> Parser<I, IList<A>> manyTill(Parser<I, B> end) {
         return new ParserImpl<I, IList<A>>(
                 end.acceptsEmpty(),
                 union(Parser.this.firstSet(), end.firstSet())) {
+            private final FollowCache<I> followCache = new FollowCache<I>();
+
             @Override
             public Result<I, IList<A>> apply(Input<I> in, SymSet<I> follow) {
                 IList<A> acc = IList.of();
-                final SymSet<I> follow2 = combine(end.acceptsEmpty().apply(), end.firstSet().apply(), follow);
+                final SymSet<I> follow2 = followCache.combine(end.acceptsEmpty().apply(), end.firstSet().apply(), follow);
                 while (true) {
                     if (!in.isEof()) {
-                        final I i = in.get();
-                        if (end.firstSet().apply().matches(i)) {
+                        if (matches(end.firstSet().apply(), in)) {
                             final Result<I, B> r = end.apply(in, follow);
                             if (r.isSuccess()) {
                                 final Result.Success<I, B> succ = (Result.Success<I, B>) r;
@@ -400,7 +545,7 @@ public Result<I, IList<A>> apply(Input<I> in, SymSet<I> follow) {
                             } else {
                                 return ((Result.Failure<I, A>)r).cast();
                             }
-                        } else if (Parser.this.firstSet().apply().matches(i)) {
+                        } else if (matches(Parser.this.firstSet().apply(), in)) {
                             final Result<I, A> r = Parser.this.apply(in, follow2);
                             if (r.isSuccess()) {
                                 final Result.Success<I, A> succ = (Result.Success<I, A>) r;
@@ -415,6 +560,11 @@ public Result<I, IList<A>> apply(Input<I> in, SymSet<I> follow) {
                     return Result.success(acc.reverse(), in);
                 }
             }
+
+            @Override
+            GrammarCompiler.Instr instr() {
+                return GrammarCompiler.Instr.of(GrammarCompiler.MANY_TILL, Parser.this, end);
+            }
         };
     }
 
@@ -444,13 +594,12 @@ public Result<I, A> apply(Input<I> in, SymSet<I> follow) {
                     }
                     return failureEof(this, in);
                 } else {
-                    final I next = in.get();
                     for (Parser<I, A> p : ps) {
-                        if (p.firstSet().apply().matches(next)) {
+                        if (matches(p.firstSet().apply(), in)) {
                             return p.apply(in, follow);
                         }
                     }
-                    if (follow.matches(next)) {
+                    if (matches(follow, in)) {
                         for (Parser<I, A> p : ps) {
                             if (p.acceptsEmpty().apply()) {
                                 return p.apply(in, follow);
@@ -460,6 +609,11 @@ public Result<I, A> apply(Input<I> in, SymSet<I> follow) {
                     return failure(this, in);
                 }
             }
+
+            @Override
+            GrammarCompiler.Instr instr() {
+                return GrammarCompiler.Instr.of(GrammarCompiler.CHOICE, ps.toList().toArray(new Parser<?, ?>[0]));
+            }
         };
     }
 
@@ -15,7 +15,7 @@
 
     ParserImpl(Lazy<Boolean> acceptsEmpty, Lazy<SymSet<I>> firstSet) {
         this.acceptsEmpty = acceptsEmpty;
-        this.firstSet = firstSet;
+        this.firstSet = Lazy.of(() -> SymSet.compile(firstSet.apply()));
     }
 
     public Lazy<Boolean> acceptsEmpty() {
@@ -26,6 +26,15 @@ public Lazy<SymSet<I>> firstSet() {
         return firstSet;
     }
 
+    /**
+     * Describe this parser as an instruction for the {@link GrammarCompiler}.
+     * Parsers which are not described are compiled as calls to their {@code apply} method.
+     * @return          the instruction, or null
+     */
+    GrammarCompiler.Instr instr() {
+        return null;
+    }
+
     @Override
     public String toString() {
         return "parser{" +
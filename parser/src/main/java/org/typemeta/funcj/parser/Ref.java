@@ -77,6 +77,10 @@ public Parser<I, A> set(Parser<I, A> impl) {
         }
     }
 
+    Parser<I, A> impl() {
+        return impl;
+    }
+
     @Override
     public Lazy<Boolean> acceptsEmpty() {
         return () -> impl.acceptsEmpty().apply();
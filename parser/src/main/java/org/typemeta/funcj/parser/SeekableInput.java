@@ -0,0 +1,40 @@
+package org.typemeta.funcj.parser;
+
+/**
+ * An input which can be repositioned, as required for backtracking via {@link Parser#orElse(Parser)}.
+ * Positions are expressed as {@code int} offsets from the start of the stream.
+ * <p>
+ * The inputs constructed by the {@link Input} {@code of} methods are seekable.
+ * A custom input which holds the entire stream in memory can implement
+ * {@link #retain(int)} and {@link #release(int)} as no-ops.
+ * @param <I>       the input stream symbol type
+ */
+public interface SeekableInput<I> extends Input<I> {
+    /**
+     * @return          the offset of this input
+     */
+    int offset();
+
+    /**
+     * Return an input at the given offset, which must have previously been reached,
+     * and which must still be available.
+     * The returned input may be an alias of this input.
+     * @param offset    the offset
+     * @return          an input at the offset
+     */
+    SeekableInput<I> seek(int offset);
+
+    /**
+     * Ensure that input from the given offset remains available for seeking,
+     * until {@link #release(int)} is called with the value returned by this method.
+     * @param offset    the offset
+     * @return          the previous retention offset
+     */
+    int retain(int offset);
+
+    /**
+     * Restore the retention offset which was in force before a call to {@link #retain(int)}.
+     * @param retained  the value returned by {@code retain}
+     */
+    void release(int retained);
+}
@@ -1,6 +1,6 @@
 package org.typemeta.funcj.parser;
 
-import org.typemeta.funcj.data.Unit;
+import org.typemeta.funcj.data.*;
 import org.typemeta.funcj.functions.Functions;
 
 import java.util.*;
@@ -16,6 +16,10 @@
  * {@code SymSet} has to support these directly else every symbol that satisfies the predicate,
  * would have to be enumerated.
  * Consequently, a SymSet is expressed as the composition of symbols, predicates and set operations.
+ * <p>
+ * Since membership tests are performed for every input symbol,
+ * sets can be compiled (see {@link SymSet#compile(SymSet)}) into a form
+ * which answers membership tests for {@link Chr} and enum symbols with a table lookup.
  * @param <I>           the input stream symbol type
  */
 public interface SymSet<I> {
@@ -24,7 +28,8 @@ enum Type {
         ALL,
         VALUE,
         PRED,
-        UNION
+        UNION,
+        COMPILED
     }
 
     @SuppressWarnings("unchecked")
@@ -45,6 +50,23 @@ static <I> SymSet<I> pred(String name, Functions.Predicate<I> pred) {
         return new Pred<I>(name, pred);
     }
 
+    /**
+     * Compile a set into one which caches the results of membership tests in a lookup table.
+     * Sets which are already cheap to test, and compiled sets, are returned as-is.
+     * @param set       the set to compile
+     * @param <I>       the input stream symbol type
+     * @return          the compiled set
+     */
+    static <I> SymSet<I> compile(SymSet<I> set) {
+        switch (set.type()) {
+            case PRED:
+            case UNION:
+                return new Compiled<I>(set);
+            default:
+                return set;
+        }
+    }
+
     class Empty<I> implements SymSet<I> {
         static final Empty<Unit> INSTANCE = new Empty<>();
 
@@ -58,6 +80,11 @@ public boolean matches(I value) {
             return false;
         }
 
+        @Override
+        public boolean matchesChar(char c) {
+            return false;
+        }
+
         @Override
         public SymSet<I> union(SymSet<I> rhs) {
             return rhs;
@@ -87,6 +114,11 @@ public boolean matches(I value) {
             return true;
         }
 
+        @Override
+        public boolean matchesChar(char c) {
+            return true;
+        }
+
         @Override
         public SymSet<I> union(SymSet<I> rhs) {
             return this;
@@ -121,6 +153,11 @@ public boolean matches(I value) {
             return this.value.equals(value);
         }
 
+        @Override
+        public boolean matchesChar(char c) {
+            return value instanceof Chr && ((Chr)value).charValue() == c;
+        }
+
         @Override
         public SymSet<I> union(SymSet<I> rhs) {
             switch(rhs.type()) {
@@ -134,6 +171,8 @@ public SymSet<I> union(SymSet<I> rhs) {
                     return new Union<I>(this, (Pred<I>)rhs);
                 case UNION:
                     return new Union<I>((Union<I>)rhs, this);
+                case COMPILED:
+                    return union(((Compiled<I>)rhs).source);
                 default:
                     throw typeError(rhs.type());
             }
@@ -184,6 +223,8 @@ public SymSet<I> union(SymSet<I> rhs) {
                     return new Union<I>(this, (Pred<I>)rhs);
                 case UNION:
                     return new Union<I>((Union<I>)rhs, this);
+                case COMPILED:
+                    return union(((Compiled<I>)rhs).source);
                 default:
                     throw typeError(rhs.type());
             }
@@ -276,6 +317,8 @@ public SymSet<I> union(SymSet<I> rhs) {
                     return new Union<I>(this, (Pred<I>)rhs);
                 case UNION:
                     return new Union<I>(this, (Union<I>)rhs);
+                case COMPILED:
+                    return union(((Compiled<I>)rhs).source);
                 default:
                     throw typeError(rhs.type());
             }
@@ -309,10 +352,151 @@ public StringBuilder append(StringBuilder sb) {
         }
     }
 
+    /**
+     * A set which caches the results of membership tests of its source set.
+     * <p>
+     * {@link Chr} symbols are keyed on their char value,
+     * and symbols of the enum type of any values in the source set are keyed on their ordinal.
+     * The results for keyed symbols are held in a table of two bits per key,
+     * which indicate whether the result is known, and if so whether the symbol is a member.
+     * The table is grown as required, up to one entry for every char value.
+     * Other symbols are tested against the source set.
+     * <p>
+     * Both bits for a key reside in the same half of a {@code long},
+     * so unsynchronised updates from multiple threads can at worst lose a cached result,
+     * which is then recomputed.
+     * @param <I>       the input stream symbol type
+     */
+    class Compiled<I> implements SymSet<I> {
+        private static final int CHR_KEYS = 1 << 16;
+        private static final int MAX_TABLE_SIZE = (CHR_KEYS + CHR_KEYS) >>> 5;
+        private static final long KNOWN = 1L;
+        private static final long MEMBER = 2L;
+
+        public final SymSet<I> source;
+
+        private final Class<?> enumClass;
+
+        private long[] table = new long[4];
+
+        public Compiled(SymSet<I> source) {
+            this.source = source;
+            this.enumClass = enumClass(source);
+        }
+
+        private static Class<?> enumClass(SymSet<?> set) {
+            if (set.type() != Type.UNION) {
+                return null;
+            }
+
+            Class<?> enumClass = null;
+            for (Object value : ((Union<?>)set).values) {
+                if (value instanceof Enum) {
+                    final Class<?> clazz = ((Enum<?>)value).getDeclaringClass();
+                    if (enumClass == null) {
+                        enumClass = clazz;
+                    } else if (enumClass != clazz) {
+                        return null;
+                    }
+                }
+            }
+            return enumClass;
+        }
+
+        private int key(I value) {
+            if (value instanceof Chr) {
+                return ((Chr)value).charValue();
+            } else if (value instanceof Enum && ((Enum<?>)value).getDeclaringClass() == enumClass) {
+                final int ordinal = ((Enum<?>)value).ordinal();
+                return ordinal < CHR_KEYS ? CHR_KEYS + ordinal : -1;
+            } else {
+                return -1;
+            }
+        }
+
+        @Override
+        public Type type() {
+            return Type.COMPILED;
+        }
+
+        @Override
+        public boolean matches(I value) {
+            final int key = key(value);
+            if (key == -1) {
+                return source.matches(value);
+            }
+
+            final long[] table = this.table;
+            final int i = key >>> 5;
+            if (i < table.length) {
+                final long bits = table[i] >>> ((key & 31) << 1);
+                if ((bits & KNOWN) != 0) {
+                    return (bits & MEMBER) != 0;
+                }
+            }
+
+            final boolean member = source.matches(value);
+            record(key, member);
+            return member;
+        }
+
+        @Override
+        public boolean matchesChar(char c) {
+            final long[] table = this.table;
+            final int i = c >>> 5;
+            if (i < table.length) {
+                final long bits = table[i] >>> ((c & 31) << 1);
+                if ((bits & KNOWN) != 0) {
+                    return (bits & MEMBER) != 0;
+                }
+            }
+
+            final boolean member = source.matchesChar(c);
+            record(c, member);
+            return member;
+        }
+
+        private void record(int key, boolean member) {
+            final int i = key >>> 5;
+            long[] table = this.table;
+            if (i >= table.length) {
+                table = Arrays.copyOf(table, Math.min(Math.max(i + 1, table.length * 2), MAX_TABLE_SIZE));
+                this.table = table;
+            }
+            table[i] |= (member ? KNOWN | MEMBER : KNOWN) << ((key & 31) << 1);
+        }
+
+        @Override
+        public SymSet<I> union(SymSet<I> rhs) {
+            return source.union(rhs);
+        }
+
+        @Override
+        public String toString() {
+            return source.toString();
+        }
+
+        @Override
+        public StringBuilder append(StringBuilder sb) {
+            return source.append(sb);
+        }
+    }
+
     Type type();
 
     boolean matches(I value);
 
+    /**
+     * Test whether a char symbol is a member of this set.
+     * This may only be called when the symbol type {@code I} is {@link Chr}.
+     * @param c         the char symbol
+     * @return          true if the char symbol is a member of this set
+     */
+    @SuppressWarnings("unchecked")
+    default boolean matchesChar(char c) {
+        return matches((I)Chr.valueOf(c));
+    }
+
     SymSet<I> union(SymSet<I> rhs);
 
     StringBuilder append(StringBuilder sb);
@@ -8,6 +8,123 @@
  * Parser combinators for working with {@link Chr} streams.
  */
 public abstract class Text {
+    /**
+     * A predicate on primitive {@code char} values.
+     */
+    @FunctionalInterface
+    public interface CharPredicate {
+        boolean test(char c);
+    }
+
+    private static SymSet<Chr> charPred(String name, CharPredicate charPred) {
+        return new SymSet.Pred<Chr>(name, c -> charPred.test(c.charValue())) {
+            @Override
+            public boolean matchesChar(char c) {
+                return charPred.test(c);
+            }
+        };
+    }
+
+    /**
+     * Specialisation of {@link Combinators#satisfy(String, org.typemeta.funcj.functions.Functions.Predicate)}
+     * for {@code Chr}, where the predicate is applied to the primitive {@code char} value.
+     * When the parser is applied to a {@link CharInput},
+     * the predicate is tested without constructing a {@code Chr}.
+     * @param name      a name for the parser (used for error messages)
+     * @param pred      the predicate to be applied to the next input char
+     * @return          a parser that succeeds if the next input char satisfies the given predicate
+     */
+    public static Parser<Chr, Chr> satisfyChar(String name, CharPredicate pred) {
+        return new ParserImpl<Chr, Chr>(Utils.LFALSE, () -> charPred(name, pred)) {
+            @Override
+            public Result<Chr, Chr> apply(Input<Chr> in, SymSet<Chr> follow) {
+                return Result.success(in.get(), in.next());
+            }
+
+            @Override
+            GrammarCompiler.Instr instr() {
+                return GrammarCompiler.Instr.of(GrammarCompiler.SATISFY);
+            }
+        };
+    }
+
+    /**
+     * A parser which consumes one or more chars which satisfy the given predicate,
+     * and returns them as a {@code String}.
+     * This is equivalent to {@code satisfyChar(name, pred).many1()} followed by conversion to a string,
+     * but when applied to a {@link CharInput} the chars are accumulated
+     * without constructing a {@code Chr} or list node per char.
+     * @param name      a name for the parser (used for error messages)
+     * @param pred      the predicate to be applied to each input char
+     * @return          a parser for a string of one or more chars which satisfy the predicate
+     */
+    public static Parser<Chr, String> takeWhile1(String name, CharPredicate pred) {
+        return new ParserImpl<Chr, String>(Utils.LFALSE, () -> charPred(name, pred)) {
+            @Override
+            public Result<Chr, String> apply(Input<Chr> in, SymSet<Chr> follow) {
+                final StringBuilder sb = new StringBuilder();
+                if (in instanceof CharInput) {
+                    CharInput cin = (CharInput)in;
+                    do {
+                        sb.append(cin.getChar());
+                        cin = cin.next();
+                    } while (!cin.isEof() && pred.test(cin.getChar()));
+                    return Result.success(sb.toString(), cin);
+                } else {
+                    do {
+                        sb.append(in.get().charValue());
+                        in = in.next();
+                    } while (!in.isEof() && pred.test(in.get().charValue()));
+                    return Result.success(sb.toString(), in);
+                }
+            }
+        };
+    }
+
+    /**
+     * Parse a char sequence, which must be consumed in its entirety, recording the outcome in a context.
+     * This is equivalent to {@link Parser#parse(Input)},
+     * but for a compiled parser (see {@link Parser#compile()}) it reads the chars directly from the sequence,
+     * without constructing an {@link Input} or a {@link Result}.
+     * Other parsers are applied via {@code Parser.parse}.
+     * @param parser    the parser
+     * @param s         the char sequence
+     * @param ctx       the context, which receives the outcome of the parse
+     * @param <A>       the parser result type
+     * @return          true if the parse succeeded
+     */
+    public static <A> boolean parse(Parser<Chr, A> parser, CharSequence s, ParseContext<A> ctx) {
+        if (parser instanceof GrammarCompiler.Program) {
+            return ((GrammarCompiler.Program<Chr, A>)parser).applyChars(s, 0, true, ctx);
+        } else {
+            ctx.set(parser.parse(new CharSequenceInput(s)));
+            return ctx.isSuccess();
+        }
+    }
+
+    /**
+     * Apply a parser to a char sequence, starting at an offset, recording the outcome in a context.
+     * The parser need not consume the remainder of the sequence;
+     * following a successful parse, {@link ParseContext#offset()} indicates the end of the consumed input.
+     * This is equivalent to {@link Parser#apply(Input)},
+     * but for a compiled parser (see {@link Parser#compile()}) it reads the chars directly from the sequence,
+     * without constructing an {@link Input} or a {@link Result}.
+     * @param parser    the parser
+     * @param s         the char sequence
+     * @param start     the offset at which to start parsing
+     * @param ctx       the context, which receives the outcome of the parse
+     * @param <A>       the parser result type
+     * @return          true if the parse succeeded
+     */
+    public static <A> boolean apply(Parser<Chr, A> parser, CharSequence s, int start, ParseContext<A> ctx) {
+        if (parser instanceof GrammarCompiler.Program) {
+            return ((GrammarCompiler.Program<Chr, A>)parser).applyChars(s, start, false, ctx);
+        } else {
+            ctx.set(parser.apply(new CharSequenceInput(s).seek(start)));
+            return ctx.isSuccess();
+        }
+    }
+
     /**
      * Specialisation of {@link Parser#pure(Object)} for {@code Chr}.
      * Construct a parser that always returns the given value, without consuming any input.
@@ -31,29 +148,29 @@ public static Parser<Chr, Chr> chr(char c) {
     /**
      * A parser that succeeds if the next input symbol is an alphabetic letter.
      */
-    public static final Parser<Chr, Chr> alpha = satisfy("letter", Chr::isAlphabetic);
+    public static final Parser<Chr, Chr> alpha = satisfyChar("letter", Character::isAlphabetic);
 
     /**
      * A parser that succeeds if the next input symbol is a numeric digit.
      */
-    public static final Parser<Chr, Chr> digit = satisfy("digit", Chr::isDigit);
+    public static final Parser<Chr, Chr> digit = satisfyChar("digit", Character::isDigit);
 
     /**
      * A parser that succeeds if the next input symbol is a numeric digit.
      */
-    public static final Parser<Chr, Chr> nonZeroDigit = satisfy(
+    public static final Parser<Chr, Chr> nonZeroDigit = satisfyChar(
             "nonZeroDigit",
-            c -> c.charValue() != '0' && Chr.isDigit(c));
+            c -> c != '0' && Character.isDigit(c));
 
     /**
      * A parser that succeeds if the next input symbol is a letter or a digit.
      */
-    public static final Parser<Chr, Chr> alphaNum = satisfy("letterOrDigit", Chr::isLetterOrDigit);
+    public static final Parser<Chr, Chr> alphaNum = satisfyChar("letterOrDigit", Character::isLetterOrDigit);
 
     /**
      * A parser that succeeds if the next input symbol is whitespace.
      */
-    public static final Parser<Chr, Chr> ws = satisfy("ws", Chr::isWhitespace);
+    public static final Parser<Chr, Chr> ws = satisfyChar("ws", Character::isWhitespace);
 
     public static int digitToInt(Chr c) {
         return Chr.getNumericValue(c);
@@ -135,6 +252,14 @@ public static int digitToInt(Chr c) {
                         return sn ? r : -r;
                     });
 
+    private static boolean nextCharEquals(Input<Chr> in, char c) {
+        if (in instanceof CharInput) {
+            return ((CharInput)in).getChar() == c;
+        } else {
+            return in.get().equals(c);
+        }
+    }
+
     /**
      * A parser that succeeds if it can extract the given string from the input.
      * @param s         the expected string
@@ -154,7 +279,7 @@ public Result<Chr, String> apply(Input<Chr> in, SymSet<Chr> follow) {
                         for (int i = 0; i < s.length(); ++i) {
                             if (in.isEof()) {
                                 return Utils.failureEof(this, in);
-                            } else if (!in.get().equals(s.charAt(i))) {
+                            } else if (!nextCharEquals(in, s.charAt(i))) {
                                 return Utils.failure(this, in);
                             } else {
                                 in = in.next();
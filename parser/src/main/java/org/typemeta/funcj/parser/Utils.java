@@ -31,12 +31,65 @@ static <I> Lazy<SymSet<I>> combine(
         return Lazy.of(() -> (acceptsEmpty.apply() ? union(fs1, fs2) : fs1).apply());
     }
 
-    static <I> SymSet<I> combine(
-            boolean acceptsEmpty,
-            SymSet<I> fs1,
-            SymSet<I> fs2
-    ) {
-        return acceptsEmpty ? fs1.union(fs2) : fs1;
+    /**
+     * Memoises the union of a dynamic follow set with a static set,
+     * for the most recent follow set, so that repeated applications of a parser
+     * with the same follow set do not construct (and compile) a new set each time.
+     */
+    static final class FollowCache<I> {
+        private static final class Entry<I> {
+            final SymSet<I> follow;
+            final SymSet<I> set;
+            final SymSet<I> union;
+
+            Entry(SymSet<I> follow, SymSet<I> set, SymSet<I> union) {
+                this.follow = follow;
+                this.set = set;
+                this.union = union;
+            }
+        }
+
+        private Entry<I> last;
+
+        SymSet<I> union(SymSet<I> follow, SymSet<I> set) {
+            final Entry<I> entry = last;
+            if (entry != null && entry.follow == follow && entry.set == set) {
+                return entry.union;
+            } else {
+                final SymSet<I> union = SymSet.compile(follow.union(set));
+                last = new Entry<I>(follow, set, union);
+                return union;
+            }
+        }
+
+        SymSet<I> combine(boolean acceptsEmpty, SymSet<I> set, SymSet<I> follow) {
+            return acceptsEmpty ? union(follow, set) : set;
+        }
+    }
+
+    /**
+     * Test whether the symbol indicated by a (non-EOF) input is a member of a set,
+     * without constructing a {@code Chr} if the input is a {@link CharInput}.
+     */
+    static <I> boolean matches(SymSet<I> set, Input<I> in) {
+        if (in instanceof CharInput) {
+            return set.matchesChar(((CharInput)in).getChar());
+        } else {
+            return set.matches(in.get());
+        }
+    }
+
+    /**
+     * Test whether a parser may succeed at the current input,
+     * by the same criteria by which {@link Parser#or(Parser)} selects an alternative.
+     */
+    static <I> boolean canApply(Parser<I, ?> parser, Input<I> in, SymSet<I> follow) {
+        if (in.isEof()) {
+            return parser.acceptsEmpty().apply();
+        } else {
+            return matches(parser.firstSet().apply(), in) ||
+                    (parser.acceptsEmpty().apply() && matches(follow, in));
+        }
     }
 
     static <I, A> Result<I, A> failure(Parser<I, ?> parser, Input<I> in) {
@@ -0,0 +1,209 @@
+package org.typemeta.funcj.parser;
+
+import org.junit.Test;
+import org.typemeta.funcj.data.*;
+import org.typemeta.funcj.parser.expr.*;
+
+import java.util.*;
+import java.util.concurrent.*;
+
+import static org.junit.Assert.*;
+import static org.typemeta.funcj.parser.Text.chr;
+
+public class GrammarCompilerTest {
+
+    // A description of a result which does not depend on the identity of the inputs.
+    private static String describe(Result<Chr, ?> r) {
+        if (r.isSuccess()) {
+            final Result.Success<Chr, ?> succ = (Result.Success<Chr, ?>)r;
+            return "Success{value=" + succ.value() + ", next=" + succ.next().position() + "}";
+        } else if (r instanceof Result.FailureOnExpected) {
+            final Result.FailureOnExpected<Chr, ?> fail = (Result.FailureOnExpected<Chr, ?>)r;
+            return "FailureOnExpected{input=" + fail.input().position() + ", expected=" + fail.expected() + "}";
+        } else {
+            final Result.FailureMessage<Chr, ?> fail = (Result.FailureMessage<Chr, ?>)r;
+            return "FailureMessage{input=" + fail.input().position() + ", error=" + fail.expected() + "}";
+        }
+    }
+
+    private static String describe(ParseContext<?> ctx) {
+        if (ctx.isSuccess()) {
+            return "Success{value=" + ctx.getOrThrow() + ", next=" + ctx.offset() + "}";
+        } else if (ctx.expected instanceof String) {
+            return "FailureMessage{input=" + ctx.offset() + ", error=" + ctx.expected + "}";
+        } else {
+            return "FailureOnExpected{input=" + ctx.offset() + ", expected=" + ctx.expected + "}";
+        }
+    }
+
+    private static <A> void assertSameResults(Parser<Chr, A> parser, String... inputs) {
+        final Parser<Chr, A> compiled = parser.compile();
+        final ParseContext<A> ctx = new ParseContext<A>();
+        for (String s : inputs) {
+            final String expected = describe(parser.parse(Input.of(s)));
+            assertEquals(s, expected, describe(compiled.parse(Input.of(s))));
+            Text.parse(compiled, s, ctx);
+            assertEquals(s, expected, describe(ctx));
+        }
+    }
+
+    @Test
+    public void testText() {
+        assertSameResults(Text.dble, "", "1", "-12.5e3", "1.", "+", "e", "0.25E-2", "1.5x");
+        assertSameResults(Text.intr, "", "0", "-0", "01", "123", "12a");
+        assertSameResults(Text.string("abc").or(Text.string("x")), "abc", "abd", "x", "", "y");
+    }
+
+    @Test
+    public void testCombinators() {
+        final Parser<Chr, IList<Chr>> sepBy = Text.digit.sepBy(chr(','));
+        assertSameResults(sepBy, "", "1", "1,2,3", "1,", ",", "1,,2");
+
+        final Parser<Chr, IList<Chr>> manyTill = Combinators.<Chr>any().manyTill(chr(';'));
+        assertSameResults(manyTill, "", ";", "abc;", "abc", "ab;c");
+
+        final Parser<Chr, Chr> choice = Combinators.choice(chr('a'), chr('b'), Text.pure('z'));
+        assertSameResults(choice, "", "a", "b", "c");
+
+        assertSameResults(Combinators.<Chr, Chr>fail("message"), "", "a");
+        assertSameResults(chr('a').andL(Combinators.eof()).optional(), "", "a", "ab");
+    }
+
+    @Test
+    public void testCalledParsers() {
+        final Parser<Chr, String> parser =
+                Text.string("ab").memo().orElse(Text.string("ac"))
+                        .and(Text.takeWhile1("letter", Character::isLetter).optional())
+                        .map((s, o) -> s + o.orElse(""));
+        assertSameResults(parser, "ab", "ac", "acxyz", "ad", "");
+    }
+
+    @Test
+    public void testExprGrammar() {
+        final Parser<Chr, Model.Expr> parser = Grammar.parser;
+        assertSameResults(parser, "123.456+4*(5+x)-1", "3*4+(5+)-1", "-(-x)", "", "(", "x*", "1e");
+
+        final String alphabet = "0123456789.+-*/()xe";
+        final Random rand = new Random(1234);
+        final String[] inputs = new String[2000];
+        for (int n = 0; n < inputs.length; ++n) {
+            final StringBuilder sb = new StringBuilder();
+            for (int i = rand.nextInt(20); i > 0; --i) {
+                sb.append(alphabet.charAt(rand.nextInt(alphabet.length())));
+            }
+            inputs[n] = sb.toString();
+        }
+        assertSameResults(parser, inputs);
+    }
+
+    @Test
+    public void testDeepNesting() {
+        final Ref<Chr, Integer> nested = Parser.ref();
+        nested.set(chr('(').andR(nested).andL(chr(')')).map(n -> n + 1).or(chr('x').map(c -> 0)));
+
+        final int depth = 100000;
+        final StringBuilder sb = new StringBuilder();
+        for (int i = 0; i < depth; ++i) {
+            sb.append('(');
+        }
+        sb.append('x');
+        for (int i = 0; i < depth; ++i) {
+            sb.append(')');
+        }
+
+        // The compiled parser does not recurse, so is not limited by the call stack.
+        assertEquals(depth, nested.compile().parse(Input.of(sb.toString())).getOrThrow().intValue());
+    }
+
+    @Test(expected = RuntimeException.class)
+    public void testUninitialisedRef() {
+        chr('a').andR(Parser.<Chr, Chr>ref()).compile();
+    }
+
+    @Test
+    public void testApplyAtOffset() {
+        final Parser<Chr, Integer> compiled = Text.intr.compile();
+        final ParseContext<Integer> ctx = new ParseContext<Integer>();
+
+        assertTrue(Text.apply(compiled, "ab-123cd", 2, ctx));
+        assertEquals(-123, ctx.getOrThrow().intValue());
+        assertEquals(6, ctx.offset());
+
+        assertFalse(Text.apply(compiled, "ab-x", 2, ctx));
+        assertEquals(3, ctx.offset());
+        assertNotNull(ctx.error());
+
+        // A parser which has not been compiled is applied via its Input-based API.
+        assertTrue(Text.apply(Text.intr, "ab-123cd", 2, ctx));
+        assertEquals(-123, ctx.getOrThrow().intValue());
+        assertEquals(6, ctx.offset());
+    }
+
+    @Test
+    public void testTokeniseCharSequence() {
+        // The backtracking parser is called by the compiled parser, via an input over the sequence.
+        final Parser<Chr, String> token =
+                Text.takeWhile1("digits", Character::isDigit).memo()
+                        .orElse(Combinators.<Chr>any().map(c -> String.valueOf(c.charValue())))
+                        .compile();
+        final ParseContext<String> ctx = new ParseContext<String>();
+
+        final StringBuilder sb = new StringBuilder();
+        for (int i = 0; i < 500; ++i) {
+            sb.append(i).append('+');
+        }
+
+        for (int pass = 0; pass < 2; ++pass) {
+            final List<String> tokens = new ArrayList<>();
+            for (int offset = 0; offset < sb.length(); offset = ctx.offset()) {
+                assertTrue(Text.apply(token, sb, offset, ctx));
+                tokens.add(ctx.getOrThrow());
+            }
+            assertEquals(1000, tokens.size());
+            assertEquals(String.valueOf(499 - 499 * pass), tokens.get(998));
+
+            // The sequence is read afresh by each call, so may be modified between calls.
+            sb.setLength(0);
+            for (int i = 0; i < 500; ++i) {
+                sb.append(499 - i).append('-');
+            }
+        }
+    }
+
+    @Test
+    public void testSharedBetweenThreads() throws Exception {
+        final Parser<Chr, Model.Expr> compiled = Grammar.parser.compile();
+
+        final Random rand = new Random(1234);
+        final List<String> inputs = new ArrayList<>();
+        final List<String> expected = new ArrayList<>();
+        for (int n = 0; n < 200; ++n) {
+            final String s = "(1+x*" + rand.nextInt(100) + ")/" + rand.nextInt(100) + (n % 10 == 0 ? "+" : "");
+            inputs.add(s);
+            expected.add(describe(Grammar.parser.parse(Input.of(s))));
+        }
+
+        final ExecutorService exec = Executors.newFixedThreadPool(4);
+        try {
+            final List<Future<Boolean>> futures = new ArrayList<>();
+            for (int t = 0; t < 8; ++t) {
+                futures.add(exec.submit(() -> {
+                    final ParseContext<Model.Expr> ctx = new ParseContext<Model.Expr>();
+                    for (int i = 0; i < inputs.size(); ++i) {
+                        Text.parse(compiled, inputs.get(i), ctx);
+                        if (!expected.get(i).equals(describe(ctx)) ||
+                                !expected.get(i).equals(describe(compiled.parse(Input.of(inputs.get(i)))))) {
+                            return false;
+                        }
+                    }
+                    return true;
+                }));
+            }
+            for (Future<Boolean> future : futures) {
+                assertTrue(future.get());
+            }
+        } finally {
+            exec.shutdown();
+        }
+    }
+}
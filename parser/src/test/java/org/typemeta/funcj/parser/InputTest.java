@@ -3,7 +3,7 @@
 import org.junit.Test;
 import org.typemeta.funcj.data.Chr;
 
-import java.io.CharArrayReader;
+import java.io.*;
 
 import static org.junit.Assert.*;
 
@@ -20,6 +20,33 @@ public void testReaderInput() {
         testInput(Input.of(new CharArrayReader(charData)));
     }
 
+    @Test
+    public void testReaderInputAcrossBlocks() {
+        final char[] data = new char[20000];
+        for (int i = 0; i < data.length; ++i) {
+            data[i] = (char)('\u00e0' + i % 64);
+        }
+
+        // A reader which returns fewer chars than requested.
+        final Reader rdr = new FilterReader(new CharArrayReader(data)) {
+            @Override
+            public int read(char[] cbuf, int off, int len) throws IOException {
+                return super.read(cbuf, off, Math.min(len, 1000));
+            }
+        };
+
+        CharInput curr = Input.of(rdr);
+        for (char c : data) {
+            assertFalse(curr.isEof());
+            assertEquals(c, curr.getChar());
+            assertEquals(c, curr.get().charValue());
+            curr = curr.next();
+        }
+
+        assertTrue(curr.isEof());
+        assertEquals(data.length, curr.position());
+    }
+
     private void testInput(Input<Chr> input) {
         Input<Chr> curr = input;
 
@@ -0,0 +1,114 @@
+package org.typemeta.funcj.parser;
+
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.*;
+import org.openjdk.jmh.runner.options.*;
+import org.typemeta.funcj.data.Chr;
+import org.typemeta.funcj.parser.enumexpr.Token;
+import org.typemeta.funcj.parser.expr.Model;
+
+import java.util.*;
+
+/**
+ * Measures parsing with the {@code expr} grammar, which operates on {@code Chr} input,
+ * both as constructed and as compiled via {@link Parser#compile()}
+ * (the latter also via a reusable {@link ParseContext}),
+ * and the {@code enumexpr} grammar, which operates on {@link Token} input.
+ * Also measures tokenising the same text via repeated calls to {@link Text#apply},
+ * with a compiled parser which calls a backtracking parser.
+ */
+@State(Scope.Benchmark)
+public class JmhGrammarTest {
+
+    @Param({"10", "1000"})
+    public int terms;
+
+    private String exprText;
+
+    private List<Token> exprTokens;
+
+    private static final Parser<Chr, Model.Expr> exprCompiled =
+            org.typemeta.funcj.parser.expr.Grammar.parser.compile();
+
+    private static final Parser<Chr, String> tokenCompiled =
+            Text.takeWhile1("digits", Character::isDigit)
+                    .orElse(Combinators.<Chr>any().map(c -> String.valueOf(c.charValue())))
+                    .compile();
+
+    @Setup
+    public void setup() {
+        final StringBuilder sb = new StringBuilder();
+        final List<Token> tokens = new ArrayList<>();
+        for (int i = 0; i < terms; ++i) {
+            if (i > 0) {
+                sb.append('+');
+                tokens.add(Token.PLUS);
+            }
+            sb.append("123.456*4/(5+x)-1");
+            Collections.addAll(tokens,
+                    Token.number(123.456), Token.MULT, Token.number(4), Token.DIV,
+                    Token.OPEN, Token.number(5), Token.PLUS, Token.variable('x'), Token.CLOSE,
+                    Token.MINUS, Token.number(1)
+            );
+        }
+        exprText = sb.toString();
+        exprTokens = tokens;
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.Throughput)
+    public Model.Expr expr() {
+        return org.typemeta.funcj.parser.expr.Grammar.parse(exprText).getOrThrow();
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.Throughput)
+    public Model.Expr exprCompiled() {
+        return exprCompiled.parse(Input.of(exprText)).getOrThrow();
+    }
+
+    @State(Scope.Thread)
+    public static class Context {
+        final ParseContext<Model.Expr> ctx = new ParseContext<Model.Expr>();
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.Throughput)
+    public Model.Expr exprContext(Context context) {
+        Text.parse(exprCompiled, exprText, context.ctx);
+        return context.ctx.getOrThrow();
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.Throughput)
+    public Model.Expr enumexpr() {
+        return org.typemeta.funcj.parser.enumexpr.Grammar.parse(exprTokens).getOrThrow();
+    }
+
+    @State(Scope.Thread)
+    public static class TokenContext {
+        final ParseContext<String> ctx = new ParseContext<String>();
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.Throughput)
+    public int tokenise(TokenContext context) {
+        int n = 0;
+        for (int offset = 0; offset < exprText.length(); ++n) {
+            Text.apply(tokenCompiled, exprText, offset, context.ctx);
+            offset = context.ctx.offset();
+        }
+        return n;
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        final Options opt = new OptionsBuilder()
+                .include(JmhGrammarTest.class.getSimpleName())
+                .warmupIterations(5)
+                .measurementIterations(5)
+                .forks(1)
+                .build();
+
+        new Runner(opt).run();
+    }
+}
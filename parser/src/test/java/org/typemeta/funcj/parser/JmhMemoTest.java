@@ -0,0 +1,77 @@
+package org.typemeta.funcj.parser;
+
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.*;
+import org.openjdk.jmh.runner.options.*;
+import org.typemeta.funcj.data.Chr;
+
+import static org.typemeta.funcj.parser.Text.chr;
+
+/**
+ * Measures a grammar whose alternatives share a common prefix, and so require backtracking:
+ * <pre>
+ * S = '(' S ')' 'x' / '(' S ')' 'y' / 'a'
+ * </pre>
+ * Without memoisation the time taken is exponential in the nesting depth,
+ * whereas with memoisation it is linear.
+ */
+@State(Scope.Benchmark)
+public class JmhMemoTest {
+
+    @Param({"8", "16"})
+    public int depth;
+
+    private String text;
+
+    private static final Parser<Chr, Integer> backtracking = grammar(false);
+
+    private static final Parser<Chr, Integer> memoised = grammar(true);
+
+    private static Parser<Chr, Integer> grammar(boolean memo) {
+        final Ref<Chr, Integer> s = Parser.ref();
+        final Parser<Chr, Integer> sm = memo ? s.memo() : s;
+        final Parser<Chr, Integer> nested = chr('(').andR(sm).andL(chr(')')).map(n -> n + 1);
+        s.set(
+                nested.andL(chr('x'))
+                        .orElse(nested.andL(chr('y')))
+                        .orElse(chr('a').map(c -> 0))
+        );
+        return s;
+    }
+
+    @Setup
+    public void setup() {
+        final StringBuilder sb = new StringBuilder();
+        for (int i = 0; i < depth; ++i) {
+            sb.append('(');
+        }
+        sb.append('a');
+        for (int i = 0; i < depth; ++i) {
+            sb.append(")y");
+        }
+        text = sb.toString();
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.Throughput)
+    public Integer backtracking() {
+        return backtracking.parse(Input.of(text)).getOrThrow();
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.Throughput)
+    public Integer memoised() {
+        return memoised.parse(Input.of(text)).getOrThrow();
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        final Options opt = new OptionsBuilder()
+                .include(JmhMemoTest.class.getSimpleName())
+                .warmupIterations(5)
+                .measurementIterations(5)
+                .forks(1)
+                .build();
+
+        new Runner(opt).run();
+    }
+}
@@ -0,0 +1,65 @@
+package org.typemeta.funcj.parser;
+
+import org.junit.Test;
+import org.typemeta.funcj.data.Chr;
+
+import static org.junit.Assert.*;
+
+public class MemoTableTest {
+
+    private static MemoTable.Entry entry(int id, int offset) {
+        final Input<Chr> in = Input.of("abcd");
+        return new MemoTable.Entry(id, offset, Result.success(id, ((SeekableInput<Chr>)in).seek(offset)));
+    }
+
+    @Test
+    public void testByOffsetSparseIds() {
+        final MemoTable table = new MemoTable.ByOffset(4);
+        final int[] ids = {0, 1, 8, 16, 1000000, -1, Integer.MAX_VALUE, Integer.MIN_VALUE};
+        for (int id : ids) {
+            table.put(entry(id, 4));
+        }
+
+        for (int id : ids) {
+            final MemoTable.Entry entry = table.get(id, 4);
+            assertNotNull(entry);
+            assertEquals(id, entry.id);
+            assertNull(table.get(id, 0));
+        }
+
+        assertNull(table.get(2, 4));
+        assertNull(table.get(1000001, 4));
+    }
+
+    @Test
+    public void testByOffsetManyIds() {
+        final MemoTable table = new MemoTable.ByOffset(4);
+        final int base = 123456789;
+        for (int i = 0; i < 100; ++i) {
+            table.put(entry(base + i, i % 5));
+        }
+
+        for (int i = 0; i < 100; ++i) {
+            assertEquals(base + i, table.get(base + i, i % 5).id);
+            assertNull(table.get(base + i, (i + 1) % 5));
+        }
+    }
+
+    @Test
+    public void testByOffsetPages() {
+        final int length = 1000;
+        final MemoTable table = new MemoTable.ByOffset(length);
+        final int[] offsets = {0, 255, 256, 511, 512, length};
+        for (int offset : offsets) {
+            table.put(new MemoTable.Entry(1, offset, Result.success(offset, new StringInput(new char[length]).seek(offset))));
+        }
+
+        for (int offset : offsets) {
+            assertEquals(offset, table.get(1, offset).offset);
+            assertEquals(offset, table.get(1, offset).end);
+        }
+        assertNull(table.get(1, 1));
+        assertNull(table.get(1, 257));
+        assertNull(table.get(1, 768));
+    }
+}
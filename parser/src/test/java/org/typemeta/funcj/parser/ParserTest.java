@@ -8,8 +8,13 @@
 import org.typemeta.funcj.functions.Functions.*;
 import org.typemeta.funcj.tuples.Tuple2;
 
+import java.io.StringReader;
+import java.util.concurrent.atomic.AtomicInteger;
+
 import static org.hamcrest.CoreMatchers.not;
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
 import static org.typemeta.funcj.parser.Combinators.*;
 import static org.typemeta.funcj.parser.Parser.ap;
 import static org.typemeta.funcj.parser.Text.intr;
@@ -260,4 +265,136 @@ public void testChainr1() {
         assertEvaluate(parser, "1-2", -1);
         assertEvaluate(parser, "1-2-3", 1-(2-3));
     }
+
+    @Test
+    public void testOrElseBacktracks() {
+        final Parser<Chr, String> parser = Text.string("ab").orElse(Text.string("ac"));
+
+        assertFalse(Text.string("ab").or(Text.string("ac")).parse(Input.of("ac")).isSuccess());
+        assertEquals("ab", parser.parse(Input.of("ab")).getOrThrow());
+        assertEquals("ac", parser.parse(Input.of("ac")).getOrThrow());
+        assertEquals("ac", parser.parse(Input.of(new StringReader("ac"))).getOrThrow());
+        assertFalse(parser.parse(Input.of("ad")).isSuccess());
+    }
+
+    @Test
+    public void testMemoAppliesOnce() {
+        final AtomicInteger count = new AtomicInteger();
+        final Parser<Chr, Chr> a = Text.chr('a').map(c -> {count.incrementAndGet(); return c;});
+        final Parser<Chr, Chr> ma = a.memo();
+
+        final Parser<Chr, Chr> parser = ma.andL(Text.chr('x')).orElse(ma.andL(Text.chr('y')));
+        assertEquals(Chr.valueOf('a'), parser.parse(Input.of("ay")).getOrThrow());
+        assertEquals(1, count.get());
+
+        count.set(0);
+        assertEquals(Chr.valueOf('a'), parser.parse(Input.of(new StringReader("ay"))).getOrThrow());
+        assertEquals(1, count.get());
+
+        count.set(0);
+        final Parser<Chr, Chr> unmemoised = a.andL(Text.chr('x')).orElse(a.andL(Text.chr('y')));
+        assertEquals(Chr.valueOf('a'), unmemoised.parse(Input.of("ay")).getOrThrow());
+        assertEquals(2, count.get());
+    }
+
+    @Test
+    public void testMemoReplaysFailure() {
+        final Parser<Chr, String> ab = Text.string("ab").memo();
+        final Parser<Chr, String> parser = ab.orElse(ab).orElse(Text.string("ac"));
+
+        assertEquals("ac", parser.parse(Input.of("ac")).getOrThrow());
+        final Result<Chr, String> r = ab.orElse(ab).parse(Input.of("ac"));
+        assertFalse(r.isSuccess());
+        assertEquals(1, ((Result.Failure<Chr, String>)r).input().position());
+    }
+
+    @Test
+    public void testOrElseBacktracksAcrossReaderBlocks() {
+        final int n = 20000;
+        final StringBuilder sb = new StringBuilder();
+        for (int i = 0; i < n; ++i) {
+            sb.append('a');
+        }
+        sb.append('y');
+
+        final Parser<Chr, Integer> as = Text.chr('a').many().map(IList::size).memo();
+        final Parser<Chr, Integer> parser = as.andL(Text.chr('x')).orElse(as.andL(Text.chr('y')));
+
+        assertEquals(n, parser.parse(Input.of(new StringReader(sb.toString()))).getOrThrow().intValue());
+    }
+
+    // An input over a string, which is either seekable or not.
+    private static class CustomInput implements Input<Chr> {
+        final String s;
+        final int pos;
+
+        CustomInput(String s, int pos) {
+            this.s = s;
+            this.pos = pos;
+        }
+
+        @Override
+        public boolean isEof() {
+            return pos >= s.length();
+        }
+
+        @Override
+        public Chr get() {
+            return Chr.valueOf(s.charAt(pos));
+        }
+
+        @Override
+        public Input<Chr> next() {
+            return new CustomInput(s, pos + 1);
+        }
+
+        @Override
+        public Object position() {
+            return pos;
+        }
+    }
+
+    private static class CustomSeekableInput extends CustomInput implements SeekableInput<Chr> {
+        CustomSeekableInput(String s, int pos) {
+            super(s, pos);
+        }
+
+        @Override
+        public Input<Chr> next() {
+            return new CustomSeekableInput(s, pos + 1);
+        }
+
+        @Override
+        public int offset() {
+            return pos;
+        }
+
+        @Override
+        public SeekableInput<Chr> seek(int offset) {
+            return new CustomSeekableInput(s, offset);
+        }
+
+        @Override
+        public int retain(int offset) {
+            return 0;
+        }
+
+        @Override
+        public void release(int retained) {
+        }
+    }
+
+    @Test
+    public void testOrElseCustomInput() {
+        final Parser<Chr, String> parser = Text.string("ab").orElse(Text.string("ac"));
+
+        assertEquals("ac", parser.parse(new CustomSeekableInput("ac", 0)).getOrThrow());
+        assertEquals("ab", parser.parse(new CustomSeekableInput("ab", 0)).getOrThrow());
+
+        // Backtracking is not possible for an input which is not seekable, so the parser fails.
+        final Result<Chr, String> r = parser.parse(new CustomInput("ab", 0));
+        assertFalse(r.isSuccess());
+        assertTrue(r instanceof Result.FailureMessage);
+        assertEquals(0, ((Result.Failure<Chr, String>)r).input().position());
+    }
 }
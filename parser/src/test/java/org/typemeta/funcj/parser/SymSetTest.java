@@ -0,0 +1,53 @@
+package org.typemeta.funcj.parser;
+
+import com.pholser.junit.quickcheck.Property;
+import com.pholser.junit.quickcheck.runner.JUnitQuickcheck;
+import org.junit.runner.RunWith;
+import org.typemeta.funcj.data.Chr;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.*;
+
+@RunWith(JUnitQuickcheck.class)
+public class SymSetTest {
+
+    private static final SymSet<Chr> chrSet =
+            SymSet.value(Chr.valueOf('x'))
+                    .union(SymSet.pred("digit", Chr::isDigit))
+                    .union(SymSet.value(Chr.valueOf('中')));
+
+    @Property
+    public void compiledChrSetMatchesSource(char c) {
+        final SymSet<Chr> compiled = SymSet.compile(chrSet);
+        final Chr chr = Chr.valueOf(c);
+
+        // Test twice, to exercise both the uncached and cached paths.
+        assertEquals(chrSet.matches(chr), compiled.matches(chr));
+        assertEquals(chrSet.matches(chr), compiled.matches(chr));
+    }
+
+    @Property
+    public void compiledEnumSetMatchesSource(TimeUnit tu) {
+        final SymSet<Object> set =
+                SymSet.<Object>value(TimeUnit.SECONDS)
+                        .union(SymSet.value(TimeUnit.DAYS))
+                        .union(SymSet.pred("string", o -> o instanceof String));
+        final SymSet<Object> compiled = SymSet.compile(set);
+
+        assertEquals(set.matches(tu), compiled.matches(tu));
+        assertEquals(set.matches(tu), compiled.matches(tu));
+        assertTrue(compiled.matches("abc"));
+        assertFalse(compiled.matches(Chr.valueOf('x')));
+    }
+
+    @Property
+    public void unionWithCompiledSet(char c) {
+        final SymSet<Chr> compiled = SymSet.compile(chrSet);
+        final SymSet<Chr> union = SymSet.value(Chr.valueOf('y')).union(compiled);
+        final Chr chr = Chr.valueOf(c);
+
+        assertEquals(c == 'y' || chrSet.matches(chr), union.matches(chr));
+        assertEquals(chrSet.toString(), compiled.toString());
+    }
+}
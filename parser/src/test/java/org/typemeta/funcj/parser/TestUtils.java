@@ -1,6 +1,7 @@
 package org.typemeta.funcj.parser;
 
 import org.junit.Assert;
+import org.typemeta.funcj.functions.SideEffect;
 
 abstract class TestUtils {
 
@@ -36,7 +37,30 @@ void fails() {
         }
     }
 
+    /**
+     * Apply a check to the compiled parser, and then to the parser itself.
+     * As parsing may reposition an input, the input is restored to its original offset in between.
+     */
+    static <I, A> void checkCompiledThenInterpreted(Parser<I, A> p, Input<I> input, SideEffect.F2<Parser<I, A>, Input<I>> check) {
+        if (input instanceof SeekableInput) {
+            final SeekableInput<I> sin = (SeekableInput<I>)input;
+            final int offset = sin.offset();
+            check.apply(p.compile(), input);
+            // Seeking twice repositions both inputs of the alias pair, including the original input.
+            sin.seek(offset).seek(offset);
+        }
+        check.apply(p, input);
+    }
+
     static <I, A> void checkSuccess(Parser<I, A> p, Input<I> input, A expVal, Input<I> expInput) {
+        checkCompiledThenInterpreted(p, input, (q, in) -> checkSuccessImpl(q, in, expVal, expInput));
+    }
+
+    static <I, A> void checkFailure(Parser<I, A> p, Input<I> input) {
+        checkCompiledThenInterpreted(p, input, TestUtils::checkFailureImpl);
+    }
+
+    private static <I, A> void checkSuccessImpl(Parser<I, A> p, Input<I> input, A expVal, Input<I> expInput) {
         p.parse(input).handle(
                 succ -> {
                     Assert.assertEquals("Parse result value", expVal, succ.value());
@@ -48,7 +72,7 @@ static <I, A> void checkSuccess(Parser<I, A> p, Input<I> input, A expVal, Input<
         );
     }
 
-    static <I, A> void checkFailure(Parser<I, A> p, Input<I> input) {
+    private static <I, A> void checkFailureImpl(Parser<I, A> p, Input<I> input) {
         p.parse(input).handle(
                 succ -> {
                     throw new RuntimeException("Unexpected parse success : " + succ);
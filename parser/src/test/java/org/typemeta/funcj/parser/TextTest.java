@@ -55,6 +55,21 @@ public void testWs(char c) {
         assertEquals("ws parser applied to " + c, Character.isWhitespace(c), res.isSuccess());
     }
 
+    @Property
+    public void testSatisfyChar(char c) {
+        final Parser<Chr, Chr> p = Text.satisfyChar("upper", Character::isUpperCase);
+        final Result<Chr, Chr> res = p.parse(Input.of("" + c));
+        assertEquals("satisfyChar parser applied to " + c, Character.isUpperCase(c), res.isSuccess());
+    }
+
+    @Property
+    public void testTakeWhile1(String s) {
+        assumeFalse(s.isEmpty() || s.indexOf(';') != -1);
+        final Parser<Chr, String> p = Text.takeWhile1("notSemi", c -> c != ';');
+        parseSuccess(p.andL(Text.chr(';')), s + ';', s);
+        assertFalse(p.parse(Input.of(";" + s)).isSuccess());
+    }
+
     @Property
     public void testIntr(int i) {
         {